@@ -0,0 +1,156 @@
+package cn.lance.crypto;
+
+import org.apache.commons.codec.DecoderException;
+
+import javax.crypto.Cipher;
+import java.security.GeneralSecurityException;
+import java.security.InvalidAlgorithmParameterException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * AES批量加解密
+ *
+ * @implNote 输入按数量切分给多个工作线程（{@link ForkJoinPool#commonPool()}），
+ * 每个工作线程只借出并初始化一次 {@link Cipher}，之后对分到的每个元素直接 {@code doFinal}；
+ * ECB/CBC模式在 {@code doFinal} 之后自动复位到初始化状态，因此同一密钥和初始向量下无需重复初始化。
+ * 结果按输入顺序返回
+ */
+final class AesBatch {
+
+    /**
+     * 每个工作线程至少处理的元素数，批次较小时不拆分
+     */
+    private final static int MIN_CHUNK_SIZE = 512;
+
+    private AesBatch() {
+    }
+
+    /**
+     * 提供已初始化的 {@link Cipher}
+     */
+    interface CipherSource {
+
+        Cipher open() throws InvalidAlgorithmParameterException;
+
+        void close(Cipher cipher);
+
+    }
+
+    /**
+     * 使用已初始化的 {@link Cipher} 处理单个元素
+     */
+    interface CipherFunction<T, R> {
+
+        R apply(Cipher cipher, T input) throws GeneralSecurityException, DecoderException;
+
+    }
+
+    /**
+     * 并行批量处理，结果与输入顺序一致
+     *
+     * @param inputs   输入
+     * @param source   Cipher来源
+     * @param function 处理函数
+     * @return 结果
+     */
+    static <T, R> List<R> map(List<T> inputs, CipherSource source, CipherFunction<T, R> function) throws GeneralSecurityException, DecoderException {
+        Objects.requireNonNull(inputs, "inputs must not be null");
+
+        int size = inputs.size();
+        int chunks = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() + 1, size / MIN_CHUNK_SIZE));
+        int chunkSize = (size + chunks - 1) / chunks;
+
+        @SuppressWarnings("unchecked")
+        R[] results = (R[]) new Object[size];
+        if (chunks == 1) {
+            process(inputs, 0, size, source, function, results);
+        } else {
+            try {
+                IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                    try {
+                        process(inputs, chunk * chunkSize, Math.min(size, (chunk + 1) * chunkSize), source, function, results);
+                    } catch (GeneralSecurityException | DecoderException e) {
+                        throw new BatchException(e);
+                    }
+                });
+            } catch (BatchException e) {
+                if (e.getCause() instanceof GeneralSecurityException cause) {
+                    throw cause;
+                }
+                throw (DecoderException) e.getCause();
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * 惰性逐个处理，整个迭代过程只使用一个 {@link Cipher}，迭代结束后归还
+     *
+     * @param inputs   输入
+     * @param source   Cipher来源
+     * @param function 处理函数
+     * @return 结果迭代器，处理失败时抛出 {@link IllegalStateException}
+     */
+    static <T, R> Iterator<R> map(Iterator<T> inputs, CipherSource source, CipherFunction<T, R> function) {
+        Objects.requireNonNull(inputs, "inputs must not be null");
+
+        return new Iterator<>() {
+
+            private Cipher cipher;
+
+            @Override
+            public boolean hasNext() {
+                boolean hasNext = inputs.hasNext();
+                if (!hasNext && cipher != null) {
+                    source.close(cipher);
+                    cipher = null;
+                }
+                return hasNext;
+            }
+
+            @Override
+            public R next() {
+                if (!inputs.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                T input = inputs.next();
+                try {
+                    if (cipher == null) {
+                        cipher = source.open();
+                    }
+                    return function.apply(cipher, input);
+                } catch (GeneralSecurityException | DecoderException e) {
+                    // Cipher状态未知，不再归还
+                    cipher = null;
+                    throw new IllegalStateException(e);
+                }
+            }
+
+        };
+    }
+
+    private static <T, R> void process(List<T> inputs, int from, int to, CipherSource source, CipherFunction<T, R> function, R[] results) throws GeneralSecurityException, DecoderException {
+        Cipher cipher = source.open();
+        for (int i = from; i < to; i++) {
+            results[i] = function.apply(cipher, inputs.get(i));
+        }
+        source.close(cipher);
+    }
+
+    private static final class BatchException extends RuntimeException {
+
+        private final static long serialVersionUID = 1L;
+
+        private BatchException(Exception cause) {
+            super(cause);
+        }
+
+    }
+
+}
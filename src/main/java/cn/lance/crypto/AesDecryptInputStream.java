@@ -0,0 +1,213 @@
+package cn.lance.crypto;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * AES分段解密输入流
+ *
+ * @implNote 每次读取并认证一整段，只有认证通过的原文才会返回给调用方；
+ * 通过预读1字节判断当前段是否为末段，因此截断的密文在读到末尾时会认证失败。容器格式见 {@link AesSegmentFormat}。
+ * 容器标记为压缩时，解密后的段直接送入 {@link Inflater}，返回解压后的原文
+ */
+public class AesDecryptInputStream extends FilterInputStream {
+
+    private final AesKey key;
+
+    private AesSegmentFormat format;
+
+    private byte[] cipherBuffer;
+
+    private byte[] plainBuffer;
+
+    private Inflater inflater;
+
+    private byte[] inflateBuffer;
+
+    /**
+     * 当前可读的缓冲区（未压缩时为解密后的段，压缩时为解压结果）
+     */
+    private byte[] buffer;
+
+    private int position;
+
+    private int limit;
+
+    private long segmentIndex;
+
+    /**
+     * 预读的下一段首字节，-1表示没有预读
+     */
+    private int lookahead = -1;
+
+    private boolean finished;
+
+    /**
+     * @param key AES密钥句柄
+     * @param in  密文输入流
+     */
+    public AesDecryptInputStream(AesKey key, InputStream in) {
+        super(Objects.requireNonNull(in, "in must not be null"));
+        this.key = Objects.requireNonNull(key, "key must not be null");
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return buffer[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+
+        int n = Math.min(len, limit - position);
+        System.arraycopy(buffer, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n && fill()) {
+            int step = (int) Math.min(n - skipped, limit - position);
+            position += step;
+            skipped += step;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return limit - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            if (inflater != null) {
+                inflater.end();
+            }
+        }
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    /**
+     * 当前缓冲区读完时解密下一段（压缩时先解压已解密的数据）
+     *
+     * @return true=有可读数据 false=已读完
+     */
+    private boolean fill() throws IOException {
+        while (position == limit) {
+            if (inflater == null) {
+                if (finished) {
+                    return false;
+                }
+                int length = readSegment();
+                if (inflater == null) {
+                    buffer = plainBuffer;
+                    position = 0;
+                    limit = length;
+                } else {
+                    inflater.setInput(plainBuffer, 0, length);
+                }
+            } else if (inflater.finished()) {
+                // 压缩流结束后不应再有数据，仍需读到末段完成截断检查
+                if (inflater.getRemaining() > 0) {
+                    throw new IOException("unexpected data after compressed stream");
+                }
+                while (!finished) {
+                    if (readSegment() > 0) {
+                        throw new IOException("unexpected data after compressed stream");
+                    }
+                }
+                return false;
+            } else if (inflater.needsInput()) {
+                if (finished) {
+                    throw new EOFException("truncated compressed stream");
+                }
+                inflater.setInput(plainBuffer, 0, readSegment());
+            } else {
+                inflate();
+            }
+        }
+        return true;
+    }
+
+    private void inflate() throws IOException {
+        try {
+            limit = inflater.inflate(inflateBuffer);
+        } catch (DataFormatException e) {
+            throw new IOException("corrupt compressed stream", e);
+        }
+        if (limit == 0 && inflater.needsDictionary()) {
+            throw new IOException("corrupt compressed stream");
+        }
+        buffer = inflateBuffer;
+        position = 0;
+    }
+
+    /**
+     * 读取并解密下一段
+     *
+     * @return 段原文长度
+     */
+    private int readSegment() throws IOException {
+        if (format == null) {
+            format = AesSegmentFormat.parse(in.readNBytes(AesSegmentFormat.HEADER_LENGTH));
+            cipherBuffer = new byte[format.encryptedSegmentSize()];
+            plainBuffer = new byte[format.segmentSize()];
+            if (format.compressed()) {
+                inflater = new Inflater();
+                inflateBuffer = new byte[format.segmentSize()];
+            }
+        }
+
+        int length = 0;
+        if (lookahead >= 0) {
+            cipherBuffer[length++] = (byte) lookahead;
+            lookahead = -1;
+        }
+        length += in.readNBytes(cipherBuffer, length, cipherBuffer.length - length);
+
+        boolean last = length < cipherBuffer.length;
+        if (!last) {
+            lookahead = in.read();
+            last = lookahead < 0;
+        }
+
+        int plainLength = format.decryptSegment(key, segmentIndex++, last, cipherBuffer, 0, length, plainBuffer, 0);
+        finished = last;
+        return plainLength;
+    }
+
+}
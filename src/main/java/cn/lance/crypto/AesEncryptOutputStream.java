@@ -0,0 +1,122 @@
+package cn.lance.crypto;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+/**
+ * AES分段加密输出流
+ *
+ * @implNote 写入的数据按段缓存，满一段且有后续数据时才加密输出，{@link #close()} 时输出末段；
+ * 内存占用固定为两段大小，与数据总量无关。容器格式见 {@link AesSegmentFormat}
+ */
+public class AesEncryptOutputStream extends FilterOutputStream {
+
+    private final AesKey key;
+
+    private final AesSegmentFormat format;
+
+    private final byte[] plainBuffer;
+
+    private final byte[] cipherBuffer;
+
+    private int buffered;
+
+    private long segmentIndex;
+
+    private boolean headerWritten;
+
+    private boolean closed;
+
+    /**
+     * @param key AES密钥句柄
+     * @param out 密文输出流
+     */
+    public AesEncryptOutputStream(AesKey key, OutputStream out) {
+        this(key, out, AesSegmentFormat.DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * @param key         AES密钥句柄
+     * @param out         密文输出流
+     * @param segmentSize 每段原文长度（1KiB ~ 64MiB）
+     */
+    public AesEncryptOutputStream(AesKey key, OutputStream out, int segmentSize) {
+        this(key, out, AesSegmentFormat.create(segmentSize, 0));
+    }
+
+    AesEncryptOutputStream(AesKey key, OutputStream out, AesSegmentFormat format) {
+        super(Objects.requireNonNull(out, "out must not be null"));
+        this.key = Objects.requireNonNull(key, "key must not be null");
+        this.format = format;
+        this.plainBuffer = new byte[format.segmentSize()];
+        this.cipherBuffer = new byte[format.encryptedSegmentSize()];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (buffered == plainBuffer.length) {
+            flushSegment(false);
+        }
+        plainBuffer[buffered++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        ensureOpen();
+
+        while (len > 0) {
+            if (buffered == plainBuffer.length) {
+                flushSegment(false);
+            }
+            int n = Math.min(len, plainBuffer.length - buffered);
+            System.arraycopy(b, off, plainBuffer, buffered, n);
+            buffered += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * 只刷新底层输出流，未满一段的数据仍保留在缓冲区中
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flushSegment(true);
+            out.flush();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void flushSegment(boolean last) throws IOException {
+        if (!headerWritten) {
+            out.write(format.header());
+            headerWritten = true;
+        }
+        int length = format.encryptSegment(key, segmentIndex++, last, plainBuffer, 0, buffered, cipherBuffer, 0);
+        out.write(cipherBuffer, 0, length);
+        buffered = 0;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("stream closed");
+        }
+    }
+
+}
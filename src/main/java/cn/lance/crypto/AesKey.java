@@ -0,0 +1,567 @@
+package cn.lance.crypto;
+
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+
+import javax.crypto.BadPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * AES密钥句柄
+ *
+ * @implNote 密钥只解码一次，{@link Cipher} 实例按 transformation 池化复用，线程安全；
+ * ECB模式的 {@link Cipher} 在创建时完成初始化，{@code doFinal} 之后自动复位，复用时无需再次初始化
+ */
+public final class AesKey {
+
+    private final static String ALGORITHM = "AES";
+
+    /**
+     * algorithm/mode/padding，完整写出模式和填充，不依赖各Provider对 {@code "AES"} 的默认解释
+     */
+    final static String TRANSFORMATION_ECB = "AES/ECB/PKCS5Padding";
+
+    final static String TRANSFORMATION_CBC = "AES/CBC/PKCS5Padding";
+
+    final static String TRANSFORMATION_GCM = "AES/GCM/NoPadding";
+
+    private final static String HKDF_ALGORITHM = "HmacSHA256";
+
+    /**
+     * GCM初始向量长度（字节），96位为推荐长度
+     */
+    public final static int GCM_IV_LENGTH = 12;
+
+    /**
+     * GCM认证标签长度（字节）
+     */
+    public final static int GCM_TAG_LENGTH = 16;
+
+    /**
+     * 一次性密钥共用的GCM实例池，每次使用前按密钥重新初始化
+     */
+    private final static InstancePool<Cipher> ONE_SHOT_GCM_POOL = new InstancePool<>(() -> newCipher(TRANSFORMATION_GCM));
+
+    private final SecretKeySpec secretKeySpec;
+
+    private final InstancePool<Cipher> ecbEncryptPool;
+
+    private final InstancePool<Cipher> ecbDecryptPool;
+
+    private final ConcurrentMap<String, InstancePool<Cipher>> pools = new ConcurrentHashMap<>();
+
+    private AesKey(byte[] key) throws InvalidKeyException {
+        if (key.length != 16 && key.length != 24 && key.length != 32) {
+            throw new InvalidKeyException("Invalid AES key length: " + key.length + " bytes");
+        }
+        this.secretKeySpec = new SecretKeySpec(key, ALGORITHM);
+
+        // 提前初始化一次，非法密钥在此处抛出，之后池内创建实例时不会再失败
+        Cipher cipher = newCipher(TRANSFORMATION_ECB);
+        cipher.init(Cipher.ENCRYPT_MODE, secretKeySpec);
+
+        this.ecbEncryptPool = new InstancePool<>(() -> newInitializedCipher(Cipher.ENCRYPT_MODE));
+        this.ecbDecryptPool = new InstancePool<>(() -> newInitializedCipher(Cipher.DECRYPT_MODE));
+        this.ecbEncryptPool.release(cipher);
+    }
+
+    /**
+     * 创建AES密钥句柄
+     *
+     * @param key 密钥（16/24/32字节）
+     * @return AES密钥句柄
+     */
+    public static AesKey of(byte[] key) throws InvalidKeyException {
+        Objects.requireNonNull(key, "key must not be null");
+
+        return new AesKey(key.clone());
+    }
+
+    /**
+     * 创建AES密钥句柄
+     *
+     * @param key 密钥（十六进制）
+     * @return AES密钥句柄
+     */
+    public static AesKey ofHex(String key) throws DecoderException, InvalidKeyException {
+        Objects.requireNonNull(key, "key must not be null");
+
+        return new AesKey(Hex.decodeHex(key));
+    }
+
+    /**
+     * AES加密（ECB模式）
+     *
+     * @param plaintext 原文
+     * @return 密文
+     */
+    public byte[] encrypt(byte[] plaintext) throws IllegalBlockSizeException, BadPaddingException {
+        Objects.requireNonNull(plaintext, "plaintext must not be null");
+
+        Cipher cipher = ecbEncryptPool.borrow();
+        byte[] bytes = cipher.doFinal(plaintext);
+        ecbEncryptPool.release(cipher);
+        return bytes;
+    }
+
+    /**
+     * AES解密（ECB模式）
+     *
+     * @param ciphertext 密文
+     * @return 原文
+     */
+    public byte[] decrypt(byte[] ciphertext) throws IllegalBlockSizeException, BadPaddingException {
+        Objects.requireNonNull(ciphertext, "ciphertext must not be null");
+
+        // 抛出异常时实例直接丢弃，不归还到池中
+        Cipher cipher = ecbDecryptPool.borrow();
+        byte[] bytes = cipher.doFinal(ciphertext);
+        ecbDecryptPool.release(cipher);
+        return bytes;
+    }
+
+    /**
+     * AES加密（CBC模式）
+     *
+     * @param iv        初始向量（16字节）
+     * @param plaintext 原文
+     * @return 密文
+     */
+    public byte[] encrypt(byte[] iv, byte[] plaintext) throws InvalidAlgorithmParameterException, IllegalBlockSizeException, BadPaddingException {
+        Objects.requireNonNull(iv, "iv must not be null");
+        Objects.requireNonNull(plaintext, "plaintext must not be null");
+
+        return doFinal(TRANSFORMATION_CBC, Cipher.ENCRYPT_MODE, iv, plaintext);
+    }
+
+    /**
+     * AES解密（CBC模式）
+     *
+     * @param iv         初始向量（16字节）
+     * @param ciphertext 密文
+     * @return 原文
+     */
+    public byte[] decrypt(byte[] iv, byte[] ciphertext) throws InvalidAlgorithmParameterException, IllegalBlockSizeException, BadPaddingException {
+        Objects.requireNonNull(iv, "iv must not be null");
+        Objects.requireNonNull(ciphertext, "ciphertext must not be null");
+
+        return doFinal(TRANSFORMATION_CBC, Cipher.DECRYPT_MODE, iv, ciphertext);
+    }
+
+    /**
+     * AES批量加密（ECB模式），大批量时并行处理
+     *
+     * @param plaintexts 原文列表
+     * @return 密文列表（与输入顺序一致）
+     */
+    public List<byte[]> encrypt(List<byte[]> plaintexts) throws IllegalBlockSizeException, BadPaddingException {
+        try {
+            return AesBatch.map(plaintexts, ecbSource(Cipher.ENCRYPT_MODE), Cipher::doFinal);
+        } catch (IllegalBlockSizeException | BadPaddingException e) {
+            throw e;
+        } catch (GeneralSecurityException | DecoderException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * AES批量解密（ECB模式），大批量时并行处理
+     *
+     * @param ciphertexts 密文列表
+     * @return 原文列表（与输入顺序一致）
+     */
+    public List<byte[]> decrypt(List<byte[]> ciphertexts) throws IllegalBlockSizeException, BadPaddingException {
+        try {
+            return AesBatch.map(ciphertexts, ecbSource(Cipher.DECRYPT_MODE), Cipher::doFinal);
+        } catch (IllegalBlockSizeException | BadPaddingException e) {
+            throw e;
+        } catch (GeneralSecurityException | DecoderException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * AES批量加密（CBC模式），大批量时并行处理
+     *
+     * @param iv         初始向量（16字节）
+     * @param plaintexts 原文列表
+     * @return 密文列表（与输入顺序一致）
+     */
+    public List<byte[]> encrypt(byte[] iv, List<byte[]> plaintexts) throws InvalidAlgorithmParameterException, IllegalBlockSizeException, BadPaddingException {
+        try {
+            return AesBatch.map(plaintexts, cbcSource(Cipher.ENCRYPT_MODE, iv), Cipher::doFinal);
+        } catch (InvalidAlgorithmParameterException | IllegalBlockSizeException | BadPaddingException e) {
+            throw e;
+        } catch (GeneralSecurityException | DecoderException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * AES批量解密（CBC模式），大批量时并行处理
+     *
+     * @param iv          初始向量（16字节）
+     * @param ciphertexts 密文列表
+     * @return 原文列表（与输入顺序一致）
+     */
+    public List<byte[]> decrypt(byte[] iv, List<byte[]> ciphertexts) throws InvalidAlgorithmParameterException, IllegalBlockSizeException, BadPaddingException {
+        try {
+            return AesBatch.map(ciphertexts, cbcSource(Cipher.DECRYPT_MODE, iv), Cipher::doFinal);
+        } catch (InvalidAlgorithmParameterException | IllegalBlockSizeException | BadPaddingException e) {
+            throw e;
+        } catch (GeneralSecurityException | DecoderException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 计算GCM加密后的长度（密文 + 认证标签），用于提前分配或从池中获取输出缓冲区
+     *
+     * @param plaintextLength 原文长度
+     * @return 密文长度
+     */
+    public static int gcmEncryptedSize(int plaintextLength) {
+        if (plaintextLength < 0) {
+            throw new IllegalArgumentException("plaintextLength must not be negative");
+        }
+        return Math.addExact(plaintextLength, GCM_TAG_LENGTH);
+    }
+
+    /**
+     * 计算GCM解密后的长度
+     *
+     * @param ciphertextLength 密文长度（含认证标签）
+     * @return 原文长度
+     */
+    public static int gcmDecryptedSize(int ciphertextLength) {
+        if (ciphertextLength < GCM_TAG_LENGTH) {
+            throw new IllegalArgumentException("ciphertextLength must not be less than " + GCM_TAG_LENGTH);
+        }
+        return ciphertextLength - GCM_TAG_LENGTH;
+    }
+
+    /**
+     * AES加密（GCM模式）
+     *
+     * @param iv        初始向量（同一密钥下不可重复，推荐12字节随机数）
+     * @param plaintext 原文
+     * @return 密文（含16字节认证标签）
+     */
+    public byte[] encryptGcm(byte[] iv, byte[] plaintext) throws InvalidAlgorithmParameterException, IllegalBlockSizeException, BadPaddingException {
+        Objects.requireNonNull(plaintext, "plaintext must not be null");
+
+        byte[] output = new byte[gcmEncryptedSize(plaintext.length)];
+        try {
+            encryptGcm(iv, null, plaintext, 0, plaintext.length, output, 0);
+        } catch (ShortBufferException e) {
+            throw new RuntimeException(e);
+        }
+        return output;
+    }
+
+    /**
+     * AES解密（GCM模式）
+     *
+     * @param iv         初始向量
+     * @param ciphertext 密文（含16字节认证标签）
+     * @return 原文
+     * @throws javax.crypto.AEADBadTagException 认证失败
+     */
+    public byte[] decryptGcm(byte[] iv, byte[] ciphertext) throws InvalidAlgorithmParameterException, IllegalBlockSizeException, BadPaddingException {
+        Objects.requireNonNull(ciphertext, "ciphertext must not be null");
+
+        byte[] output = new byte[gcmDecryptedSize(ciphertext.length)];
+        try {
+            decryptGcm(iv, null, ciphertext, 0, ciphertext.length, output, 0);
+        } catch (ShortBufferException e) {
+            throw new RuntimeException(e);
+        }
+        return output;
+    }
+
+    /**
+     * AES加密（GCM模式），结果写入调用方提供的缓冲区
+     *
+     * @param iv           初始向量（同一密钥下不可重复）
+     * @param aad          附加认证数据，可为null
+     * @param input        原文缓冲区
+     * @param inputOffset  原文起始位置
+     * @param inputLength  原文长度
+     * @param output       输出缓冲区，剩余空间不小于 {@link #gcmEncryptedSize(int)}，可与输入为同一数组
+     * @param outputOffset 输出起始位置
+     * @return 写入的字节数
+     */
+    public int encryptGcm(byte[] iv, byte[] aad, byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset)
+            throws InvalidAlgorithmParameterException, ShortBufferException, IllegalBlockSizeException, BadPaddingException {
+        Objects.requireNonNull(input, "input must not be null");
+        Objects.requireNonNull(output, "output must not be null");
+
+        Cipher cipher = initGcm(Cipher.ENCRYPT_MODE, iv, aad);
+        int length = cipher.doFinal(input, inputOffset, inputLength, output, outputOffset);
+        release(TRANSFORMATION_GCM, cipher);
+        return length;
+    }
+
+    /**
+     * 只使用一次的密钥的AES加密（GCM模式），如信封加密中每条记录的数据密钥；
+     * 不创建密钥句柄和ECB实例池，GCM实例从一次性密钥共用的池中借出
+     *
+     * @param key          密钥（16/24/32字节）
+     * @param iv           初始向量
+     * @param aad          附加认证数据，可为null
+     * @param input        原文缓冲区
+     * @param inputOffset  原文起始位置
+     * @param inputLength  原文长度
+     * @param output       输出缓冲区，剩余空间不小于 {@link #gcmEncryptedSize(int)}
+     * @param outputOffset 输出起始位置
+     * @return 写入的字节数
+     */
+    static int encryptGcmOnce(byte[] key, byte[] iv, byte[] aad, byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset)
+            throws InvalidKeyException, InvalidAlgorithmParameterException, ShortBufferException, IllegalBlockSizeException, BadPaddingException {
+        if (key.length != 16 && key.length != 24 && key.length != 32) {
+            throw new InvalidKeyException("Invalid AES key length: " + key.length + " bytes");
+        }
+        Objects.requireNonNull(iv, "iv must not be null");
+
+        // 抛出异常时实例直接丢弃，不归还到池中
+        Cipher cipher = ONE_SHOT_GCM_POOL.borrow();
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, ALGORITHM), new GCMParameterSpec(GCM_TAG_LENGTH * Byte.SIZE, iv));
+        if (aad != null) {
+            cipher.updateAAD(aad);
+        }
+        int length = cipher.doFinal(input, inputOffset, inputLength, output, outputOffset);
+        ONE_SHOT_GCM_POOL.release(cipher);
+        return length;
+    }
+
+    /**
+     * AES解密（GCM模式），结果写入调用方提供的缓冲区
+     *
+     * @param iv           初始向量
+     * @param aad          附加认证数据，可为null
+     * @param input        密文缓冲区（含认证标签）
+     * @param inputOffset  密文起始位置
+     * @param inputLength  密文长度
+     * @param output       输出缓冲区，剩余空间不小于 {@link #gcmDecryptedSize(int)}，可与输入为同一数组
+     * @param outputOffset 输出起始位置
+     * @return 写入的字节数
+     * @throws javax.crypto.AEADBadTagException 认证失败
+     */
+    public int decryptGcm(byte[] iv, byte[] aad, byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset)
+            throws InvalidAlgorithmParameterException, ShortBufferException, IllegalBlockSizeException, BadPaddingException {
+        Objects.requireNonNull(input, "input must not be null");
+        Objects.requireNonNull(output, "output must not be null");
+
+        Cipher cipher = initGcm(Cipher.DECRYPT_MODE, iv, aad);
+        int length = cipher.doFinal(input, inputOffset, inputLength, output, outputOffset);
+        release(TRANSFORMATION_GCM, cipher);
+        return length;
+    }
+
+    /**
+     * AES加密（GCM模式），从 {@code input} 的 position 读取到 limit，写入 {@code output} 的 position
+     *
+     * @param iv     初始向量（同一密钥下不可重复）
+     * @param aad    附加认证数据，可为null
+     * @param input  原文（支持直接缓冲区）
+     * @param output 输出缓冲区，剩余空间不小于 {@link #gcmEncryptedSize(int)}，可与输入共享同一块内存
+     * @return 写入的字节数
+     */
+    public int encryptGcm(byte[] iv, byte[] aad, ByteBuffer input, ByteBuffer output)
+            throws InvalidAlgorithmParameterException, ShortBufferException, IllegalBlockSizeException, BadPaddingException {
+        Objects.requireNonNull(input, "input must not be null");
+        Objects.requireNonNull(output, "output must not be null");
+
+        Cipher cipher = initGcm(Cipher.ENCRYPT_MODE, iv, aad);
+        int length = cipher.doFinal(input, output);
+        release(TRANSFORMATION_GCM, cipher);
+        return length;
+    }
+
+    /**
+     * AES解密（GCM模式），从 {@code input} 的 position 读取到 limit，写入 {@code output} 的 position
+     *
+     * @param iv     初始向量
+     * @param aad    附加认证数据，可为null
+     * @param input  密文（含认证标签，支持直接缓冲区）
+     * @param output 输出缓冲区，剩余空间不小于 {@link #gcmDecryptedSize(int)}，可与输入共享同一块内存
+     * @return 写入的字节数
+     * @throws javax.crypto.AEADBadTagException 认证失败
+     */
+    public int decryptGcm(byte[] iv, byte[] aad, ByteBuffer input, ByteBuffer output)
+            throws InvalidAlgorithmParameterException, ShortBufferException, IllegalBlockSizeException, BadPaddingException {
+        Objects.requireNonNull(input, "input must not be null");
+        Objects.requireNonNull(output, "output must not be null");
+
+        Cipher cipher = initGcm(Cipher.DECRYPT_MODE, iv, aad);
+        int length = cipher.doFinal(input, output);
+        release(TRANSFORMATION_GCM, cipher);
+        return length;
+    }
+
+    /**
+     * ECB模式的 {@link Cipher} 来源，借出的实例已初始化
+     *
+     * @param mode {@link Cipher#ENCRYPT_MODE} / {@link Cipher#DECRYPT_MODE}
+     * @return Cipher来源
+     */
+    AesBatch.CipherSource ecbSource(int mode) {
+        InstancePool<Cipher> pool = mode == Cipher.ENCRYPT_MODE ? ecbEncryptPool : ecbDecryptPool;
+        return new AesBatch.CipherSource() {
+            @Override
+            public Cipher open() {
+                return pool.borrow();
+            }
+
+            @Override
+            public void close(Cipher cipher) {
+                pool.release(cipher);
+            }
+        };
+    }
+
+    /**
+     * CBC模式的 {@link Cipher} 来源，借出的实例已使用给定初始向量初始化
+     *
+     * @param mode {@link Cipher#ENCRYPT_MODE} / {@link Cipher#DECRYPT_MODE}
+     * @param iv   初始向量
+     * @return Cipher来源
+     */
+    AesBatch.CipherSource cbcSource(int mode, byte[] iv) {
+        Objects.requireNonNull(iv, "iv must not be null");
+
+        IvParameterSpec ivParameterSpec = new IvParameterSpec(iv);
+        return new AesBatch.CipherSource() {
+            @Override
+            public Cipher open() throws InvalidAlgorithmParameterException {
+                Cipher cipher = borrow(TRANSFORMATION_CBC);
+                init(cipher, mode, ivParameterSpec);
+                return cipher;
+            }
+
+            @Override
+            public void close(Cipher cipher) {
+                release(TRANSFORMATION_CBC, cipher);
+            }
+        };
+    }
+
+    /**
+     * 以当前密钥为输入密钥材料，用HKDF-SHA256派生等长的子密钥
+     *
+     * @param salt 盐
+     * @param info 上下文信息
+     * @return 子密钥句柄
+     */
+    AesKey derive(byte[] salt, byte[] info) {
+        byte[] master = secretKeySpec.getEncoded();
+        byte[] subkey = null;
+        try {
+            subkey = Hkdf.derive(HKDF_ALGORITHM, salt, master, info, master.length);
+            return new AesKey(subkey);
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            // HmacSHA256为JDK内置算法，子密钥长度与当前密钥相同
+            throw new RuntimeException(e);
+        } finally {
+            Arrays.fill(master, (byte) 0);
+            if (subkey != null) {
+                Arrays.fill(subkey, (byte) 0);
+            }
+        }
+    }
+
+    /**
+     * 借出指定 transformation 的 {@link Cipher}（未初始化或处于上一次使用后的状态，使用前需调用 {@code init}）
+     *
+     * @param transformation algorithm/mode/padding
+     * @return Cipher
+     */
+    Cipher borrow(String transformation) {
+        return pool(transformation).borrow();
+    }
+
+    /**
+     * 归还 {@link Cipher}，仅在操作正常完成后调用
+     *
+     * @param transformation algorithm/mode/padding
+     * @param cipher         Cipher
+     */
+    void release(String transformation, Cipher cipher) {
+        pool(transformation).release(cipher);
+    }
+
+    private byte[] doFinal(String transformation, int mode, byte[] iv, byte[] input) throws InvalidAlgorithmParameterException, IllegalBlockSizeException, BadPaddingException {
+        Cipher cipher = borrow(transformation);
+        init(cipher, mode, new IvParameterSpec(iv));
+        byte[] bytes = cipher.doFinal(input);
+        release(transformation, cipher);
+        return bytes;
+    }
+
+    /**
+     * 使用当前密钥初始化 {@link Cipher}
+     *
+     * @param cipher Cipher
+     * @param mode   {@link Cipher#ENCRYPT_MODE} / {@link Cipher#DECRYPT_MODE}
+     * @param spec   算法参数
+     */
+    void init(Cipher cipher, int mode, AlgorithmParameterSpec spec) throws InvalidAlgorithmParameterException {
+        try {
+            cipher.init(mode, secretKeySpec, spec);
+        } catch (InvalidKeyException e) {
+            // 密钥在构造时已校验
+            throw new RuntimeException(e);
+        }
+    }
+
+    private Cipher initGcm(int mode, byte[] iv, byte[] aad) throws InvalidAlgorithmParameterException {
+        Objects.requireNonNull(iv, "iv must not be null");
+
+        Cipher cipher = borrow(TRANSFORMATION_GCM);
+        init(cipher, mode, new GCMParameterSpec(GCM_TAG_LENGTH * Byte.SIZE, iv));
+        if (aad != null) {
+            cipher.updateAAD(aad);
+        }
+        return cipher;
+    }
+
+    private InstancePool<Cipher> pool(String transformation) {
+        return pools.computeIfAbsent(transformation, t -> new InstancePool<>(() -> newCipher(t)));
+    }
+
+    private Cipher newInitializedCipher(int mode) {
+        Cipher cipher = newCipher(TRANSFORMATION_ECB);
+        try {
+            cipher.init(mode, secretKeySpec);
+        } catch (InvalidKeyException e) {
+            throw new RuntimeException(e);
+        }
+        return cipher;
+    }
+
+    private static Cipher newCipher(String transformation) {
+        try {
+            return CryptoProviders.cipher(transformation);
+        } catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
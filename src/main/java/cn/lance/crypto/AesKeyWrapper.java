@@ -0,0 +1,50 @@
+package cn.lance.crypto;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.util.Objects;
+
+/**
+ * AES Key Wrap（RFC 3394）
+ *
+ * @implNote 使用主密钥的 {@link AesKey} 句柄，{@link Cipher} 实例池化复用
+ */
+public class AesKeyWrapper implements KeyWrapper {
+
+    private final static String TRANSFORMATION = "AESWrap";
+
+    private final static String ALGORITHM = "AES";
+
+    private final AesKey masterKey;
+
+    /**
+     * @param masterKey 主密钥
+     */
+    public AesKeyWrapper(AesKey masterKey) {
+        this.masterKey = Objects.requireNonNull(masterKey, "masterKey must not be null");
+    }
+
+    @Override
+    public byte[] wrap(byte[] dataKey) throws GeneralSecurityException {
+        Objects.requireNonNull(dataKey, "dataKey must not be null");
+
+        Cipher cipher = masterKey.borrow(TRANSFORMATION);
+        masterKey.init(cipher, Cipher.WRAP_MODE, null);
+        byte[] wrappedKey = cipher.wrap(new SecretKeySpec(dataKey, ALGORITHM));
+        masterKey.release(TRANSFORMATION, cipher);
+        return wrappedKey;
+    }
+
+    @Override
+    public byte[] unwrap(byte[] wrappedKey) throws GeneralSecurityException {
+        Objects.requireNonNull(wrappedKey, "wrappedKey must not be null");
+
+        Cipher cipher = masterKey.borrow(TRANSFORMATION);
+        masterKey.init(cipher, Cipher.UNWRAP_MODE, null);
+        byte[] dataKey = cipher.unwrap(wrappedKey, ALGORITHM, Cipher.SECRET_KEY).getEncoded();
+        masterKey.release(TRANSFORMATION, cipher);
+        return dataKey;
+    }
+
+}
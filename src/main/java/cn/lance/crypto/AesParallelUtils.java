@@ -0,0 +1,328 @@
+package cn.lance.crypto;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * AES并行分段加解密
+ *
+ * @implNote 与 {@link AesStreamUtils} 使用相同的分段AES-GCM容器格式（见 {@link AesSegmentFormat}），
+ * 每段的nonce由段序号派生、认证标签独立，因此各段可以在 {@link ForkJoinPool} 中并行加解密；
+ * 段在输出中的位置固定，相同容器头（salt和nonce前缀）下输出与并行度无关，也与流式接口的输出完全一致
+ */
+public class AesParallelUtils {
+
+    /**
+     * 每个线程平均拆分的任务数，用于平衡各段耗时差异
+     */
+    private final static int TASKS_PER_THREAD = 4;
+
+    private AesParallelUtils() {
+    }
+
+    /**
+     * AES并行加密（使用公共 {@link ForkJoinPool}）
+     *
+     * @param key       AES密钥句柄
+     * @param plaintext 原文
+     * @return 密文（分段容器格式）
+     */
+    public static byte[] encrypt(AesKey key, byte[] plaintext) throws IOException {
+        return encrypt(key, plaintext, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * AES并行加密
+     *
+     * @param key       AES密钥句柄
+     * @param plaintext 原文
+     * @param pool      执行加密的线程池
+     * @return 密文（分段容器格式）
+     */
+    public static byte[] encrypt(AesKey key, byte[] plaintext, ForkJoinPool pool) throws IOException {
+        return encrypt(key, plaintext, pool, AesSegmentFormat.create(AesSegmentFormat.DEFAULT_SEGMENT_SIZE, 0));
+    }
+
+    /**
+     * AES并行解密（使用公共 {@link ForkJoinPool}）
+     *
+     * @param key        AES密钥句柄
+     * @param ciphertext 密文（分段容器格式）
+     * @return 原文
+     * @throws IOException 格式错误或密文认证失败
+     */
+    public static byte[] decrypt(AesKey key, byte[] ciphertext) throws IOException {
+        return decrypt(key, ciphertext, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * AES并行解密
+     *
+     * @param key        AES密钥句柄
+     * @param ciphertext 密文（分段容器格式）
+     * @param pool       执行解密的线程池
+     * @return 原文
+     * @throws IOException 格式错误或密文认证失败
+     */
+    public static byte[] decrypt(AesKey key, byte[] ciphertext, ForkJoinPool pool) throws IOException {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(ciphertext, "ciphertext must not be null");
+        Objects.requireNonNull(pool, "pool must not be null");
+
+        if (ciphertext.length < AesSegmentFormat.HEADER_LENGTH) {
+            throw new IOException("not an AES segmented stream");
+        }
+        byte[] header = new byte[AesSegmentFormat.HEADER_LENGTH];
+        System.arraycopy(ciphertext, 0, header, 0, header.length);
+        AesSegmentFormat format = AesSegmentFormat.parse(header);
+        format.checkRandomAccess();
+
+        long ciphertextSize = ciphertext.length - AesSegmentFormat.HEADER_LENGTH;
+        byte[] plaintext = new byte[Math.toIntExact(format.plaintextSize(ciphertextSize))];
+        long segments = format.segmentCount(plaintext.length);
+
+        invoke(pool, segments, (from, to) -> {
+            for (long i = from; i < to; i++) {
+                int plainOffset = (int) (i * format.segmentSize());
+                int cipherOffset = (int) (AesSegmentFormat.HEADER_LENGTH + i * format.encryptedSegmentSize());
+                int cipherLength = Math.min(format.encryptedSegmentSize(), ciphertext.length - cipherOffset);
+                format.decryptSegment(key, i, i == segments - 1, ciphertext, cipherOffset, cipherLength, plaintext, plainOffset);
+            }
+        });
+        return plaintext;
+    }
+
+    /**
+     * AES并行文件加密（使用公共 {@link ForkJoinPool}）
+     *
+     * @param key    AES密钥句柄
+     * @param source 原文文件
+     * @param target 密文文件（已存在时覆盖）
+     * @return 读取的原文字节数
+     */
+    public static long encrypt(AesKey key, Path source, Path target) throws IOException {
+        return encrypt(key, source, target, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * AES并行文件加密，各段通过定位读写直接访问文件，内存占用为每个线程一段
+     *
+     * @param key    AES密钥句柄
+     * @param source 原文文件
+     * @param target 密文文件（已存在时覆盖）
+     * @param pool   执行加密的线程池
+     * @return 读取的原文字节数
+     */
+    public static long encrypt(AesKey key, Path source, Path target, ForkJoinPool pool) throws IOException {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(source, "source must not be null");
+        Objects.requireNonNull(target, "target must not be null");
+        Objects.requireNonNull(pool, "pool must not be null");
+
+        AesSegmentFormat format = AesSegmentFormat.create(AesSegmentFormat.DEFAULT_SEGMENT_SIZE, 0);
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long plaintextSize = in.size();
+            long segments = format.segmentCount(plaintextSize);
+            writeFully(out, ByteBuffer.wrap(format.header()), 0);
+
+            invoke(pool, segments, (from, to) -> {
+                ByteBuffer plainBuffer = ByteBuffer.allocateDirect(format.segmentSize());
+                ByteBuffer cipherBuffer = ByteBuffer.allocateDirect(format.encryptedSegmentSize());
+                for (long i = from; i < to; i++) {
+                    long plainOffset = i * format.segmentSize();
+                    plainBuffer.clear().limit((int) Math.min(format.segmentSize(), plaintextSize - plainOffset));
+                    readFully(in, plainBuffer, plainOffset);
+                    plainBuffer.flip();
+
+                    cipherBuffer.clear();
+                    format.encryptSegment(key, i, i == segments - 1, plainBuffer, cipherBuffer);
+                    cipherBuffer.flip();
+                    writeFully(out, cipherBuffer, AesSegmentFormat.HEADER_LENGTH + i * format.encryptedSegmentSize());
+                }
+            });
+            return plaintextSize;
+        }
+    }
+
+    /**
+     * AES并行文件解密（使用公共 {@link ForkJoinPool}）
+     *
+     * @param key    AES密钥句柄
+     * @param source 密文文件
+     * @param target 原文文件（已存在时覆盖）
+     * @return 写出的原文字节数
+     * @throws IOException 读写失败或密文认证失败
+     */
+    public static long decrypt(AesKey key, Path source, Path target) throws IOException {
+        return decrypt(key, source, target, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * AES并行文件解密，各段通过定位读写直接访问文件，内存占用为每个线程一段。
+     * 原文先写入目标目录下的临时文件，全部段认证通过后再原子替换目标文件；任何一段认证失败时删除临时文件，
+     * 目标文件保持原状，不会留下其余段的原文
+     *
+     * @param key    AES密钥句柄
+     * @param source 密文文件
+     * @param target 原文文件（已存在时覆盖）
+     * @param pool   执行解密的线程池
+     * @return 写出的原文字节数
+     * @throws IOException 读写失败或密文认证失败
+     */
+    public static long decrypt(AesKey key, Path source, Path target, ForkJoinPool pool) throws IOException {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(source, "source must not be null");
+        Objects.requireNonNull(target, "target must not be null");
+        Objects.requireNonNull(pool, "pool must not be null");
+
+        Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName().toString(), ".tmp");
+        boolean moved = false;
+        try {
+            long plaintextSize;
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer headerBuffer = ByteBuffer.allocate(AesSegmentFormat.HEADER_LENGTH);
+                readFully(in, headerBuffer, 0);
+                AesSegmentFormat format = AesSegmentFormat.parse(headerBuffer.array());
+                format.checkRandomAccess();
+
+                long ciphertextSize = in.size() - AesSegmentFormat.HEADER_LENGTH;
+                plaintextSize = format.plaintextSize(ciphertextSize);
+                long segments = format.segmentCount(plaintextSize);
+
+                invoke(pool, segments, (from, to) -> {
+                    ByteBuffer cipherBuffer = ByteBuffer.allocateDirect(format.encryptedSegmentSize());
+                    ByteBuffer plainBuffer = ByteBuffer.allocateDirect(format.segmentSize());
+                    for (long i = from; i < to; i++) {
+                        long cipherOffset = i * format.encryptedSegmentSize();
+                        cipherBuffer.clear().limit((int) Math.min(format.encryptedSegmentSize(), ciphertextSize - cipherOffset));
+                        readFully(in, cipherBuffer, AesSegmentFormat.HEADER_LENGTH + cipherOffset);
+                        cipherBuffer.flip();
+
+                        plainBuffer.clear();
+                        format.decryptSegment(key, i, i == segments - 1, cipherBuffer, plainBuffer);
+                        plainBuffer.flip();
+                        writeFully(out, plainBuffer, i * format.segmentSize());
+                    }
+                });
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            moved = true;
+            return plaintextSize;
+        } finally {
+            if (!moved) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    /**
+     * AES并行加密（指定容器格式，相同容器头下输出确定）
+     */
+    static byte[] encrypt(AesKey key, byte[] plaintext, ForkJoinPool pool, AesSegmentFormat format) throws IOException {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(plaintext, "plaintext must not be null");
+        Objects.requireNonNull(pool, "pool must not be null");
+
+        long segments = format.segmentCount(plaintext.length);
+        byte[] ciphertext = new byte[Math.toIntExact(AesSegmentFormat.HEADER_LENGTH + plaintext.length + segments * AesKey.GCM_TAG_LENGTH)];
+        System.arraycopy(format.header(), 0, ciphertext, 0, AesSegmentFormat.HEADER_LENGTH);
+
+        invoke(pool, segments, (from, to) -> {
+            for (long i = from; i < to; i++) {
+                int plainOffset = (int) (i * format.segmentSize());
+                int plainLength = Math.min(format.segmentSize(), plaintext.length - plainOffset);
+                int cipherOffset = (int) (AesSegmentFormat.HEADER_LENGTH + i * format.encryptedSegmentSize());
+                format.encryptSegment(key, i, i == segments - 1, plaintext, plainOffset, plainLength, ciphertext, cipherOffset);
+            }
+        });
+        return ciphertext;
+    }
+
+    private static void invoke(ForkJoinPool pool, long segments, SegmentRange range) throws IOException {
+        long threshold = Math.max(1, segments / ((long) pool.getParallelism() * TASKS_PER_THREAD));
+        try {
+            pool.invoke(new SegmentTask(range, 0, segments, threshold));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position);
+            if (n < 0) {
+                throw new IOException("unexpected end of file");
+            }
+            position += n;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * 处理 [from, to) 区间内的段
+     */
+    private interface SegmentRange {
+        void process(long from, long to) throws IOException;
+    }
+
+    private static final class SegmentTask extends RecursiveAction {
+
+        private final static long serialVersionUID = 1L;
+
+        /**
+         * 任务只在本进程的线程池中执行，不会被序列化
+         */
+        private final transient SegmentRange range;
+
+        private final long from;
+
+        private final long to;
+
+        private final long threshold;
+
+        private SegmentTask(SegmentRange range, long from, long to, long threshold) {
+            this.range = range;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                try {
+                    range.process(from, to);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return;
+            }
+
+            long middle = (from + to) >>> 1;
+            invokeAll(new SegmentTask(range, from, middle, threshold), new SegmentTask(range, middle, to, threshold));
+        }
+
+    }
+
+}
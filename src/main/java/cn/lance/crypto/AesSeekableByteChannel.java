@@ -0,0 +1,230 @@
+package cn.lance.crypto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * AES加密文件的随机读取通道（只读）
+ *
+ * @implNote 基于分段AES-GCM容器格式（见 {@link AesSegmentFormat}）：读取任意位置时只解密覆盖该位置的段，
+ * 并以LRU方式缓存最近解密的段，顺序或局部读取时同一段只解密一次；被淘汰的段缓冲区会复用给新段
+ */
+public class AesSeekableByteChannel implements SeekableByteChannel {
+
+    /**
+     * 默认缓存的段数
+     */
+    private final static int DEFAULT_CACHED_SEGMENTS = 4;
+
+    private final AesKey key;
+
+    private final SeekableByteChannel channel;
+
+    private final AesSegmentFormat format;
+
+    private final long ciphertextSize;
+
+    private final long size;
+
+    private final long segments;
+
+    private final int cachedSegments;
+
+    private final LinkedHashMap<Long, Segment> cache;
+
+    private final ByteBuffer cipherBuffer;
+
+    private long position;
+
+    private boolean open = true;
+
+    /**
+     * @param key     AES密钥句柄
+     * @param channel 密文通道（关闭当前通道时一并关闭）
+     */
+    public AesSeekableByteChannel(AesKey key, SeekableByteChannel channel) throws IOException {
+        this(key, channel, DEFAULT_CACHED_SEGMENTS);
+    }
+
+    /**
+     * @param key            AES密钥句柄
+     * @param channel        密文通道（关闭当前通道时一并关闭）
+     * @param cachedSegments 缓存的段数
+     */
+    public AesSeekableByteChannel(AesKey key, SeekableByteChannel channel, int cachedSegments) throws IOException {
+        this.key = Objects.requireNonNull(key, "key must not be null");
+        this.channel = Objects.requireNonNull(channel, "channel must not be null");
+        if (cachedSegments < 1) {
+            throw new IllegalArgumentException("cachedSegments must be positive");
+        }
+        this.cachedSegments = cachedSegments;
+
+        ByteBuffer headerBuffer = ByteBuffer.allocate(AesSegmentFormat.HEADER_LENGTH);
+        channel.position(0);
+        readFully(headerBuffer);
+        this.format = AesSegmentFormat.parse(headerBuffer.array());
+        format.checkRandomAccess();
+
+        this.ciphertextSize = channel.size() - AesSegmentFormat.HEADER_LENGTH;
+        this.size = format.plaintextSize(ciphertextSize);
+        this.segments = format.segmentCount(size);
+        this.cache = new LinkedHashMap<>(cachedSegments * 2, 0.75f, true);
+        this.cipherBuffer = ByteBuffer.allocate(format.encryptedSegmentSize());
+    }
+
+    /**
+     * 打开AES加密文件
+     *
+     * @param key  AES密钥句柄
+     * @param path 密文文件
+     * @return 随机读取通道
+     */
+    public static AesSeekableByteChannel open(AesKey key, Path path) throws IOException {
+        Objects.requireNonNull(path, "path must not be null");
+
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new AesSeekableByteChannel(key, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized int read(ByteBuffer dst) throws IOException {
+        ensureOpen();
+        if (position >= size) {
+            return -1;
+        }
+
+        int read = 0;
+        while (dst.hasRemaining() && position < size) {
+            long index = position / format.segmentSize();
+            int offset = (int) (position % format.segmentSize());
+
+            Segment segment = segment(index);
+            int n = Math.min(dst.remaining(), segment.length - offset);
+            dst.put(segment.plaintext, offset, n);
+            position += n;
+            read += n;
+        }
+        return read;
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public synchronized long position() throws IOException {
+        ensureOpen();
+        return position;
+    }
+
+    @Override
+    public synchronized SeekableByteChannel position(long newPosition) throws IOException {
+        ensureOpen();
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("position must not be negative");
+        }
+        position = newPosition;
+        return this;
+    }
+
+    /**
+     * @return 原文长度
+     */
+    @Override
+    public long size() throws IOException {
+        ensureOpen();
+        return size;
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public synchronized boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (open) {
+            open = false;
+            cache.clear();
+            channel.close();
+        }
+    }
+
+    private Segment segment(long index) throws IOException {
+        Segment segment = cache.get(index);
+        if (segment != null) {
+            return segment;
+        }
+
+        // 缓存已满时淘汰最久未访问的段，并复用其缓冲区
+        byte[] plaintext = null;
+        if (cache.size() >= cachedSegments) {
+            Iterator<Map.Entry<Long, Segment>> iterator = cache.entrySet().iterator();
+            plaintext = iterator.next().getValue().plaintext;
+            iterator.remove();
+        }
+        if (plaintext == null) {
+            plaintext = new byte[format.segmentSize()];
+        }
+
+        long cipherOffset = index * format.encryptedSegmentSize();
+        cipherBuffer.clear().limit((int) Math.min(format.encryptedSegmentSize(), ciphertextSize - cipherOffset));
+        channel.position(AesSegmentFormat.HEADER_LENGTH + cipherOffset);
+        readFully(cipherBuffer);
+
+        int length = format.decryptSegment(key, index, index == segments - 1,
+                cipherBuffer.array(), 0, cipherBuffer.limit(), plaintext, 0);
+        segment = new Segment(plaintext, length);
+        cache.put(index, segment);
+        return segment;
+    }
+
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("truncated AES segmented stream");
+            }
+        }
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    private static final class Segment {
+
+        private final byte[] plaintext;
+
+        private final int length;
+
+        private Segment(byte[] plaintext, int length) {
+            this.plaintext = plaintext;
+            this.length = length;
+        }
+
+    }
+
+}
@@ -0,0 +1,268 @@
+package cn.lance.crypto;
+
+import javax.crypto.BadPaddingException;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.ShortBufferException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * AES分段加密容器格式
+ *
+ * @implNote 格式定义：
+ * <pre>
+ * header  = magic("JBAE", 4) | version(1) | flags(1) | segmentSize(4, 大端) | salt(32) | noncePrefix(7)
+ * segment = ciphertext(segmentSize，最后一段为 0~segmentSize) | tag(16)
+ * nonce   = noncePrefix(7) | segmentIndex(4, 大端) | lastSegment(1, 0或1)
+ * key     = HKDF-SHA256(salt, 主密钥, "JBAE segment key")，长度与主密钥相同
+ * </pre>
+ * 每个流使用随机salt从主密钥派生独立的子密钥，段加密只使用子密钥；
+ * 7字节的nonce前缀在长期使用的主密钥下约六千个文件就会达到生日界，
+ * 而子密钥各不相同，nonce只需在单个流内唯一，与同一主密钥加密的文件数无关。
+ * 每一段都是独立的AES-GCM密文，以header作为附加认证数据；
+ * nonce中包含段序号和末段标记，段被调换、删除或截断都会导致认证失败；
+ * 除最后一段外每段原文长度固定，因此任意一段都可以独立定位、独立加解密。
+ * flags为 {@link #FLAG_DEFLATE} 时各段原文拼接起来是一个Deflate流，只能顺序解密
+ */
+final class AesSegmentFormat {
+
+    private final static byte[] MAGIC = {'J', 'B', 'A', 'E'};
+
+    private final static byte VERSION = 2;
+
+    private final static int SALT_LENGTH = 32;
+
+    private final static int NONCE_PREFIX_LENGTH = 7;
+
+    private final static byte[] KEY_INFO = "JBAE segment key".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * 标记位：原文在加密前经过Deflate压缩
+     */
+    final static int FLAG_DEFLATE = 1;
+
+    final static int HEADER_LENGTH = MAGIC.length + 1 + 1 + Integer.BYTES + SALT_LENGTH + NONCE_PREFIX_LENGTH;
+
+    /**
+     * 默认每段原文长度 64KiB
+     */
+    final static int DEFAULT_SEGMENT_SIZE = 64 * 1024;
+
+    private final static int MIN_SEGMENT_SIZE = 1024;
+
+    private final static int MAX_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * 段序号占4字节
+     */
+    private final static long MAX_SEGMENT_COUNT = 1L << 32;
+
+    private final static SecureRandom RANDOM = new SecureRandom();
+
+    private final byte[] header;
+
+    private final int flags;
+
+    private final int segmentSize;
+
+    /**
+     * 最近一次使用的主密钥及其子密钥，同一个流总是使用同一个主密钥
+     */
+    private volatile SegmentKey segmentKey;
+
+    private AesSegmentFormat(byte[] header, int flags, int segmentSize) {
+        this.header = header;
+        this.flags = flags;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * 创建新的容器格式（随机salt和nonce前缀）
+     *
+     * @param segmentSize 每段原文长度
+     * @param flags       标记位
+     * @return 容器格式
+     */
+    static AesSegmentFormat create(int segmentSize, int flags) {
+        if (segmentSize < MIN_SEGMENT_SIZE || segmentSize > MAX_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("segmentSize must be between " + MIN_SEGMENT_SIZE + " and " + MAX_SEGMENT_SIZE);
+        }
+
+        byte[] random = new byte[SALT_LENGTH + NONCE_PREFIX_LENGTH];
+        RANDOM.nextBytes(random);
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH);
+        buffer.put(MAGIC).put(VERSION).put((byte) flags).putInt(segmentSize).put(random);
+        return new AesSegmentFormat(buffer.array(), flags, segmentSize);
+    }
+
+    /**
+     * 解析容器头
+     *
+     * @param header 容器头（{@link #HEADER_LENGTH}字节）
+     * @return 容器格式
+     */
+    static AesSegmentFormat parse(byte[] header) throws IOException {
+        if (header.length != HEADER_LENGTH || !Arrays.equals(header, 0, MAGIC.length, MAGIC, 0, MAGIC.length)) {
+            throw new IOException("not an AES segmented stream");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(header, MAGIC.length, HEADER_LENGTH - MAGIC.length);
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IOException("unsupported AES segmented stream version: " + version);
+        }
+        int flags = buffer.get() & 0xff;
+        int segmentSize = buffer.getInt();
+        if (segmentSize < MIN_SEGMENT_SIZE || segmentSize > MAX_SEGMENT_SIZE) {
+            throw new IOException("invalid segment size: " + segmentSize);
+        }
+        return new AesSegmentFormat(header.clone(), flags, segmentSize);
+    }
+
+    byte[] header() {
+        return header.clone();
+    }
+
+    int flags() {
+        return flags;
+    }
+
+    /**
+     * @return 原文是否经过Deflate压缩
+     */
+    boolean compressed() {
+        return (flags & FLAG_DEFLATE) != 0;
+    }
+
+    /**
+     * 校验容器可按段随机访问（未压缩）
+     */
+    void checkRandomAccess() throws IOException {
+        if (compressed()) {
+            throw new IOException("compressed AES segmented stream must be decrypted sequentially");
+        }
+    }
+
+    /**
+     * @return 每段原文长度
+     */
+    int segmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * @return 每段密文长度（含认证标签）
+     */
+    int encryptedSegmentSize() {
+        return segmentSize + AesKey.GCM_TAG_LENGTH;
+    }
+
+    /**
+     * 根据原文长度计算段数（空原文也有一个空的末段）
+     *
+     * @param plaintextSize 原文长度
+     * @return 段数
+     */
+    long segmentCount(long plaintextSize) {
+        return Math.max(1, (plaintextSize + segmentSize - 1) / segmentSize);
+    }
+
+    /**
+     * 根据密文长度（不含容器头）计算原文长度
+     *
+     * @param ciphertextSize 密文长度（不含容器头）
+     * @return 原文长度
+     */
+    long plaintextSize(long ciphertextSize) throws IOException {
+        long segments = Math.max(1, (ciphertextSize + encryptedSegmentSize() - 1) / encryptedSegmentSize());
+        long plaintextSize = ciphertextSize - segments * AesKey.GCM_TAG_LENGTH;
+        if (plaintextSize < 0) {
+            throw new IOException("truncated AES segmented stream");
+        }
+        return plaintextSize;
+    }
+
+    int encryptSegment(AesKey key, long index, boolean last, byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset) throws IOException {
+        try {
+            return segmentKey(key).encryptGcm(nonce(index, last), header, input, inputOffset, inputLength, output, outputOffset);
+        } catch (InvalidAlgorithmParameterException | ShortBufferException | IllegalBlockSizeException | BadPaddingException e) {
+            throw new IOException("could not encrypt segment " + index, e);
+        }
+    }
+
+    int decryptSegment(AesKey key, long index, boolean last, byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset) throws IOException {
+        try {
+            return segmentKey(key).decryptGcm(nonce(index, last), header, input, inputOffset, inputLength, output, outputOffset);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("segment " + index + " failed authentication", e);
+        }
+    }
+
+    int encryptSegment(AesKey key, long index, boolean last, ByteBuffer input, ByteBuffer output) throws IOException {
+        try {
+            return segmentKey(key).encryptGcm(nonce(index, last), header, input, output);
+        } catch (InvalidAlgorithmParameterException | ShortBufferException | IllegalBlockSizeException | BadPaddingException e) {
+            throw new IOException("could not encrypt segment " + index, e);
+        }
+    }
+
+    int decryptSegment(AesKey key, long index, boolean last, ByteBuffer input, ByteBuffer output) throws IOException {
+        try {
+            return segmentKey(key).decryptGcm(nonce(index, last), header, input, output);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("segment " + index + " failed authentication", e);
+        }
+    }
+
+    /**
+     * 由主密钥和容器头中的salt派生本流的子密钥
+     *
+     * @param key 主密钥
+     * @return 子密钥
+     */
+    private AesKey segmentKey(AesKey key) {
+        SegmentKey current = segmentKey;
+        if (current == null || current.master != key) {
+            // 并发时可能重复派生，结果相同
+            byte[] salt = Arrays.copyOfRange(header, HEADER_LENGTH - NONCE_PREFIX_LENGTH - SALT_LENGTH, HEADER_LENGTH - NONCE_PREFIX_LENGTH);
+            current = new SegmentKey(key, key.derive(salt, KEY_INFO));
+            segmentKey = current;
+        }
+        return current.key;
+    }
+
+    private byte[] nonce(long index, boolean last) throws IOException {
+        if (index < 0 || index >= MAX_SEGMENT_COUNT) {
+            throw new IOException("too many segments");
+        }
+
+        byte[] nonce = new byte[AesKey.GCM_IV_LENGTH];
+        System.arraycopy(header, HEADER_LENGTH - NONCE_PREFIX_LENGTH, nonce, 0, NONCE_PREFIX_LENGTH);
+        nonce[7] = (byte) (index >>> 24);
+        nonce[8] = (byte) (index >>> 16);
+        nonce[9] = (byte) (index >>> 8);
+        nonce[10] = (byte) index;
+        nonce[11] = (byte) (last ? 1 : 0);
+        return nonce;
+    }
+
+    private static final class SegmentKey {
+
+        private final AesKey master;
+
+        private final AesKey key;
+
+        private SegmentKey(AesKey master, AesKey key) {
+            this.master = master;
+            this.key = key;
+        }
+
+    }
+
+}
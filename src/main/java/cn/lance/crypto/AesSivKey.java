@@ -0,0 +1,341 @@
+package cn.lance.crypto;
+
+import org.apache.commons.codec.DecoderException;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.BadPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * AES-SIV密钥句柄（RFC 5297，确定性认证加密）
+ *
+ * @implNote 密钥前半部分用于S2V（基于AES-CMAC），后半部分用于AES-CTR；合成初始向量由附加认证数据和原文计算，
+ * 同一密钥和附加认证数据下相同原文得到相同密文，可直接对密文建索引做等值查询和关联，代价是会暴露原文是否相等。
+ * CMAC通过预先初始化的 {@code AES/CBC/NoPadding}（零初始向量）原地计算，子密钥在构造时一次算出；
+ * CTR部分复用 {@link AesKey} 的 {@link Cipher} 池
+ * <pre>
+ * ciphertext = siv(16) | AES-CTR(原文)
+ * </pre>
+ */
+public final class AesSivKey {
+
+    private final static String ALGORITHM = "AES";
+
+    private final static String TRANSFORMATION_CMAC = "AES/CBC/NoPadding";
+
+    private final static String TRANSFORMATION_CTR = "AES/CTR/NoPadding";
+
+    private final static int BLOCK_SIZE = 16;
+
+    /**
+     * 合成初始向量长度（字节），即密文比原文多出的长度
+     */
+    public final static int SIV_LENGTH = BLOCK_SIZE;
+
+    /**
+     * 附加认证数据的最大个数（RFC 5297）
+     */
+    public final static int MAX_ASSOCIATED_DATA = 126;
+
+    private final static byte[][] NO_ASSOCIATED_DATA = new byte[0][];
+
+    private final SecretKeySpec macKeySpec;
+
+    private final InstancePool<Cipher> macPool;
+
+    private final AesKey ctrKey;
+
+    private final byte[] subkey1;
+
+    private final byte[] subkey2;
+
+    /**
+     * CMAC(0^128)，S2V的初始值
+     */
+    private final byte[] zeroMac;
+
+    private AesSivKey(byte[] key) throws InvalidKeyException {
+        if (key.length != 32 && key.length != 48 && key.length != 64) {
+            throw new InvalidKeyException("Invalid AES-SIV key length: " + key.length + " bytes");
+        }
+        int half = key.length / 2;
+        this.macKeySpec = new SecretKeySpec(key, 0, half, ALGORITHM);
+        this.ctrKey = AesKey.of(Arrays.copyOfRange(key, half, key.length));
+        this.macPool = new InstancePool<>(this::newMacCipher);
+
+        Cipher cipher = newMacCipher();
+        byte[] l = new byte[BLOCK_SIZE];
+        encryptInPlace(cipher, l, BLOCK_SIZE);
+        this.subkey1 = dbl(l);
+        this.subkey2 = dbl(subkey1.clone());
+        this.zeroMac = new byte[BLOCK_SIZE];
+        cmac(cipher, new byte[BLOCK_SIZE], BLOCK_SIZE, zeroMac);
+        macPool.release(cipher);
+    }
+
+    /**
+     * 创建AES-SIV密钥句柄
+     *
+     * @param key 密钥（32/48/64字节，分别对应AES-128/192/256-SIV）
+     * @return AES-SIV密钥句柄
+     */
+    public static AesSivKey of(byte[] key) throws InvalidKeyException {
+        Objects.requireNonNull(key, "key must not be null");
+
+        return new AesSivKey(key);
+    }
+
+    /**
+     * AES-SIV加密，相同原文和附加认证数据总是得到相同密文
+     *
+     * @param plaintext      原文
+     * @param associatedData 附加认证数据（如表名、列名），解密时必须一致
+     * @return 密文（合成初始向量 + 密文，长度为原文 + {@link #SIV_LENGTH}）
+     */
+    public byte[] encrypt(byte[] plaintext, byte[]... associatedData) {
+        Cipher cipher = macPool.borrow();
+        byte[] bytes = encrypt(cipher, plaintext, associatedData);
+        macPool.release(cipher);
+        return bytes;
+    }
+
+    /**
+     * AES-SIV解密
+     *
+     * @param ciphertext     密文（合成初始向量 + 密文）
+     * @param associatedData 附加认证数据，与加密时一致
+     * @return 原文
+     * @throws AEADBadTagException 认证失败
+     */
+    public byte[] decrypt(byte[] ciphertext, byte[]... associatedData) throws AEADBadTagException {
+        Cipher cipher = macPool.borrow();
+        byte[] bytes = decrypt(cipher, ciphertext, associatedData);
+        macPool.release(cipher);
+        return bytes;
+    }
+
+    /**
+     * AES-SIV批量加密，大批量时并行处理，适合批量生成查询条件或索引键
+     *
+     * @param plaintexts     原文列表
+     * @param associatedData 附加认证数据，所有元素共用
+     * @return 密文列表（与输入顺序一致）
+     */
+    public List<byte[]> encrypt(List<byte[]> plaintexts, byte[]... associatedData) {
+        try {
+            return AesBatch.map(plaintexts, macSource(), (cipher, plaintext) -> encrypt(cipher, plaintext, associatedData));
+        } catch (GeneralSecurityException | DecoderException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * AES-SIV批量解密，大批量时并行处理
+     *
+     * @param ciphertexts    密文列表
+     * @param associatedData 附加认证数据，所有元素共用
+     * @return 原文列表（与输入顺序一致）
+     * @throws AEADBadTagException 任一元素认证失败
+     */
+    public List<byte[]> decrypt(List<byte[]> ciphertexts, byte[]... associatedData) throws AEADBadTagException {
+        try {
+            return AesBatch.map(ciphertexts, macSource(), (cipher, ciphertext) -> decrypt(cipher, ciphertext, associatedData));
+        } catch (AEADBadTagException e) {
+            throw e;
+        } catch (GeneralSecurityException | DecoderException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * S2V使用的 {@link Cipher} 来源，借出的实例已初始化
+     *
+     * @return Cipher来源
+     */
+    AesBatch.CipherSource macSource() {
+        return new AesBatch.CipherSource() {
+            @Override
+            public Cipher open() {
+                return macPool.borrow();
+            }
+
+            @Override
+            public void close(Cipher cipher) {
+                macPool.release(cipher);
+            }
+        };
+    }
+
+    /**
+     * 使用借出的 {@link Cipher} 加密
+     *
+     * @param cipher         {@link #macSource()} 借出的Cipher
+     * @param plaintext      原文
+     * @param associatedData 附加认证数据，可为null
+     * @return 密文
+     */
+    byte[] encrypt(Cipher cipher, byte[] plaintext, byte[][] associatedData) {
+        Objects.requireNonNull(plaintext, "plaintext must not be null");
+
+        byte[] siv = s2v(cipher, associatedData, plaintext);
+        byte[] output = new byte[SIV_LENGTH + plaintext.length];
+        System.arraycopy(siv, 0, output, 0, SIV_LENGTH);
+        ctr(siv, plaintext, 0, plaintext.length, output, SIV_LENGTH);
+        return output;
+    }
+
+    /**
+     * 使用借出的 {@link Cipher} 解密
+     *
+     * @param cipher         {@link #macSource()} 借出的Cipher
+     * @param ciphertext     密文
+     * @param associatedData 附加认证数据，可为null
+     * @return 原文
+     */
+    byte[] decrypt(Cipher cipher, byte[] ciphertext, byte[][] associatedData) throws AEADBadTagException {
+        Objects.requireNonNull(ciphertext, "ciphertext must not be null");
+        if (ciphertext.length < SIV_LENGTH) {
+            throw new AEADBadTagException("ciphertext shorter than " + SIV_LENGTH + " bytes");
+        }
+
+        byte[] siv = Arrays.copyOf(ciphertext, SIV_LENGTH);
+        byte[] plaintext = new byte[ciphertext.length - SIV_LENGTH];
+        ctr(siv, ciphertext, SIV_LENGTH, plaintext.length, plaintext, 0);
+        if (!MessageDigest.isEqual(siv, s2v(cipher, associatedData, plaintext))) {
+            Arrays.fill(plaintext, (byte) 0);
+            throw new AEADBadTagException("SIV mismatch");
+        }
+        return plaintext;
+    }
+
+    /**
+     * S2V（RFC 5297 2.4）
+     */
+    private byte[] s2v(Cipher cipher, byte[][] associatedData, byte[] plaintext) {
+        if (associatedData == null) {
+            associatedData = NO_ASSOCIATED_DATA;
+        }
+        if (associatedData.length > MAX_ASSOCIATED_DATA) {
+            throw new IllegalArgumentException("at most " + MAX_ASSOCIATED_DATA + " associated data");
+        }
+
+        byte[] d = zeroMac.clone();
+        byte[] mac = new byte[BLOCK_SIZE];
+        for (byte[] data : associatedData) {
+            Objects.requireNonNull(data, "associatedData must not contain null");
+            byte[] buffer = Arrays.copyOf(data, paddedLength(data.length));
+            cmac(cipher, buffer, data.length, mac);
+            xor(dbl(d), 0, mac);
+        }
+
+        byte[] buffer;
+        int length;
+        if (plaintext.length >= BLOCK_SIZE) {
+            // T = P xorend D
+            length = plaintext.length;
+            buffer = Arrays.copyOf(plaintext, paddedLength(length));
+            xor(buffer, length - BLOCK_SIZE, d);
+        } else {
+            // T = dbl(D) xor pad(P)
+            length = BLOCK_SIZE;
+            buffer = Arrays.copyOf(plaintext, BLOCK_SIZE);
+            buffer[plaintext.length] = (byte) 0x80;
+            xor(buffer, 0, dbl(d));
+        }
+        cmac(cipher, buffer, length, mac);
+        return mac;
+    }
+
+    /**
+     * AES-CMAC（RFC 4493），在 {@code buffer} 上原地计算
+     *
+     * @param buffer 前 {@code length} 字节为消息，长度为 {@link #paddedLength(int)}，计算后内容被覆盖
+     * @param length 消息长度
+     * @param mac    输出（16字节）
+     */
+    private void cmac(Cipher cipher, byte[] buffer, int length, byte[] mac) {
+        int paddedLength = paddedLength(length);
+        int last = paddedLength - BLOCK_SIZE;
+        if (length == paddedLength) {
+            xor(buffer, last, subkey1);
+        } else {
+            buffer[length] = (byte) 0x80;
+            Arrays.fill(buffer, length + 1, paddedLength, (byte) 0);
+            xor(buffer, last, subkey2);
+        }
+        encryptInPlace(cipher, buffer, paddedLength);
+        System.arraycopy(buffer, last, mac, 0, BLOCK_SIZE);
+    }
+
+    private void ctr(byte[] siv, byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset) {
+        // 清除第31位和第63位，便于实现32/64位计数器
+        byte[] counter = siv.clone();
+        counter[8] &= 0x7f;
+        counter[12] &= 0x7f;
+
+        Cipher cipher = ctrKey.borrow(TRANSFORMATION_CTR);
+        try {
+            ctrKey.init(cipher, Cipher.ENCRYPT_MODE, new IvParameterSpec(counter));
+            cipher.doFinal(input, inputOffset, inputLength, output, outputOffset);
+        } catch (InvalidAlgorithmParameterException | ShortBufferException | IllegalBlockSizeException | BadPaddingException e) {
+            // 计数器长度固定、输出长度已预先计算，不会发生
+            throw new RuntimeException(e);
+        }
+        ctrKey.release(TRANSFORMATION_CTR, cipher);
+    }
+
+    private static void encryptInPlace(Cipher cipher, byte[] buffer, int length) {
+        try {
+            // doFinal之后复位到零初始向量，可直接复用
+            cipher.doFinal(buffer, 0, length, buffer, 0);
+        } catch (ShortBufferException | IllegalBlockSizeException | BadPaddingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static int paddedLength(int length) {
+        return Math.max(BLOCK_SIZE, (length + BLOCK_SIZE - 1) / BLOCK_SIZE * BLOCK_SIZE);
+    }
+
+    /**
+     * GF(2^128)上乘以x，原地修改
+     */
+    private static byte[] dbl(byte[] block) {
+        int carry = (block[0] & 0x80) != 0 ? 0x87 : 0;
+        for (int i = 0; i < BLOCK_SIZE - 1; i++) {
+            block[i] = (byte) ((block[i] << 1) | ((block[i + 1] & 0xff) >>> 7));
+        }
+        block[BLOCK_SIZE - 1] = (byte) ((block[BLOCK_SIZE - 1] << 1) ^ carry);
+        return block;
+    }
+
+    private static void xor(byte[] target, int offset, byte[] block) {
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            target[offset + i] ^= block[i];
+        }
+    }
+
+    private Cipher newMacCipher() {
+        try {
+            Cipher cipher = CryptoProviders.cipher(TRANSFORMATION_CMAC);
+            cipher.init(Cipher.ENCRYPT_MODE, macKeySpec, new IvParameterSpec(new byte[BLOCK_SIZE]));
+            return cipher;
+        } catch (NoSuchAlgorithmException | NoSuchPaddingException | InvalidKeyException | InvalidAlgorithmParameterException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
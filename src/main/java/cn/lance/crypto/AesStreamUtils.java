@@ -0,0 +1,336 @@
+package cn.lance.crypto;
+
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * AES流式加解密
+ *
+ * @implNote 使用分段AES-GCM容器格式（见 {@link AesSegmentFormat}），内存占用只与段大小有关，与数据总量无关；
+ * 流式接口与文件通道接口产生的密文格式相同，可以互相解密；
+ * 所有加密方法都返回读取的原文字节数，解密方法返回写出的原文字节数。
+ * <p>
+ * 压缩加密先以Deflate压缩再加密（加密后的数据无法再压缩），压缩与否记录在容器头中，解密时自动解压；
+ * 压缩前对输入开头采样计算香农熵，已压缩或已加密等高熵数据直接加密，不浪费压缩时间
+ */
+public class AesStreamUtils {
+
+    /**
+     * 熵采样长度
+     */
+    private final static int ENTROPY_SAMPLE_SIZE = 16 * 1024;
+
+    /**
+     * 超过此熵值（比特/字节）的数据视为不可压缩，随机数据接近8
+     */
+    private final static double MAX_COMPRESSIBLE_ENTROPY = 7.5;
+
+    private AesStreamUtils() {
+    }
+
+    /**
+     * AES流式加密（不会关闭传入的流）
+     *
+     * @param key    AES密钥句柄
+     * @param source 原文输入流
+     * @param target 密文输出流
+     * @return 读取的原文字节数
+     */
+    public static long encrypt(AesKey key, InputStream source, OutputStream target) throws IOException {
+        return encrypt(key, source, target, AesSegmentFormat.DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * AES流式加密（不会关闭传入的流）
+     *
+     * @param key         AES密钥句柄
+     * @param source      原文输入流
+     * @param target      密文输出流
+     * @param segmentSize 每段原文长度（1KiB ~ 64MiB）
+     * @return 读取的原文字节数
+     */
+    public static long encrypt(AesKey key, InputStream source, OutputStream target, int segmentSize) throws IOException {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(source, "source must not be null");
+        Objects.requireNonNull(target, "target must not be null");
+
+        try (OutputStream out = new AesEncryptOutputStream(key, CloseShieldOutputStream.wrap(target), segmentSize)) {
+            return source.transferTo(out);
+        }
+    }
+
+    /**
+     * 先压缩再加密（不会关闭传入的流），高熵输入不压缩
+     *
+     * @param key    AES密钥句柄
+     * @param source 原文输入流
+     * @param target 密文输出流
+     * @param level  压缩级别（{@link Deflater#DEFAULT_COMPRESSION} 或 0 ~ 9，0表示不压缩）
+     * @return 读取的原文字节数
+     */
+    public static long encryptCompressed(AesKey key, InputStream source, OutputStream target, int level) throws IOException {
+        return encryptCompressed(key, source, target, level, AesSegmentFormat.DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * 先压缩再加密（不会关闭传入的流），高熵输入不压缩
+     *
+     * @param key         AES密钥句柄
+     * @param source      原文输入流
+     * @param target      密文输出流
+     * @param level       压缩级别（{@link Deflater#DEFAULT_COMPRESSION} 或 0 ~ 9，0表示不压缩）
+     * @param segmentSize 每段长度（1KiB ~ 64MiB）
+     * @return 读取的原文字节数
+     */
+    public static long encryptCompressed(AesKey key, InputStream source, OutputStream target, int level, int segmentSize) throws IOException {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(source, "source must not be null");
+        Objects.requireNonNull(target, "target must not be null");
+        if (level != Deflater.DEFAULT_COMPRESSION && (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("invalid compression level: " + level);
+        }
+
+        byte[] sample = source.readNBytes(ENTROPY_SAMPLE_SIZE);
+        if (level == Deflater.NO_COMPRESSION || entropy(sample) > MAX_COMPRESSIBLE_ENTROPY) {
+            try (OutputStream out = new AesEncryptOutputStream(key, CloseShieldOutputStream.wrap(target), segmentSize)) {
+                out.write(sample);
+                return sample.length + source.transferTo(out);
+            }
+        }
+
+        AesSegmentFormat format = AesSegmentFormat.create(segmentSize, AesSegmentFormat.FLAG_DEFLATE);
+        Deflater deflater = new Deflater(level);
+        try (OutputStream out = new DeflaterOutputStream(
+                new AesEncryptOutputStream(key, CloseShieldOutputStream.wrap(target), format), deflater)) {
+            out.write(sample);
+            return sample.length + source.transferTo(out);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * 先压缩再加密文件，高熵文件不压缩
+     *
+     * @param key    AES密钥句柄
+     * @param source 原文文件
+     * @param target 密文文件（已存在时覆盖）
+     * @param level  压缩级别（{@link Deflater#DEFAULT_COMPRESSION} 或 0 ~ 9，0表示不压缩）
+     * @return 读取的原文字节数
+     */
+    public static long encryptCompressed(AesKey key, Path source, Path target, int level) throws IOException {
+        Objects.requireNonNull(source, "source must not be null");
+        Objects.requireNonNull(target, "target must not be null");
+
+        try (InputStream in = Files.newInputStream(source);
+             OutputStream out = Files.newOutputStream(target)) {
+            return encryptCompressed(key, in, out, level);
+        }
+    }
+
+    /**
+     * AES流式解密（不会关闭传入的流），压缩的密文自动解压
+     *
+     * @param key    AES密钥句柄
+     * @param source 密文输入流
+     * @param target 原文输出流
+     * @return 写出的原文字节数
+     * @throws IOException 读写失败或密文认证失败
+     */
+    public static long decrypt(AesKey key, InputStream source, OutputStream target) throws IOException {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(source, "source must not be null");
+        Objects.requireNonNull(target, "target must not be null");
+
+        try (InputStream in = new AesDecryptInputStream(key, CloseShieldInputStream.wrap(source))) {
+            return in.transferTo(target);
+        }
+    }
+
+    /**
+     * AES文件加密
+     *
+     * @param key    AES密钥句柄
+     * @param source 原文文件
+     * @param target 密文文件（已存在时覆盖）
+     * @return 读取的原文字节数
+     */
+    public static long encrypt(AesKey key, Path source, Path target) throws IOException {
+        Objects.requireNonNull(source, "source must not be null");
+        Objects.requireNonNull(target, "target must not be null");
+
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return encrypt(key, in, out);
+        }
+    }
+
+    /**
+     * AES文件解密
+     *
+     * @param key    AES密钥句柄
+     * @param source 密文文件
+     * @param target 原文文件（已存在时覆盖）
+     * @return 写出的原文字节数
+     * @throws IOException 读写失败或密文认证失败
+     */
+    public static long decrypt(AesKey key, Path source, Path target) throws IOException {
+        Objects.requireNonNull(source, "source must not be null");
+        Objects.requireNonNull(target, "target must not be null");
+
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return decrypt(key, in, out);
+        }
+    }
+
+    /**
+     * AES文件通道加密，从 {@code source} 当前位置读到末尾，写入 {@code target} 当前位置
+     *
+     * @param key    AES密钥句柄
+     * @param source 原文通道
+     * @param target 密文通道
+     * @return 读取的原文字节数
+     */
+    public static long encrypt(AesKey key, FileChannel source, FileChannel target) throws IOException {
+        return encrypt(key, source, target, AesSegmentFormat.DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * AES文件通道加密，从 {@code source} 当前位置读到末尾，写入 {@code target} 当前位置
+     *
+     * @param key         AES密钥句柄
+     * @param source      原文通道
+     * @param target      密文通道
+     * @param segmentSize 每段原文长度（1KiB ~ 64MiB）
+     * @return 读取的原文字节数
+     */
+    public static long encrypt(AesKey key, FileChannel source, FileChannel target, int segmentSize) throws IOException {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(source, "source must not be null");
+        Objects.requireNonNull(target, "target must not be null");
+
+        AesSegmentFormat format = AesSegmentFormat.create(segmentSize, 0);
+        long plaintextSize = source.size() - source.position();
+        long segments = format.segmentCount(plaintextSize);
+
+        // 段大小的直接缓冲区，读写通道时不经过堆内存中转
+        ByteBuffer plainBuffer = ByteBuffer.allocateDirect(format.segmentSize());
+        ByteBuffer cipherBuffer = ByteBuffer.allocateDirect(format.encryptedSegmentSize());
+
+        writeFully(target, ByteBuffer.wrap(format.header()));
+        for (long i = 0; i < segments; i++) {
+            long remaining = plaintextSize - i * format.segmentSize();
+            plainBuffer.clear().limit((int) Math.min(remaining, format.segmentSize()));
+            readFully(source, plainBuffer);
+            plainBuffer.flip();
+
+            cipherBuffer.clear();
+            format.encryptSegment(key, i, i == segments - 1, plainBuffer, cipherBuffer);
+            cipherBuffer.flip();
+            writeFully(target, cipherBuffer);
+        }
+        return plaintextSize;
+    }
+
+    /**
+     * AES文件通道解密，从 {@code source} 当前位置读到末尾，写入 {@code target} 当前位置，压缩的密文自动解压
+     *
+     * @param key    AES密钥句柄
+     * @param source 密文通道
+     * @param target 原文通道
+     * @return 写出的原文字节数
+     * @throws IOException 读写失败或密文认证失败
+     */
+    public static long decrypt(AesKey key, FileChannel source, FileChannel target) throws IOException {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(source, "source must not be null");
+        Objects.requireNonNull(target, "target must not be null");
+
+        ByteBuffer headerBuffer = ByteBuffer.allocate(AesSegmentFormat.HEADER_LENGTH);
+        readFully(source, headerBuffer);
+        AesSegmentFormat format = AesSegmentFormat.parse(headerBuffer.array());
+        if (format.compressed()) {
+            // 压缩的密文只能顺序解压，回退到流式解密
+            source.position(source.position() - AesSegmentFormat.HEADER_LENGTH);
+            try (InputStream in = new AesDecryptInputStream(key, CloseShieldInputStream.wrap(Channels.newInputStream(source)))) {
+                return in.transferTo(Channels.newOutputStream(target));
+            }
+        }
+
+        long ciphertextSize = source.size() - source.position();
+        long segments = Math.max(1, (ciphertextSize + format.encryptedSegmentSize() - 1) / format.encryptedSegmentSize());
+
+        ByteBuffer cipherBuffer = ByteBuffer.allocateDirect(format.encryptedSegmentSize());
+        ByteBuffer plainBuffer = ByteBuffer.allocateDirect(format.segmentSize());
+
+        long written = 0;
+        for (long i = 0; i < segments; i++) {
+            long remaining = ciphertextSize - i * format.encryptedSegmentSize();
+            cipherBuffer.clear().limit((int) Math.min(remaining, format.encryptedSegmentSize()));
+            readFully(source, cipherBuffer);
+            cipherBuffer.flip();
+
+            plainBuffer.clear();
+            format.decryptSegment(key, i, i == segments - 1, cipherBuffer, plainBuffer);
+            plainBuffer.flip();
+            written += writeFully(target, plainBuffer);
+        }
+        return written;
+    }
+
+    /**
+     * 香农熵
+     *
+     * @param sample 样本
+     * @return 每字节的熵（0 ~ 8比特）
+     */
+    static double entropy(byte[] sample) {
+        if (sample.length == 0) {
+            return 0;
+        }
+        int[] counts = new int[256];
+        for (byte b : sample) {
+            counts[b & 0xff]++;
+        }
+        double entropy = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                double p = (double) count / sample.length;
+                entropy -= p * Math.log(p);
+            }
+        }
+        return entropy / Math.log(2);
+    }
+
+    static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("unexpected end of channel");
+            }
+        }
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        int length = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        return length;
+    }
+
+}
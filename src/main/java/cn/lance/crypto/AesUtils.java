@@ -1,34 +1,68 @@
 package cn.lance.crypto;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.commons.codec.DecoderException;
 import org.apache.commons.codec.binary.Hex;
 
-import javax.crypto.*;
-import javax.crypto.spec.IvParameterSpec;
-import javax.crypto.spec.SecretKeySpec;
+import javax.crypto.AEADBadTagException;
+import javax.crypto.BadPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.security.GeneralSecurityException;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
  * Advanced Encryption Standard
  *
- * @implNote Support two modes:
+ * @implNote Support four modes:
  * 1. Electronic Codebook Mode (For security reasons, not recommended)
  * 2. Cipher Block Chaining Mode
+ * 3. Galois/Counter Mode (Authenticated encryption, {@link AesKey} 支持 byte[] / ByteBuffer 零拷贝输出)
+ * 4. Synthetic Initialization Vector Mode (Deterministic authenticated encryption, 相同原文得到相同密文，见 {@link AesSivKey})
+ * <p>
+ * 密钥、初始向量和密文默认使用十六进制，可通过 {@link BinaryEncoding} 选择Base64等更紧凑的编码
+ * <p>
+ * 静态方法按密钥缓存 {@link AesKey}，高频调用时可直接持有 {@link AesKey} 以跳过缓存查找
  */
 public class AesUtils {
 
     private final static String ALGORITHM = "AES";
 
+    private final static Integer KEY_SIZE = 256;
+
     /**
-     * algorithm/mode/padding
+     * 密钥句柄缓存的最大数量
      */
-    private final static String TRANSFORMATION = "AES/CBC/PKCS5Padding";
+    private final static int KEY_CACHE_SIZE = 256;
 
-    private final static Integer KEY_SIZE = 256;
+    /**
+     * 按编码方式区分缓存，同一字符串在不同编码下对应不同的密钥
+     */
+    private final static Map<BinaryEncoding, Cache<String, AesKey>> KEY_CACHES = new EnumMap<>(BinaryEncoding.class);
+
+    private final static Map<BinaryEncoding, Cache<String, AesSivKey>> SIV_KEY_CACHES = new EnumMap<>(BinaryEncoding.class);
+
+    static {
+        for (BinaryEncoding encoding : BinaryEncoding.values()) {
+            KEY_CACHES.put(encoding, CacheBuilder.newBuilder()
+                    .maximumSize(KEY_CACHE_SIZE)
+                    .build());
+            SIV_KEY_CACHES.put(encoding, CacheBuilder.newBuilder()
+                    .maximumSize(KEY_CACHE_SIZE)
+                    .build());
+        }
+    }
 
     private AesUtils() {
     }
@@ -39,6 +73,18 @@ public class AesUtils {
      * @return AES密钥（十六进制）
      */
     public static String generateKey() {
+        return generateKey(BinaryEncoding.HEX);
+    }
+
+    /**
+     * 生成AES密钥
+     *
+     * @param encoding 编码方式
+     * @return AES密钥
+     */
+    public static String generateKey(BinaryEncoding encoding) {
+        Objects.requireNonNull(encoding, "encoding must not be null");
+
         KeyGenerator keyGenerator;
         try {
             keyGenerator = KeyGenerator.getInstance(ALGORITHM);
@@ -48,7 +94,7 @@ public class AesUtils {
         keyGenerator.init(KEY_SIZE);
         SecretKey secretKey = keyGenerator.generateKey();
 
-        return new String(Hex.encodeHex(secretKey.getEncoded()));
+        return encoding.encode(secretKey.getEncoded());
     }
 
     /**
@@ -57,10 +103,69 @@ public class AesUtils {
      * @return AES初始向量（十六进制）
      */
     public static String generateIv() {
+        return generateIv(BinaryEncoding.HEX);
+    }
+
+    /**
+     * 生成AES初始向量
+     *
+     * @param encoding 编码方式
+     * @return AES初始向量
+     */
+    public static String generateIv(BinaryEncoding encoding) {
+        Objects.requireNonNull(encoding, "encoding must not be null");
+
         // AES块大小是128位，即16字节
         byte[] iv = new byte[16];
         new SecureRandom().nextBytes(iv);
-        return new String(Hex.encodeHex(iv));
+        return encoding.encode(iv);
+    }
+
+    /**
+     * 生成AES-GCM初始向量
+     *
+     * @return AES-GCM初始向量（十六进制，12字节）
+     */
+    public static String generateGcmIv() {
+        return generateGcmIv(BinaryEncoding.HEX);
+    }
+
+    /**
+     * 生成AES-GCM初始向量
+     *
+     * @param encoding 编码方式
+     * @return AES-GCM初始向量（12字节）
+     */
+    public static String generateGcmIv(BinaryEncoding encoding) {
+        Objects.requireNonNull(encoding, "encoding must not be null");
+
+        byte[] iv = new byte[AesKey.GCM_IV_LENGTH];
+        new SecureRandom().nextBytes(iv);
+        return encoding.encode(iv);
+    }
+
+    /**
+     * 生成AES-SIV密钥
+     *
+     * @return AES-SIV密钥（十六进制，64字节，即AES-256-SIV）
+     */
+    public static String generateSivKey() {
+        return generateSivKey(BinaryEncoding.HEX);
+    }
+
+    /**
+     * 生成AES-SIV密钥
+     *
+     * @param encoding 编码方式
+     * @return AES-SIV密钥（64字节，即AES-256-SIV）
+     */
+    public static String generateSivKey(BinaryEncoding encoding) {
+        Objects.requireNonNull(encoding, "encoding must not be null");
+
+        // 两个AES-256密钥：S2V + CTR
+        byte[] key = new byte[KEY_SIZE / Byte.SIZE * 2];
+        new SecureRandom().nextBytes(key);
+        return encoding.encode(key);
     }
 
     /**
@@ -74,28 +179,11 @@ public class AesUtils {
         Objects.requireNonNull(key, "key must not be null");
         Objects.requireNonNull(plaintext, "plaintext must not be null");
 
-        // init cipher step1
-        Cipher cipher;
-        try {
-            cipher = Cipher.getInstance(ALGORITHM);
-        } catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
-            throw new RuntimeException(e);
-        }
-
-        // process key
-        byte[] byteKey;
-        byteKey = Hex.decodeHex(key);
-
-        // init cipher step2
-        SecretKeySpec secretKeySpec = new SecretKeySpec(byteKey, ALGORITHM);
-        cipher.init(Cipher.ENCRYPT_MODE, secretKeySpec);
-
         // encrypt
-        byte[] bytes;
-        bytes = cipher.doFinal(plaintext.getBytes());
+        byte[] bytes = getKey(key).encrypt(plaintext.getBytes());
 
         // encode result
-        return new String(Hex.encodeHex(bytes));
+        return BinaryEncoding.HEX.encode(bytes);
     }
 
     /**
@@ -109,28 +197,10 @@ public class AesUtils {
         Objects.requireNonNull(key, "key must not be null");
         Objects.requireNonNull(ciphertext, "ciphertext must not be null");
 
-        // init cipher step1
-        Cipher cipher;
-        try {
-            cipher = Cipher.getInstance(ALGORITHM);
-        } catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
-            throw new RuntimeException(e);
-        }
-
-        // process key
-        byte[] byteKey;
-        byteKey = Hex.decodeHex(key);
-
-        // init cipher step2
-        SecretKeySpec secretKeySpec = new SecretKeySpec(byteKey, ALGORITHM);
-        cipher.init(Cipher.DECRYPT_MODE, secretKeySpec);
-
         // process encryptedStr
-        byte[] byteEncryptedStr;
-        byteEncryptedStr = Hex.decodeHex(ciphertext);
+        byte[] byteEncryptedStr = Hex.decodeHex(ciphertext);
 
-        byte[] bytes;
-        bytes = cipher.doFinal(byteEncryptedStr);
+        byte[] bytes = getKey(key).decrypt(byteEncryptedStr);
 
         return new String(bytes);
     }
@@ -145,32 +215,17 @@ public class AesUtils {
      */
     public static String encrypt(String key, String iv, String plaintext) throws DecoderException, InvalidAlgorithmParameterException, InvalidKeyException, IllegalBlockSizeException, BadPaddingException {
         Objects.requireNonNull(key, "key must not be null");
-        Objects.requireNonNull(key, "iv must not be null");
+        Objects.requireNonNull(iv, "iv must not be null");
         Objects.requireNonNull(plaintext, "plaintext must not be null");
 
-        // init cipher step1
-        Cipher cipher;
-        try {
-            cipher = Cipher.getInstance(TRANSFORMATION);
-        } catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
-            throw new RuntimeException(e);
-        }
-
-        // process key
-        byte[] byteKey = Hex.decodeHex(key);
+        // process iv
         byte[] ivKey = Hex.decodeHex(iv);
 
-        // init cipher step2
-        SecretKeySpec secretKeySpec = new SecretKeySpec(byteKey, ALGORITHM);
-        IvParameterSpec ivParameterSpec = new IvParameterSpec(ivKey);
-        cipher.init(Cipher.ENCRYPT_MODE, secretKeySpec, ivParameterSpec);
-
         // encrypt
-        byte[] bytes;
-        bytes = cipher.doFinal(plaintext.getBytes());
+        byte[] bytes = getKey(key).encrypt(ivKey, plaintext.getBytes());
 
         // encode result
-        return new String(Hex.encodeHex(bytes));
+        return BinaryEncoding.HEX.encode(bytes);
     }
 
     /**
@@ -183,34 +238,449 @@ public class AesUtils {
      */
     public static String decrypt(String key, String iv, String ciphertext) throws DecoderException, InvalidAlgorithmParameterException, InvalidKeyException, IllegalBlockSizeException, BadPaddingException {
         Objects.requireNonNull(key, "key must not be null");
-        Objects.requireNonNull(key, "iv must not be null");
+        Objects.requireNonNull(iv, "iv must not be null");
+        Objects.requireNonNull(ciphertext, "ciphertext must not be null");
+
+        // process iv and encryptedStr
+        byte[] ivKey = Hex.decodeHex(iv);
+        byte[] byteEncryptedStr = Hex.decodeHex(ciphertext);
+
+        byte[] bytes = getKey(key).decrypt(ivKey, byteEncryptedStr);
+
+        return new String(bytes);
+    }
+
+    /**
+     * AES加密（GCM模式）
+     *
+     * @param key       密钥（十六进制）
+     * @param iv        初始向量（十六进制，同一密钥下不可重复）
+     * @param plaintext 原文
+     * @return 密文（十六进制，含认证标签）
+     */
+    public static String encryptGcm(String key, String iv, String plaintext) throws DecoderException, InvalidAlgorithmParameterException, InvalidKeyException, IllegalBlockSizeException, BadPaddingException {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(iv, "iv must not be null");
+        Objects.requireNonNull(plaintext, "plaintext must not be null");
+
+        byte[] bytes = getKey(key).encryptGcm(Hex.decodeHex(iv), plaintext.getBytes());
+
+        return BinaryEncoding.HEX.encode(bytes);
+    }
+
+    /**
+     * AES解密（GCM模式）
+     *
+     * @param key        密钥（十六进制）
+     * @param iv         初始向量（十六进制）
+     * @param ciphertext 密文（十六进制，含认证标签）
+     * @return 原文
+     * @throws javax.crypto.AEADBadTagException 认证失败
+     */
+    public static String decryptGcm(String key, String iv, String ciphertext) throws DecoderException, InvalidAlgorithmParameterException, InvalidKeyException, IllegalBlockSizeException, BadPaddingException {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(iv, "iv must not be null");
+        Objects.requireNonNull(ciphertext, "ciphertext must not be null");
+
+        byte[] bytes = getKey(key).decryptGcm(Hex.decodeHex(iv), Hex.decodeHex(ciphertext));
+
+        return new String(bytes);
+    }
+
+    /**
+     * AES加密（ECB模式）
+     *
+     * @param key       密钥（按 {@code encoding} 编码）
+     * @param plaintext 原文
+     * @param encoding  密钥和密文的编码方式
+     * @return 密文
+     */
+    public static String encrypt(String key, String plaintext, BinaryEncoding encoding) throws InvalidKeyException, IllegalBlockSizeException, BadPaddingException {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(plaintext, "plaintext must not be null");
+        Objects.requireNonNull(encoding, "encoding must not be null");
+
+        return encoding.encode(getKey(key, encoding).encrypt(plaintext.getBytes()));
+    }
+
+    /**
+     * AES解密（ECB模式）
+     *
+     * @param key        密钥（按 {@code encoding} 编码）
+     * @param ciphertext 密文（按 {@code encoding} 编码）
+     * @param encoding   密钥和密文的编码方式
+     * @return 原文
+     */
+    public static String decrypt(String key, String ciphertext, BinaryEncoding encoding) throws InvalidKeyException, IllegalBlockSizeException, BadPaddingException {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(ciphertext, "ciphertext must not be null");
+        Objects.requireNonNull(encoding, "encoding must not be null");
+
+        return new String(getKey(key, encoding).decrypt(encoding.decode(ciphertext)));
+    }
+
+    /**
+     * AES加密（CBC模式）
+     *
+     * @param key       密钥（按 {@code encoding} 编码）
+     * @param iv        初始向量（按 {@code encoding} 编码）
+     * @param plaintext 原文
+     * @param encoding  密钥、初始向量和密文的编码方式
+     * @return 密文
+     */
+    public static String encrypt(String key, String iv, String plaintext, BinaryEncoding encoding) throws InvalidAlgorithmParameterException, InvalidKeyException, IllegalBlockSizeException, BadPaddingException {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(iv, "iv must not be null");
+        Objects.requireNonNull(plaintext, "plaintext must not be null");
+        Objects.requireNonNull(encoding, "encoding must not be null");
+
+        return encoding.encode(getKey(key, encoding).encrypt(encoding.decode(iv), plaintext.getBytes()));
+    }
+
+    /**
+     * AES解密（CBC模式）
+     *
+     * @param key        密钥（按 {@code encoding} 编码）
+     * @param iv         初始向量（按 {@code encoding} 编码）
+     * @param ciphertext 密文（按 {@code encoding} 编码）
+     * @param encoding   密钥、初始向量和密文的编码方式
+     * @return 原文
+     */
+    public static String decrypt(String key, String iv, String ciphertext, BinaryEncoding encoding) throws InvalidAlgorithmParameterException, InvalidKeyException, IllegalBlockSizeException, BadPaddingException {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(iv, "iv must not be null");
+        Objects.requireNonNull(ciphertext, "ciphertext must not be null");
+        Objects.requireNonNull(encoding, "encoding must not be null");
+
+        return new String(getKey(key, encoding).decrypt(encoding.decode(iv), encoding.decode(ciphertext)));
+    }
+
+    /**
+     * AES加密（GCM模式）
+     *
+     * @param key       密钥（按 {@code encoding} 编码）
+     * @param iv        初始向量（按 {@code encoding} 编码，同一密钥下不可重复）
+     * @param plaintext 原文
+     * @param encoding  密钥、初始向量和密文的编码方式
+     * @return 密文（含认证标签）
+     */
+    public static String encryptGcm(String key, String iv, String plaintext, BinaryEncoding encoding) throws InvalidAlgorithmParameterException, InvalidKeyException, IllegalBlockSizeException, BadPaddingException {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(iv, "iv must not be null");
+        Objects.requireNonNull(plaintext, "plaintext must not be null");
+        Objects.requireNonNull(encoding, "encoding must not be null");
+
+        return encoding.encode(getKey(key, encoding).encryptGcm(encoding.decode(iv), plaintext.getBytes()));
+    }
+
+    /**
+     * AES解密（GCM模式）
+     *
+     * @param key        密钥（按 {@code encoding} 编码）
+     * @param iv         初始向量（按 {@code encoding} 编码）
+     * @param ciphertext 密文（按 {@code encoding} 编码，含认证标签）
+     * @param encoding   密钥、初始向量和密文的编码方式
+     * @return 原文
+     * @throws javax.crypto.AEADBadTagException 认证失败
+     */
+    public static String decryptGcm(String key, String iv, String ciphertext, BinaryEncoding encoding) throws InvalidAlgorithmParameterException, InvalidKeyException, IllegalBlockSizeException, BadPaddingException {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(iv, "iv must not be null");
+        Objects.requireNonNull(ciphertext, "ciphertext must not be null");
+        Objects.requireNonNull(encoding, "encoding must not be null");
+
+        return new String(getKey(key, encoding).decryptGcm(encoding.decode(iv), encoding.decode(ciphertext)));
+    }
+
+    /**
+     * AES加密（SIV模式，确定性认证加密），相同密钥下相同原文得到相同密文，可对密文建索引做等值查询
+     *
+     * @param key       密钥（十六进制，64字节）
+     * @param plaintext 原文
+     * @return 密文（十六进制，含16字节合成初始向量）
+     */
+    public static String encryptSiv(String key, String plaintext) throws DecoderException, InvalidKeyException {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(plaintext, "plaintext must not be null");
+
+        return BinaryEncoding.HEX.encode(getSivKey(key).encrypt(plaintext.getBytes()));
+    }
+
+    /**
+     * AES解密（SIV模式）
+     *
+     * @param key        密钥（十六进制，64字节）
+     * @param ciphertext 密文（十六进制）
+     * @return 原文
+     * @throws AEADBadTagException 认证失败
+     */
+    public static String decryptSiv(String key, String ciphertext) throws DecoderException, InvalidKeyException, AEADBadTagException {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(ciphertext, "ciphertext must not be null");
+
+        return new String(getSivKey(key).decrypt(Hex.decodeHex(ciphertext)));
+    }
+
+    /**
+     * AES加密（SIV模式，确定性认证加密）
+     *
+     * @param key       密钥（按 {@code encoding} 编码，64字节）
+     * @param plaintext 原文
+     * @param encoding  密钥和密文的编码方式
+     * @return 密文
+     */
+    public static String encryptSiv(String key, String plaintext, BinaryEncoding encoding) throws InvalidKeyException {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(plaintext, "plaintext must not be null");
+        Objects.requireNonNull(encoding, "encoding must not be null");
+
+        return encoding.encode(getSivKey(key, encoding).encrypt(plaintext.getBytes()));
+    }
+
+    /**
+     * AES解密（SIV模式）
+     *
+     * @param key        密钥（按 {@code encoding} 编码，64字节）
+     * @param ciphertext 密文（按 {@code encoding} 编码）
+     * @param encoding   密钥和密文的编码方式
+     * @return 原文
+     * @throws AEADBadTagException 认证失败
+     */
+    public static String decryptSiv(String key, String ciphertext, BinaryEncoding encoding) throws InvalidKeyException, AEADBadTagException {
+        Objects.requireNonNull(key, "key must not be null");
         Objects.requireNonNull(ciphertext, "ciphertext must not be null");
+        Objects.requireNonNull(encoding, "encoding must not be null");
+
+        return new String(getSivKey(key, encoding).decrypt(encoding.decode(ciphertext)));
+    }
+
+    /**
+     * AES批量加密（ECB模式），大批量时并行处理
+     *
+     * @param key        密钥（十六进制）
+     * @param plaintexts 原文列表
+     * @return 密文列表（十六进制，与输入顺序一致）
+     */
+    public static List<String> encrypt(String key, List<String> plaintexts) throws DecoderException, InvalidKeyException, IllegalBlockSizeException, BadPaddingException {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(plaintexts, "plaintexts must not be null");
 
-        // init cipher step1
-        Cipher cipher;
         try {
-            cipher = Cipher.getInstance(TRANSFORMATION);
-        } catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
+            return AesBatch.map(plaintexts, getKey(key).ecbSource(Cipher.ENCRYPT_MODE), AesUtils::encryptHex);
+        } catch (DecoderException | InvalidKeyException | IllegalBlockSizeException | BadPaddingException e) {
+            throw e;
+        } catch (GeneralSecurityException e) {
             throw new RuntimeException(e);
         }
+    }
 
-        // process key
-        byte[] byteKey = Hex.decodeHex(key);
-        byte[] ivKey = Hex.decodeHex(iv);
+    /**
+     * AES批量解密（ECB模式），大批量时并行处理
+     *
+     * @param key         密钥（十六进制）
+     * @param ciphertexts 密文列表（十六进制）
+     * @return 原文列表（与输入顺序一致）
+     */
+    public static List<String> decrypt(String key, List<String> ciphertexts) throws DecoderException, InvalidKeyException, IllegalBlockSizeException, BadPaddingException {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(ciphertexts, "ciphertexts must not be null");
 
-        // init cipher step2
-        SecretKeySpec secretKeySpec = new SecretKeySpec(byteKey, ALGORITHM);
-        IvParameterSpec ivParameterSpec = new IvParameterSpec(ivKey);
-        cipher.init(Cipher.DECRYPT_MODE, secretKeySpec, ivParameterSpec);
+        try {
+            return AesBatch.map(ciphertexts, getKey(key).ecbSource(Cipher.DECRYPT_MODE), AesUtils::decryptHex);
+        } catch (DecoderException | InvalidKeyException | IllegalBlockSizeException | BadPaddingException e) {
+            throw e;
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
-        // process encryptedStr
-        byte[] byteEncryptedStr;
-        byteEncryptedStr = Hex.decodeHex(ciphertext);
+    /**
+     * AES批量加密（CBC模式），大批量时并行处理
+     *
+     * @param key        密钥（十六进制）
+     * @param iv         初始向量（十六进制）
+     * @param plaintexts 原文列表
+     * @return 密文列表（十六进制，与输入顺序一致）
+     */
+    public static List<String> encrypt(String key, String iv, List<String> plaintexts) throws DecoderException, InvalidAlgorithmParameterException, InvalidKeyException, IllegalBlockSizeException, BadPaddingException {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(iv, "iv must not be null");
+        Objects.requireNonNull(plaintexts, "plaintexts must not be null");
+
+        try {
+            return AesBatch.map(plaintexts, getKey(key).cbcSource(Cipher.ENCRYPT_MODE, Hex.decodeHex(iv)), AesUtils::encryptHex);
+        } catch (DecoderException | InvalidAlgorithmParameterException | InvalidKeyException | IllegalBlockSizeException | BadPaddingException e) {
+            throw e;
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
-        byte[] bytes;
-        bytes = cipher.doFinal(byteEncryptedStr);
+    /**
+     * AES批量解密（CBC模式），大批量时并行处理
+     *
+     * @param key         密钥（十六进制）
+     * @param iv          初始向量（十六进制）
+     * @param ciphertexts 密文列表（十六进制）
+     * @return 原文列表（与输入顺序一致）
+     */
+    public static List<String> decrypt(String key, String iv, List<String> ciphertexts) throws DecoderException, InvalidAlgorithmParameterException, InvalidKeyException, IllegalBlockSizeException, BadPaddingException {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(iv, "iv must not be null");
+        Objects.requireNonNull(ciphertexts, "ciphertexts must not be null");
 
-        return new String(bytes);
+        try {
+            return AesBatch.map(ciphertexts, getKey(key).cbcSource(Cipher.DECRYPT_MODE, Hex.decodeHex(iv)), AesUtils::decryptHex);
+        } catch (DecoderException | InvalidAlgorithmParameterException | InvalidKeyException | IllegalBlockSizeException | BadPaddingException e) {
+            throw e;
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * AES逐个加密（CBC模式），惰性处理，适合数据量无法一次装入内存的场景
+     *
+     * @param key        密钥（十六进制）
+     * @param iv         初始向量（十六进制）
+     * @param plaintexts 原文迭代器
+     * @return 密文迭代器（十六进制），处理失败时抛出 {@link IllegalStateException}
+     */
+    public static Iterator<String> encrypt(String key, String iv, Iterator<String> plaintexts) throws DecoderException, InvalidKeyException {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(iv, "iv must not be null");
+        Objects.requireNonNull(plaintexts, "plaintexts must not be null");
+
+        return AesBatch.map(plaintexts, getKey(key).cbcSource(Cipher.ENCRYPT_MODE, Hex.decodeHex(iv)), AesUtils::encryptHex);
+    }
+
+    /**
+     * AES逐个解密（CBC模式），惰性处理，适合数据量无法一次装入内存的场景
+     *
+     * @param key         密钥（十六进制）
+     * @param iv          初始向量（十六进制）
+     * @param ciphertexts 密文迭代器（十六进制）
+     * @return 原文迭代器，处理失败时抛出 {@link IllegalStateException}
+     */
+    public static Iterator<String> decrypt(String key, String iv, Iterator<String> ciphertexts) throws DecoderException, InvalidKeyException {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(iv, "iv must not be null");
+        Objects.requireNonNull(ciphertexts, "ciphertexts must not be null");
+
+        return AesBatch.map(ciphertexts, getKey(key).cbcSource(Cipher.DECRYPT_MODE, Hex.decodeHex(iv)), AesUtils::decryptHex);
+    }
+
+    /**
+     * AES批量加密（SIV模式），大批量时并行处理，适合批量生成密文查询条件（如 {@code IN} 列表）
+     *
+     * @param key        密钥（十六进制，64字节）
+     * @param plaintexts 原文列表
+     * @return 密文列表（十六进制，与输入顺序一致）
+     */
+    public static List<String> encryptSiv(String key, List<String> plaintexts) throws DecoderException, InvalidKeyException {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(plaintexts, "plaintexts must not be null");
+
+        return encryptSiv(getSivKey(key), plaintexts, BinaryEncoding.HEX);
+    }
+
+    /**
+     * AES批量加密（SIV模式），大批量时并行处理
+     *
+     * @param key        密钥（按 {@code encoding} 编码，64字节）
+     * @param plaintexts 原文列表
+     * @param encoding   密钥和密文的编码方式
+     * @return 密文列表（与输入顺序一致）
+     */
+    public static List<String> encryptSiv(String key, List<String> plaintexts, BinaryEncoding encoding) throws InvalidKeyException {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(plaintexts, "plaintexts must not be null");
+        Objects.requireNonNull(encoding, "encoding must not be null");
+
+        return encryptSiv(getSivKey(key, encoding), plaintexts, encoding);
+    }
+
+    /**
+     * 获取AES密钥句柄（优先从缓存中获取，避免重复解码密钥和创建 {@link Cipher}）
+     *
+     * @param key 密钥（十六进制）
+     * @return AES密钥句柄
+     */
+    static AesKey getKey(String key) throws DecoderException, InvalidKeyException {
+        Cache<String, AesKey> cache = KEY_CACHES.get(BinaryEncoding.HEX);
+        AesKey aesKey = cache.getIfPresent(key);
+        if (aesKey == null) {
+            aesKey = AesKey.ofHex(key);
+            cache.put(key, aesKey);
+        }
+        return aesKey;
+    }
+
+    /**
+     * 获取AES密钥句柄（优先从缓存中获取）
+     *
+     * @param key      密钥
+     * @param encoding 密钥的编码方式
+     * @return AES密钥句柄
+     */
+    static AesKey getKey(String key, BinaryEncoding encoding) throws InvalidKeyException {
+        Cache<String, AesKey> cache = KEY_CACHES.get(encoding);
+        AesKey aesKey = cache.getIfPresent(key);
+        if (aesKey == null) {
+            aesKey = AesKey.of(encoding.decode(key));
+            cache.put(key, aesKey);
+        }
+        return aesKey;
+    }
+
+    /**
+     * 获取AES-SIV密钥句柄（优先从缓存中获取）
+     *
+     * @param key 密钥（十六进制）
+     * @return AES-SIV密钥句柄
+     */
+    static AesSivKey getSivKey(String key) throws DecoderException, InvalidKeyException {
+        Cache<String, AesSivKey> cache = SIV_KEY_CACHES.get(BinaryEncoding.HEX);
+        AesSivKey sivKey = cache.getIfPresent(key);
+        if (sivKey == null) {
+            sivKey = AesSivKey.of(Hex.decodeHex(key));
+            cache.put(key, sivKey);
+        }
+        return sivKey;
+    }
+
+    /**
+     * 获取AES-SIV密钥句柄（优先从缓存中获取）
+     *
+     * @param key      密钥
+     * @param encoding 密钥的编码方式
+     * @return AES-SIV密钥句柄
+     */
+    static AesSivKey getSivKey(String key, BinaryEncoding encoding) throws InvalidKeyException {
+        Cache<String, AesSivKey> cache = SIV_KEY_CACHES.get(encoding);
+        AesSivKey sivKey = cache.getIfPresent(key);
+        if (sivKey == null) {
+            sivKey = AesSivKey.of(encoding.decode(key));
+            cache.put(key, sivKey);
+        }
+        return sivKey;
+    }
+
+    private static List<String> encryptSiv(AesSivKey sivKey, List<String> plaintexts, BinaryEncoding encoding) {
+        try {
+            return AesBatch.map(plaintexts, sivKey.macSource(),
+                    (cipher, plaintext) -> encoding.encode(sivKey.encrypt(cipher, plaintext.getBytes(), null)));
+        } catch (GeneralSecurityException | DecoderException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String encryptHex(Cipher cipher, String plaintext) throws IllegalBlockSizeException, BadPaddingException {
+        return BinaryEncoding.HEX.encode(cipher.doFinal(plaintext.getBytes()));
+    }
+
+    private static String decryptHex(Cipher cipher, String ciphertext) throws DecoderException, IllegalBlockSizeException, BadPaddingException {
+        return new String(cipher.doFinal(Hex.decodeHex(ciphertext)));
     }
 
 }
@@ -0,0 +1,186 @@
+package cn.lance.crypto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * 二进制数据的文本编码
+ *
+ * @implNote 编码结果先写入ASCII字节数组，再以ISO-8859-1构造字符串，紧凑字符串下只复制一次，
+ * 不经过 {@code char[]} 中转；十六进制解码直接逐字符读取，不调用 {@link String#toCharArray()}。
+ * 需要原始字节时直接使用 {@link AesKey} 等类的 {@code byte[]} 接口；包内验证路径可解码到复用的缓冲区，不分配内存
+ */
+public enum BinaryEncoding {
+
+    /**
+     * 十六进制（小写），长度为原文的2倍
+     */
+    HEX {
+        @Override
+        public String encode(byte[] bytes) {
+            Objects.requireNonNull(bytes, "bytes must not be null");
+
+            byte[] encoded = new byte[bytes.length << 1];
+            for (int i = 0, j = 0; i < bytes.length; i++) {
+                encoded[j++] = HEX_DIGITS[(bytes[i] >>> 4) & 0x0f];
+                encoded[j++] = HEX_DIGITS[bytes[i] & 0x0f];
+            }
+            return new String(encoded, StandardCharsets.ISO_8859_1);
+        }
+
+        @Override
+        public byte[] decode(String text) {
+            Objects.requireNonNull(text, "text must not be null");
+
+            int length = text.length();
+            if ((length & 1) != 0) {
+                throw new IllegalArgumentException("odd number of hex characters");
+            }
+
+            byte[] decoded = new byte[length >> 1];
+            for (int i = 0, j = 0; j < decoded.length; i += 2, j++) {
+                decoded[j] = (byte) ((hexDigit(text.charAt(i), i) << 4) | hexDigit(text.charAt(i + 1), i + 1));
+            }
+            return decoded;
+        }
+
+        @Override
+        boolean decode(String text, byte[] output) {
+            if (text.length() != output.length << 1) {
+                return false;
+            }
+            int invalid = 0;
+            for (int i = 0, j = 0; j < output.length; i += 2, j++) {
+                int high = Character.digit(text.charAt(i), 16);
+                int low = Character.digit(text.charAt(i + 1), 16);
+                invalid |= high | low;
+                output[j] = (byte) ((high << 4) | low);
+            }
+            return invalid >= 0;
+        }
+    },
+
+    /**
+     * Base64（RFC 4648，带填充），长度约为原文的4/3
+     */
+    BASE64 {
+        @Override
+        public String encode(byte[] bytes) {
+            return Base64.getEncoder().encodeToString(bytes);
+        }
+
+        @Override
+        public byte[] decode(String text) {
+            return Base64.getDecoder().decode(text);
+        }
+
+        @Override
+        boolean decode(String text, byte[] output) {
+            return decodeBase64(text, output, BASE64_VALUES);
+        }
+    },
+
+    /**
+     * URL安全的Base64（RFC 4648，不带填充），可直接用于URL和文件名
+     */
+    BASE64_URL {
+        @Override
+        public String encode(byte[] bytes) {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        }
+
+        @Override
+        public byte[] decode(String text) {
+            return Base64.getUrlDecoder().decode(text);
+        }
+
+        @Override
+        boolean decode(String text, byte[] output) {
+            return decodeBase64(text, output, BASE64_URL_VALUES);
+        }
+    };
+
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] BASE64_VALUES = base64Values("ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/");
+
+    private static final byte[] BASE64_URL_VALUES = base64Values("ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_");
+
+    /**
+     * 编码
+     *
+     * @param bytes 二进制数据
+     * @return 文本
+     */
+    public abstract String encode(byte[] bytes);
+
+    /**
+     * 解码
+     *
+     * @param text 文本
+     * @return 二进制数据
+     * @throws IllegalArgumentException 文本不符合编码格式
+     */
+    public abstract byte[] decode(String text);
+
+    /**
+     * 解码到调用方提供的缓冲区，不分配内存（用于签名验证等热点路径）
+     *
+     * @param text   文本
+     * @param output 输出缓冲区，解码结果须恰好填满
+     * @return 文本符合编码格式且解码长度等于 {@code output.length}
+     */
+    abstract boolean decode(String text, byte[] output);
+
+    private static int hexDigit(char c, int index) {
+        int digit = Character.digit(c, 16);
+        if (digit < 0) {
+            throw new IllegalArgumentException("illegal hex character " + c + " at index " + index);
+        }
+        return digit;
+    }
+
+    private static byte[] base64Values(String alphabet) {
+        byte[] values = new byte[128];
+        Arrays.fill(values, (byte) -1);
+        for (int i = 0; i < alphabet.length(); i++) {
+            values[alphabet.charAt(i)] = (byte) i;
+        }
+        return values;
+    }
+
+    /**
+     * 与 {@link Base64.Decoder} 一样接受省略的填充
+     */
+    private static boolean decodeBase64(String text, byte[] output, byte[] values) {
+        int length = text.length();
+        int padding = 0;
+        while (padding < 2 && length > 0 && text.charAt(length - 1) == '=') {
+            length--;
+            padding++;
+        }
+        if (padding > 0 && ((length + padding) & 3) != 0 || (length & 3) == 1 || length * 3 / 4 != output.length) {
+            return false;
+        }
+
+        int bits = 0;
+        int count = 0;
+        for (int i = 0, j = 0; i < length; i++) {
+            char c = text.charAt(i);
+            int value = c < 128 ? values[c] : -1;
+            if (value < 0) {
+                return false;
+            }
+            bits = (bits << 6) | value;
+            count += 6;
+            if (count >= 8) {
+                count -= 8;
+                output[j++] = (byte) (bits >>> count);
+            }
+        }
+        return true;
+    }
+
+}
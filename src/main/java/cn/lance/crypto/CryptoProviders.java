@@ -0,0 +1,623 @@
+package cn.lance.crypto;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
+import java.security.Security;
+import java.security.Signature;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JCA Provider选择
+ *
+ * @implNote 不同Provider（SunJCE、Bouncy Castle等）在不同CPU上对不同算法的性能差异较大。
+ * 校准时对每个算法逐个Provider跑一段微基准（先预热再计时），把吞吐量最高的Provider固定下来，
+ * 之后 {@link #cipher(String)} / {@link #mac(String)} / {@link #signature(String)} 直接从固定的Provider获取实例；
+ * 未校准或未固定的算法仍按JCA默认顺序查找，行为与 {@code getInstance(algorithm)} 一致。
+ * <p>
+ * 只有写明模式和填充的 {@link Cipher} transformation（如 {@code RSA/ECB/PKCS1Padding}）可以固定Provider：
+ * 各Provider对 {@code "RSA"}、{@code "AES"} 这类简写的默认模式和填充不同（Bouncy Castle的 {@code "RSA"} 不填充），
+ * 固定后会改变密文格式。校准时每个候选Provider还要与默认Provider互相加解密（签名验签、MAC结果一致），
+ * 不一致的不参与比较。
+ * <p>
+ * 校准结果可保存为properties文件，下次启动直接加载（文件记录JVM版本、CPU架构和处理器数，环境变化时作废）。
+ * 启动时读取以下系统属性：
+ * <ul>
+ *     <li>{@code cn.lance.crypto.providers.file}：校准文件路径，存在且有效时直接加载</li>
+ *     <li>{@code cn.lance.crypto.providers.calibrate=true}：未能加载校准文件时启动校准，设置了文件路径则保存结果</li>
+ *     <li>{@code cn.lance.crypto.provider.<服务>.<算法>=<Provider名称>}：手动指定，优先于校准结果，
+ *     如 {@code cn.lance.crypto.provider.Cipher.AES/GCM/NoPadding=BC}</li>
+ * </ul>
+ */
+public final class CryptoProviders {
+
+    public final static String CIPHER = "Cipher";
+
+    public final static String MAC = "Mac";
+
+    public final static String SIGNATURE = "Signature";
+
+    private final static String PROPERTY_FILE = "cn.lance.crypto.providers.file";
+
+    private final static String PROPERTY_CALIBRATE = "cn.lance.crypto.providers.calibrate";
+
+    private final static String PROPERTY_OVERRIDE_PREFIX = "cn.lance.crypto.provider.";
+
+    private final static String FINGERPRINT_KEY = "calibration.fingerprint";
+
+    /**
+     * 默认校准的算法（本包使用到的算法）
+     */
+    private final static Map<String, List<String>> DEFAULT_ALGORITHMS = new LinkedHashMap<>();
+
+    /**
+     * 每个Provider的默认计时时长（预热时长相同）
+     */
+    private final static Duration DEFAULT_MEASURE_TIME = Duration.ofMillis(50);
+
+    /**
+     * 基准测试每次操作处理的数据长度
+     */
+    private final static int PAYLOAD_SIZE = 1024;
+
+    /**
+     * Bouncy Castle不注册到全局Provider列表，避免影响其他代码的默认查找顺序
+     */
+    private final static Provider BOUNCY_CASTLE = new BouncyCastleProvider();
+
+    private final static Map<String, Provider> PINNED = new ConcurrentHashMap<>();
+
+    private final static Set<String> OVERRIDDEN = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 基准测试用密钥对，使用默认Provider生成，与各工具类通过默认 {@link java.security.KeyFactory} 解析出的密钥一致
+     */
+    private final static Map<String, KeyPair> KEY_PAIRS = new ConcurrentHashMap<>();
+
+    private static volatile List<Measurement> measurements = Collections.emptyList();
+
+    static {
+        DEFAULT_ALGORITHMS.put(CIPHER, List.of(AesKey.TRANSFORMATION_ECB, AesKey.TRANSFORMATION_CBC, AesKey.TRANSFORMATION_GCM,
+                "AES/CTR/NoPadding", "RSA/ECB/PKCS1Padding"));
+        DEFAULT_ALGORITHMS.put(MAC, List.of("HmacSHA1", "HmacSHA256", "HmacSHA512"));
+        DEFAULT_ALGORITHMS.put(SIGNATURE, List.of("SHA256withRSA", "Ed25519"));
+
+        initialize();
+    }
+
+    private CryptoProviders() {
+    }
+
+    /**
+     * 获取 {@link Cipher}，优先使用固定的Provider
+     *
+     * @param transformation algorithm/mode/padding
+     * @return Cipher
+     */
+    public static Cipher cipher(String transformation) throws NoSuchAlgorithmException, NoSuchPaddingException {
+        Provider provider = provider(CIPHER, transformation);
+        return provider == null ? Cipher.getInstance(transformation) : Cipher.getInstance(transformation, provider);
+    }
+
+    /**
+     * 获取 {@link Mac}，优先使用固定的Provider
+     *
+     * @param algorithm 算法
+     * @return Mac
+     */
+    public static Mac mac(String algorithm) throws NoSuchAlgorithmException {
+        Provider provider = provider(MAC, algorithm);
+        return provider == null ? Mac.getInstance(algorithm) : Mac.getInstance(algorithm, provider);
+    }
+
+    /**
+     * 获取 {@link Signature}，优先使用固定的Provider
+     *
+     * @param algorithm 算法
+     * @return Signature
+     */
+    public static Signature signature(String algorithm) throws NoSuchAlgorithmException {
+        Provider provider = provider(SIGNATURE, algorithm);
+        return provider == null ? Signature.getInstance(algorithm) : Signature.getInstance(algorithm, provider);
+    }
+
+    /**
+     * 获取固定的Provider
+     *
+     * @param service   服务（{@link #CIPHER} / {@link #MAC} / {@link #SIGNATURE}）
+     * @param algorithm 算法
+     * @return Provider，未固定时返回null（使用JCA默认顺序）
+     */
+    public static Provider provider(String service, String algorithm) {
+        Objects.requireNonNull(service, "service must not be null");
+        Objects.requireNonNull(algorithm, "algorithm must not be null");
+
+        return PINNED.get(key(service, algorithm));
+    }
+
+    /**
+     * 手动指定Provider，优先于校准结果
+     *
+     * @param service      服务（{@link #CIPHER} / {@link #MAC} / {@link #SIGNATURE}）
+     * @param algorithm    算法（{@link Cipher} 须写明模式和填充）
+     * @param providerName Provider名称（如 SunJCE、BC）
+     */
+    public static void override(String service, String algorithm, String providerName) throws NoSuchAlgorithmException {
+        Objects.requireNonNull(service, "service must not be null");
+        Objects.requireNonNull(algorithm, "algorithm must not be null");
+        Objects.requireNonNull(providerName, "providerName must not be null");
+        checkPinnable(service, algorithm);
+
+        Provider provider = findProvider(providerName);
+        if (provider == null) {
+            throw new NoSuchAlgorithmException("Provider not found: " + providerName);
+        }
+        String key = key(service, algorithm);
+        OVERRIDDEN.add(key);
+        PINNED.put(key, provider);
+    }
+
+    /**
+     * 清除所有固定的Provider（包括手动指定的）和测量结果，恢复JCA默认顺序
+     */
+    public static void reset() {
+        OVERRIDDEN.clear();
+        PINNED.clear();
+        measurements = Collections.emptyList();
+    }
+
+    /**
+     * 使用默认算法和计时时长校准
+     *
+     * @return 测量结果
+     */
+    public static List<Measurement> calibrate() {
+        return calibrate(DEFAULT_MEASURE_TIME);
+    }
+
+    /**
+     * 使用默认算法校准
+     *
+     * @param measureTime 每个Provider的计时时长
+     * @return 测量结果
+     */
+    public static List<Measurement> calibrate(Duration measureTime) {
+        List<Measurement> results = new ArrayList<>();
+        for (Map.Entry<String, List<String>> entry : DEFAULT_ALGORITHMS.entrySet()) {
+            results.addAll(calibrate(measureTime, entry.getKey(), entry.getValue().toArray(new String[0])));
+        }
+        measurements = List.copyOf(results);
+        return measurements;
+    }
+
+    /**
+     * 校准指定算法，每个算法固定吞吐量最高的Provider（手动指定的除外）
+     *
+     * @param measureTime 每个Provider的计时时长
+     * @param service     服务（{@link #CIPHER} / {@link #MAC} / {@link #SIGNATURE}）
+     * @param algorithms  算法（{@link Cipher} 须写明模式和填充）
+     * @return 测量结果，不支持该算法或与默认Provider结果不兼容的Provider不出现在结果中
+     */
+    public static List<Measurement> calibrate(Duration measureTime, String service, String... algorithms) {
+        Objects.requireNonNull(measureTime, "measureTime must not be null");
+        Objects.requireNonNull(service, "service must not be null");
+        Objects.requireNonNull(algorithms, "algorithms must not be null");
+        for (String algorithm : algorithms) {
+            checkPinnable(service, algorithm);
+        }
+
+        List<Measurement> results = new ArrayList<>();
+        for (String algorithm : algorithms) {
+            Measurement fastest = null;
+            for (Provider provider : candidates()) {
+                Operation operation;
+                double opsPerSecond;
+                try {
+                    if (!compatible(service, algorithm, provider)) {
+                        continue;
+                    }
+                    operation = operation(service, algorithm, provider);
+                    opsPerSecond = measure(operation, measureTime.toNanos());
+                } catch (GeneralSecurityException | RuntimeException e) {
+                    // 该Provider不支持此算法或不接受默认Provider生成的密钥
+                    continue;
+                }
+                Measurement measurement = new Measurement(service, algorithm, provider.getName(), opsPerSecond);
+                results.add(measurement);
+                if (fastest == null || opsPerSecond > fastest.opsPerSecond) {
+                    fastest = measurement;
+                }
+            }
+
+            String key = key(service, algorithm);
+            if (fastest != null && !OVERRIDDEN.contains(key)) {
+                PINNED.put(key, findProvider(fastest.provider));
+            }
+        }
+
+        List<Measurement> merged = new ArrayList<>(measurements);
+        merged.removeIf(m -> m.service.equals(service) && Arrays.asList(algorithms).contains(m.algorithm));
+        merged.addAll(results);
+        measurements = List.copyOf(merged);
+        return results;
+    }
+
+    /**
+     * @return 最近一次校准的测量结果
+     */
+    public static List<Measurement> measurements() {
+        return measurements;
+    }
+
+    /**
+     * 测量报告，每个算法一行一个Provider，当前使用的Provider以 {@code *} 标记
+     *
+     * @return 报告
+     */
+    public static String report() {
+        StringBuilder builder = new StringBuilder();
+        for (Measurement measurement : measurements) {
+            Provider pinned = PINNED.get(key(measurement.service, measurement.algorithm));
+            boolean selected = pinned != null && pinned.getName().equals(measurement.provider);
+            builder.append(String.format("%s %-10s %-24s %-10s %,14.0f ops/s%n", selected ? "*" : " ",
+                    measurement.service, measurement.algorithm, measurement.provider, measurement.opsPerSecond));
+        }
+        for (Map.Entry<String, Provider> entry : PINNED.entrySet()) {
+            if (OVERRIDDEN.contains(entry.getKey())) {
+                builder.append(String.format("* %-35s %-10s (override)%n", entry.getKey(), entry.getValue().getName()));
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 保存固定的Provider（不含手动指定的）
+     *
+     * @param path 校准文件
+     */
+    public static void save(Path path) throws IOException {
+        Objects.requireNonNull(path, "path must not be null");
+
+        Properties properties = new Properties();
+        properties.setProperty(FINGERPRINT_KEY, fingerprint());
+        for (Map.Entry<String, Provider> entry : PINNED.entrySet()) {
+            if (!OVERRIDDEN.contains(entry.getKey())) {
+                properties.setProperty(entry.getKey(), entry.getValue().getName());
+            }
+        }
+        try (OutputStream out = Files.newOutputStream(path)) {
+            properties.store(out, "JCA provider calibration");
+        }
+    }
+
+    /**
+     * 加载校准文件
+     *
+     * @param path 校准文件
+     * @return 是否加载（文件不存在或运行环境与校准时不一致时返回false）
+     */
+    public static boolean load(Path path) throws IOException {
+        Objects.requireNonNull(path, "path must not be null");
+
+        if (!Files.isRegularFile(path)) {
+            return false;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(path)) {
+            properties.load(in);
+        }
+        if (!fingerprint().equals(properties.getProperty(FINGERPRINT_KEY))) {
+            return false;
+        }
+
+        for (String key : properties.stringPropertyNames()) {
+            // 旧版本校准文件可能含有 Cipher.RSA 这类简写，不再固定
+            if (key.equals(FINGERPRINT_KEY) || OVERRIDDEN.contains(key)
+                    || key.startsWith(CIPHER + ".") && !fullySpecified(key.substring(CIPHER.length() + 1))) {
+                continue;
+            }
+            Provider provider = findProvider(properties.getProperty(key));
+            if (provider != null) {
+                PINNED.put(key, provider);
+            }
+        }
+        return true;
+    }
+
+    private static void initialize() {
+        String file = System.getProperty(PROPERTY_FILE);
+        boolean loaded = false;
+        if (file != null) {
+            try {
+                loaded = load(Paths.get(file));
+            } catch (IOException | RuntimeException e) {
+                // 校准文件损坏时按未加载处理
+            }
+        }
+        if (!loaded && Boolean.getBoolean(PROPERTY_CALIBRATE)) {
+            calibrate();
+            if (file != null) {
+                try {
+                    save(Paths.get(file));
+                } catch (IOException e) {
+                    // 保存失败不影响本次运行
+                }
+            }
+        }
+
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (!name.startsWith(PROPERTY_OVERRIDE_PREFIX)) {
+                continue;
+            }
+            String key = name.substring(PROPERTY_OVERRIDE_PREFIX.length());
+            int dot = key.indexOf('.');
+            if (dot > 0) {
+                try {
+                    override(key.substring(0, dot), key.substring(dot + 1), System.getProperty(name));
+                } catch (NoSuchAlgorithmException | IllegalArgumentException e) {
+                    throw new IllegalStateException("Invalid provider override " + name, e);
+                }
+            }
+        }
+    }
+
+    private static String key(String service, String algorithm) {
+        return service + "." + algorithm;
+    }
+
+    private static void checkPinnable(String service, String algorithm) {
+        if (CIPHER.equals(service) && !fullySpecified(algorithm)) {
+            throw new IllegalArgumentException("Cipher transformation must specify mode and padding: " + algorithm);
+        }
+    }
+
+    /**
+     * @return 是否为 algorithm/mode/padding 形式
+     */
+    private static boolean fullySpecified(String transformation) {
+        String[] parts = transformation.split("/", -1);
+        return parts.length == 3 && !parts[0].isEmpty() && !parts[1].isEmpty() && !parts[2].isEmpty();
+    }
+
+    private static List<Provider> candidates() {
+        List<Provider> providers = new ArrayList<>(Arrays.asList(Security.getProviders()));
+        if (Security.getProvider(BOUNCY_CASTLE.getName()) == null) {
+            providers.add(BOUNCY_CASTLE);
+        }
+        return providers;
+    }
+
+    private static Provider findProvider(String name) {
+        Provider provider = Security.getProvider(name);
+        if (provider == null && BOUNCY_CASTLE.getName().equals(name)) {
+            provider = BOUNCY_CASTLE;
+        }
+        return provider;
+    }
+
+    private static String fingerprint() {
+        return System.getProperty("java.vm.vendor") + "/" + System.getProperty("java.vm.version") + "/"
+                + System.getProperty("os.arch") + "/" + Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * 预热后在给定时长内反复执行，返回每秒操作数
+     */
+    private static double measure(Operation operation, long nanos) throws GeneralSecurityException {
+        long start = System.nanoTime();
+        do {
+            operation.run();
+        } while (System.nanoTime() - start < nanos);
+
+        long ops = 0;
+        start = System.nanoTime();
+        long elapsed;
+        do {
+            operation.run();
+            ops++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < nanos);
+        return ops * 1e9 / elapsed;
+    }
+
+    /**
+     * 候选Provider与JCA默认Provider的结果是否互通：密文互相可解、MAC结果相同、签名互相可验
+     */
+    private static boolean compatible(String service, String algorithm, Provider provider) throws GeneralSecurityException {
+        byte[] payload = new byte[PAYLOAD_SIZE];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) i;
+        }
+        switch (service) {
+            case CIPHER:
+                Cipher candidate = Cipher.getInstance(algorithm, provider);
+                Cipher reference = Cipher.getInstance(algorithm);
+                byte[] block = algorithm.startsWith("RSA") ? Arrays.copyOf(payload, 32) : payload;
+                return Arrays.equals(block, crypt(reference, Cipher.DECRYPT_MODE, algorithm, crypt(candidate, Cipher.ENCRYPT_MODE, algorithm, block)))
+                        && Arrays.equals(block, crypt(candidate, Cipher.DECRYPT_MODE, algorithm, crypt(reference, Cipher.ENCRYPT_MODE, algorithm, block)));
+            case MAC:
+                SecretKeySpec macKey = new SecretKeySpec(Arrays.copyOf(payload, 32), algorithm);
+                Mac candidateMac = Mac.getInstance(algorithm, provider);
+                Mac referenceMac = Mac.getInstance(algorithm);
+                candidateMac.init(macKey);
+                referenceMac.init(macKey);
+                return Arrays.equals(candidateMac.doFinal(payload), referenceMac.doFinal(payload));
+            case SIGNATURE:
+                KeyPair keyPair = keyPair(algorithm);
+                return verifies(Signature.getInstance(algorithm, provider), Signature.getInstance(algorithm), keyPair, payload)
+                        && verifies(Signature.getInstance(algorithm), Signature.getInstance(algorithm, provider), keyPair, payload);
+            default:
+                throw new IllegalArgumentException("Unsupported service: " + service);
+        }
+    }
+
+    private static byte[] crypt(Cipher cipher, int mode, String transformation, byte[] input) throws GeneralSecurityException {
+        if (transformation.startsWith("RSA")) {
+            KeyPair keyPair = keyPair("RSA");
+            cipher.init(mode, mode == Cipher.ENCRYPT_MODE ? keyPair.getPublic() : keyPair.getPrivate());
+        } else {
+            SecretKeySpec key = new SecretKeySpec(new byte[32], "AES");
+            if (transformation.contains("/GCM/")) {
+                cipher.init(mode, key, new GCMParameterSpec(AesKey.GCM_TAG_LENGTH * Byte.SIZE, new byte[AesKey.GCM_IV_LENGTH]));
+            } else if (transformation.contains("/ECB/")) {
+                cipher.init(mode, key);
+            } else {
+                cipher.init(mode, key, new IvParameterSpec(new byte[16]));
+            }
+        }
+        return cipher.doFinal(input);
+    }
+
+    private static boolean verifies(Signature signer, Signature verifier, KeyPair keyPair, byte[] payload) throws GeneralSecurityException {
+        signer.initSign(keyPair.getPrivate());
+        signer.update(payload);
+        byte[] signature = signer.sign();
+        verifier.initVerify(keyPair.getPublic());
+        verifier.update(payload);
+        return verifier.verify(signature);
+    }
+
+    private static Operation operation(String service, String algorithm, Provider provider) throws GeneralSecurityException {
+        byte[] payload = new byte[PAYLOAD_SIZE];
+        switch (service) {
+            case CIPHER:
+                return cipherOperation(algorithm, provider, payload);
+            case MAC:
+                Mac mac = Mac.getInstance(algorithm, provider);
+                mac.init(new SecretKeySpec(new byte[32], algorithm));
+                return () -> mac.doFinal(payload);
+            case SIGNATURE:
+                Signature signature = Signature.getInstance(algorithm, provider);
+                signature.initSign(keyPair(algorithm).getPrivate());
+                return () -> {
+                    signature.update(payload);
+                    signature.sign();
+                };
+            default:
+                throw new IllegalArgumentException("Unsupported service: " + service);
+        }
+    }
+
+    private static Operation cipherOperation(String transformation, Provider provider, byte[] payload) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(transformation, provider);
+        if (transformation.startsWith("RSA")) {
+            cipher.init(Cipher.ENCRYPT_MODE, keyPair("RSA").getPublic());
+            byte[] block = Arrays.copyOf(payload, 32);
+            return () -> cipher.doFinal(block);
+        }
+
+        SecretKeySpec key = new SecretKeySpec(new byte[32], "AES");
+        if (transformation.contains("/GCM/")) {
+            // GCM不允许同一密钥重复使用初始向量，每次递增
+            ByteBuffer iv = ByteBuffer.allocate(AesKey.GCM_IV_LENGTH);
+            return () -> {
+                iv.putLong(0, iv.getLong(0) + 1);
+                cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(AesKey.GCM_TAG_LENGTH * Byte.SIZE, iv.array()));
+                cipher.doFinal(payload);
+            };
+        }
+        if (transformation.contains("/CBC/") || transformation.contains("/CTR/")) {
+            cipher.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(new byte[16]));
+        } else {
+            cipher.init(Cipher.ENCRYPT_MODE, key);
+        }
+        return () -> cipher.doFinal(payload);
+    }
+
+    private static KeyPair keyPair(String algorithm) throws NoSuchAlgorithmException {
+        String keyAlgorithm;
+        if (algorithm.contains("RSA")) {
+            keyAlgorithm = "RSA";
+        } else if (algorithm.startsWith("Ed")) {
+            keyAlgorithm = algorithm;
+        } else if (algorithm.contains("ECDSA")) {
+            keyAlgorithm = "EC";
+        } else {
+            throw new NoSuchAlgorithmException("No key pair for " + algorithm);
+        }
+        return KEY_PAIRS.computeIfAbsent(keyAlgorithm, a -> {
+            try {
+                return KeyPairGenerator.getInstance(a).generateKeyPair();
+            } catch (NoSuchAlgorithmException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    private interface Operation {
+
+        void run() throws GeneralSecurityException;
+
+    }
+
+    /**
+     * 单个Provider对单个算法的测量结果
+     */
+    public static final class Measurement {
+
+        private final String service;
+
+        private final String algorithm;
+
+        private final String provider;
+
+        private final double opsPerSecond;
+
+        private Measurement(String service, String algorithm, String provider, double opsPerSecond) {
+            this.service = service;
+            this.algorithm = algorithm;
+            this.provider = provider;
+            this.opsPerSecond = opsPerSecond;
+        }
+
+        public String getService() {
+            return service;
+        }
+
+        public String getAlgorithm() {
+            return algorithm;
+        }
+
+        public String getProvider() {
+            return provider;
+        }
+
+        public double getOpsPerSecond() {
+            return opsPerSecond;
+        }
+
+        @Override
+        public String toString() {
+            return service + "." + algorithm + "@" + provider + "=" + Math.round(opsPerSecond) + " ops/s";
+        }
+
+    }
+
+}
@@ -69,7 +69,7 @@ public class EdDsaUtils {
         Signature signature;
         KeyFactory keyFactory;
         try {
-            signature = Signature.getInstance(ALG);
+            signature = CryptoProviders.signature(ALG);
             keyFactory = KeyFactory.getInstance(ALG);
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException(e);
@@ -103,7 +103,7 @@ public class EdDsaUtils {
         Signature signature;
         KeyFactory keyFactory;
         try {
-            signature = Signature.getInstance(ALG);
+            signature = CryptoProviders.signature(ALG);
             keyFactory = KeyFactory.getInstance(ALG);
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException(e);
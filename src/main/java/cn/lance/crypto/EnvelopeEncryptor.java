@@ -0,0 +1,179 @@
+package cn.lance.crypto;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 信封加密
+ *
+ * @implNote 每条记录生成独立的数据密钥（AES-256），以AES-GCM加密数据，数据密钥由 {@link KeyWrapper} 使用主密钥包装后与密文一起保存：
+ * <pre>
+ * envelope = version(1) | wrappedKeyLength(2, 大端) | wrappedKey | iv(12) | ciphertext | tag(16)
+ * </pre>
+ * 信封头（version ~ wrappedKey）作为GCM附加认证数据。解密时已解包的数据密钥按包装后的密钥缓存，
+ * 缓存有最大数量和写入后过期时间，热点记录无需每次解包；缓存命中情况见 {@link #stats()}
+ */
+public class EnvelopeEncryptor {
+
+    private final static byte VERSION = 1;
+
+    private final static int DATA_KEY_LENGTH = 32;
+
+    private final static long DEFAULT_CACHE_SIZE = 10_000;
+
+    private final static Duration DEFAULT_CACHE_TTL = Duration.ofMinutes(5);
+
+    private final static SecureRandom RANDOM = new SecureRandom();
+
+    private final KeyWrapper keyWrapper;
+
+    private final Cache<ByteBuffer, AesKey> dataKeyCache;
+
+    /**
+     * 使用默认缓存配置（最多10000个数据密钥，写入5分钟后过期）
+     *
+     * @param keyWrapper 数据密钥包装
+     */
+    public EnvelopeEncryptor(KeyWrapper keyWrapper) {
+        this(keyWrapper, DEFAULT_CACHE_SIZE, DEFAULT_CACHE_TTL);
+    }
+
+    /**
+     * @param keyWrapper   数据密钥包装
+     * @param maxCacheSize 最多缓存的数据密钥数量，0表示不缓存
+     * @param cacheTtl     数据密钥写入缓存后的过期时间
+     */
+    public EnvelopeEncryptor(KeyWrapper keyWrapper, long maxCacheSize, Duration cacheTtl) {
+        this.keyWrapper = Objects.requireNonNull(keyWrapper, "keyWrapper must not be null");
+        Objects.requireNonNull(cacheTtl, "cacheTtl must not be null");
+
+        this.dataKeyCache = CacheBuilder.newBuilder()
+                .maximumSize(maxCacheSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 信封加密
+     *
+     * @param plaintext 原文
+     * @return 信封（包含包装后的数据密钥和密文）
+     */
+    public byte[] encrypt(byte[] plaintext) throws GeneralSecurityException {
+        Objects.requireNonNull(plaintext, "plaintext must not be null");
+
+        byte[] dataKey = new byte[DATA_KEY_LENGTH];
+        RANDOM.nextBytes(dataKey);
+        try {
+            byte[] wrappedKey = keyWrapper.wrap(dataKey);
+            if (wrappedKey.length > 0xffff) {
+                throw new IllegalStateException("wrapped key too long: " + wrappedKey.length);
+            }
+            byte[] iv = new byte[AesKey.GCM_IV_LENGTH];
+            RANDOM.nextBytes(iv);
+
+            int headerLength = 1 + Short.BYTES + wrappedKey.length;
+            byte[] envelope = new byte[headerLength + iv.length + AesKey.gcmEncryptedSize(plaintext.length)];
+            ByteBuffer.wrap(envelope)
+                    .put(VERSION)
+                    .putShort((short) wrappedKey.length)
+                    .put(wrappedKey)
+                    .put(iv);
+
+            // 数据密钥只用这一次，不创建带实例池的密钥句柄
+            byte[] header = Arrays.copyOf(envelope, headerLength);
+            AesKey.encryptGcmOnce(dataKey, iv, header, plaintext, 0, plaintext.length, envelope, headerLength + iv.length);
+            return envelope;
+        } finally {
+            Arrays.fill(dataKey, (byte) 0);
+        }
+    }
+
+    /**
+     * 信封解密
+     *
+     * @param envelope 信封
+     * @return 原文
+     * @throws GeneralSecurityException 数据密钥解包失败或密文认证失败
+     */
+    public byte[] decrypt(byte[] envelope) throws GeneralSecurityException {
+        Objects.requireNonNull(envelope, "envelope must not be null");
+
+        ByteBuffer buffer = ByteBuffer.wrap(envelope);
+        if (envelope.length < 1 + Short.BYTES || buffer.get() != VERSION) {
+            throw new IllegalArgumentException("unsupported envelope");
+        }
+        int wrappedKeyLength = buffer.getShort() & 0xffff;
+        int headerLength = 1 + Short.BYTES + wrappedKeyLength;
+        int ciphertextOffset = headerLength + AesKey.GCM_IV_LENGTH;
+        if (envelope.length < ciphertextOffset + AesKey.GCM_TAG_LENGTH) {
+            throw new IllegalArgumentException("truncated envelope");
+        }
+
+        byte[] wrappedKey = Arrays.copyOfRange(envelope, 1 + Short.BYTES, headerLength);
+        byte[] iv = Arrays.copyOfRange(envelope, headerLength, ciphertextOffset);
+        byte[] header = Arrays.copyOf(envelope, headerLength);
+
+        AesKey aesKey = dataKey(wrappedKey);
+        byte[] plaintext = new byte[AesKey.gcmDecryptedSize(envelope.length - ciphertextOffset)];
+        aesKey.decryptGcm(iv, header, envelope, ciphertextOffset, envelope.length - ciphertextOffset, plaintext, 0);
+        return plaintext;
+    }
+
+    /**
+     * @return 数据密钥缓存统计（命中数、未命中数、淘汰数等）
+     */
+    public CacheStats stats() {
+        return dataKeyCache.stats();
+    }
+
+    /**
+     * @return 当前缓存的数据密钥数量
+     */
+    public long cachedKeys() {
+        return dataKeyCache.size();
+    }
+
+    /**
+     * 清空数据密钥缓存（例如主密钥轮换后）
+     */
+    public void invalidateAll() {
+        dataKeyCache.invalidateAll();
+    }
+
+    private AesKey dataKey(byte[] wrappedKey) throws GeneralSecurityException {
+        try {
+            // 同一个包装密钥并发未命中时只解包一次
+            return dataKeyCache.get(ByteBuffer.wrap(wrappedKey), () -> {
+                byte[] dataKey = keyWrapper.unwrap(wrappedKey);
+                try {
+                    return AesKey.of(dataKey);
+                } finally {
+                    Arrays.fill(dataKey, (byte) 0);
+                }
+            });
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof GeneralSecurityException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+}
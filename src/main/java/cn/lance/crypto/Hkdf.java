@@ -0,0 +1,267 @@
+package cn.lance.crypto;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * HKDF密钥派生（RFC 5869）
+ *
+ * @implNote 静态方法直接在原始字节上计算 extract/expand，不经过十六进制字符串。
+ * 实例持有主密钥，派生结果按 (salt, info, length) 缓存：缓存有最大数量和访问后过期时间，
+ * 热点租户不重复派生，冷门租户的子密钥会被淘汰。缓存中的数组创建后不再修改（淘汰时也不清零，其他线程可能正在复制），
+ * 返回值均为副本；缓存数量为0时每次直接派生。线程安全
+ */
+public final class Hkdf {
+
+    private final static long DEFAULT_CACHE_SIZE = 10_000;
+
+    private final static Duration DEFAULT_CACHE_TTL = Duration.ofMinutes(10);
+
+    private final String algorithm;
+
+    private final byte[] masterSecret;
+
+    private final boolean cached;
+
+    private final Cache<Derivation, byte[]> cache;
+
+    private Hkdf(String algorithm, byte[] masterSecret, long maxCacheSize, Duration cacheTtl) {
+        this.algorithm = algorithm;
+        this.masterSecret = masterSecret.clone();
+        this.cached = maxCacheSize > 0;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maxCacheSize)
+                .expireAfterAccess(cacheTtl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 创建HKDF派生器，使用默认缓存配置（最多10000个子密钥，10分钟未访问后过期）
+     *
+     * @param algorithm    HMAC算法，如 {@code HmacSHA256}
+     * @param masterSecret 主密钥（输入密钥材料）
+     * @return HKDF派生器
+     */
+    public static Hkdf of(String algorithm, byte[] masterSecret) throws NoSuchAlgorithmException {
+        return of(algorithm, masterSecret, DEFAULT_CACHE_SIZE, DEFAULT_CACHE_TTL);
+    }
+
+    /**
+     * 创建HKDF派生器
+     *
+     * @param algorithm    HMAC算法，如 {@code HmacSHA256}
+     * @param masterSecret 主密钥（输入密钥材料）
+     * @param maxCacheSize 最多缓存的子密钥数量，0表示不缓存
+     * @param cacheTtl     子密钥最后一次访问后的过期时间
+     * @return HKDF派生器
+     */
+    public static Hkdf of(String algorithm, byte[] masterSecret, long maxCacheSize, Duration cacheTtl) throws NoSuchAlgorithmException {
+        Objects.requireNonNull(algorithm, "algorithm must not be null");
+        Objects.requireNonNull(masterSecret, "masterSecret must not be null");
+        Objects.requireNonNull(cacheTtl, "cacheTtl must not be null");
+        if (maxCacheSize < 0) {
+            throw new IllegalArgumentException("maxCacheSize must not be negative");
+        }
+
+        // 算法不存在时在此处抛出
+        CryptoProviders.mac(algorithm);
+        return new Hkdf(algorithm, masterSecret, maxCacheSize, cacheTtl);
+    }
+
+    /**
+     * 提取
+     *
+     * @param algorithm HMAC算法
+     * @param salt      盐，null或空表示全零
+     * @param ikm       输入密钥材料
+     * @return 伪随机密钥（PRK），长度为HMAC输出长度
+     */
+    public static byte[] extract(String algorithm, byte[] salt, byte[] ikm) throws NoSuchAlgorithmException {
+        Objects.requireNonNull(algorithm, "algorithm must not be null");
+        Objects.requireNonNull(ikm, "ikm must not be null");
+
+        Mac mac = CryptoProviders.mac(algorithm);
+        if (salt == null || salt.length == 0) {
+            salt = new byte[mac.getMacLength()];
+        }
+        init(mac, salt);
+        return mac.doFinal(ikm);
+    }
+
+    /**
+     * 扩展
+     *
+     * @param algorithm HMAC算法
+     * @param prk       伪随机密钥，长度不小于HMAC输出长度
+     * @param info      上下文信息，可为null
+     * @param length    输出长度（不超过HMAC输出长度的255倍）
+     * @return 输出密钥材料（OKM）
+     */
+    public static byte[] expand(String algorithm, byte[] prk, byte[] info, int length) throws NoSuchAlgorithmException {
+        Objects.requireNonNull(algorithm, "algorithm must not be null");
+        Objects.requireNonNull(prk, "prk must not be null");
+
+        Mac mac = CryptoProviders.mac(algorithm);
+        int macLength = mac.getMacLength();
+        if (length < 0 || length > 255 * macLength) {
+            throw new IllegalArgumentException("length must be between 0 and " + 255 * macLength);
+        }
+        if (prk.length < macLength) {
+            throw new IllegalArgumentException("prk must be at least " + macLength + " bytes");
+        }
+        init(mac, prk);
+
+        byte[] okm = new byte[length];
+        byte[] block = new byte[macLength];
+        try {
+            // T(i) = HMAC(PRK, T(i-1) | info | i)，结果直接写入复用的块缓冲区
+            for (int i = 1, offset = 0; offset < length; i++, offset += macLength) {
+                if (i > 1) {
+                    mac.update(block);
+                }
+                if (info != null) {
+                    mac.update(info);
+                }
+                mac.update((byte) i);
+                mac.doFinal(block, 0);
+                System.arraycopy(block, 0, okm, offset, Math.min(macLength, length - offset));
+            }
+        } catch (ShortBufferException e) {
+            // 块缓冲区长度等于HMAC输出长度
+            throw new RuntimeException(e);
+        } finally {
+            Arrays.fill(block, (byte) 0);
+        }
+        return okm;
+    }
+
+    /**
+     * 提取并扩展
+     *
+     * @param algorithm HMAC算法
+     * @param salt      盐，null或空表示全零
+     * @param ikm       输入密钥材料
+     * @param info      上下文信息，可为null
+     * @param length    输出长度
+     * @return 输出密钥材料（OKM）
+     */
+    public static byte[] derive(String algorithm, byte[] salt, byte[] ikm, byte[] info, int length) throws NoSuchAlgorithmException {
+        byte[] prk = extract(algorithm, salt, ikm);
+        try {
+            return expand(algorithm, prk, info, length);
+        } finally {
+            Arrays.fill(prk, (byte) 0);
+        }
+    }
+
+    /**
+     * 从主密钥派生子密钥（缓存）
+     *
+     * @param salt   盐，null或空表示全零
+     * @param info   上下文信息（如租户ID），可为null
+     * @param length 输出长度
+     * @return 子密钥
+     */
+    public byte[] derive(byte[] salt, byte[] info, int length) {
+        if (!cached) {
+            try {
+                return derive(algorithm, salt, masterSecret, info, length);
+            } catch (NoSuchAlgorithmException e) {
+                // 算法在构造时已校验
+                throw new RuntimeException(e);
+            }
+        }
+
+        Derivation derivation = new Derivation(salt, info, length);
+        try {
+            return cache.get(derivation, () -> derive(algorithm, derivation.salt, masterSecret, derivation.info, length)).clone();
+        } catch (ExecutionException e) {
+            // 算法在构造时已校验
+            throw new RuntimeException(e.getCause());
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return 缓存统计（命中数、未命中数、淘汰数等）
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * @return 当前缓存的子密钥数量
+     */
+    public long cachedKeys() {
+        return cache.size();
+    }
+
+    /**
+     * 清空子密钥缓存
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private static void init(Mac mac, byte[] key) {
+        try {
+            mac.init(new SecretKeySpec(key, mac.getAlgorithm()));
+        } catch (InvalidKeyException e) {
+            // HMAC接受任意非空密钥
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 缓存键，按内容比较
+     */
+    private static final class Derivation {
+
+        private final byte[] salt;
+
+        private final byte[] info;
+
+        private final int length;
+
+        private Derivation(byte[] salt, byte[] info, int length) {
+            this.salt = salt == null ? new byte[0] : salt.clone();
+            this.info = info == null ? new byte[0] : info.clone();
+            this.length = length;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Derivation that)) {
+                return false;
+            }
+            return length == that.length && Arrays.equals(salt, that.salt) && Arrays.equals(info, that.info);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * Arrays.hashCode(salt) + Arrays.hashCode(info)) + length;
+        }
+
+    }
+
+}
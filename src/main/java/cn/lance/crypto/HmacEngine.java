@@ -0,0 +1,206 @@
+package cn.lance.crypto;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.DigestException;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * 不分配内存的HMAC计算（RFC 2104）
+ *
+ * @implNote {@link Mac#doFinal(byte[], int)} 内部仍会新建结果数组再复制，稳定状态下无法做到零分配。
+ * 常见算法直接基于 {@link MessageDigest} 计算：ipad/opad密钥块预先计算，内层摘要和结果写入实例自带的数组，
+ * {@code update}/{@code doFinal} 不分配内存；其他算法，以及通过 {@link CryptoProviders} 固定或手动指定了
+ * Mac Provider的算法（如FIPS Provider），使用该Provider已初始化的 {@link Mac}（以创建实例时为准）。
+ * 每个实例附带结果缓冲区 {@link #result} 和签名解码缓冲区 {@link #expected}，供验证时复用。
+ * 非线程安全，由 {@link HmacSigner} 池化复用；{@code doFinal} 之后自动复位
+ */
+final class HmacEngine {
+
+    private final static Map<String, DigestSpec> DIGESTS = Map.ofEntries(
+            Map.entry("HmacMD5", new DigestSpec("MD5", 64)),
+            Map.entry("HmacSHA1", new DigestSpec("SHA-1", 64)),
+            Map.entry("HmacSHA224", new DigestSpec("SHA-224", 64)),
+            Map.entry("HmacSHA256", new DigestSpec("SHA-256", 64)),
+            Map.entry("HmacSHA384", new DigestSpec("SHA-384", 128)),
+            Map.entry("HmacSHA512", new DigestSpec("SHA-512", 128)),
+            Map.entry("HmacSHA512/224", new DigestSpec("SHA-512/224", 128)),
+            Map.entry("HmacSHA512/256", new DigestSpec("SHA-512/256", 128)),
+            Map.entry("HmacSHA3-224", new DigestSpec("SHA3-224", 144)),
+            Map.entry("HmacSHA3-256", new DigestSpec("SHA3-256", 136)),
+            Map.entry("HmacSHA3-384", new DigestSpec("SHA3-384", 104)),
+            Map.entry("HmacSHA3-512", new DigestSpec("SHA3-512", 72))
+    );
+
+    private final static byte IPAD = 0x36;
+
+    private final static byte OPAD = 0x5c;
+
+    private final MessageDigest digest;
+
+    private final Mac mac;
+
+    private final byte[] innerPad;
+
+    private final byte[] outerPad;
+
+    private final byte[] inner;
+
+    private final int length;
+
+    /**
+     * 结果缓冲区，长度为签名长度
+     */
+    final byte[] result;
+
+    /**
+     * 签名解码缓冲区，长度为签名长度
+     */
+    final byte[] expected;
+
+    HmacEngine(String algorithm, byte[] key) throws NoSuchAlgorithmException, InvalidKeyException {
+        // 固定了Provider的算法必须由该Provider计算，不能绕过
+        DigestSpec spec = CryptoProviders.provider(CryptoProviders.MAC, algorithm) == null ? DIGESTS.get(algorithm) : null;
+        if (spec != null) {
+            this.digest = MessageDigest.getInstance(spec.algorithm);
+            this.mac = null;
+            this.length = digest.getDigestLength();
+
+            this.innerPad = new byte[spec.blockSize];
+            this.outerPad = new byte[spec.blockSize];
+            this.inner = new byte[length];
+
+            // 超过分组长度的密钥先做一次摘要
+            byte[] block = key.length > spec.blockSize ? digest.digest(key) : key;
+            rekey(block, block.length);
+            if (block != key) {
+                Arrays.fill(block, (byte) 0);
+            }
+        } else {
+            this.digest = null;
+            this.mac = CryptoProviders.mac(algorithm);
+            this.mac.init(new SecretKeySpec(key, algorithm));
+            this.length = mac.getMacLength();
+            this.innerPad = null;
+            this.outerPad = null;
+            this.inner = null;
+        }
+        this.result = new byte[length];
+        this.expected = new byte[length];
+    }
+
+    /**
+     * @return 签名长度（字节）
+     */
+    int length() {
+        return length;
+    }
+
+    void update(byte[] data, int offset, int length) {
+        if (digest != null) {
+            digest.update(data, offset, length);
+        } else {
+            mac.update(data, offset, length);
+        }
+    }
+
+    void update(ByteBuffer data) {
+        if (digest != null) {
+            digest.update(data);
+        } else {
+            mac.update(data);
+        }
+    }
+
+    /**
+     * @return 实际计算的Provider
+     */
+    Provider provider() {
+        return digest != null ? digest.getProvider() : mac.getProvider();
+    }
+
+    /**
+     * 更换密钥并复位，基于摘要计算时不分配内存（例如逐个账号计算TOTP时复用同一实例）
+     *
+     * @param key    密钥
+     * @param length 密钥长度，不超过摘要分组长度
+     */
+    void rekey(byte[] key, int length) {
+        if (digest == null) {
+            try {
+                mac.init(new SecretKeySpec(key, 0, length, mac.getAlgorithm()));
+            } catch (InvalidKeyException e) {
+                // HMAC接受任意非空密钥
+                throw new RuntimeException(e);
+            }
+            return;
+        }
+        if (length > innerPad.length) {
+            throw new IllegalArgumentException("key longer than block size: " + length);
+        }
+
+        for (int i = 0; i < innerPad.length; i++) {
+            byte b = i < length ? key[i] : 0;
+            innerPad[i] = (byte) (b ^ IPAD);
+            outerPad[i] = (byte) (b ^ OPAD);
+        }
+        digest.reset();
+        digest.update(innerPad);
+    }
+
+    /**
+     * 丢弃已输入的数据
+     */
+    void reset() {
+        if (digest != null) {
+            digest.reset();
+            digest.update(innerPad);
+        } else {
+            mac.reset();
+        }
+    }
+
+    /**
+     * 完成计算并复位
+     *
+     * @param output       输出缓冲区，调用方保证剩余空间不小于 {@link #length()}
+     * @param outputOffset 输出起始位置
+     */
+    void doFinal(byte[] output, int outputOffset) {
+        try {
+            if (digest != null) {
+                digest.digest(inner, 0, inner.length);
+                digest.update(outerPad);
+                digest.update(inner);
+                digest.digest(output, outputOffset, length);
+                digest.update(innerPad);
+            } else {
+                mac.doFinal(output, outputOffset);
+            }
+        } catch (DigestException | ShortBufferException e) {
+            // 缓冲区长度由调用方保证
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static final class DigestSpec {
+
+        private final String algorithm;
+
+        private final int blockSize;
+
+        private DigestSpec(String algorithm, int blockSize) {
+            this.algorithm = algorithm;
+            this.blockSize = blockSize;
+        }
+
+    }
+
+}
@@ -0,0 +1,281 @@
+package cn.lance.crypto;
+
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * HMAC密钥环
+ *
+ * @implNote 按密钥ID保存已初始化的 {@link HmacSigner}/{@link HmacVerifier}，签名值带密钥ID前缀
+ * （{@code keyId:signature}），验证时按前缀直接找到对应密钥，每条消息只计算1次HMAC，不逐个尝试候选密钥。
+ * 密钥集合是不可变快照，由 {@link AtomicReference} 整体替换：验证路径无锁，轮换时新旧快照原子切换，不影响进行中的验证。
+ * 轮换后旧的主密钥进入宽限期，宽限期内仍可验证（不再用于签名），过期后拒绝并在下次变更时移除。
+ * 同一密钥ID只能对应一个密钥：直接替换会让该ID下已签发的签名立即失效而没有宽限期，
+ * 因此换密钥必须使用新的ID，重复添加相同的密钥不受影响
+ */
+public final class HmacKeyring {
+
+    /**
+     * 密钥ID与签名之间的分隔符（不出现在十六进制和Base64中）
+     */
+    public final static char SEPARATOR = ':';
+
+    private final String algorithm;
+
+    private final Duration gracePeriod;
+
+    private final Clock clock;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(Map.of(), null));
+
+    private HmacKeyring(String algorithm, Duration gracePeriod, Clock clock) {
+        this.algorithm = algorithm;
+        this.gracePeriod = gracePeriod;
+        this.clock = clock;
+    }
+
+    /**
+     * 创建空密钥环
+     *
+     * @param algorithm   <a href="https://docs.oracle.com/en/java/javase/21/docs/specs/security/standard-names.html#mac-algorithms">算法</a>
+     * @param gracePeriod 轮换后旧密钥仍可验证的时长
+     * @return HMAC密钥环
+     */
+    public static HmacKeyring of(String algorithm, Duration gracePeriod) {
+        return of(algorithm, gracePeriod, Clock.systemUTC());
+    }
+
+    /**
+     * 创建空密钥环
+     *
+     * @param algorithm   <a href="https://docs.oracle.com/en/java/javase/21/docs/specs/security/standard-names.html#mac-algorithms">算法</a>
+     * @param gracePeriod 轮换后旧密钥仍可验证的时长
+     * @param clock       时钟（判断宽限期是否结束）
+     * @return HMAC密钥环
+     */
+    public static HmacKeyring of(String algorithm, Duration gracePeriod, Clock clock) {
+        Objects.requireNonNull(algorithm, "algorithm must not be null");
+        Objects.requireNonNull(gracePeriod, "gracePeriod must not be null");
+        Objects.requireNonNull(clock, "clock must not be null");
+        if (gracePeriod.isNegative()) {
+            throw new IllegalArgumentException("gracePeriod must not be negative");
+        }
+
+        return new HmacKeyring(algorithm, gracePeriod, clock);
+    }
+
+    /**
+     * 轮换：新密钥成为主密钥，原主密钥进入宽限期
+     *
+     * @param keyId 密钥ID（不能包含 {@link #SEPARATOR}），已存在时密钥必须相同（如先 {@link #add} 再轮换）
+     * @param key   密钥
+     * @throws IllegalArgumentException 密钥ID已对应其他密钥
+     */
+    public void rotate(String keyId, byte[] key) throws NoSuchAlgorithmException, InvalidKeyException {
+        HmacVerifier verifier = newVerifier(keyId, key);
+        snapshot.updateAndGet(current -> {
+            Instant now = clock.instant();
+            Map<String, Entry> entries = current.liveEntries(now);
+            if (current.primaryKeyId != null && !current.primaryKeyId.equals(keyId)) {
+                entries.computeIfPresent(current.primaryKeyId, (id, entry) -> new Entry(entry.key, entry.verifier, now.plus(gracePeriod)));
+            }
+            entries.put(keyId, newEntry(entries, keyId, key, verifier));
+            return new Snapshot(entries, keyId);
+        });
+    }
+
+    /**
+     * 添加只用于验证的密钥（不影响主密钥，不会过期），例如多个实例分批发布新密钥时
+     *
+     * @param keyId 密钥ID（不能包含 {@link #SEPARATOR}），已存在时密钥必须相同
+     * @param key   密钥
+     * @throws IllegalArgumentException 密钥ID已对应其他密钥
+     */
+    public void add(String keyId, byte[] key) throws NoSuchAlgorithmException, InvalidKeyException {
+        HmacVerifier verifier = newVerifier(keyId, key);
+        snapshot.updateAndGet(current -> {
+            Map<String, Entry> entries = current.liveEntries(clock.instant());
+            entries.put(keyId, newEntry(entries, keyId, key, verifier));
+            return new Snapshot(entries, current.primaryKeyId);
+        });
+    }
+
+    /**
+     * 立即移除密钥（如密钥泄露），不经过宽限期
+     *
+     * @param keyId 密钥ID
+     */
+    public void remove(String keyId) {
+        Objects.requireNonNull(keyId, "keyId must not be null");
+
+        snapshot.updateAndGet(current -> {
+            Map<String, Entry> entries = current.liveEntries(clock.instant());
+            entries.remove(keyId);
+            return new Snapshot(entries, keyId.equals(current.primaryKeyId) ? null : current.primaryKeyId);
+        });
+    }
+
+    /**
+     * @return 主密钥ID，没有主密钥时为null
+     */
+    public String primaryKeyId() {
+        return snapshot.get().primaryKeyId;
+    }
+
+    /**
+     * @return 当前可验证的密钥ID
+     */
+    public Set<String> keyIds() {
+        return Collections.unmodifiableSet(snapshot.get().liveEntries(clock.instant()).keySet());
+    }
+
+    /**
+     * 使用主密钥签名
+     *
+     * @param data     数据
+     * @param encoding 签名的编码方式
+     * @return 带密钥ID前缀的签名（{@code keyId:signature}）
+     * @throws IllegalStateException 没有主密钥
+     */
+    public String sign(byte[] data, BinaryEncoding encoding) {
+        Objects.requireNonNull(data, "data must not be null");
+        Objects.requireNonNull(encoding, "encoding must not be null");
+
+        Snapshot current = snapshot.get();
+        if (current.primaryKeyId == null) {
+            throw new IllegalStateException("no primary key");
+        }
+        byte[] signature = current.entries.get(current.primaryKeyId).verifier.signer().sign(data);
+        return current.primaryKeyId + SEPARATOR + encoding.encode(signature);
+    }
+
+    /**
+     * 按签名前缀中的密钥ID验证
+     *
+     * @param data      数据
+     * @param signature 带密钥ID前缀的签名（{@code keyId:signature}）
+     * @param encoding  签名的编码方式
+     * @return 验证结果 true=一致 false=不一致（含格式错误、密钥ID未知或已过宽限期）
+     */
+    public boolean verify(byte[] data, String signature, BinaryEncoding encoding) {
+        Objects.requireNonNull(data, "data must not be null");
+        Objects.requireNonNull(signature, "signature must not be null");
+        Objects.requireNonNull(encoding, "encoding must not be null");
+
+        int separator = signature.indexOf(SEPARATOR);
+        if (separator < 0) {
+            return false;
+        }
+        HmacVerifier verifier = verifier(signature.substring(0, separator));
+        return verifier != null && verifier.verify(data, signature.substring(separator + 1), encoding);
+    }
+
+    /**
+     * 使用指定密钥验证
+     *
+     * @param data      数据
+     * @param keyId     密钥ID
+     * @param signature 签名
+     * @return 验证结果 true=一致 false=不一致（含密钥ID未知或已过宽限期）
+     */
+    public boolean verify(byte[] data, String keyId, byte[] signature) {
+        Objects.requireNonNull(data, "data must not be null");
+        Objects.requireNonNull(keyId, "keyId must not be null");
+        Objects.requireNonNull(signature, "signature must not be null");
+
+        HmacVerifier verifier = verifier(keyId);
+        return verifier != null && verifier.verify(data, signature);
+    }
+
+    private HmacVerifier verifier(String keyId) {
+        Entry entry = snapshot.get().entries.get(keyId);
+        if (entry == null || entry.retireAt != null && !clock.instant().isBefore(entry.retireAt)) {
+            return null;
+        }
+        return entry.verifier;
+    }
+
+    private HmacVerifier newVerifier(String keyId, byte[] key) throws NoSuchAlgorithmException, InvalidKeyException {
+        Objects.requireNonNull(keyId, "keyId must not be null");
+        Objects.requireNonNull(key, "key must not be null");
+        if (keyId.isEmpty() || keyId.indexOf(SEPARATOR) >= 0) {
+            throw new IllegalArgumentException("illegal key id: " + keyId);
+        }
+
+        // 在替换快照之前完成密钥初始化，CAS重试时不重复创建
+        return HmacVerifier.of(algorithm, key);
+    }
+
+    /**
+     * @return 不过期的密钥条目，密钥ID已对应其他密钥时抛出异常
+     */
+    private static Entry newEntry(Map<String, Entry> entries, String keyId, byte[] key, HmacVerifier verifier) {
+        Entry existing = entries.get(keyId);
+        if (existing != null && !MessageDigest.isEqual(existing.key, key)) {
+            throw new IllegalArgumentException("key id already in use with a different key: " + keyId);
+        }
+        return new Entry(existing == null ? key.clone() : existing.key, verifier, null);
+    }
+
+    /**
+     * 不可变的密钥集合
+     */
+    private static final class Snapshot {
+
+        private final Map<String, Entry> entries;
+
+        private final String primaryKeyId;
+
+        private Snapshot(Map<String, Entry> entries, String primaryKeyId) {
+            this.entries = Map.copyOf(entries);
+            this.primaryKeyId = primaryKeyId;
+        }
+
+        /**
+         * @return 未过宽限期的密钥（可修改的副本）
+         */
+        private Map<String, Entry> liveEntries(Instant now) {
+            Map<String, Entry> live = new HashMap<>(entries.size() + 1);
+            entries.forEach((keyId, entry) -> {
+                if (entry.retireAt == null || now.isBefore(entry.retireAt)) {
+                    live.put(keyId, entry);
+                }
+            });
+            return live;
+        }
+
+    }
+
+    private static final class Entry {
+
+        /**
+         * 密钥，只用于判断同一ID是否对应相同密钥
+         */
+        private final byte[] key;
+
+        private final HmacVerifier verifier;
+
+        /**
+         * 宽限期结束时间，null表示不过期
+         */
+        private final Instant retireAt;
+
+        private Entry(byte[] key, HmacVerifier verifier, Instant retireAt) {
+            this.key = key;
+            this.verifier = verifier;
+            this.retireAt = retireAt;
+        }
+
+    }
+
+}
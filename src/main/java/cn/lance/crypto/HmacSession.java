@@ -0,0 +1,228 @@
+package cn.lance.crypto;
+
+import javax.crypto.ShortBufferException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Objects;
+
+/**
+ * 增量HMAC计算
+ *
+ * @implNote 由 {@link HmacSigner#newSession()} 创建，占用签名器池中的一个 {@link HmacEngine}，
+ * 以 {@code sign}/{@code verify} 结束（或 {@link #close()} 放弃）后归还，之后不能再使用。
+ * 数据分多次 {@code update}，内存占用与数据总量无关：{@link InputStream} 以固定缓冲区读取，
+ * 文件按 {@link #MAP_CHUNK_SIZE} 分块只读映射（{@link FileChannel#map}）后直接计算，不经过堆内复制，
+ * 吞吐量取决于摘要算法和页缓存/磁盘；映射区域在缓冲区被回收时释放。非线程安全
+ */
+public final class HmacSession implements AutoCloseable {
+
+    /**
+     * 文件单次映射的长度
+     */
+    final static long MAP_CHUNK_SIZE = 64L * 1024 * 1024;
+
+    private final static int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    private final HmacSigner signer;
+
+    private HmacEngine engine;
+
+    private byte[] streamBuffer;
+
+    HmacSession(HmacSigner signer) {
+        this.signer = signer;
+        this.engine = signer.borrowEngine();
+    }
+
+    /**
+     * @param data 数据
+     * @return 当前会话
+     */
+    public HmacSession update(byte[] data) {
+        Objects.requireNonNull(data, "data must not be null");
+
+        return update(data, 0, data.length);
+    }
+
+    /**
+     * @param data   数据
+     * @param offset 起始位置
+     * @param length 长度
+     * @return 当前会话
+     */
+    public HmacSession update(byte[] data, int offset, int length) {
+        Objects.requireNonNull(data, "data must not be null");
+        Objects.checkFromIndexSize(offset, length, data.length);
+
+        engine().update(data, offset, length);
+        return this;
+    }
+
+    /**
+     * 读取 {@code data} 的 position 到 limit
+     *
+     * @param data 数据（支持直接缓冲区和 {@link MappedByteBuffer}）
+     * @return 当前会话
+     */
+    public HmacSession update(ByteBuffer data) {
+        Objects.requireNonNull(data, "data must not be null");
+
+        engine().update(data);
+        return this;
+    }
+
+    /**
+     * 读取输入流直到结束（不关闭输入流）
+     *
+     * @param data 输入流
+     * @return 读取的字节数
+     */
+    public long update(InputStream data) throws IOException {
+        Objects.requireNonNull(data, "data must not be null");
+
+        HmacEngine engine = engine();
+        if (streamBuffer == null) {
+            streamBuffer = new byte[STREAM_BUFFER_SIZE];
+        }
+        long total = 0;
+        int read;
+        while ((read = data.read(streamBuffer)) != -1) {
+            engine.update(streamBuffer, 0, read);
+            total += read;
+        }
+        return total;
+    }
+
+    /**
+     * 读取文件通道的指定区域（内存映射，不改变通道的position）
+     *
+     * @param channel  文件通道（需可读）
+     * @param position 起始位置
+     * @param size     长度
+     * @return 当前会话
+     */
+    public HmacSession update(FileChannel channel, long position, long size) throws IOException {
+        Objects.requireNonNull(channel, "channel must not be null");
+        if (position < 0 || size < 0) {
+            throw new IllegalArgumentException("position and size must not be negative");
+        }
+
+        HmacEngine engine = engine();
+        for (long offset = 0; offset < size; offset += MAP_CHUNK_SIZE) {
+            MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, position + offset, Math.min(MAP_CHUNK_SIZE, size - offset));
+            engine.update(chunk);
+        }
+        return this;
+    }
+
+    /**
+     * 读取整个文件（内存映射）
+     *
+     * @param file 文件
+     * @return 当前会话
+     */
+    public HmacSession update(Path file) throws IOException {
+        Objects.requireNonNull(file, "file must not be null");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return update(channel, 0, channel.size());
+        }
+    }
+
+    /**
+     * 结束计算
+     *
+     * @return 签名
+     */
+    public byte[] sign() {
+        byte[] signature = new byte[signer.getMacLength()];
+        HmacEngine engine = engine();
+        engine.doFinal(signature, 0);
+        release();
+        return signature;
+    }
+
+    /**
+     * 结束计算，签名写入调用方提供的缓冲区
+     *
+     * @param output       输出缓冲区，剩余空间不小于 {@link HmacSigner#getMacLength()}
+     * @param outputOffset 输出起始位置
+     * @return 写入的字节数
+     */
+    public int sign(byte[] output, int outputOffset) throws ShortBufferException {
+        Objects.requireNonNull(output, "output must not be null");
+        int macLength = signer.getMacLength();
+        if (outputOffset < 0 || output.length - outputOffset < macLength) {
+            throw new ShortBufferException("output buffer too short: " + (output.length - outputOffset) + " < " + macLength);
+        }
+
+        HmacEngine engine = engine();
+        engine.doFinal(output, outputOffset);
+        release();
+        return macLength;
+    }
+
+    /**
+     * 结束计算并以常量时间比较
+     *
+     * @param signature 签名
+     * @return 验证结果 true=一致 false=不一致
+     */
+    public boolean verify(byte[] signature) {
+        Objects.requireNonNull(signature, "signature must not be null");
+
+        HmacEngine engine = engine();
+        engine.doFinal(engine.result, 0);
+        boolean valid = MessageDigest.isEqual(engine.result, signature);
+        release();
+        return valid;
+    }
+
+    /**
+     * 结束计算并以常量时间比较
+     *
+     * @param signature 签名（按 {@code encoding} 编码）
+     * @param encoding  签名的编码方式
+     * @return 验证结果 true=一致 false=不一致（含签名格式错误）
+     */
+    public boolean verify(String signature, BinaryEncoding encoding) {
+        Objects.requireNonNull(signature, "signature must not be null");
+        Objects.requireNonNull(encoding, "encoding must not be null");
+
+        HmacEngine engine = engine();
+        engine.doFinal(engine.result, 0);
+        boolean valid = encoding.decode(signature, engine.expected) && MessageDigest.isEqual(engine.result, engine.expected);
+        release();
+        return valid;
+    }
+
+    /**
+     * 放弃计算，归还计算实例；已结束的会话调用无影响
+     */
+    @Override
+    public void close() {
+        if (engine != null) {
+            engine.reset();
+            release();
+        }
+    }
+
+    private HmacEngine engine() {
+        if (engine == null) {
+            throw new IllegalStateException("HMAC session already finished");
+        }
+        return engine;
+    }
+
+    private void release() {
+        signer.releaseEngine(engine);
+        engine = null;
+    }
+
+}
@@ -0,0 +1,232 @@
+package cn.lance.crypto;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * HMAC签名器
+ *
+ * @implNote 密钥只解析一次，已初始化的 {@link Mac} 实例池化复用（{@code doFinal} 之后自动复位，无需再次 {@code init}），
+ * 线程安全；输入支持 {@code byte[]} 和 {@link ByteBuffer}（含直接缓冲区），输出为原始字节。
+ * 写入调用方缓冲区的签名由池化的 {@link HmacEngine} 计算，常见算法下稳定状态不分配内存。
+ * 两条路径使用同一Provider：通过 {@link CryptoProviders} 固定或手动指定了该算法的Mac Provider时，
+ * {@link HmacEngine} 也使用该Provider的 {@link Mac}（不再是零分配）；未固定时都按JCA默认顺序，
+ * 其中 {@link HmacEngine} 直接基于默认Provider的 {@link java.security.MessageDigest} 计算。
+ * Provider在池中实例创建时确定，之后固定或重新校准只影响新建的实例
+ */
+public final class HmacSigner {
+
+    private final String algorithm;
+
+    private final SecretKeySpec secretKeySpec;
+
+    private final int macLength;
+
+    private final InstancePool<Mac> pool;
+
+    private final InstancePool<HmacEngine> engines;
+
+    private HmacSigner(String algorithm, byte[] key) throws NoSuchAlgorithmException, InvalidKeyException {
+        this.algorithm = algorithm;
+        this.secretKeySpec = new SecretKeySpec(key, algorithm);
+
+        // 提前初始化一次，算法不存在或密钥非法时在此处抛出
+        Mac mac = CryptoProviders.mac(algorithm);
+        mac.init(secretKeySpec);
+        this.macLength = mac.getMacLength();
+        this.pool = new InstancePool<>(this::newInitializedMac);
+        this.pool.release(mac);
+        this.engines = new InstancePool<>(this::newEngine);
+    }
+
+    /**
+     * 创建HMAC签名器
+     *
+     * @param algorithm <a href="https://docs.oracle.com/en/java/javase/21/docs/specs/security/standard-names.html#mac-algorithms">算法</a>
+     * @param key       密钥
+     * @return HMAC签名器
+     */
+    public static HmacSigner of(String algorithm, byte[] key) throws NoSuchAlgorithmException, InvalidKeyException {
+        Objects.requireNonNull(algorithm, "algorithm must not be null");
+        Objects.requireNonNull(key, "key must not be null");
+
+        return new HmacSigner(algorithm, key);
+    }
+
+    /**
+     * 创建HMAC签名器，密钥处理方式与 {@link HmacUtils#sign(String, String, String)} 相同（取字符串的字节），签名结果一致
+     *
+     * @param algorithm <a href="https://docs.oracle.com/en/java/javase/21/docs/specs/security/standard-names.html#mac-algorithms">算法</a>
+     * @param key       密钥
+     * @return HMAC签名器
+     */
+    public static HmacSigner of(String algorithm, String key) throws NoSuchAlgorithmException, InvalidKeyException {
+        Objects.requireNonNull(key, "key must not be null");
+
+        return of(algorithm, key.getBytes());
+    }
+
+    /**
+     * @return 算法
+     */
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * @return 签名长度（字节）
+     */
+    public int getMacLength() {
+        return macLength;
+    }
+
+    /**
+     * HMAC签名
+     *
+     * @param data 数据
+     * @return 签名
+     */
+    public byte[] sign(byte[] data) {
+        Objects.requireNonNull(data, "data must not be null");
+
+        return sign(data, 0, data.length);
+    }
+
+    /**
+     * HMAC签名
+     *
+     * @param data   数据
+     * @param offset 起始位置
+     * @param length 长度
+     * @return 签名
+     */
+    public byte[] sign(byte[] data, int offset, int length) {
+        Objects.requireNonNull(data, "data must not be null");
+
+        Mac mac = pool.borrow();
+        mac.update(data, offset, length);
+        byte[] bytes = mac.doFinal();
+        pool.release(mac);
+        return bytes;
+    }
+
+    /**
+     * HMAC签名，读取 {@code data} 的 position 到 limit
+     *
+     * @param data 数据（支持直接缓冲区）
+     * @return 签名
+     */
+    public byte[] sign(ByteBuffer data) {
+        Objects.requireNonNull(data, "data must not be null");
+
+        Mac mac = pool.borrow();
+        mac.update(data);
+        byte[] bytes = mac.doFinal();
+        pool.release(mac);
+        return bytes;
+    }
+
+    /**
+     * HMAC签名，结果写入调用方提供的缓冲区
+     *
+     * @param data         数据
+     * @param offset       起始位置
+     * @param length       长度
+     * @param output       输出缓冲区，剩余空间不小于 {@link #getMacLength()}
+     * @param outputOffset 输出起始位置
+     * @return 写入的字节数
+     */
+    public int sign(byte[] data, int offset, int length, byte[] output, int outputOffset) throws ShortBufferException {
+        Objects.requireNonNull(data, "data must not be null");
+        Objects.requireNonNull(output, "output must not be null");
+        if (output.length - outputOffset < macLength) {
+            throw new ShortBufferException("output buffer too short: " + (output.length - outputOffset) + " < " + macLength);
+        }
+
+        Objects.checkFromIndexSize(offset, length, data.length);
+
+        HmacEngine engine = engines.borrow();
+        engine.update(data, offset, length);
+        engine.doFinal(output, outputOffset);
+        engines.release(engine);
+        return macLength;
+    }
+
+    /**
+     * 开始增量计算，适合分块到达或无法一次载入堆内存的数据（输入流、大文件）
+     *
+     * @return HMAC会话，用完须以 {@code sign}/{@code verify} 结束或关闭
+     */
+    public HmacSession newSession() {
+        return new HmacSession(this);
+    }
+
+    /**
+     * HMAC签名，读取输入流直到结束（不关闭输入流）
+     *
+     * @param data 输入流
+     * @return 签名
+     */
+    public byte[] sign(InputStream data) throws IOException {
+        try (HmacSession session = newSession()) {
+            session.update(data);
+            return session.sign();
+        }
+    }
+
+    /**
+     * HMAC签名，文件以内存映射方式读取
+     *
+     * @param file 文件
+     * @return 签名
+     */
+    public byte[] sign(Path file) throws IOException {
+        try (HmacSession session = newSession()) {
+            return session.update(file).sign();
+        }
+    }
+
+    /**
+     * 借出HMAC计算实例，用完后须调用 {@link #releaseEngine(HmacEngine)} 归还（实例须已复位）
+     */
+    HmacEngine borrowEngine() {
+        return engines.borrow();
+    }
+
+    void releaseEngine(HmacEngine engine) {
+        engines.release(engine);
+    }
+
+    private Mac newInitializedMac() {
+        try {
+            Mac mac = CryptoProviders.mac(algorithm);
+            mac.init(secretKeySpec);
+            return mac;
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            // 算法和密钥在构造时已校验
+            throw new RuntimeException(e);
+        }
+    }
+
+    private HmacEngine newEngine() {
+        byte[] key = secretKeySpec.getEncoded();
+        try {
+            return new HmacEngine(algorithm, key);
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            // 算法和密钥在构造时已校验
+            throw new RuntimeException(e);
+        } finally {
+            Arrays.fill(key, (byte) 0);
+        }
+    }
+
+}
@@ -6,7 +6,10 @@ import javax.crypto.KeyGenerator;
 import javax.crypto.Mac;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
 import java.security.InvalidKeyException;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Objects;
 
@@ -50,11 +53,27 @@ public class HmacUtils {
         Objects.requireNonNull(plaintext, "plaintext must not be null");
 
         SecretKeySpec secretKeySpec = new SecretKeySpec(key.getBytes(), algorithm);
-        Mac mac = Mac.getInstance(algorithm);
+        Mac mac = CryptoProviders.mac(algorithm);
         mac.init(secretKeySpec);
         return Hex.encodeHexString(mac.doFinal(plaintext.getBytes()));
     }
 
+    /**
+     * HMAC签名，读取输入流直到结束（不关闭输入流），数据不整体载入内存
+     *
+     * @param algorithm <a href="https://docs.oracle.com/en/java/javase/21/docs/specs/security/standard-names.html#mac-algorithms">算法</a>
+     * @param key       密钥（十六进制）
+     * @param plaintext 原文输入流
+     * @return 签名（十六进制）
+     * @see HmacSession
+     */
+    public static String sign(String algorithm, String key, InputStream plaintext)
+            throws NoSuchAlgorithmException, InvalidKeyException, IOException {
+        Objects.requireNonNull(plaintext, "plaintext must not be null");
+
+        return BinaryEncoding.HEX.encode(HmacSigner.of(algorithm, key).sign(plaintext));
+    }
+
     /**
      * HMAC验证签名
      *
@@ -70,8 +89,17 @@ public class HmacUtils {
         Objects.requireNonNull(plaintext, "plaintext must not be null");
         Objects.requireNonNull(sign, "sign must not be null");
 
-        String currentSign = sign(algorithm, key, plaintext);
-        return currentSign.equals(sign);
+        // 按原始字节以常量时间比较，不因第一个不同的字符提前返回
+        byte[] expected;
+        try {
+            expected = BinaryEncoding.HEX.decode(sign);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        SecretKeySpec secretKeySpec = new SecretKeySpec(key.getBytes(), algorithm);
+        Mac mac = CryptoProviders.mac(algorithm);
+        mac.init(secretKeySpec);
+        return MessageDigest.isEqual(mac.doFinal(plaintext.getBytes()), expected);
     }
 
 }
@@ -0,0 +1,175 @@
+package cn.lance.crypto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
+
+/**
+ * HMAC验证器
+ *
+ * @implNote 基于 {@link HmacSigner}，按原始字节以常量时间比较（{@link MessageDigest#isEqual(byte[], byte[])}），
+ * 不经过十六进制字符串；线程安全。签名计算到池化 {@link HmacEngine} 自带的结果数组，
+ * 编码后的签名也只解码一次、写入同一实例的缓冲区，常见算法下稳定状态每次验证零分配
+ */
+public final class HmacVerifier {
+
+    private final HmacSigner signer;
+
+    private HmacVerifier(HmacSigner signer) {
+        this.signer = signer;
+    }
+
+    /**
+     * 创建HMAC验证器
+     *
+     * @param signer HMAC签名器
+     * @return HMAC验证器
+     */
+    public static HmacVerifier of(HmacSigner signer) {
+        Objects.requireNonNull(signer, "signer must not be null");
+
+        return new HmacVerifier(signer);
+    }
+
+    /**
+     * 创建HMAC验证器
+     *
+     * @param algorithm <a href="https://docs.oracle.com/en/java/javase/21/docs/specs/security/standard-names.html#mac-algorithms">算法</a>
+     * @param key       密钥
+     * @return HMAC验证器
+     */
+    public static HmacVerifier of(String algorithm, byte[] key) throws NoSuchAlgorithmException, InvalidKeyException {
+        return new HmacVerifier(HmacSigner.of(algorithm, key));
+    }
+
+    /**
+     * 创建HMAC验证器，密钥处理方式与 {@link HmacUtils#verify(String, String, String, String)} 相同
+     *
+     * @param algorithm <a href="https://docs.oracle.com/en/java/javase/21/docs/specs/security/standard-names.html#mac-algorithms">算法</a>
+     * @param key       密钥
+     * @return HMAC验证器
+     */
+    public static HmacVerifier of(String algorithm, String key) throws NoSuchAlgorithmException, InvalidKeyException {
+        return new HmacVerifier(HmacSigner.of(algorithm, key));
+    }
+
+    HmacSigner signer() {
+        return signer;
+    }
+
+    /**
+     * HMAC验证签名
+     *
+     * @param data      数据
+     * @param signature 签名
+     * @return 验证结果 true=一致 false=不一致
+     */
+    public boolean verify(byte[] data, byte[] signature) {
+        Objects.requireNonNull(data, "data must not be null");
+
+        return verify(data, 0, data.length, signature);
+    }
+
+    /**
+     * HMAC验证签名
+     *
+     * @param data      数据
+     * @param offset    起始位置
+     * @param length    长度
+     * @param signature 签名
+     * @return 验证结果 true=一致 false=不一致
+     */
+    public boolean verify(byte[] data, int offset, int length, byte[] signature) {
+        Objects.requireNonNull(data, "data must not be null");
+        Objects.requireNonNull(signature, "signature must not be null");
+        Objects.checkFromIndexSize(offset, length, data.length);
+
+        HmacEngine engine = signer.borrowEngine();
+        engine.update(data, offset, length);
+        engine.doFinal(engine.result, 0);
+        boolean valid = MessageDigest.isEqual(engine.result, signature);
+        signer.releaseEngine(engine);
+        return valid;
+    }
+
+    /**
+     * HMAC验证签名，读取 {@code data} 的 position 到 limit
+     *
+     * @param data      数据（支持直接缓冲区）
+     * @param signature 签名
+     * @return 验证结果 true=一致 false=不一致
+     */
+    public boolean verify(ByteBuffer data, byte[] signature) {
+        Objects.requireNonNull(data, "data must not be null");
+        Objects.requireNonNull(signature, "signature must not be null");
+
+        HmacEngine engine = signer.borrowEngine();
+        engine.update(data);
+        engine.doFinal(engine.result, 0);
+        boolean valid = MessageDigest.isEqual(engine.result, signature);
+        signer.releaseEngine(engine);
+        return valid;
+    }
+
+    /**
+     * HMAC验证签名（如Webhook请求头中的十六进制或Base64签名）
+     *
+     * @param data      数据
+     * @param signature 签名（按 {@code encoding} 编码）
+     * @param encoding  签名的编码方式
+     * @return 验证结果 true=一致 false=不一致（含签名格式错误）
+     */
+    public boolean verify(byte[] data, String signature, BinaryEncoding encoding) {
+        Objects.requireNonNull(data, "data must not be null");
+        Objects.requireNonNull(signature, "signature must not be null");
+        Objects.requireNonNull(encoding, "encoding must not be null");
+
+        HmacEngine engine = signer.borrowEngine();
+        boolean valid = false;
+        // 签名格式或长度不对时不必计算，长度本身是公开信息
+        if (encoding.decode(signature, engine.expected)) {
+            engine.update(data, 0, data.length);
+            engine.doFinal(engine.result, 0);
+            valid = MessageDigest.isEqual(engine.result, engine.expected);
+        }
+        signer.releaseEngine(engine);
+        return valid;
+    }
+
+    /**
+     * HMAC验证签名，读取输入流直到结束（不关闭输入流）
+     *
+     * @param data      输入流
+     * @param signature 签名
+     * @return 验证结果 true=一致 false=不一致
+     */
+    public boolean verify(InputStream data, byte[] signature) throws IOException {
+        Objects.requireNonNull(signature, "signature must not be null");
+
+        try (HmacSession session = signer.newSession()) {
+            session.update(data);
+            return session.verify(signature);
+        }
+    }
+
+    /**
+     * HMAC验证签名，文件以内存映射方式读取
+     *
+     * @param file      文件
+     * @param signature 签名
+     * @return 验证结果 true=一致 false=不一致
+     */
+    public boolean verify(Path file, byte[] signature) throws IOException {
+        Objects.requireNonNull(signature, "signature must not be null");
+
+        try (HmacSession session = signer.newSession()) {
+            return session.update(file).verify(signature);
+        }
+    }
+
+}
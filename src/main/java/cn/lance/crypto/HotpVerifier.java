@@ -0,0 +1,172 @@
+package cn.lance.crypto;
+
+import org.apache.commons.codec.binary.Base32;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * HOTP验证器（RFC 4226）
+ *
+ * @implNote 计数器由调用方持久化（{@link Counter}，如数据库中带条件的更新），验证器本身不保存状态。
+ * 校验时从当前计数器开始向后搜索 {@code lookAhead} 个值，命中即停止；通过后计数器前进到命中值之后，
+ * 用 {@link Counter#compareAndSet(long, long)} 提交，多个节点并发使用同一密码时只有一个成功。
+ * 令牌与服务端相差超过前瞻窗口时，用连续两个密码在更大的窗口内重新同步（RFC 4226 7.4）。
+ * 密码计算与 {@link TotpVerifier} 相同，不分配内存。线程安全
+ */
+public final class HotpVerifier {
+
+    public final static int DEFAULT_LOOK_AHEAD = 10;
+
+    /**
+     * 重新同步时搜索的计数器数量
+     */
+    private final static int RESYNC_WINDOW = 100;
+
+    private final OtpGenerator generator;
+
+    private final int digits;
+
+    private final int lookAhead;
+
+    private final Counter counter;
+
+    private HotpVerifier(byte[] secret, OtpAlgorithm algorithm, int digits, int lookAhead, Counter counter) {
+        this.generator = new OtpGenerator(algorithm, secret, digits);
+        this.digits = digits;
+        this.lookAhead = lookAhead;
+        this.counter = counter;
+    }
+
+    /**
+     * 创建HOTP验证器（HmacSHA1、6位、前瞻 {@value #DEFAULT_LOOK_AHEAD} 个计数器）
+     *
+     * @param secret  密钥（Base32）
+     * @param counter 持久化的计数器
+     * @return HOTP验证器
+     */
+    public static HotpVerifier of(String secret, Counter counter) {
+        return of(secret, counter, OtpAlgorithm.SHA1, TotpUtils.PASSCODE_LENGTH, DEFAULT_LOOK_AHEAD);
+    }
+
+    /**
+     * 创建HOTP验证器
+     *
+     * @param secret    密钥（Base32）
+     * @param counter   持久化的计数器
+     * @param algorithm HMAC算法
+     * @param digits    密码位数（6 ~ {@value TotpUtils#MAX_PASSCODE_LENGTH}）
+     * @param lookAhead 校验时当前计数器之后额外搜索的数量（0 ~ {@value #RESYNC_WINDOW}）
+     * @return HOTP验证器
+     */
+    public static HotpVerifier of(String secret, Counter counter, OtpAlgorithm algorithm, int digits, int lookAhead) {
+        Objects.requireNonNull(secret, "secret must not be null");
+        Objects.requireNonNull(counter, "counter must not be null");
+        Objects.requireNonNull(algorithm, "algorithm must not be null");
+        OtpGenerator.checkDigits(digits);
+        if (lookAhead < 0 || lookAhead > RESYNC_WINDOW) {
+            throw new IllegalArgumentException("lookAhead must be between 0 and " + RESYNC_WINDOW);
+        }
+
+        byte[] secretBytes = new Base32().decode(secret);
+        try {
+            return new HotpVerifier(secretBytes, algorithm, digits, lookAhead, counter);
+        } finally {
+            Arrays.fill(secretBytes, (byte) 0);
+        }
+    }
+
+    /**
+     * 校验密码，通过时计数器前进
+     *
+     * @param passcode 密码
+     * @return true=通过 false=不通过（含格式错误、已被并发使用）
+     */
+    public boolean verify(String passcode) {
+        Objects.requireNonNull(passcode, "passcode must not be null");
+
+        int code = TotpVerifier.parse(passcode, digits);
+        if (code < 0) {
+            return false;
+        }
+        long current = counter.get();
+        long matched = search(current, code);
+        return matched >= 0 && counter.compareAndSet(current, matched + 1);
+    }
+
+    /**
+     * 重新同步：在当前计数器之后的 {@value #RESYNC_WINDOW} 个值内查找连续的两个密码，找到后计数器前进到第二个之后
+     *
+     * @param passcode     密码
+     * @param nextPasscode 令牌随后生成的下一个密码
+     * @return true=已同步 false=未找到（含格式错误、已被并发修改）
+     */
+    public boolean resynchronize(String passcode, String nextPasscode) {
+        Objects.requireNonNull(passcode, "passcode must not be null");
+        Objects.requireNonNull(nextPasscode, "nextPasscode must not be null");
+
+        int code = TotpVerifier.parse(passcode, digits);
+        int nextCode = TotpVerifier.parse(nextPasscode, digits);
+        if (code < 0 || nextCode < 0) {
+            return false;
+        }
+        long current = counter.get();
+        long matched = -1;
+        synchronized (this) {
+            for (long value = current; value < current + RESYNC_WINDOW; value++) {
+                if (generator.code(value) == code && generator.code(value + 1) == nextCode) {
+                    matched = value;
+                    break;
+                }
+            }
+        }
+        return matched >= 0 && counter.compareAndSet(current, matched + 2);
+    }
+
+    /**
+     * 生成密码
+     *
+     * @param value 计数器
+     * @return 密码（前面补0）
+     */
+    public String generateCode(long value) {
+        int code;
+        synchronized (this) {
+            code = generator.code(value);
+        }
+        return TotpVerifier.format(code, digits);
+    }
+
+    private long search(long current, int code) {
+        synchronized (this) {
+            for (long value = current; value <= current + lookAhead; value++) {
+                if (generator.code(value) == code) {
+                    return value;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 持久化的计数器（每个账号一个），下一次期望的计数器值
+     */
+    public interface Counter {
+
+        /**
+         * @return 当前计数器值
+         */
+        long get();
+
+        /**
+         * 计数器等于期望值时更新为新值
+         *
+         * @param expected 期望值
+         * @param update   新值
+         * @return true=已更新 false=计数器已被修改
+         */
+        boolean compareAndSet(long expected, long update);
+
+    }
+
+}
@@ -0,0 +1,51 @@
+package cn.lance.crypto;
+
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * 有界实例池
+ *
+ * @implNote 基于数组队列，借出/归还不分配节点对象，也不依赖 {@link ThreadLocal}，虚拟线程下同样适用；
+ * 池空时直接新建实例，池满时归还的实例直接丢弃
+ */
+final class InstancePool<T> {
+
+    private final ArrayBlockingQueue<T> idle;
+
+    private final Supplier<T> factory;
+
+    InstancePool(Supplier<T> factory) {
+        this(factory, defaultCapacity());
+    }
+
+    InstancePool(Supplier<T> factory, int capacity) {
+        this.factory = Objects.requireNonNull(factory, "factory must not be null");
+        this.idle = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * 借出实例
+     *
+     * @return 空闲实例，没有空闲实例时新建
+     */
+    T borrow() {
+        T instance = idle.poll();
+        return instance != null ? instance : factory.get();
+    }
+
+    /**
+     * 归还实例
+     *
+     * @param instance 实例（调用方需保证实例处于可复用状态）
+     */
+    void release(T instance) {
+        idle.offer(instance);
+    }
+
+    private static int defaultCapacity() {
+        return Runtime.getRuntime().availableProcessors() * 2;
+    }
+
+}
@@ -0,0 +1,26 @@
+package cn.lance.crypto;
+
+import java.security.GeneralSecurityException;
+
+/**
+ * 数据密钥的包装（加密）与解包
+ */
+public interface KeyWrapper {
+
+    /**
+     * 包装数据密钥
+     *
+     * @param dataKey 数据密钥
+     * @return 包装后的数据密钥
+     */
+    byte[] wrap(byte[] dataKey) throws GeneralSecurityException;
+
+    /**
+     * 解包数据密钥
+     *
+     * @param wrappedKey 包装后的数据密钥
+     * @return 数据密钥
+     */
+    byte[] unwrap(byte[] wrappedKey) throws GeneralSecurityException;
+
+}
@@ -0,0 +1,38 @@
+package cn.lance.crypto;
+
+/**
+ * 一次性密码（TOTP/HOTP）使用的HMAC算法
+ *
+ * @implNote 枚举名与 {@code otpauth://} URI 的 {@code algorithm} 参数一致
+ */
+public enum OtpAlgorithm {
+
+    /**
+     * HmacSHA1（默认，兼容所有验证器应用）
+     */
+    SHA1("HmacSHA1"),
+
+    /**
+     * HmacSHA256
+     */
+    SHA256("HmacSHA256"),
+
+    /**
+     * HmacSHA512
+     */
+    SHA512("HmacSHA512");
+
+    private final String macAlgorithm;
+
+    OtpAlgorithm(String macAlgorithm) {
+        this.macAlgorithm = macAlgorithm;
+    }
+
+    /**
+     * @return JCA中的HMAC算法名，如 {@code HmacSHA1}
+     */
+    public String getMacAlgorithm() {
+        return macAlgorithm;
+    }
+
+}
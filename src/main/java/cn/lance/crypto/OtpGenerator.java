@@ -0,0 +1,59 @@
+package cn.lance.crypto;
+
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 一次性密码计算（RFC 4226）
+ *
+ * @implNote 计数器写入复用的8字节数组，HMAC由 {@link HmacEngine} 直接写入其结果缓冲区，
+ * 动态截断后得到整数密码，不分配内存。TOTP和HOTP共用。非线程安全
+ */
+final class OtpGenerator {
+
+    private final HmacEngine engine;
+
+    private final byte[] counter = new byte[Long.BYTES];
+
+    private final int digits;
+
+    OtpGenerator(OtpAlgorithm algorithm, byte[] secret, int digits) {
+        try {
+            this.engine = new HmacEngine(algorithm.getMacAlgorithm(), secret);
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            // 这些算法都基于JDK内置摘要实现，接受任意长度密钥
+            throw new RuntimeException(e);
+        }
+        this.digits = digits;
+    }
+
+    /**
+     * 计算密码
+     *
+     * @param value 计数器（TOTP为时间步）
+     * @return 密码
+     */
+    int code(long value) {
+        for (int i = Long.BYTES - 1; i >= 0; i--) {
+            counter[i] = (byte) value;
+            value >>>= 8;
+        }
+        engine.update(counter, 0, counter.length);
+        engine.doFinal(engine.result, 0);
+        return TotpUtils.truncate(engine.result, engine.length(), digits);
+    }
+
+    /**
+     * 更换密钥，见 {@link HmacEngine#rekey(byte[], int)}
+     */
+    void rekey(byte[] secret, int length) {
+        engine.rekey(secret, length);
+    }
+
+    static void checkDigits(int digits) {
+        if (digits < 6 || digits > TotpUtils.MAX_PASSCODE_LENGTH) {
+            throw new IllegalArgumentException("digits must be between 6 and " + TotpUtils.MAX_PASSCODE_LENGTH);
+        }
+    }
+
+}
@@ -0,0 +1,313 @@
+package cn.lance.crypto;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * 基于HMAC-SHA256的带密钥假名化
+ *
+ * @implNote 相同密钥下同一ID总是得到同一假名，没有密钥无法反推或枚举。假名是HMAC结果截断后的定长字节
+ * （8~32字节），不经过十六进制字符串；{@code long} ID按8字节大端序计算，结果取前8字节，
+ * 即 {@code pseudonymize(id) == 前8字节(pseudonymize(Longs.toByteArray(id)))}。
+ * <p>
+ * 每个工作线程借出一个 {@link HmacEngine}（带自己的输入、输出缓冲区），逐行计算不分配内存；
+ * 列式批量接口按数量切分到 {@link ForkJoinPool#commonPool()}，结果按输入顺序写入。
+ * 可选的有界缓存（最近最少使用淘汰）用于重复率高的ID，缓存命中情况见 {@link #stats()}。线程安全
+ */
+public final class Pseudonymizer {
+
+    private final static String ALGORITHM = "HmacSHA256";
+
+    public final static int MIN_TOKEN_LENGTH = 8;
+
+    public final static int MAX_TOKEN_LENGTH = 32;
+
+    /**
+     * 每个工作线程至少处理的ID数，批次较小时不拆分
+     */
+    private final static int MIN_CHUNK_SIZE = 4096;
+
+    private final byte[] key;
+
+    private final int tokenLength;
+
+    private final InstancePool<Worker> workers;
+
+    private final Cache<Long, Long> longCache;
+
+    private final Cache<ByteBuffer, byte[]> bytesCache;
+
+    private Pseudonymizer(byte[] key, int tokenLength, long cacheSize) throws NoSuchAlgorithmException, InvalidKeyException {
+        this.key = key.clone();
+        this.tokenLength = tokenLength;
+
+        // 提前创建一次，密钥非法时在此处抛出
+        Worker worker = new Worker(new HmacEngine(ALGORITHM, this.key));
+        this.workers = new InstancePool<>(this::newWorker);
+        this.workers.release(worker);
+
+        if (cacheSize > 0) {
+            this.longCache = CacheBuilder.newBuilder().maximumSize(cacheSize).recordStats().build();
+            this.bytesCache = CacheBuilder.newBuilder().maximumSize(cacheSize).recordStats().build();
+        } else {
+            this.longCache = null;
+            this.bytesCache = null;
+        }
+    }
+
+    /**
+     * 创建假名化器（不缓存）
+     *
+     * @param key         密钥
+     * @param tokenLength 假名长度（字节，{@value #MIN_TOKEN_LENGTH} ~ {@value #MAX_TOKEN_LENGTH}）
+     * @return 假名化器
+     */
+    public static Pseudonymizer of(byte[] key, int tokenLength) throws NoSuchAlgorithmException, InvalidKeyException {
+        return of(key, tokenLength, 0);
+    }
+
+    /**
+     * 创建假名化器
+     *
+     * @param key         密钥
+     * @param tokenLength 假名长度（字节，{@value #MIN_TOKEN_LENGTH} ~ {@value #MAX_TOKEN_LENGTH}）
+     * @param cacheSize   最多缓存的ID数量，0表示不缓存
+     * @return 假名化器
+     */
+    public static Pseudonymizer of(byte[] key, int tokenLength, long cacheSize) throws NoSuchAlgorithmException, InvalidKeyException {
+        Objects.requireNonNull(key, "key must not be null");
+        if (tokenLength < MIN_TOKEN_LENGTH || tokenLength > MAX_TOKEN_LENGTH) {
+            throw new IllegalArgumentException("tokenLength must be between " + MIN_TOKEN_LENGTH + " and " + MAX_TOKEN_LENGTH);
+        }
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("cacheSize must not be negative");
+        }
+
+        return new Pseudonymizer(key, tokenLength, cacheSize);
+    }
+
+    /**
+     * @return 假名长度（字节）
+     */
+    public int getTokenLength() {
+        return tokenLength;
+    }
+
+    /**
+     * 假名化
+     *
+     * @param id ID
+     * @return 64位假名
+     */
+    public long pseudonymize(long id) {
+        Worker worker = workers.borrow();
+        long token = pseudonymize(worker, id);
+        workers.release(worker);
+        return token;
+    }
+
+    /**
+     * 假名化
+     *
+     * @param id ID
+     * @return 假名（{@link #getTokenLength()} 字节）
+     */
+    public byte[] pseudonymize(byte[] id) {
+        Objects.requireNonNull(id, "id must not be null");
+
+        byte[] token = new byte[tokenLength];
+        Worker worker = workers.borrow();
+        pseudonymize(worker, id, token, 0);
+        workers.release(worker);
+        return token;
+    }
+
+    /**
+     * 假名化，结果写入调用方提供的缓冲区（不分配内存，不经过缓存）
+     *
+     * @param id     ID
+     * @param output 输出缓冲区
+     * @param offset 输出起始位置，剩余空间不小于 {@link #getTokenLength()}
+     */
+    public void pseudonymize(byte[] id, byte[] output, int offset) {
+        Objects.requireNonNull(id, "id must not be null");
+        Objects.requireNonNull(output, "output must not be null");
+        Objects.checkFromIndexSize(offset, tokenLength, output.length);
+
+        Worker worker = workers.borrow();
+        worker.pseudonymize(id, output, offset);
+        workers.release(worker);
+    }
+
+    /**
+     * 假名化字符串ID（UTF-8）
+     *
+     * @param id ID
+     * @return 假名（URL安全的Base64，不带填充）
+     */
+    public String pseudonymize(String id) {
+        Objects.requireNonNull(id, "id must not be null");
+
+        return BinaryEncoding.BASE64_URL.encode(pseudonymize(id.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * 列式批量假名化，大批次并行计算
+     *
+     * @param ids ID列
+     * @return 64位假名列，与输入顺序一致
+     */
+    public long[] pseudonymize(long[] ids) {
+        Objects.requireNonNull(ids, "ids must not be null");
+
+        long[] tokens = new long[ids.length];
+        forEachChunk(ids.length, (worker, from, to) -> {
+            for (int i = from; i < to; i++) {
+                tokens[i] = pseudonymize(worker, ids[i]);
+            }
+        });
+        return tokens;
+    }
+
+    /**
+     * 列式批量假名化，大批次并行计算
+     *
+     * @param ids ID列
+     * @return 定长假名列，第i个假名位于 {@code [i * tokenLength, (i + 1) * tokenLength)}
+     */
+    public byte[] pseudonymize(List<byte[]> ids) {
+        Objects.requireNonNull(ids, "ids must not be null");
+
+        byte[] tokens = new byte[Math.multiplyExact(ids.size(), tokenLength)];
+        forEachChunk(ids.size(), (worker, from, to) -> {
+            for (int i = from; i < to; i++) {
+                byte[] id = Objects.requireNonNull(ids.get(i), "id must not be null");
+                pseudonymize(worker, id, tokens, i * tokenLength);
+            }
+        });
+        return tokens;
+    }
+
+    /**
+     * @return 缓存统计（未启用缓存时为空统计）
+     */
+    public CacheStats stats() {
+        if (longCache == null) {
+            return new CacheStats(0, 0, 0, 0, 0, 0);
+        }
+        return longCache.stats().plus(bytesCache.stats());
+    }
+
+    /**
+     * 经过缓存的假名化，未命中时用调用方已借出的工作实例计算
+     */
+    private long pseudonymize(Worker worker, long id) {
+        if (longCache == null) {
+            return worker.pseudonymize(id);
+        }
+        Long cached = longCache.getIfPresent(id);
+        if (cached != null) {
+            return cached;
+        }
+        long token = worker.pseudonymize(id);
+        longCache.put(id, token);
+        return token;
+    }
+
+    /**
+     * 经过缓存的假名化，未命中时用调用方已借出的工作实例计算；缓存中的数组不会被修改
+     */
+    private void pseudonymize(Worker worker, byte[] id, byte[] output, int offset) {
+        if (bytesCache == null) {
+            worker.pseudonymize(id, output, offset);
+            return;
+        }
+        ByteBuffer cacheKey = ByteBuffer.wrap(id.clone());
+        byte[] token = bytesCache.getIfPresent(cacheKey);
+        if (token == null) {
+            token = new byte[tokenLength];
+            worker.pseudonymize(id, token, 0);
+            bytesCache.put(cacheKey, token);
+        }
+        System.arraycopy(token, 0, output, offset, tokenLength);
+    }
+
+    private void forEachChunk(int size, ChunkFunction function) {
+        int chunks = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() + 1, size / MIN_CHUNK_SIZE));
+        int chunkSize = (size + chunks - 1) / chunks;
+        if (chunks == 1) {
+            processChunk(function, 0, size);
+        } else {
+            IntStream.range(0, chunks).parallel()
+                    .forEach(chunk -> processChunk(function, chunk * chunkSize, Math.min(size, (chunk + 1) * chunkSize)));
+        }
+    }
+
+    private void processChunk(ChunkFunction function, int from, int to) {
+        Worker worker = workers.borrow();
+        function.apply(worker, from, to);
+        workers.release(worker);
+    }
+
+    private Worker newWorker() {
+        try {
+            return new Worker(new HmacEngine(ALGORITHM, key));
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            // 算法和密钥在构造时已校验
+            throw new RuntimeException(e);
+        }
+    }
+
+    private interface ChunkFunction {
+
+        void apply(Worker worker, int from, int to);
+
+    }
+
+    /**
+     * 单线程使用的计算实例
+     */
+    private final class Worker {
+
+        private final HmacEngine engine;
+
+        private final byte[] input = new byte[Long.BYTES];
+
+        private Worker(HmacEngine engine) {
+            this.engine = engine;
+        }
+
+        private long pseudonymize(long id) {
+            for (int i = Long.BYTES - 1; i >= 0; i--) {
+                input[i] = (byte) id;
+                id >>>= 8;
+            }
+            engine.update(input, 0, input.length);
+            engine.doFinal(engine.result, 0);
+
+            long token = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                token = (token << 8) | (engine.result[i] & 0xff);
+            }
+            return token;
+        }
+
+        private void pseudonymize(byte[] id, byte[] output, int offset) {
+            engine.update(id, 0, id.length);
+            engine.doFinal(engine.result, 0);
+            System.arraycopy(engine.result, 0, output, offset, tokenLength);
+        }
+
+    }
+
+}
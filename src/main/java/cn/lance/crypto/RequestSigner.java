@@ -0,0 +1,449 @@
+package cn.lance.crypto;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestException;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 规范请求签名（SigV4风格）
+ *
+ * @implNote 签名密钥由密钥、日期、区域、服务逐级派生（4次HMAC），派生结果按作用域
+ * （{@code 日期/区域/服务/aws4_request}）缓存为 {@link HmacSigner}，当天之内每个请求只需计算1次HMAC。
+ * 规范请求和待签名字符串写入池化的字节缓冲区，直接计算摘要，不拼接中间字符串；
+ * 请求体摘要可由输入流或文件流式计算（{@link #hashPayload(InputStream)}），请求体不整体载入内存。线程安全
+ */
+public final class RequestSigner {
+
+    public final static String ALGORITHM = "AWS4-HMAC-SHA256";
+
+    /**
+     * 空请求体的摘要
+     */
+    public final static String EMPTY_PAYLOAD_HASH = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+
+    public final static String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+
+    private final static String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final static String TERMINATOR = "aws4_request";
+
+    private final static DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    /**
+     * 前后两天的签名密钥（跨零点和时钟偏差）
+     */
+    private final static int MAX_CACHED_SCOPES = 4;
+
+    private final static InstancePool<Workspace> WORKSPACES = new InstancePool<>(Workspace::new);
+
+    private final String accessKeyId;
+
+    private final byte[] secret;
+
+    private final String region;
+
+    private final String service;
+
+    private final Cache<String, HmacSigner> signingKeys;
+
+    private RequestSigner(String accessKeyId, String secretKey, String region, String service) {
+        this.accessKeyId = accessKeyId;
+        this.secret = ("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8);
+        this.region = region;
+        this.service = service;
+        this.signingKeys = CacheBuilder.newBuilder()
+                .maximumSize(MAX_CACHED_SCOPES)
+                .expireAfterWrite(Duration.ofDays(1))
+                .build();
+    }
+
+    /**
+     * 创建请求签名器
+     *
+     * @param accessKeyId 访问密钥ID
+     * @param secretKey   访问密钥
+     * @param region      区域
+     * @param service     服务
+     * @return 请求签名器
+     */
+    public static RequestSigner of(String accessKeyId, String secretKey, String region, String service) {
+        Objects.requireNonNull(accessKeyId, "accessKeyId must not be null");
+        Objects.requireNonNull(secretKey, "secretKey must not be null");
+        Objects.requireNonNull(region, "region must not be null");
+        Objects.requireNonNull(service, "service must not be null");
+
+        return new RequestSigner(accessKeyId, secretKey, region, service);
+    }
+
+    /**
+     * @param time 请求时间
+     * @return 请求头 {@code x-amz-date} 的值（{@code yyyyMMdd'T'HHmmss'Z'}，UTC）
+     */
+    public static String timestamp(Instant time) {
+        Objects.requireNonNull(time, "time must not be null");
+
+        return TIMESTAMP.format(time);
+    }
+
+    /**
+     * @param payload 请求体
+     * @return 请求体摘要（SHA-256，十六进制）
+     */
+    public static String hashPayload(byte[] payload) {
+        Objects.requireNonNull(payload, "payload must not be null");
+
+        return BinaryEncoding.HEX.encode(sha256().digest(payload));
+    }
+
+    /**
+     * 流式计算请求体摘要，读取输入流直到结束（不关闭输入流）
+     *
+     * @param payload 请求体
+     * @return 请求体摘要（SHA-256，十六进制）
+     */
+    public static String hashPayload(InputStream payload) throws IOException {
+        Objects.requireNonNull(payload, "payload must not be null");
+
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[64 * 1024];
+        int read;
+        while ((read = payload.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return BinaryEncoding.HEX.encode(digest.digest());
+    }
+
+    /**
+     * 流式计算文件请求体摘要
+     *
+     * @param payload 请求体文件
+     * @return 请求体摘要（SHA-256，十六进制）
+     */
+    public static String hashPayload(Path payload) throws IOException {
+        Objects.requireNonNull(payload, "payload must not be null");
+
+        try (InputStream in = Files.newInputStream(payload)) {
+            return hashPayload(in);
+        }
+    }
+
+    /**
+     * 请求签名
+     *
+     * @param method      请求方法
+     * @param path        请求路径（未编码，如 {@code /a b/c}）
+     * @param query       查询参数（未编码），可为null
+     * @param headers     参与签名的请求头，须包含 {@code host} 和 {@code x-amz-date}（见 {@link #timestamp(Instant)}）
+     * @param payloadHash 请求体摘要（见 {@link #hashPayload(InputStream)}）
+     * @param time        请求时间，与 {@code x-amz-date} 一致
+     * @return 签名（十六进制）
+     */
+    public String sign(String method, String path, Map<String, String> query, Map<String, String> headers, String payloadHash, Instant time) {
+        return signCanonical(method, path, query, canonicalHeaders(headers), payloadHash, time);
+    }
+
+    /**
+     * 请求签名
+     *
+     * @return 请求头 {@code Authorization} 的值
+     * @see #sign(String, String, Map, Map, String, Instant)
+     */
+    public String authorization(String method, String path, Map<String, String> query, Map<String, String> headers, String payloadHash, Instant time) {
+        TreeMap<String, String> canonicalHeaders = canonicalHeaders(headers);
+        String signature = signCanonical(method, path, query, canonicalHeaders, payloadHash, time);
+        return ALGORITHM + " Credential=" + accessKeyId + "/" + scope(TIMESTAMP.format(time).substring(0, 8))
+                + ", SignedHeaders=" + String.join(";", canonicalHeaders.keySet())
+                + ", Signature=" + signature;
+    }
+
+    /**
+     * 清空签名密钥缓存
+     */
+    public void invalidateAll() {
+        signingKeys.invalidateAll();
+    }
+
+    /**
+     * @param date 日期（{@code yyyyMMdd}）
+     * @return 签名密钥
+     */
+    byte[] deriveSigningKey(String date) {
+        byte[] key = hmac(secret, date);
+        key = hmac(key, region);
+        key = hmac(key, service);
+        return hmac(key, TERMINATOR);
+    }
+
+    private String signCanonical(String method, String path, Map<String, String> query, TreeMap<String, String> headers, String payloadHash, Instant time) {
+        Objects.requireNonNull(method, "method must not be null");
+        Objects.requireNonNull(path, "path must not be null");
+        Objects.requireNonNull(payloadHash, "payloadHash must not be null");
+        Objects.requireNonNull(time, "time must not be null");
+
+        String timestamp = TIMESTAMP.format(time);
+        String date = timestamp.substring(0, 8);
+        HmacSigner signingKey = signingKey(date);
+
+        Workspace workspace = WORKSPACES.borrow();
+        try {
+            // 规范请求
+            workspace.reset();
+            workspace.append(method).append('\n');
+            workspace.appendPath(path).append('\n');
+            workspace.appendQuery(query).append('\n');
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                workspace.append(header.getKey()).append(':').append(header.getValue()).append('\n');
+            }
+            workspace.append('\n');
+            workspace.appendJoined(headers.keySet()).append('\n');
+            workspace.append(payloadHash);
+            workspace.digest.update(workspace.buffer, 0, workspace.length);
+            workspace.digest.digest(workspace.hash, 0, workspace.hash.length);
+
+            // 待签名字符串
+            workspace.reset();
+            workspace.append(ALGORITHM).append('\n');
+            workspace.append(timestamp).append('\n');
+            workspace.append(date).append('/').append(region).append('/').append(service).append('/').append(TERMINATOR).append('\n');
+            workspace.appendHex(workspace.hash);
+
+            signingKey.sign(workspace.buffer, 0, workspace.length, workspace.hash, 0);
+            return BinaryEncoding.HEX.encode(workspace.hash);
+        } catch (DigestException | ShortBufferException e) {
+            // 缓冲区长度固定为32字节
+            throw new RuntimeException(e);
+        } finally {
+            WORKSPACES.release(workspace);
+        }
+    }
+
+    private String scope(String date) {
+        return date + "/" + region + "/" + service + "/" + TERMINATOR;
+    }
+
+    private HmacSigner signingKey(String date) {
+        try {
+            return signingKeys.get(date, () -> {
+                byte[] key = deriveSigningKey(date);
+                try {
+                    return HmacSigner.of(HMAC_ALGORITHM, key);
+                } finally {
+                    Arrays.fill(key, (byte) 0);
+                }
+            });
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static TreeMap<String, String> canonicalHeaders(Map<String, String> headers) {
+        Objects.requireNonNull(headers, "headers must not be null");
+
+        TreeMap<String, String> canonical = new TreeMap<>();
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            canonical.put(header.getKey().toLowerCase(Locale.ROOT), trimValue(header.getValue()));
+        }
+        return canonical;
+    }
+
+    /**
+     * 去掉首尾空白，连续空格合并为一个
+     */
+    private static String trimValue(String value) {
+        String stripped = value.strip();
+        if (!stripped.contains("  ")) {
+            return stripped;
+        }
+        StringBuilder trimmed = new StringBuilder(stripped.length());
+        for (int i = 0; i < stripped.length(); i++) {
+            char c = stripped.charAt(i);
+            if (c != ' ' || stripped.charAt(i - 1) != ' ') {
+                trimmed.append(c);
+            }
+        }
+        return trimmed.toString();
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = CryptoProviders.mac(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(key, HMAC_ALGORITHM));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            // HmacSHA256为JDK内置算法，派生密钥不为空
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 可复用的规范字符串缓冲区（UTF-8），附带摘要实例和32字节结果数组
+     */
+    private static final class Workspace {
+
+        private static final char[] HEX_UPPER = "0123456789ABCDEF".toCharArray();
+
+        private final MessageDigest digest = sha256();
+
+        private final byte[] hash = new byte[32];
+
+        private byte[] buffer = new byte[1024];
+
+        private int length;
+
+        private void reset() {
+            length = 0;
+        }
+
+        private Workspace append(char c) {
+            ensureCapacity(1);
+            buffer[length++] = (byte) c;
+            return this;
+        }
+
+        private Workspace append(String text) {
+            ensureCapacity(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c >= 0x80) {
+                    // 非ASCII字符回退到按UTF-8编码
+                    return appendBytes(text.substring(i).getBytes(StandardCharsets.UTF_8));
+                }
+                buffer[length++] = (byte) c;
+            }
+            return this;
+        }
+
+        private Workspace appendBytes(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, length, bytes.length);
+            length += bytes.length;
+            return this;
+        }
+
+        private Workspace appendHex(byte[] bytes) {
+            ensureCapacity(bytes.length << 1);
+            for (byte b : bytes) {
+                buffer[length++] = (byte) Character.forDigit((b >>> 4) & 0x0f, 16);
+                buffer[length++] = (byte) Character.forDigit(b & 0x0f, 16);
+            }
+            return this;
+        }
+
+        private Workspace appendJoined(Iterable<String> names) {
+            boolean first = true;
+            for (String name : names) {
+                if (!first) {
+                    append(';');
+                }
+                append(name);
+                first = false;
+            }
+            return this;
+        }
+
+        /**
+         * 路径逐段编码，保留分隔符 {@code /}
+         */
+        private Workspace appendPath(String path) {
+            if (path.isEmpty()) {
+                return append('/');
+            }
+            return appendEncoded(path, true);
+        }
+
+        /**
+         * 查询参数编码后按参数名、参数值排序
+         */
+        private Workspace appendQuery(Map<String, String> query) {
+            if (query == null || query.isEmpty()) {
+                return this;
+            }
+
+            List<String[]> pairs = new ArrayList<>(query.size());
+            for (Map.Entry<String, String> parameter : query.entrySet()) {
+                pairs.add(new String[]{encode(parameter.getKey()), encode(parameter.getValue() == null ? "" : parameter.getValue())});
+            }
+            pairs.sort((a, b) -> a[0].equals(b[0]) ? a[1].compareTo(b[1]) : a[0].compareTo(b[0]));
+            for (int i = 0; i < pairs.size(); i++) {
+                if (i > 0) {
+                    append('&');
+                }
+                append(pairs.get(i)[0]).append('=').append(pairs.get(i)[1]);
+            }
+            return this;
+        }
+
+        private Workspace appendEncoded(String text, boolean keepSlash) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            ensureCapacity(bytes.length * 3);
+            for (byte b : bytes) {
+                if (unreserved(b) || keepSlash && b == '/') {
+                    buffer[length++] = b;
+                } else {
+                    buffer[length++] = '%';
+                    buffer[length++] = (byte) HEX_UPPER[(b >>> 4) & 0x0f];
+                    buffer[length++] = (byte) HEX_UPPER[b & 0x0f];
+                }
+            }
+            return this;
+        }
+
+        private void ensureCapacity(int additional) {
+            if (length + additional > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, length + additional));
+            }
+        }
+
+        private static String encode(String text) {
+            StringBuilder encoded = new StringBuilder(text.length());
+            for (byte b : text.getBytes(StandardCharsets.UTF_8)) {
+                if (unreserved(b)) {
+                    encoded.append((char) b);
+                } else {
+                    encoded.append('%').append(HEX_UPPER[(b >>> 4) & 0x0f]).append(HEX_UPPER[b & 0x0f]);
+                }
+            }
+            return encoded.toString();
+        }
+
+        private static boolean unreserved(byte b) {
+            return b >= 'A' && b <= 'Z' || b >= 'a' && b <= 'z' || b >= '0' && b <= '9'
+                    || b == '-' || b == '.' || b == '_' || b == '~';
+        }
+
+    }
+
+}
@@ -0,0 +1,101 @@
+package cn.lance.crypto;
+
+import javax.crypto.Cipher;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.spec.OAEPParameterSpec;
+import javax.crypto.spec.PSource;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.MGF1ParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * RSA-OAEP（SHA-256）数据密钥包装
+ *
+ * @implNote 密钥格式与 {@link RsaUtils} 一致（Base64或PEM）；只提供公钥时只能包装，不能解包
+ */
+public class RsaKeyWrapper implements KeyWrapper {
+
+    private final static String ALG_KEY = "RSA";
+
+    private final static String TRANSFORMATION = "RSA/ECB/OAEPPadding";
+
+    private final static OAEPParameterSpec OAEP_SHA256 = new OAEPParameterSpec(
+            "SHA-256", "MGF1", MGF1ParameterSpec.SHA256, PSource.PSpecified.DEFAULT);
+
+    private final PublicKey publicKey;
+
+    private final PrivateKey privateKey;
+
+    private RsaKeyWrapper(PublicKey publicKey, PrivateKey privateKey) {
+        this.publicKey = publicKey;
+        this.privateKey = privateKey;
+    }
+
+    /**
+     * 创建RSA数据密钥包装
+     *
+     * @param publicKey  公钥（Base64或PEM）
+     * @param privateKey 私钥（Base64或PEM），为null时只能包装
+     * @return RSA数据密钥包装
+     */
+    public static RsaKeyWrapper of(String publicKey, String privateKey) throws InvalidKeySpecException {
+        Objects.requireNonNull(publicKey, "publicKey must not be null");
+
+        KeyFactory keyFactory;
+        try {
+            keyFactory = KeyFactory.getInstance(ALG_KEY);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+
+        byte[] publicKeyBytes = Base64.getDecoder().decode(RsaUtils.convertPemToBase64(publicKey));
+        PublicKey generatedPublicKey = keyFactory.generatePublic(new X509EncodedKeySpec(publicKeyBytes));
+
+        PrivateKey generatedPrivateKey = null;
+        if (privateKey != null) {
+            byte[] privateKeyBytes = Base64.getDecoder().decode(RsaUtils.convertPemToBase64(privateKey));
+            generatedPrivateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(privateKeyBytes));
+        }
+        return new RsaKeyWrapper(generatedPublicKey, generatedPrivateKey);
+    }
+
+    @Override
+    public byte[] wrap(byte[] dataKey) throws GeneralSecurityException {
+        Objects.requireNonNull(dataKey, "dataKey must not be null");
+
+        Cipher cipher = newCipher();
+        cipher.init(Cipher.WRAP_MODE, publicKey, OAEP_SHA256);
+        return cipher.wrap(new SecretKeySpec(dataKey, "AES"));
+    }
+
+    @Override
+    public byte[] unwrap(byte[] wrappedKey) throws GeneralSecurityException {
+        Objects.requireNonNull(wrappedKey, "wrappedKey must not be null");
+        if (privateKey == null) {
+            throw new IllegalStateException("privateKey is required to unwrap");
+        }
+
+        // RSA私钥运算远比创建Cipher耗时，且解包结果由调用方缓存，这里不做池化
+        Cipher cipher = newCipher();
+        cipher.init(Cipher.UNWRAP_MODE, privateKey, OAEP_SHA256);
+        return cipher.unwrap(wrappedKey, "AES", Cipher.SECRET_KEY).getEncoded();
+    }
+
+    private static Cipher newCipher() {
+        try {
+            return CryptoProviders.cipher(TRANSFORMATION);
+        } catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
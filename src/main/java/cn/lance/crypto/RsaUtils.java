@@ -16,6 +16,10 @@ import java.util.Objects;
 public class RsaUtils {
 
     private final static String ALG_KEY = "RSA";
+    /**
+     * 完整写出填充方式：与SunJCE对 {@code "RSA"} 的默认解释一致，Bouncy Castle则把 {@code "RSA"} 解释为无填充
+     */
+    private final static String ALG_CIPHER = "RSA/ECB/PKCS1Padding";
     private final static String ALG_SIGN = "SHA256withRSA";
     private final static Integer KEY_SIZE = 2048;
 
@@ -73,7 +77,7 @@ public class RsaUtils {
         Signature signature;
         KeyFactory keyFactory;
         try {
-            signature = Signature.getInstance(ALG_SIGN);
+            signature = CryptoProviders.signature(ALG_SIGN);
             keyFactory = KeyFactory.getInstance(ALG_KEY);
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException(e);
@@ -107,7 +111,7 @@ public class RsaUtils {
         Signature signature;
         KeyFactory keyFactory;
         try {
-            signature = Signature.getInstance(ALG_SIGN);
+            signature = CryptoProviders.signature(ALG_SIGN);
             keyFactory = KeyFactory.getInstance(ALG_KEY);
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException(e);
@@ -138,7 +142,7 @@ public class RsaUtils {
         Cipher cipher;
         KeyFactory keyFactory;
         try {
-            cipher = Cipher.getInstance(ALG_KEY);
+            cipher = CryptoProviders.cipher(ALG_CIPHER);
             keyFactory = KeyFactory.getInstance(ALG_KEY);
         } catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
             throw new RuntimeException(e);
@@ -168,7 +172,7 @@ public class RsaUtils {
         Cipher cipher;
         KeyFactory keyFactory;
         try {
-            cipher = Cipher.getInstance(ALG_KEY);
+            cipher = CryptoProviders.cipher(ALG_CIPHER);
             keyFactory = KeyFactory.getInstance(ALG_KEY);
         } catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
             throw new RuntimeException(e);
@@ -0,0 +1,321 @@
+package cn.lance.crypto;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TOTP校验次数限制（防暴力破解）
+ *
+ * @implNote 进程内按账号计数，不经过外部限流服务。每个账号一个 {@link AtomicLong}，
+ * 高32位为时间窗口序号，中16位为上一窗口次数，低16位为当前窗口次数；
+ * 滑动窗口内的次数按 {@code 上一窗口次数 × 上一窗口仍在滑动窗口内的比例 + 当前窗口次数} 估算。
+ * 判断和计数在同一次CAS中完成，并发尝试不会超过上限，无锁。
+ * 计数器放在分段的缓存中（{@link CacheBuilder#concurrencyLevel}），不同账号落在不同分段上互不竞争；
+ * 两个窗口未访问的账号计数已归零，由缓存自动淘汰。缓存不按容量淘汰（否则用大量账号冲刷即可清零计数），
+ * 账号数达到上限时先清理过期账号，仍然已满则新账号按带密钥的SipHash散列到 {@value #OVERFLOW_STRIPES} 个共享计数器上，
+ * 同一计数器上的账号共用次数上限，已记录的账号不受影响。
+ * <p>
+ * 因此任何账号在滑动窗口内的尝试次数都不超过上限；代价是账号数已满期间，攻击者每个窗口用约
+ * {@value #OVERFLOW_STRIPES} × 上限次尝试即可耗尽所有共享计数器，使未记录的账号暂时无法校验（已记录的账号不受影响），
+ * 散列密钥随机生成，攻击者无法针对特定账号。上限应按活跃账号数设置（见 {@link #of(int, Duration, long)}）。线程安全
+ */
+public final class TotpAttemptLimiter {
+
+    private final static int DEFAULT_MAX_ATTEMPTS = 5;
+
+    private final static Duration DEFAULT_WINDOW = Duration.ofMinutes(5);
+
+    private final static long DEFAULT_MAX_ACCOUNTS = 1_000_000;
+
+    /**
+     * 缓存分段数
+     */
+    private final static int CONCURRENCY_LEVEL = 64;
+
+    /**
+     * 账号数已满时共享计数器的数量（2的幂）
+     */
+    private final static int OVERFLOW_STRIPES = 1024;
+
+    /**
+     * 单个窗口内次数的上限（16位）
+     */
+    public final static int MAX_ATTEMPTS = 0xffff;
+
+    private final int maxAttempts;
+
+    private final long windowMillis;
+
+    private final Clock clock;
+
+    private final long maxAccounts;
+
+    /**
+     * 已记录和正在创建的账号数量，创建前占位，移除时释放
+     */
+    private final AtomicLong accounts = new AtomicLong();
+
+    private final Cache<String, AtomicLong> counters;
+
+    private final AtomicLong[] overflow = new AtomicLong[OVERFLOW_STRIPES];
+
+    /**
+     * 账号到共享计数器的散列，密钥随机生成，外部无法构造碰撞
+     */
+    private final HashFunction overflowHash;
+
+    private TotpAttemptLimiter(int maxAttempts, long windowMillis, long maxAccounts, Clock clock) {
+        this.maxAttempts = maxAttempts;
+        this.windowMillis = windowMillis;
+        this.maxAccounts = maxAccounts;
+        this.clock = clock;
+        this.counters = CacheBuilder.newBuilder()
+                .concurrencyLevel(CONCURRENCY_LEVEL)
+                .removalListener(notification -> accounts.decrementAndGet())
+                .expireAfterAccess(2 * windowMillis, TimeUnit.MILLISECONDS)
+                .ticker(new Ticker() {
+                    @Override
+                    public long read() {
+                        return TimeUnit.MILLISECONDS.toNanos(clock.millis());
+                    }
+                })
+                .build();
+        for (int i = 0; i < OVERFLOW_STRIPES; i++) {
+            overflow[i] = new AtomicLong();
+        }
+        SecureRandom random = new SecureRandom();
+        this.overflowHash = Hashing.sipHash24(random.nextLong(), random.nextLong());
+    }
+
+    /**
+     * 使用系统时钟和默认配置（每个账号5分钟内最多5次，最多记录1000000个账号）；
+     * 超过一百万个账号同时活跃，或者攻击者用大量账号名填满记录后，新账号共用计数器，可能被暂时拒绝，
+     * 账号较多时使用 {@link #of(int, Duration, long)} 指定上限
+     *
+     * @return 次数限制
+     */
+    public static TotpAttemptLimiter create() {
+        return of(DEFAULT_MAX_ATTEMPTS, DEFAULT_WINDOW);
+    }
+
+    /**
+     * 使用系统时钟，最多记录1000000个账号
+     *
+     * @param maxAttempts 滑动窗口内每个账号最多尝试次数（1 ~ {@value #MAX_ATTEMPTS}）
+     * @param window      滑动窗口长度
+     * @return 次数限制
+     */
+    public static TotpAttemptLimiter of(int maxAttempts, Duration window) {
+        return of(maxAttempts, window, DEFAULT_MAX_ACCOUNTS);
+    }
+
+    /**
+     * 使用系统时钟
+     *
+     * @param maxAttempts 滑动窗口内每个账号最多尝试次数（1 ~ {@value #MAX_ATTEMPTS}）
+     * @param window      滑动窗口长度
+     * @param maxAccounts 最多记录的账号数量，应不小于两个窗口内可能校验的账号数
+     * @return 次数限制
+     */
+    public static TotpAttemptLimiter of(int maxAttempts, Duration window, long maxAccounts) {
+        return of(maxAttempts, window, maxAccounts, Clock.systemUTC());
+    }
+
+    /**
+     * @param maxAttempts 滑动窗口内每个账号最多尝试次数（1 ~ {@value #MAX_ATTEMPTS}）
+     * @param window      滑动窗口长度（不小于1毫秒）
+     * @param maxAccounts 最多记录的账号数量，已满时新账号共用 {@value #OVERFLOW_STRIPES} 个共享计数器，直到有账号过期或被重置
+     * @param clock       时钟
+     * @return 次数限制
+     */
+    public static TotpAttemptLimiter of(int maxAttempts, Duration window, long maxAccounts, Clock clock) {
+        Objects.requireNonNull(window, "window must not be null");
+        Objects.requireNonNull(clock, "clock must not be null");
+        if (maxAttempts < 1 || maxAttempts > MAX_ATTEMPTS) {
+            throw new IllegalArgumentException("maxAttempts must be between 1 and " + MAX_ATTEMPTS);
+        }
+        if (window.toMillis() < 1) {
+            throw new IllegalArgumentException("window must be at least 1 millisecond");
+        }
+        if (maxAccounts < 1) {
+            throw new IllegalArgumentException("maxAccounts must be positive");
+        }
+
+        return new TotpAttemptLimiter(maxAttempts, window.toMillis(), maxAccounts, clock);
+    }
+
+    /**
+     * 尝试占用一次校验机会
+     *
+     * @param account 账号
+     * @return true=已计数，可以校验 false=已达上限（账号数已满时为共享计数器的上限），不应校验
+     */
+    public boolean tryAcquire(String account) {
+        Objects.requireNonNull(account, "account must not be null");
+
+        AtomicLong counter = counter(account);
+        long now = clock.millis();
+        long window = now / windowMillis;
+        while (true) {
+            long raw = counter.get();
+            long state = roll(raw, window);
+            int previous = previous(state);
+            int current = current(state);
+            if (estimate(previous, current, now) >= maxAttempts) {
+                return false;
+            }
+            if (counter.compareAndSet(raw, pack(window, previous, current + 1))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 校验成功后清除账号的计数（共享计数器不清除）
+     *
+     * @param account 账号
+     */
+    public void reset(String account) {
+        Objects.requireNonNull(account, "account must not be null");
+
+        counters.invalidate(account);
+    }
+
+    /**
+     * 限制次数后校验密码，通过时清除计数
+     *
+     * @param verifier 账号的TOTP验证器
+     * @param account  账号
+     * @param passcode 密码
+     * @return true=通过 false=不通过或已达上限
+     */
+    public boolean verify(TotpVerifier verifier, String account, String passcode) {
+        Objects.requireNonNull(verifier, "verifier must not be null");
+
+        if (!tryAcquire(account)) {
+            return false;
+        }
+        if (verifier.verify(passcode)) {
+            reset(account);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param account 账号
+     * @return 滑动窗口内剩余的尝试次数
+     */
+    public int remaining(String account) {
+        Objects.requireNonNull(account, "account must not be null");
+
+        AtomicLong counter = counters.getIfPresent(account);
+        if (counter == null) {
+            if (accounts.get() < maxAccounts) {
+                return maxAttempts;
+            }
+            counter = overflow(account);
+        }
+        long now = clock.millis();
+        long state = roll(counter.get(), now / windowMillis);
+        return (int) Math.max(0, maxAttempts - estimate(previous(state), current(state), now));
+    }
+
+    /**
+     * @return 当前记录的账号数量（先清理已过期的空闲账号）
+     */
+    public long size() {
+        counters.cleanUp();
+        return counters.size();
+    }
+
+    /**
+     * @return 账号的计数器，账号数已满且该账号未记录时为共享计数器
+     */
+    private AtomicLong counter(String account) {
+        AtomicLong counter = counters.getIfPresent(account);
+        if (counter != null) {
+            return counter;
+        }
+        if (!reserve()) {
+            // 过期账号只在其分段被访问时才移除，清理后再试一次
+            counters.cleanUp();
+            if (!reserve()) {
+                return overflow(account);
+            }
+        }
+
+        AtomicLong created = new AtomicLong();
+        try {
+            counter = counters.get(account, () -> created);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            // 创建计数器不会失败
+            throw new RuntimeException(e.getCause());
+        }
+        if (counter != created) {
+            // 其他线程已创建该账号
+            accounts.decrementAndGet();
+        }
+        return counter;
+    }
+
+    private AtomicLong overflow(String account) {
+        return overflow[overflowHash.hashUnencodedChars(account).asInt() & (OVERFLOW_STRIPES - 1)];
+    }
+
+    private boolean reserve() {
+        if (accounts.incrementAndGet() <= maxAccounts) {
+            return true;
+        }
+        accounts.decrementAndGet();
+        return false;
+    }
+
+    /**
+     * @return 滑动窗口内的估算次数（向上取整）
+     */
+    private long estimate(int previous, int current, long now) {
+        long remainingMillis = windowMillis - now % windowMillis;
+        return (previous * remainingMillis + windowMillis - 1) / windowMillis + current;
+    }
+
+    /**
+     * 把状态推进到指定窗口：相邻窗口时当前次数变为上一窗口次数，相隔更久时清零
+     */
+    private static long roll(long state, long window) {
+        long stateWindow = state >>> 32;
+        long target = window & 0xffffffffL;
+        if (stateWindow == target) {
+            return state;
+        }
+        if (((stateWindow + 1) & 0xffffffffL) == target) {
+            return pack(window, current(state), 0);
+        }
+        return pack(window, 0, 0);
+    }
+
+    private static long pack(long window, int previous, int current) {
+        return (window << 32) | ((long) previous << 16) | current;
+    }
+
+    private static int previous(long state) {
+        return (int) (state >>> 16) & 0xffff;
+    }
+
+    private static int current(long state) {
+        return (int) state & 0xffff;
+    }
+
+}
@@ -0,0 +1,191 @@
+package cn.lance.crypto;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * TOTP密码缓存
+ *
+ * @implNote 登录高峰时同一密钥在一个时间步（默认30秒）内会被多次校验。按密钥缓存 {@link TotpVerifier}
+ * 和当前时间步窗口内的全部密码（默认 {@code int[7]}），同一时间步内后续校验只比较整数，不再计算HMAC；
+ * 时间步变化后第一次校验时惰性重新计算整个窗口。窗口是不可变快照，由 volatile 字段整体替换，读取无锁。
+ * 缓存有最大数量和访问后过期时间，时间由注入的 {@link Clock} 提供。线程安全
+ */
+public final class TotpCodeCache {
+
+    private final static long DEFAULT_CACHE_SIZE = 100_000;
+
+    private final Clock clock;
+
+    private final TotpParameters parameters;
+
+    private final Cache<String, Entry> cache;
+
+    private TotpCodeCache(Clock clock, TotpParameters parameters, long maxCacheSize, Duration cacheTtl) {
+        this.clock = clock;
+        this.parameters = parameters;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maxCacheSize)
+                .expireAfterAccess(cacheTtl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 使用系统时钟和默认缓存配置（最多100000个密钥，一个窗口内未访问后过期）
+     *
+     * @return TOTP密码缓存
+     */
+    public static TotpCodeCache create() {
+        return create(TotpParameters.DEFAULT);
+    }
+
+    /**
+     * 使用系统时钟和默认缓存配置（最多100000个密钥，一个窗口内未访问后过期）
+     *
+     * @param parameters TOTP参数
+     * @return TOTP密码缓存
+     */
+    public static TotpCodeCache create(TotpParameters parameters) {
+        Objects.requireNonNull(parameters, "parameters must not be null");
+
+        // 超过一个完整窗口未访问的密钥不再有缓存价值
+        Duration cacheTtl = Duration.ofSeconds((long) parameters.offsets.length * parameters.period);
+        return of(Clock.systemUTC(), parameters, DEFAULT_CACHE_SIZE, cacheTtl);
+    }
+
+    /**
+     * @param clock        时钟
+     * @param maxCacheSize 最多缓存的密钥数量
+     * @param cacheTtl     密钥最后一次访问后的过期时间
+     * @return TOTP密码缓存
+     */
+    public static TotpCodeCache of(Clock clock, long maxCacheSize, Duration cacheTtl) {
+        return of(clock, TotpParameters.DEFAULT, maxCacheSize, cacheTtl);
+    }
+
+    /**
+     * @param clock        时钟
+     * @param parameters   TOTP参数
+     * @param maxCacheSize 最多缓存的密钥数量
+     * @param cacheTtl     密钥最后一次访问后的过期时间
+     * @return TOTP密码缓存
+     */
+    public static TotpCodeCache of(Clock clock, TotpParameters parameters, long maxCacheSize, Duration cacheTtl) {
+        Objects.requireNonNull(clock, "clock must not be null");
+        Objects.requireNonNull(parameters, "parameters must not be null");
+        Objects.requireNonNull(cacheTtl, "cacheTtl must not be null");
+
+        return new TotpCodeCache(clock, parameters, maxCacheSize, cacheTtl);
+    }
+
+    /**
+     * 校验密码是否有效，结果与 {@link TotpUtils#verify(String, String, Clock)} 一致
+     *
+     * @param secret   密钥（Base32）
+     * @param passcode 密码
+     * @return true=通过 false=不通过（含格式错误）
+     */
+    public boolean verify(String secret, String passcode) {
+        return match(secret, passcode) >= 0;
+    }
+
+    /**
+     * 校验密码并返回匹配的时间步（可配合 {@link TotpReplayGuard#markUsed(String, long, long)} 防重放）
+     *
+     * @param secret   密钥（Base32）
+     * @param passcode 密码
+     * @return 匹配的时间步，不通过（含格式错误）时为-1
+     */
+    public long match(String secret, String passcode) {
+        Objects.requireNonNull(secret, "secret must not be null");
+        Objects.requireNonNull(passcode, "passcode must not be null");
+
+        int code = TotpVerifier.parse(passcode, parameters.digits);
+        if (code < 0) {
+            return -1;
+        }
+
+        long currentInterval = parameters.interval(clock.millis());
+        Window window = entry(secret).window(currentInterval);
+        // 与 TotpVerifier 的搜索顺序一致，同一密码出现在多个时间步时返回最近的一个
+        for (int offset : parameters.offsets) {
+            if (window.codes[parameters.pastIntervals + offset] == code) {
+                return currentInterval + offset;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return 缓存统计（命中数、未命中数、淘汰数等）
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * 移除密钥（如用户重新绑定）
+     *
+     * @param secret 密钥（Base32）
+     */
+    public void invalidate(String secret) {
+        Objects.requireNonNull(secret, "secret must not be null");
+
+        cache.invalidate(secret);
+    }
+
+    private Entry entry(String secret) {
+        try {
+            return cache.get(secret, () -> new Entry(TotpVerifier.of(secret, parameters, clock)));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static final class Entry {
+
+        private final TotpVerifier verifier;
+
+        private volatile Window window = new Window(Long.MIN_VALUE, new int[0]);
+
+        private Entry(TotpVerifier verifier) {
+            this.verifier = verifier;
+        }
+
+        private Window window(long currentInterval) {
+            Window current = window;
+            if (current.interval != currentInterval) {
+                // 并发刷新时各自计算，结果相同，后写入者覆盖
+                current = new Window(currentInterval, verifier.window(currentInterval));
+                window = current;
+            }
+            return current;
+        }
+
+    }
+
+    private static final class Window {
+
+        private final long interval;
+
+        private final int[] codes;
+
+        private Window(long interval, int[] codes) {
+            this.interval = interval;
+            this.codes = codes;
+        }
+
+    }
+
+}
@@ -0,0 +1,110 @@
+package cn.lance.crypto;
+
+import java.util.Objects;
+
+/**
+ * TOTP参数
+ *
+ * @implNote 不可变。构造时预先计算窗口的搜索顺序：从当前时间步开始向两侧交替展开
+ * （0, -1, +1, -2, +2 ...，一侧用完后只展开另一侧），时钟正常时第一次HMAC即可命中并提前返回，
+ * 不必按从旧到新的顺序计算整个窗口
+ */
+public final class TotpParameters {
+
+    /**
+     * 单侧最多允许的时间步数
+     */
+    public final static int MAX_ADJACENT_INTERVALS = 17;
+
+    /**
+     * 与 {@link TotpUtils} 原有行为一致：HmacSHA1、6位、30秒、前后各3个时间步
+     */
+    public final static TotpParameters DEFAULT = of(OtpAlgorithm.SHA1, TotpUtils.PASSCODE_LENGTH, TotpUtils.PERIOD,
+            TotpUtils.ADJACENT_INTERVALS, TotpUtils.ADJACENT_INTERVALS);
+
+    final OtpAlgorithm algorithm;
+
+    final int digits;
+
+    final int period;
+
+    final int pastIntervals;
+
+    final int futureIntervals;
+
+    /**
+     * 相对当前时间步的偏移，按搜索顺序排列
+     */
+    final int[] offsets;
+
+    private TotpParameters(OtpAlgorithm algorithm, int digits, int period, int pastIntervals, int futureIntervals) {
+        this.algorithm = algorithm;
+        this.digits = digits;
+        this.period = period;
+        this.pastIntervals = pastIntervals;
+        this.futureIntervals = futureIntervals;
+
+        this.offsets = new int[pastIntervals + futureIntervals + 1];
+        for (int distance = 1, i = 1; i < offsets.length; distance++) {
+            if (distance <= pastIntervals) {
+                offsets[i++] = -distance;
+            }
+            if (distance <= futureIntervals) {
+                offsets[i++] = distance;
+            }
+        }
+    }
+
+    /**
+     * 创建TOTP参数
+     *
+     * @param algorithm       HMAC算法
+     * @param digits          密码位数（6 ~ {@value TotpUtils#MAX_PASSCODE_LENGTH}）
+     * @param period          时间步长（秒）
+     * @param pastIntervals   允许的过去时间步数（0 ~ {@value #MAX_ADJACENT_INTERVALS}）
+     * @param futureIntervals 允许的未来时间步数（0 ~ {@value #MAX_ADJACENT_INTERVALS}）
+     * @return TOTP参数
+     */
+    public static TotpParameters of(OtpAlgorithm algorithm, int digits, int period, int pastIntervals, int futureIntervals) {
+        Objects.requireNonNull(algorithm, "algorithm must not be null");
+        OtpGenerator.checkDigits(digits);
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be positive");
+        }
+        if (pastIntervals < 0 || pastIntervals > MAX_ADJACENT_INTERVALS
+                || futureIntervals < 0 || futureIntervals > MAX_ADJACENT_INTERVALS) {
+            throw new IllegalArgumentException("intervals must be between 0 and " + MAX_ADJACENT_INTERVALS);
+        }
+
+        return new TotpParameters(algorithm, digits, period, pastIntervals, futureIntervals);
+    }
+
+    public OtpAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public int getDigits() {
+        return digits;
+    }
+
+    public int getPeriod() {
+        return period;
+    }
+
+    public int getPastIntervals() {
+        return pastIntervals;
+    }
+
+    public int getFutureIntervals() {
+        return futureIntervals;
+    }
+
+    /**
+     * @param timeMillis 时间（毫秒时间戳）
+     * @return 所属的时间步
+     */
+    long interval(long timeMillis) {
+        return timeMillis / 1000 / period;
+    }
+
+}
@@ -0,0 +1,180 @@
+package cn.lance.crypto;
+
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * TOTP防重放
+ *
+ * @implNote 记录已使用的 (账号, 时间步)，同一时间步的密码只能成功使用一次。记录按时间步分桶，
+ * 桶放在长度为 {@code 前向步数 + 后向步数 + 2} 的环形数组中：新时间步占用槽位时整桶替换（CAS），
+ * 过期记录随旧桶一起丢弃，无需逐条清理，内存只与窗口内实际登录的账号数有关。
+ * 每个桶按账号哈希分成多个条带，各条带独立加锁，不同账号的检查互不阻塞；检查和记录都是O(1)。线程安全
+ */
+public final class TotpReplayGuard {
+
+    /**
+     * 每个桶的条带数（2的整数幂）
+     */
+    private final static int STRIPES = 64;
+
+    private final int pastIntervals;
+
+    private final int futureIntervals;
+
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    private TotpReplayGuard(int pastIntervals, int futureIntervals) {
+        this.pastIntervals = pastIntervals;
+        this.futureIntervals = futureIntervals;
+        this.buckets = new AtomicReferenceArray<>(pastIntervals + futureIntervals + 2);
+        for (int i = 0; i < buckets.length(); i++) {
+            buckets.set(i, new Bucket(Long.MIN_VALUE));
+        }
+    }
+
+    /**
+     * 创建防重放记录，窗口与 {@link TotpUtils} 相同（前后各3个时间步）
+     *
+     * @return TOTP防重放记录
+     */
+    public static TotpReplayGuard create() {
+        return of(TotpParameters.DEFAULT);
+    }
+
+    /**
+     * 创建防重放记录，窗口与TOTP参数相同
+     *
+     * @param parameters TOTP参数
+     * @return TOTP防重放记录
+     */
+    public static TotpReplayGuard of(TotpParameters parameters) {
+        Objects.requireNonNull(parameters, "parameters must not be null");
+
+        return of(parameters.pastIntervals, parameters.futureIntervals);
+    }
+
+    /**
+     * 创建防重放记录
+     *
+     * @param pastIntervals   验证时允许的过去时间步数
+     * @param futureIntervals 验证时允许的未来时间步数
+     * @return TOTP防重放记录
+     */
+    public static TotpReplayGuard of(int pastIntervals, int futureIntervals) {
+        if (pastIntervals < 0 || futureIntervals < 0) {
+            throw new IllegalArgumentException("intervals must not be negative");
+        }
+
+        return new TotpReplayGuard(pastIntervals, futureIntervals);
+    }
+
+    /**
+     * 校验密码并记录使用，同一账号同一时间步的密码第二次使用时不通过
+     *
+     * @param verifier   账号的TOTP验证器
+     * @param account    账号
+     * @param passcode   密码
+     * @param timeMillis 校验时间（毫秒时间戳）
+     * @return true=通过 false=不通过或重放
+     */
+    public boolean verify(TotpVerifier verifier, String account, String passcode, long timeMillis) {
+        Objects.requireNonNull(verifier, "verifier must not be null");
+
+        long interval = verifier.match(passcode, timeMillis);
+        return interval >= 0 && markUsed(account, interval, verifier.getParameters().interval(timeMillis));
+    }
+
+    /**
+     * 校验密码并记录使用（验证器时钟的当前时间）
+     *
+     * @see #verify(TotpVerifier, String, String, long)
+     */
+    public boolean verify(TotpVerifier verifier, String account, String passcode) {
+        Objects.requireNonNull(verifier, "verifier must not be null");
+
+        return verify(verifier, account, passcode, verifier.clock().millis());
+    }
+
+    /**
+     * 记录使用
+     *
+     * @param account         账号
+     * @param interval        密码所属的时间步
+     * @param currentInterval 当前时间步
+     * @return true=首次使用 false=已使用过或时间步不在窗口内
+     */
+    public boolean markUsed(String account, long interval, long currentInterval) {
+        Objects.requireNonNull(account, "account must not be null");
+        if (interval < currentInterval - pastIntervals || interval > currentInterval + futureIntervals) {
+            return false;
+        }
+
+        Bucket bucket = bucket(interval);
+        if (bucket == null) {
+            return false;
+        }
+        Set<String> stripe = bucket.stripes[stripe(account)];
+        synchronized (stripe) {
+            return stripe.add(account);
+        }
+    }
+
+    /**
+     * @return 当前记录的 (账号, 时间步) 数量（含尚未被替换的过期桶）
+     */
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            for (Set<String> stripe : buckets.get(i).stripes) {
+                synchronized (stripe) {
+                    size += stripe.size();
+                }
+            }
+        }
+        return size;
+    }
+
+    private Bucket bucket(long interval) {
+        int slot = (int) Math.floorMod(interval, (long) buckets.length());
+        while (true) {
+            Bucket bucket = buckets.get(slot);
+            if (bucket.interval == interval) {
+                return bucket;
+            }
+            if (bucket.interval > interval) {
+                // 槽位已被更新的时间步占用，该时间步早已过期
+                return null;
+            }
+            Bucket fresh = new Bucket(interval);
+            if (buckets.compareAndSet(slot, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private static int stripe(String account) {
+        int hash = account.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    private static final class Bucket {
+
+        private final long interval;
+
+        private final Set<String>[] stripes;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private Bucket(long interval) {
+            this.interval = interval;
+            this.stripes = new Set[STRIPES];
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new HashSet<>();
+            }
+        }
+
+    }
+
+}
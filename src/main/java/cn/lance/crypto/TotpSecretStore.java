@@ -0,0 +1,376 @@
+package cn.lance.crypto;
+
+import org.apache.commons.codec.binary.Base32;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * 堆外TOTP密钥存储
+ *
+ * @implNote 解码后的密钥按账号ID（{@code int}，0 ~ 容量-1）定长存放在堆外内存中：
+ * 每个槽位 {@value #SLOT_SIZE} 字节（1字节长度 + 最长 {@value #MAX_SECRET_LENGTH} 字节密钥，长度0表示空），
+ * 按 {@value #SEGMENT_SLOTS} 个槽位一段分配直接缓冲区，或映射到文件（{@link FileChannel#map}，重启后仍在）。
+ * 堆上只有段引用和锁，与账号数量无关，GC不需要扫描密钥。
+ * <p>
+ * 校验参数为 {@link TotpParameters#DEFAULT}，与 {@link TotpUtils} 结果一致。每个工作线程借出一个 {@link OtpGenerator}，
+ * 逐个账号把槽位复制到复用的密钥数组后原地换密钥（{@link HmacEngine#rekey}），窗口从当前时间步向两侧搜索，不分配内存；
+ * 批量接口按数量切分到 {@link ForkJoinPool#commonPool()}。槽位读写按账号ID分条带加锁。线程安全
+ */
+public final class TotpSecretStore {
+
+    public final static int MAX_SECRET_LENGTH = 20;
+
+    private final static TotpParameters PARAMETERS = TotpParameters.DEFAULT;
+
+    private final static int SLOT_SIZE = 1 + MAX_SECRET_LENGTH;
+
+    /**
+     * 每段槽位数，单段约336MB，不超过单个缓冲区的容量上限
+     */
+    private final static int SEGMENT_SLOTS = 1 << 24;
+
+    /**
+     * 锁条带数（2的整数幂）
+     */
+    private final static int STRIPES = 256;
+
+    /**
+     * 每个工作线程至少校验的账号数，批次较小时不拆分
+     */
+    private final static int MIN_CHUNK_SIZE = 1024;
+
+    private final int capacity;
+
+    private final ByteBuffer[] segments;
+
+    private final Object[] locks = new Object[STRIPES];
+
+    private final Clock clock;
+
+    private final InstancePool<Worker> workers = new InstancePool<>(Worker::new);
+
+    private TotpSecretStore(int capacity, ByteBuffer[] segments, Clock clock) {
+        this.capacity = capacity;
+        this.segments = segments;
+        this.clock = clock;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * 创建直接内存中的密钥存储（系统时钟）
+     *
+     * @param capacity 容量（账号ID上限）
+     * @return 密钥存储
+     */
+    public static TotpSecretStore allocate(int capacity) {
+        return allocate(capacity, Clock.systemUTC());
+    }
+
+    /**
+     * 创建直接内存中的密钥存储
+     *
+     * @param capacity 容量（账号ID上限）
+     * @param clock    时钟（不指定时间的校验使用）
+     * @return 密钥存储
+     */
+    public static TotpSecretStore allocate(int capacity, Clock clock) {
+        checkCapacity(capacity);
+        Objects.requireNonNull(clock, "clock must not be null");
+
+        ByteBuffer[] segments = new ByteBuffer[segmentCount(capacity)];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = ByteBuffer.allocateDirect(segmentSize(capacity, i));
+        }
+        return new TotpSecretStore(capacity, segments, clock);
+    }
+
+    /**
+     * 创建映射到文件的密钥存储（系统时钟），文件不存在时创建，已有内容保留
+     *
+     * @param file     文件
+     * @param capacity 容量（账号ID上限）
+     * @return 密钥存储
+     */
+    public static TotpSecretStore map(Path file, int capacity) throws IOException {
+        return map(file, capacity, Clock.systemUTC());
+    }
+
+    /**
+     * 创建映射到文件的密钥存储，文件不存在时创建，已有内容保留
+     *
+     * @param file     文件
+     * @param capacity 容量（账号ID上限）
+     * @param clock    时钟（不指定时间的校验使用）
+     * @return 密钥存储
+     */
+    public static TotpSecretStore map(Path file, int capacity, Clock clock) throws IOException {
+        Objects.requireNonNull(file, "file must not be null");
+        checkCapacity(capacity);
+        Objects.requireNonNull(clock, "clock must not be null");
+
+        ByteBuffer[] segments = new ByteBuffer[segmentCount(capacity)];
+        // 映射建立后关闭通道不影响映射
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE)) {
+            for (int i = 0; i < segments.length; i++) {
+                segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, (long) i * SEGMENT_SLOTS * SLOT_SIZE, segmentSize(capacity, i));
+            }
+        }
+        return new TotpSecretStore(capacity, segments, clock);
+    }
+
+    /**
+     * @return 容量（账号ID上限）
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 保存密钥
+     *
+     * @param accountId 账号ID
+     * @param secret    密钥（Base32）
+     */
+    public void put(int accountId, String secret) {
+        Objects.requireNonNull(secret, "secret must not be null");
+
+        byte[] secretBytes = new Base32().decode(secret);
+        try {
+            put(accountId, secretBytes);
+        } finally {
+            Arrays.fill(secretBytes, (byte) 0);
+        }
+    }
+
+    /**
+     * 保存密钥
+     *
+     * @param accountId 账号ID
+     * @param secret    密钥（1 ~ {@value #MAX_SECRET_LENGTH} 字节）
+     */
+    public void put(int accountId, byte[] secret) {
+        Objects.checkIndex(accountId, capacity);
+        Objects.requireNonNull(secret, "secret must not be null");
+        if (secret.length == 0 || secret.length > MAX_SECRET_LENGTH) {
+            throw new IllegalArgumentException("secret must be between 1 and " + MAX_SECRET_LENGTH + " bytes");
+        }
+
+        ByteBuffer segment = segments[accountId / SEGMENT_SLOTS];
+        int position = accountId % SEGMENT_SLOTS * SLOT_SIZE;
+        synchronized (lock(accountId)) {
+            segment.put(position, (byte) secret.length);
+            segment.put(position + 1, secret);
+            for (int i = secret.length; i < MAX_SECRET_LENGTH; i++) {
+                segment.put(position + 1 + i, (byte) 0);
+            }
+        }
+    }
+
+    /**
+     * 删除密钥（槽位清零）
+     *
+     * @param accountId 账号ID
+     */
+    public void remove(int accountId) {
+        Objects.checkIndex(accountId, capacity);
+
+        ByteBuffer segment = segments[accountId / SEGMENT_SLOTS];
+        int position = accountId % SEGMENT_SLOTS * SLOT_SIZE;
+        synchronized (lock(accountId)) {
+            for (int i = 0; i < SLOT_SIZE; i++) {
+                segment.put(position + i, (byte) 0);
+            }
+        }
+    }
+
+    /**
+     * @param accountId 账号ID
+     * @return 是否已保存密钥
+     */
+    public boolean contains(int accountId) {
+        Objects.checkIndex(accountId, capacity);
+
+        ByteBuffer segment = segments[accountId / SEGMENT_SLOTS];
+        synchronized (lock(accountId)) {
+            return segment.get(accountId % SEGMENT_SLOTS * SLOT_SIZE) != 0;
+        }
+    }
+
+    /**
+     * 校验密码是否有效（当前时间）
+     *
+     * @param accountId 账号ID
+     * @param passcode  密码
+     * @return true=通过 false=不通过（含格式错误、未保存密钥）
+     */
+    public boolean verify(int accountId, String passcode) {
+        return match(accountId, passcode, clock.millis()) >= 0;
+    }
+
+    /**
+     * 校验密码并返回匹配的时间步（可配合 {@link TotpReplayGuard#markUsed(String, long, long)} 防重放）
+     *
+     * @param accountId  账号ID
+     * @param passcode   密码
+     * @param timeMillis 校验时间（毫秒时间戳）
+     * @return 匹配的时间步，不通过（含格式错误、未保存密钥）时为-1
+     */
+    public long match(int accountId, String passcode, long timeMillis) {
+        Objects.checkIndex(accountId, capacity);
+        Objects.requireNonNull(passcode, "passcode must not be null");
+
+        int code = TotpVerifier.parse(passcode, PARAMETERS.digits);
+        if (code < 0) {
+            return -1;
+        }
+        Worker worker = workers.borrow();
+        long interval = worker.match(accountId, code, PARAMETERS.interval(timeMillis));
+        workers.release(worker);
+        return interval;
+    }
+
+    /**
+     * 批量校验（当前时间），大批次并行计算
+     *
+     * @param accountIds 账号ID
+     * @param passcodes  密码，与账号ID一一对应
+     * @return 各账号的校验结果，与输入顺序一致
+     */
+    public boolean[] verify(int[] accountIds, String[] passcodes) {
+        return verify(accountIds, passcodes, clock.millis());
+    }
+
+    /**
+     * 批量校验，大批次并行计算
+     *
+     * @param accountIds 账号ID
+     * @param passcodes  密码，与账号ID一一对应
+     * @param timeMillis 校验时间（毫秒时间戳）
+     * @return 各账号的校验结果，与输入顺序一致
+     */
+    public boolean[] verify(int[] accountIds, String[] passcodes, long timeMillis) {
+        Objects.requireNonNull(passcodes, "passcodes must not be null");
+
+        int[] codes = new int[passcodes.length];
+        for (int i = 0; i < passcodes.length; i++) {
+            codes[i] = TotpVerifier.parse(Objects.requireNonNull(passcodes[i], "passcode must not be null"), PARAMETERS.digits);
+        }
+        return verify(accountIds, codes, timeMillis);
+    }
+
+    /**
+     * 批量校验已解析的密码，大批次并行计算
+     *
+     * @param accountIds 账号ID
+     * @param passcodes  已解析的密码（负数视为格式错误），与账号ID一一对应
+     * @param timeMillis 校验时间（毫秒时间戳）
+     * @return 各账号的校验结果，与输入顺序一致
+     */
+    public boolean[] verify(int[] accountIds, int[] passcodes, long timeMillis) {
+        Objects.requireNonNull(accountIds, "accountIds must not be null");
+        Objects.requireNonNull(passcodes, "passcodes must not be null");
+        if (accountIds.length != passcodes.length) {
+            throw new IllegalArgumentException("accountIds and passcodes must have the same length");
+        }
+        for (int accountId : accountIds) {
+            Objects.checkIndex(accountId, capacity);
+        }
+
+        long currentInterval = PARAMETERS.interval(timeMillis);
+        boolean[] results = new boolean[accountIds.length];
+        int size = accountIds.length;
+        int chunks = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() + 1, size / MIN_CHUNK_SIZE));
+        int chunkSize = (size + chunks - 1) / chunks;
+        if (chunks == 1) {
+            verifyChunk(accountIds, passcodes, currentInterval, results, 0, size);
+        } else {
+            IntStream.range(0, chunks).parallel()
+                    .forEach(chunk -> verifyChunk(accountIds, passcodes, currentInterval, results, chunk * chunkSize, Math.min(size, (chunk + 1) * chunkSize)));
+        }
+        return results;
+    }
+
+    /**
+     * 把映射到文件的内容写回磁盘（直接内存存储无操作）
+     */
+    public void flush() {
+        for (ByteBuffer segment : segments) {
+            if (segment instanceof MappedByteBuffer mapped) {
+                mapped.force();
+            }
+        }
+    }
+
+    private void verifyChunk(int[] accountIds, int[] passcodes, long currentInterval, boolean[] results, int from, int to) {
+        Worker worker = workers.borrow();
+        for (int i = from; i < to; i++) {
+            results[i] = passcodes[i] >= 0 && worker.match(accountIds[i], passcodes[i], currentInterval) >= 0;
+        }
+        workers.release(worker);
+    }
+
+    private Object lock(int accountId) {
+        return locks[accountId & (STRIPES - 1)];
+    }
+
+    private static void checkCapacity(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+    }
+
+    private static int segmentCount(int capacity) {
+        return (capacity + SEGMENT_SLOTS - 1) / SEGMENT_SLOTS;
+    }
+
+    private static int segmentSize(int capacity, int segment) {
+        return Math.min(SEGMENT_SLOTS, capacity - segment * SEGMENT_SLOTS) * SLOT_SIZE;
+    }
+
+    /**
+     * 单线程使用的计算实例
+     */
+    private final class Worker {
+
+        private final byte[] secret = new byte[MAX_SECRET_LENGTH];
+
+        // 初始密钥无意义，每个账号校验前换密钥
+        private final OtpGenerator generator = new OtpGenerator(PARAMETERS.algorithm, secret, PARAMETERS.digits);
+
+        private long match(int accountId, int passcode, long currentInterval) {
+            ByteBuffer segment = segments[accountId / SEGMENT_SLOTS];
+            int position = accountId % SEGMENT_SLOTS * SLOT_SIZE;
+            int length;
+            synchronized (lock(accountId)) {
+                length = segment.get(position);
+                if (length == 0) {
+                    return -1;
+                }
+                segment.get(position + 1, secret, 0, length);
+            }
+
+            generator.rekey(secret, length);
+            Arrays.fill(secret, (byte) 0);
+            for (int offset : PARAMETERS.offsets) {
+                if (generator.code(currentInterval + offset) == passcode) {
+                    return currentInterval + offset;
+                }
+            }
+            return -1;
+        }
+
+    }
+
+}
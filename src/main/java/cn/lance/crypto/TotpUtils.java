@@ -8,11 +8,18 @@ import java.net.URI;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.time.Clock;
 import java.util.Arrays;
 import java.util.Objects;
 
 /**
  * Time-Based One-Time Password
+ *
+ * @see TotpParameters 算法、位数、步长和窗口的配置
+ * @see HotpVerifier 基于计数器的一次性密码（HOTP）
+ * @see TotpVerifier 热点路径（登录校验）使用的预解码验证器
+ * @see TotpCodeCache 同一密钥在一个时间步内多次校验时使用的密码缓存
+ * @see TotpAttemptLimiter 按账号限制校验次数（防暴力破解）
  */
 public class TotpUtils {
 
@@ -21,29 +28,27 @@ public class TotpUtils {
      */
     private static final int SEED_LENGTH_IN_BYTE = 20;
 
-    private static final String ALGORITHM = "HmacSHA1";
+    static final int PASSCODE_LENGTH = 6;
 
-    private static final int PASSCODE_LENGTH = 6;
-
-    private static final int PERIOD = 30;
+    static final int PERIOD = 30;
 
     /**
      * 密码最大长度
      * 要跟 {@link #DIGITS_POWER} 保持同步
      */
-    private static final int MAX_PASSCODE_LENGTH = 9;
+    static final int MAX_PASSCODE_LENGTH = 9;
 
     /**
      * 10的整数幂，为了避免Math.pow()实现不正确导致 10^6 != 1000000 之类的情况
      * 要跟 {@link #MAX_PASSCODE_LENGTH} 保持同步
      */
-    private static final int[] DIGITS_POWER =
+    static final int[] DIGITS_POWER =
             {1, 10, 100, 1000, 10000, 100000, 1000000, 10000000, 100000000, 1000000000};
 
     /**
      * 允许的步长（默认3，最大17）
      */
-    private static final int ADJACENT_INTERVALS = 3;
+    static final int ADJACENT_INTERVALS = 3;
 
     private TotpUtils() {
     }
@@ -56,11 +61,25 @@ public class TotpUtils {
      * @return URI
      */
     public static String generate(String issuer, String accountName) {
+        return generate(issuer, accountName, TotpParameters.DEFAULT);
+    }
+
+    /**
+     * 生成URI
+     *
+     * @param issuer      签发者
+     * @param accountName 账号名称
+     * @param parameters  TOTP参数
+     * @return URI（非默认算法时带 {@code algorithm} 参数）
+     */
+    public static String generate(String issuer, String accountName, TotpParameters parameters) {
         Objects.requireNonNull(issuer, "issuer must not be null");
         Objects.requireNonNull(accountName, "accountName must not be null");
+        Objects.requireNonNull(parameters, "parameters must not be null");
 
-        return String.format("otpauth://totp/%s?secret=%s&issuer=%s&digits=%d&period=%d",
-                accountName, generateSecret(), issuer, PASSCODE_LENGTH, PERIOD);
+        String uri = String.format("otpauth://totp/%s?secret=%s&issuer=%s&digits=%d&period=%d",
+                accountName, generateSecret(), issuer, parameters.digits, parameters.period);
+        return parameters.algorithm == OtpAlgorithm.SHA1 ? uri : uri + "&algorithm=" + parameters.algorithm.name();
     }
 
     /**
@@ -92,11 +111,36 @@ public class TotpUtils {
      * @return 密码
      */
     public static String generateCode(String secret) {
+        return generateCode(secret, Clock.systemUTC());
+    }
+
+    /**
+     * 生成密码
+     *
+     * @param secret 密钥（Base32）
+     * @param clock  时钟
+     * @return 密码
+     */
+    public static String generateCode(String secret, Clock clock) {
+        return generateCode(secret, TotpParameters.DEFAULT, clock);
+    }
+
+    /**
+     * 生成密码
+     *
+     * @param secret     密钥（Base32）
+     * @param parameters TOTP参数
+     * @param clock      时钟
+     * @return 密码
+     */
+    public static String generateCode(String secret, TotpParameters parameters, Clock clock) {
         Objects.requireNonNull(secret, "secret must not be null");
+        Objects.requireNonNull(parameters, "parameters must not be null");
+        Objects.requireNonNull(clock, "clock must not be null");
 
-        long currentInterval = System.currentTimeMillis() / 1000 / PERIOD;
+        long currentInterval = parameters.interval(clock.millis());
 
-        return generateCode(secret, counterToBytes(currentInterval));
+        return generateCode(secret, parameters, counterToBytes(currentInterval));
     }
 
     /**
@@ -107,22 +151,46 @@ public class TotpUtils {
      * @return true=通过 false=不通过
      */
     public static boolean verify(String secret, String passcode) {
+        return verify(secret, passcode, Clock.systemUTC());
+    }
+
+    /**
+     * 校验密码是否有效
+     *
+     * @param secret   密钥（Base32）
+     * @param passcode 密码
+     * @param clock    时钟
+     * @return true=通过 false=不通过
+     */
+    public static boolean verify(String secret, String passcode, Clock clock) {
+        return verify(secret, passcode, TotpParameters.DEFAULT, clock);
+    }
+
+    /**
+     * 校验密码是否有效
+     *
+     * @param secret     密钥（Base32）
+     * @param passcode   密码
+     * @param parameters TOTP参数
+     * @param clock      时钟
+     * @return true=通过 false=不通过
+     */
+    public static boolean verify(String secret, String passcode, TotpParameters parameters, Clock clock) {
         Objects.requireNonNull(secret, "secret must not be null");
         Objects.requireNonNull(passcode, "passcode must not be null");
+        Objects.requireNonNull(parameters, "parameters must not be null");
+        Objects.requireNonNull(clock, "clock must not be null");
 
         if (passcode.length() > MAX_PASSCODE_LENGTH) {
             throw new RuntimeException("passcode length exceeds max length" + MAX_PASSCODE_LENGTH);
         }
 
-        long currentInterval = System.currentTimeMillis() / 1000 / PERIOD;
-
-        int pastIntervals = Math.max(ADJACENT_INTERVALS, 0);
-        int futureIntervals = Math.max(ADJACENT_INTERVALS, 0);
+        long currentInterval = parameters.interval(clock.millis());
 
-        // verify pass intervals before current time, verify future intervals after
-        for (int i = -pastIntervals; i <= futureIntervals; i++) {
-            long counter = currentInterval + i;
-            String candidate = generateCode(secret, counterToBytes(counter));
+        // verify from the current interval outward, the nearest intervals are the most likely to match
+        for (int offset : parameters.offsets) {
+            long counter = currentInterval + offset;
+            String candidate = generateCode(secret, parameters, counterToBytes(counter));
             if (candidate.equals(passcode)) {
                 return true;
             }
@@ -149,41 +217,55 @@ public class TotpUtils {
     /**
      * 生成密码
      *
-     * @param secret  密钥（Base32）
-     * @param counter 时间戳
+     * @param secret     密钥（Base32）
+     * @param parameters TOTP参数
+     * @param counter    时间戳
      * @return 密码
      */
-    private static String generateCode(String secret, byte[] counter) {
+    private static String generateCode(String secret, TotpParameters parameters, byte[] counter) {
         Base32 codec = new Base32();
         byte[] secretBytes = codec.decode(secret);
 
-        byte[] result = hash(secretBytes, counter);
+        byte[] result = hash(parameters.algorithm.getMacAlgorithm(), secretBytes, counter);
         if (result == null) {
             throw new RuntimeException("could not produce OTP passcode");
         }
 
-        int offset = result[result.length - 1] & 0xf;
-        int binary = ((result[offset] & 0x7f) << 24) |
-                ((result[offset + 1] & 0xff) << 16) |
-                ((result[offset + 2] & 0xff) << 8) |
-                ((result[offset + 3] & 0xff));
-        int passcode = binary % DIGITS_POWER[PASSCODE_LENGTH];
+        int passcode = truncate(result, result.length, parameters.digits);
 
         // 位数不足，前面补0
-        String format = "%0" + PASSCODE_LENGTH + "d";
+        String format = "%0" + parameters.digits + "d";
         return String.format(format, passcode);
     }
 
+    /**
+     * 动态截断（RFC 4226 5.3）
+     *
+     * @param hash   HMAC结果
+     * @param length HMAC结果长度
+     * @param digits 密码位数
+     * @return 密码
+     */
+    static int truncate(byte[] hash, int length, int digits) {
+        int offset = hash[length - 1] & 0xf;
+        int binary = ((hash[offset] & 0x7f) << 24) |
+                ((hash[offset + 1] & 0xff) << 16) |
+                ((hash[offset + 2] & 0xff) << 8) |
+                ((hash[offset + 3] & 0xff));
+        return binary % DIGITS_POWER[digits];
+    }
+
     /**
      * 哈希计算
      *
-     * @param secret  密钥字节数组
-     * @param message 时间戳
+     * @param algorithm HMAC算法
+     * @param secret    密钥字节数组
+     * @param message   时间戳
      * @return 哈希字节数组
      */
-    private static byte[] hash(byte[] secret, byte[] message) {
+    private static byte[] hash(String algorithm, byte[] secret, byte[] message) {
         try {
-            Mac hmac = Mac.getInstance(ALGORITHM);
+            Mac hmac = Mac.getInstance(algorithm);
             SecretKeySpec keySpec = new SecretKeySpec(secret, "RAW");
             hmac.init(keySpec);
             return hmac.doFinal(message);
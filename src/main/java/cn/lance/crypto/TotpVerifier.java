@@ -0,0 +1,228 @@
+package cn.lance.crypto;
+
+import org.apache.commons.codec.binary.Base32;
+
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * TOTP验证器
+ *
+ * @implNote 默认参数与 {@link TotpUtils} 相同（HmacSHA1、6位、30秒、前后各3个时间步），结果一致，
+ * 也可通过 {@link TotpParameters} 指定算法、位数、步长和前后不对称的窗口。
+ * 密钥只做一次Base32解码并预计算HMAC密钥块（{@link OtpGenerator}），计数器写入复用的8字节数组；
+ * 密码只解析一次为整数，与各时间步的截断结果按整数比较，不构造字符串，稳定状态下每次校验零分配。
+ * 窗口从当前时间步向两侧搜索，命中即返回，时钟正常时只计算一次HMAC。
+ * 线程安全（同一验证器的并发校验串行执行，适合按账号缓存实例）
+ */
+public final class TotpVerifier {
+
+    private final TotpParameters parameters;
+
+    private final OtpGenerator generator;
+
+    private final Clock clock;
+
+    private TotpVerifier(byte[] secret, TotpParameters parameters, Clock clock) {
+        this.parameters = parameters;
+        this.generator = new OtpGenerator(parameters.algorithm, secret, parameters.digits);
+        this.clock = clock;
+    }
+
+    /**
+     * 创建TOTP验证器
+     *
+     * @param secret 密钥（Base32）
+     * @return TOTP验证器
+     */
+    public static TotpVerifier of(String secret) {
+        return of(secret, Clock.systemUTC());
+    }
+
+    /**
+     * 创建TOTP验证器
+     *
+     * @param secret 密钥（Base32）
+     * @param clock  时钟（不指定时间的校验和生成使用）
+     * @return TOTP验证器
+     */
+    public static TotpVerifier of(String secret, Clock clock) {
+        return of(secret, TotpParameters.DEFAULT, clock);
+    }
+
+    /**
+     * 创建TOTP验证器
+     *
+     * @param secret     密钥（Base32）
+     * @param parameters TOTP参数
+     * @param clock      时钟（不指定时间的校验和生成使用）
+     * @return TOTP验证器
+     */
+    public static TotpVerifier of(String secret, TotpParameters parameters, Clock clock) {
+        Objects.requireNonNull(secret, "secret must not be null");
+        Objects.requireNonNull(parameters, "parameters must not be null");
+        Objects.requireNonNull(clock, "clock must not be null");
+
+        byte[] secretBytes = new Base32().decode(secret);
+        try {
+            return new TotpVerifier(secretBytes, parameters, clock);
+        } finally {
+            Arrays.fill(secretBytes, (byte) 0);
+        }
+    }
+
+    /**
+     * 校验密码是否有效（当前时间）
+     *
+     * @param passcode 密码
+     * @return true=通过 false=不通过（含格式错误）
+     */
+    public boolean verify(String passcode) {
+        return verify(passcode, clock.millis());
+    }
+
+    /**
+     * 校验密码是否有效
+     *
+     * @param passcode   密码
+     * @param timeMillis 校验时间（毫秒时间戳）
+     * @return true=通过 false=不通过（含格式错误）
+     */
+    public boolean verify(String passcode, long timeMillis) {
+        return match(passcode, timeMillis) >= 0;
+    }
+
+    /**
+     * 校验密码并返回匹配的时间步（用于防重放，见 {@link TotpReplayGuard}）
+     *
+     * @param passcode   密码
+     * @param timeMillis 校验时间（毫秒时间戳）
+     * @return 匹配的时间步，不通过（含格式错误）时为-1
+     */
+    public long match(String passcode, long timeMillis) {
+        Objects.requireNonNull(passcode, "passcode must not be null");
+
+        int code = parse(passcode, parameters.digits);
+        return code >= 0 ? match(code, timeMillis) : -1;
+    }
+
+    /**
+     * 校验密码是否有效
+     *
+     * @param passcode   已解析的密码
+     * @param timeMillis 校验时间（毫秒时间戳）
+     * @return true=通过 false=不通过
+     */
+    public boolean verify(int passcode, long timeMillis) {
+        return match(passcode, timeMillis) >= 0;
+    }
+
+    /**
+     * 校验密码并返回匹配的时间步
+     *
+     * @param passcode   已解析的密码
+     * @param timeMillis 校验时间（毫秒时间戳）
+     * @return 匹配的时间步，不通过时为-1
+     */
+    public long match(int passcode, long timeMillis) {
+        long currentInterval = parameters.interval(timeMillis);
+        synchronized (this) {
+            for (int offset : parameters.offsets) {
+                if (generator.code(currentInterval + offset) == passcode) {
+                    return currentInterval + offset;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 生成当前时间的密码
+     *
+     * @return 密码（前面补0）
+     */
+    public String generateCode() {
+        return generateCode(clock.millis());
+    }
+
+    /**
+     * 生成密码
+     *
+     * @param timeMillis 时间（毫秒时间戳）
+     * @return 密码（前面补0）
+     */
+    public String generateCode(long timeMillis) {
+        int code;
+        synchronized (this) {
+            code = generator.code(parameters.interval(timeMillis));
+        }
+        return format(code, parameters.digits);
+    }
+
+    /**
+     * @return TOTP参数
+     */
+    public TotpParameters getParameters() {
+        return parameters;
+    }
+
+    Clock clock() {
+        return clock;
+    }
+
+    /**
+     * 计算以指定时间步为中心的整个窗口的密码
+     *
+     * @param currentInterval 当前时间步
+     * @return 各时间步的密码，下标0对应 {@code currentInterval - pastIntervals}
+     */
+    int[] window(long currentInterval) {
+        int[] codes = new int[parameters.pastIntervals + parameters.futureIntervals + 1];
+        synchronized (this) {
+            for (int i = 0; i < codes.length; i++) {
+                codes[i] = generator.code(currentInterval - parameters.pastIntervals + i);
+            }
+        }
+        return codes;
+    }
+
+    /**
+     * 解析密码
+     *
+     * @param passcode 密码
+     * @param digits   位数
+     * @return 密码，格式错误时为-1
+     */
+    static int parse(String passcode, int digits) {
+        if (passcode.length() != digits) {
+            return -1;
+        }
+        int code = 0;
+        for (int i = 0; i < digits; i++) {
+            char c = passcode.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            code = code * 10 + (c - '0');
+        }
+        return code;
+    }
+
+    /**
+     * 格式化密码，位数不足前面补0
+     *
+     * @param code   密码
+     * @param digits 位数
+     * @return 密码字符串
+     */
+    static String format(int code, int digits) {
+        char[] chars = new char[digits];
+        for (int i = digits - 1; i >= 0; i--) {
+            chars[i] = (char) ('0' + code % 10);
+            code /= 10;
+        }
+        return new String(chars);
+    }
+
+}
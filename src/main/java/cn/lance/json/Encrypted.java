@@ -0,0 +1,22 @@
+package cn.lance.json;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 序列化时加密、反序列化时解密的字段
+ *
+ * @see EncryptionModule
+ */
+@Target({ElementType.FIELD, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Encrypted {
+
+    /**
+     * @return 密钥ID，对应 {@link EncryptionModule#addKey(String, cn.lance.crypto.AesKey)} 注册的密钥
+     */
+    String value() default EncryptionModule.DEFAULT_KEY_ID;
+
+}
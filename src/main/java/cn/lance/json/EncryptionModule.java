@@ -0,0 +1,220 @@
+package cn.lance.json;
+
+import cn.lance.crypto.AesKey;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerBuilder;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.SettableBeanProperty;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 字段级加密模块
+ *
+ * @implNote 标注 {@link Encrypted} 的属性在序列化时直接加密后以Base64写出，反序列化时读取Base64后解密，
+ * 文档只需序列化/解析一遍。字段值以AES-GCM加密（随机12字节初始向量，属性名作为附加认证数据，密文不能挪到其他字段），
+ * 输出为 {@code Base64(iv | ciphertext | tag)}；{@link String} 直接加密UTF-8字节，其他类型加密其JSON表示。
+ * 密钥按ID注册为 {@link AesKey}，{@link javax.crypto.Cipher} 由密钥句柄池化复用；null值不加密
+ */
+public final class EncryptionModule extends SimpleModule {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String DEFAULT_KEY_ID = "default";
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /**
+     * 非字符串字段的JSON表示只在字段内部读写，无需ObjectCodec
+     */
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * 密钥不随模块序列化
+     */
+    private final transient ConcurrentMap<String, AesKey> keys = new ConcurrentHashMap<>();
+
+    public EncryptionModule() {
+        super("EncryptionModule");
+
+        setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc, List<BeanPropertyWriter> beanProperties) {
+                for (BeanPropertyWriter writer : beanProperties) {
+                    Encrypted encrypted = writer.getAnnotation(Encrypted.class);
+                    if (encrypted != null) {
+                        writer.assignSerializer(new EncryptedSerializer(encrypted.value(), writer.getName()));
+                    }
+                }
+                return beanProperties;
+            }
+        });
+
+        setDeserializerModifier(new BeanDeserializerModifier() {
+            @Override
+            public BeanDeserializerBuilder updateBuilder(DeserializationConfig config, BeanDescription beanDesc, BeanDeserializerBuilder builder) {
+                List<SettableBeanProperty> encryptedProperties = new ArrayList<>();
+                for (Iterator<SettableBeanProperty> iterator = builder.getProperties(); iterator.hasNext(); ) {
+                    SettableBeanProperty property = iterator.next();
+                    if (property.getAnnotation(Encrypted.class) != null) {
+                        encryptedProperties.add(property);
+                    }
+                }
+                for (SettableBeanProperty property : encryptedProperties) {
+                    Encrypted encrypted = property.getAnnotation(Encrypted.class);
+                    builder.addOrReplaceProperty(property.withValueDeserializer(
+                            new EncryptedDeserializer(encrypted.value(), property.getName(), property.getType())), true);
+                }
+                return builder;
+            }
+        });
+    }
+
+    /**
+     * 注册密钥
+     *
+     * @param keyId 密钥ID
+     * @param key   AES密钥句柄
+     */
+    public void addKey(String keyId, AesKey key) {
+        Objects.requireNonNull(keyId, "keyId must not be null");
+        Objects.requireNonNull(key, "key must not be null");
+
+        keys.put(keyId, key);
+    }
+
+    /**
+     * 移除密钥
+     *
+     * @param keyId 密钥ID
+     */
+    public void removeKey(String keyId) {
+        Objects.requireNonNull(keyId, "keyId must not be null");
+
+        keys.remove(keyId);
+    }
+
+    private AesKey key(String keyId) {
+        AesKey key = keys.get(keyId);
+        if (key == null) {
+            throw new IllegalStateException("No encryption key registered for id: " + keyId);
+        }
+        return key;
+    }
+
+    private final class EncryptedSerializer extends StdSerializer<Object> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String keyId;
+
+        private final String name;
+
+        private final byte[] aad;
+
+        private EncryptedSerializer(String keyId, String name) {
+            super(Object.class);
+            this.keyId = keyId;
+            this.name = name;
+            this.aad = name.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void serialize(Object value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            byte[] plaintext;
+            if (value instanceof String str) {
+                plaintext = str.getBytes(StandardCharsets.UTF_8);
+            } else {
+                ByteArrayBuilder builder = new ByteArrayBuilder();
+                try (JsonGenerator nested = JSON_FACTORY.createGenerator(builder)) {
+                    provider.defaultSerializeValue(value, nested);
+                }
+                plaintext = builder.toByteArray();
+            }
+
+            byte[] output = new byte[AesKey.GCM_IV_LENGTH + AesKey.gcmEncryptedSize(plaintext.length)];
+            byte[] iv = new byte[AesKey.GCM_IV_LENGTH];
+            RANDOM.nextBytes(iv);
+            System.arraycopy(iv, 0, output, 0, iv.length);
+            try {
+                key(keyId).encryptGcm(iv, aad, plaintext, 0, plaintext.length, output, iv.length);
+            } catch (GeneralSecurityException | IllegalStateException e) {
+                throw JsonMappingException.from(provider, "Failed to encrypt property '" + name + "'", e);
+            }
+            gen.writeBinary(output);
+        }
+
+    }
+
+    private final class EncryptedDeserializer extends StdDeserializer<Object> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String keyId;
+
+        private final String name;
+
+        private final byte[] aad;
+
+        private final JavaType type;
+
+        private EncryptedDeserializer(String keyId, String name, JavaType type) {
+            super(type);
+            this.keyId = keyId;
+            this.name = name;
+            this.aad = name.getBytes(StandardCharsets.UTF_8);
+            this.type = type;
+        }
+
+        @Override
+        public Object deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            byte[] input = p.getBinaryValue();
+            if (input.length < AesKey.GCM_IV_LENGTH + AesKey.GCM_TAG_LENGTH) {
+                throw JsonMappingException.from(p, "Truncated encrypted property '" + name + "'");
+            }
+
+            byte[] iv = Arrays.copyOf(input, AesKey.GCM_IV_LENGTH);
+            byte[] plaintext = new byte[AesKey.gcmDecryptedSize(input.length - iv.length)];
+            try {
+                key(keyId).decryptGcm(iv, aad, input, iv.length, input.length - iv.length, plaintext, 0);
+            } catch (GeneralSecurityException | IllegalStateException e) {
+                throw JsonMappingException.from(p, "Failed to decrypt property '" + name + "'", e);
+            }
+
+            if (type.hasRawClass(String.class)) {
+                return new String(plaintext, StandardCharsets.UTF_8);
+            }
+            try (JsonParser nested = JSON_FACTORY.createParser(plaintext)) {
+                nested.nextToken();
+                return ctxt.readValue(nested, type);
+            }
+        }
+
+    }
+
+}
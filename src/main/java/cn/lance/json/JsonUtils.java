@@ -1,5 +1,6 @@
 package cn.lance.json;
 
+import cn.lance.crypto.AesKey;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -20,6 +21,8 @@ public class JsonUtils {
 
     private static final ObjectMapper OBJECT_MAPPER;
 
+    private static final EncryptionModule ENCRYPTION_MODULE = new EncryptionModule();
+
     static {
         OBJECT_MAPPER = new ObjectMapper();
 
@@ -45,6 +48,9 @@ public class JsonUtils {
         javaTimeModule.addSerializer(serializer);
         javaTimeModule.addDeserializer(LocalDateTime.class, deserializer);
         OBJECT_MAPPER.registerModule(javaTimeModule);
+
+        // @Encrypted fields
+        OBJECT_MAPPER.registerModule(ENCRYPTION_MODULE);
     }
 
     private JsonUtils() {
@@ -58,6 +64,16 @@ public class JsonUtils {
         return OBJECT_MAPPER.copy();
     }
 
+    /**
+     * 注册 {@link Encrypted} 字段使用的密钥（对默认ObjectMapper及其副本生效）
+     *
+     * @param keyId 密钥ID
+     * @param key   AES密钥句柄
+     */
+    public static void registerEncryptionKey(String keyId, AesKey key) {
+        ENCRYPTION_MODULE.addKey(keyId, key);
+    }
+
     public static boolean isValidJson(String json) {
         try {
             OBJECT_MAPPER.readTree(json);
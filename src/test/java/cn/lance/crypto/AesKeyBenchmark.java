@@ -0,0 +1,71 @@
+package cn.lance.crypto;
+
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.BadPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.lang.management.ManagementFactory;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.InvalidKeyException;
+import java.util.Arrays;
+
+/**
+ * 与每次新建Cipher对比延迟和内存分配，结果受机器负载、JIT和GC影响，不在单元测试中运行：{@code mvn test -Dtest=AesKeyBenchmark}
+ */
+public class AesKeyBenchmark {
+
+    @Test
+    public void benchmarkCompareWithPerCallCipher() throws DecoderException, InvalidKeyException, InvalidAlgorithmParameterException, IllegalBlockSizeException, BadPaddingException {
+        String key = AesUtils.generateKey();
+        String iv = AesUtils.generateIv();
+        byte[] plaintext = "13800138000".getBytes();
+        int rounds = 20_000;
+
+        AesKey aesKey = AesKey.ofHex(key);
+        byte[] ivBytes = Hex.decodeHex(iv);
+
+        long[] perCall = measure(rounds, () -> {
+            Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+            cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(Hex.decodeHex(key), "AES"), new IvParameterSpec(Hex.decodeHex(iv)));
+            cipher.doFinal(plaintext);
+        });
+        long[] handle = measure(rounds, () -> aesKey.encrypt(ivBytes, plaintext));
+
+        System.out.printf("per-call cipher: p50=%dns p99=%dns alloc=%dB/op%n", perCall[0], perCall[1], perCall[2]);
+        System.out.printf("AesKey handle:   p50=%dns p99=%dns alloc=%dB/op%n", handle[0], handle[1], handle[2]);
+    }
+
+    private static long[] measure(int rounds, ThrowingRunnable runnable) {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        try {
+            // warm up
+            for (int i = 0; i < rounds; i++) {
+                runnable.run();
+            }
+
+            long[] latencies = new long[rounds];
+            long allocatedBefore = threadMXBean.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < rounds; i++) {
+                long start = System.nanoTime();
+                runnable.run();
+                latencies[i] = System.nanoTime() - start;
+            }
+            long allocated = threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+            Arrays.sort(latencies);
+            return new long[]{latencies[rounds / 2], latencies[rounds * 99 / 100], allocated / rounds};
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+
+}
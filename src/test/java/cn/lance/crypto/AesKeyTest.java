@@ -0,0 +1,144 @@
+package cn.lance.crypto;
+
+import org.apache.commons.codec.binary.Hex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.AEADBadTagException;
+import java.nio.ByteBuffer;
+import java.security.InvalidKeyException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class AesKeyTest {
+
+    @Test
+    public void testInvalidKey() {
+        Assertions.assertThrows(InvalidKeyException.class, () -> AesKey.of(new byte[15]));
+    }
+
+    @Test
+    public void testCompatibleWithAesUtils() throws Exception {
+        String key = AesUtils.generateKey();
+        String iv = AesUtils.generateIv();
+        String plaintext = "Hello, AES!";
+
+        AesKey aesKey = AesKey.ofHex(key);
+
+        String ecb = new String(Hex.encodeHex(aesKey.encrypt(plaintext.getBytes())));
+        Assertions.assertEquals(AesUtils.encrypt(key, plaintext), ecb);
+        Assertions.assertEquals(plaintext, new String(aesKey.decrypt(Hex.decodeHex(ecb))));
+
+        String cbc = new String(Hex.encodeHex(aesKey.encrypt(Hex.decodeHex(iv), plaintext.getBytes())));
+        Assertions.assertEquals(AesUtils.encrypt(key, iv, plaintext), cbc);
+        Assertions.assertEquals(plaintext, AesUtils.decrypt(key, iv, cbc));
+    }
+
+    @Test
+    public void testGcmWithByteArray() throws Exception {
+        AesKey aesKey = AesKey.ofHex(AesUtils.generateKey());
+        byte[] iv = Hex.decodeHex(AesUtils.generateGcmIv());
+        byte[] aad = "header".getBytes();
+        byte[] plaintext = "Hello, AES-GCM!".getBytes();
+
+        // encrypt in place: plaintext at offset 0, room for the tag behind it
+        byte[] buffer = Arrays.copyOf(plaintext, AesKey.gcmEncryptedSize(plaintext.length));
+        int encrypted = aesKey.encryptGcm(iv, aad, buffer, 0, plaintext.length, buffer, 0);
+        Assertions.assertEquals(buffer.length, encrypted);
+
+        int decrypted = aesKey.decryptGcm(iv, aad, buffer, 0, encrypted, buffer, 0);
+        Assertions.assertEquals(AesKey.gcmDecryptedSize(encrypted), decrypted);
+        Assertions.assertArrayEquals(plaintext, Arrays.copyOf(buffer, decrypted));
+
+        // the same iv must never be used twice for encryption under one key
+        byte[] anotherIv = Hex.decodeHex(AesUtils.generateGcmIv());
+        byte[] ciphertext = aesKey.encryptGcm(anotherIv, plaintext);
+        ciphertext[0] ^= 1;
+        Assertions.assertThrows(AEADBadTagException.class, () -> aesKey.decryptGcm(anotherIv, ciphertext));
+    }
+
+    @Test
+    public void testOneShotGcmMatchesKeyHandle() throws Exception {
+        byte[] key = Hex.decodeHex(AesUtils.generateKey());
+        byte[] iv = Hex.decodeHex(AesUtils.generateGcmIv());
+        byte[] aad = "header".getBytes();
+        byte[] plaintext = "Hello, AES-GCM!".getBytes();
+
+        // a fresh key per call, encrypt twice so the shared cipher is re-initialized
+        for (int i = 0; i < 2; i++) {
+            byte[] output = new byte[AesKey.gcmEncryptedSize(plaintext.length)];
+            AesKey.encryptGcmOnce(key, iv, aad, plaintext, 0, plaintext.length, output, 0);
+
+            AesKey aesKey = AesKey.of(key);
+            byte[] decrypted = new byte[plaintext.length];
+            aesKey.decryptGcm(iv, aad, output, 0, output.length, decrypted, 0);
+            Assertions.assertArrayEquals(plaintext, decrypted);
+            key = Hex.decodeHex(AesUtils.generateKey());
+        }
+        Assertions.assertThrows(InvalidKeyException.class,
+                () -> AesKey.encryptGcmOnce(new byte[15], iv, null, plaintext, 0, plaintext.length, new byte[64], 0));
+    }
+
+    @Test
+    public void testGcmWithDirectByteBuffer() throws Exception {
+        AesKey aesKey = AesKey.ofHex(AesUtils.generateKey());
+        byte[] iv = Hex.decodeHex(AesUtils.generateGcmIv());
+        byte[] plaintext = "Hello, AES-GCM!".getBytes();
+
+        ByteBuffer input = ByteBuffer.allocateDirect(plaintext.length).put(plaintext).flip();
+        ByteBuffer ciphertext = ByteBuffer.allocateDirect(AesKey.gcmEncryptedSize(plaintext.length));
+        aesKey.encryptGcm(iv, null, input, ciphertext);
+        ciphertext.flip();
+        Assertions.assertFalse(input.hasRemaining());
+
+        ByteBuffer output = ByteBuffer.allocateDirect(AesKey.gcmDecryptedSize(ciphertext.remaining()));
+        aesKey.decryptGcm(iv, null, ciphertext, output);
+        output.flip();
+
+        byte[] decrypted = new byte[output.remaining()];
+        output.get(decrypted);
+        Assertions.assertArrayEquals(plaintext, decrypted);
+    }
+
+    @Test
+    public void testBatch() throws Exception {
+        AesKey aesKey = AesKey.ofHex(AesUtils.generateKey());
+        byte[] iv = Hex.decodeHex(AesUtils.generateIv());
+
+        List<byte[]> plaintexts = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            plaintexts.add(("value-" + i).getBytes());
+        }
+
+        List<byte[]> cbc = aesKey.decrypt(iv, aesKey.encrypt(iv, plaintexts));
+        List<byte[]> ecb = aesKey.decrypt(aesKey.encrypt(plaintexts));
+        for (int i = 0; i < plaintexts.size(); i++) {
+            Assertions.assertArrayEquals(plaintexts.get(i), cbc.get(i));
+            Assertions.assertArrayEquals(plaintexts.get(i), ecb.get(i));
+        }
+        Assertions.assertArrayEquals(aesKey.encrypt(iv, plaintexts.get(42)), aesKey.encrypt(iv, plaintexts).get(42));
+    }
+
+    @Test
+    public void testConcurrentUse() throws Exception {
+        AesKey aesKey = AesKey.ofHex(AesUtils.generateKey());
+        byte[] iv = Hex.decodeHex(AesUtils.generateIv());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                byte[] plaintext = ("value-" + i).getBytes();
+                futures.add(executor.submit(() -> Arrays.equals(plaintext, aesKey.decrypt(iv, aesKey.encrypt(iv, plaintext)))
+                        && Arrays.equals(plaintext, aesKey.decrypt(aesKey.encrypt(plaintext)))));
+            }
+            for (Future<Boolean> future : futures) {
+                Assertions.assertTrue(future.get());
+            }
+        }
+    }
+
+}
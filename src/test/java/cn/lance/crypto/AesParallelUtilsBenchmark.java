@@ -0,0 +1,47 @@
+package cn.lance.crypto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 不同并行度下的加解密吞吐，结果受CPU核数和机器负载影响，不在单元测试中运行：{@code mvn test -Dtest=AesParallelUtilsBenchmark}
+ */
+public class AesParallelUtilsBenchmark {
+
+    @Test
+    public void benchmarkThroughput() throws Exception {
+        AesKey key = AesKey.of(randomBytes(32));
+        byte[] plaintext = randomBytes(64 * 1024 * 1024);
+        System.out.println("Available processors: " + Runtime.getRuntime().availableProcessors());
+
+        for (int parallelism : new int[]{1, 2, 4, 8}) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                // warm up
+                AesParallelUtils.encrypt(key, plaintext, pool);
+
+                long start = System.nanoTime();
+                byte[] ciphertext = AesParallelUtils.encrypt(key, plaintext, pool);
+                long encryptNanos = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                AesParallelUtils.decrypt(key, ciphertext, pool);
+                long decryptNanos = System.nanoTime() - start;
+
+                System.out.printf("parallelism=%d encrypt=%.0fMB/s decrypt=%.0fMB/s%n", parallelism,
+                        plaintext.length / 1e6 / (encryptNanos / 1e9), plaintext.length / 1e6 / (decryptNanos / 1e9));
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random().nextBytes(bytes);
+        return bytes;
+    }
+
+}
@@ -0,0 +1,116 @@
+package cn.lance.crypto;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class AesParallelUtilsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testOutputIndependentOfParallelism() throws Exception {
+        byte[] keyBytes = randomBytes(32);
+        AesKey key = AesKey.of(keyBytes);
+        byte[] plaintext = randomBytes(10 * AesSegmentFormat.DEFAULT_SEGMENT_SIZE + 99);
+        AesSegmentFormat format = AesSegmentFormat.create(AesSegmentFormat.DEFAULT_SEGMENT_SIZE, 0);
+
+        byte[] expected = null;
+        for (int parallelism : new int[]{1, 2, 3, 8}) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                // a fresh handle per run: a pooled GCM cipher refuses to re-encrypt with the nonce it used last
+                byte[] ciphertext = AesParallelUtils.encrypt(AesKey.of(keyBytes), plaintext, pool, format);
+                if (expected == null) {
+                    expected = ciphertext;
+                }
+                Assertions.assertArrayEquals(expected, ciphertext, "parallelism " + parallelism);
+                Assertions.assertArrayEquals(plaintext, AesParallelUtils.decrypt(key, ciphertext, pool));
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        // same format as the streaming API
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AesStreamUtils.decrypt(key, new ByteArrayInputStream(expected), out);
+        Assertions.assertArrayEquals(plaintext, out.toByteArray());
+    }
+
+    @Test
+    public void testEmptyAndTampered() throws Exception {
+        AesKey key = AesKey.of(randomBytes(32));
+
+        byte[] empty = AesParallelUtils.encrypt(key, new byte[0]);
+        Assertions.assertEquals(0, AesParallelUtils.decrypt(key, empty).length);
+
+        byte[] ciphertext = AesParallelUtils.encrypt(key, randomBytes(3 * AesSegmentFormat.DEFAULT_SEGMENT_SIZE));
+        ciphertext[ciphertext.length - 1] ^= 1;
+        Assertions.assertThrows(IOException.class, () -> AesParallelUtils.decrypt(key, ciphertext));
+    }
+
+    @Test
+    public void testFileRoundTrip() throws Exception {
+        AesKey key = AesKey.of(randomBytes(32));
+        byte[] plaintext = randomBytes(7 * AesSegmentFormat.DEFAULT_SEGMENT_SIZE + 1);
+
+        Path source = tempDir.resolve("plain.bin");
+        Path encrypted = tempDir.resolve("plain.bin.aes");
+        Path decrypted = tempDir.resolve("plain.bin.out");
+        Files.write(source, plaintext);
+
+        Assertions.assertEquals(plaintext.length, AesParallelUtils.encrypt(key, source, encrypted));
+        AesStreamUtils.decrypt(key, encrypted, tempDir.resolve("sequential.out"));
+        Assertions.assertArrayEquals(plaintext, Files.readAllBytes(tempDir.resolve("sequential.out")));
+
+        long written = AesParallelUtils.decrypt(key, encrypted, decrypted);
+        Assertions.assertEquals(plaintext.length, written);
+        Assertions.assertArrayEquals(plaintext, Files.readAllBytes(decrypted));
+    }
+
+    @Test
+    public void testTamperedFileLeavesNoPlaintext() throws Exception {
+        AesKey key = AesKey.of(randomBytes(32));
+        Path source = tempDir.resolve("plain.bin");
+        Path encrypted = tempDir.resolve("plain.bin.aes");
+        Files.write(source, randomBytes(7 * AesSegmentFormat.DEFAULT_SEGMENT_SIZE + 1));
+        AesParallelUtils.encrypt(key, source, encrypted);
+
+        // 篡改中间一段，其余段都能认证通过
+        byte[] ciphertext = Files.readAllBytes(encrypted);
+        ciphertext[AesSegmentFormat.HEADER_LENGTH + 3 * (AesSegmentFormat.DEFAULT_SEGMENT_SIZE + AesKey.GCM_TAG_LENGTH) + 10] ^= 1;
+        Files.write(encrypted, ciphertext);
+
+        Path existing = tempDir.resolve("existing.out");
+        Files.writeString(existing, "old");
+        Assertions.assertThrows(IOException.class, () -> AesParallelUtils.decrypt(key, encrypted, existing));
+        Assertions.assertEquals("old", Files.readString(existing));
+
+        Path missing = tempDir.resolve("missing.out");
+        Assertions.assertThrows(IOException.class, () -> AesParallelUtils.decrypt(key, encrypted, missing));
+        Assertions.assertFalse(Files.exists(missing));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            Assertions.assertEquals(Set.of("plain.bin", "plain.bin.aes", "existing.out"),
+                    files.map(file -> file.getFileName().toString()).collect(Collectors.toSet()));
+        }
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random().nextBytes(bytes);
+        return bytes;
+    }
+
+}
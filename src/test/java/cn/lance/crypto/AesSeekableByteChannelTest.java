@@ -0,0 +1,88 @@
+package cn.lance.crypto;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+public class AesSeekableByteChannelTest {
+
+    private static final int SEGMENT_SIZE = 1024;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testRandomAccess() throws Exception {
+        AesKey key = AesKey.of(randomBytes(32));
+        byte[] plaintext = randomBytes(10 * SEGMENT_SIZE + 321);
+        Path encrypted = encrypt(key, plaintext);
+
+        try (AesSeekableByteChannel channel = AesSeekableByteChannel.open(key, encrypted)) {
+            Assertions.assertEquals(plaintext.length, channel.size());
+
+            Random random = new Random();
+            for (int i = 0; i < 200; i++) {
+                int position = random.nextInt(plaintext.length);
+                int length = Math.min(random.nextInt(3 * SEGMENT_SIZE), plaintext.length - position);
+
+                ByteBuffer buffer = ByteBuffer.allocate(length);
+                channel.position(position);
+                while (buffer.hasRemaining()) {
+                    channel.read(buffer);
+                }
+                Assertions.assertArrayEquals(Arrays.copyOfRange(plaintext, position, position + length), buffer.array());
+                Assertions.assertEquals(position + length, channel.position());
+            }
+
+            channel.position(plaintext.length);
+            Assertions.assertEquals(-1, channel.read(ByteBuffer.allocate(1)));
+            Assertions.assertThrows(NonWritableChannelException.class, () -> channel.write(ByteBuffer.allocate(1)));
+        }
+    }
+
+    @Test
+    public void testTamperedSegment() throws Exception {
+        AesKey key = AesKey.of(randomBytes(32));
+        byte[] plaintext = randomBytes(4 * SEGMENT_SIZE);
+        Path encrypted = encrypt(key, plaintext);
+
+        byte[] bytes = Files.readAllBytes(encrypted);
+        int secondSegment = AesSegmentFormat.HEADER_LENGTH + SEGMENT_SIZE + AesKey.GCM_TAG_LENGTH;
+        bytes[secondSegment + 10] ^= 1;
+        Files.write(encrypted, bytes);
+
+        try (AesSeekableByteChannel channel = AesSeekableByteChannel.open(key, encrypted)) {
+            // the first segment is still readable on its own
+            ByteBuffer buffer = ByteBuffer.allocate(SEGMENT_SIZE);
+            channel.read(buffer);
+            Assertions.assertArrayEquals(Arrays.copyOf(plaintext, SEGMENT_SIZE), buffer.array());
+
+            Assertions.assertThrows(IOException.class, () -> channel.read(ByteBuffer.allocate(1)));
+        }
+    }
+
+    private Path encrypt(AesKey key, byte[] plaintext) throws IOException {
+        Path encrypted = tempDir.resolve("data.aes");
+        try (OutputStream out = Files.newOutputStream(encrypted)) {
+            AesStreamUtils.encrypt(key, new ByteArrayInputStream(plaintext), out, SEGMENT_SIZE);
+        }
+        return encrypted;
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random().nextBytes(bytes);
+        return bytes;
+    }
+
+}
@@ -0,0 +1,100 @@
+package cn.lance.crypto;
+
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.AEADBadTagException;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class AesSivKeyTest {
+
+    @Test
+    public void testInvalidKey() {
+        Assertions.assertThrows(InvalidKeyException.class, () -> AesSivKey.of(new byte[16]));
+        Assertions.assertThrows(InvalidKeyException.class, () -> AesSivKey.of(new byte[33]));
+    }
+
+    /**
+     * RFC 5297 A.1 Deterministic Authenticated Encryption Example
+     */
+    @Test
+    public void testRfc5297DeterministicVector() throws DecoderException, InvalidKeyException, AEADBadTagException {
+        AesSivKey key = AesSivKey.of(Hex.decodeHex(
+                "fffefdfcfbfaf9f8f7f6f5f4f3f2f1f0f0f1f2f3f4f5f6f7f8f9fafbfcfdfeff"));
+        byte[] ad = Hex.decodeHex("101112131415161718191a1b1c1d1e1f2021222324252627");
+        byte[] plaintext = Hex.decodeHex("112233445566778899aabbccddee");
+
+        byte[] ciphertext = key.encrypt(plaintext, ad);
+        Assertions.assertEquals("85632d07c6e8f37f950acd320a2ecc9340c02b9690c4dc04daef7f6afe5c",
+                Hex.encodeHexString(ciphertext));
+        Assertions.assertArrayEquals(plaintext, key.decrypt(ciphertext, ad));
+    }
+
+    /**
+     * RFC 5297 A.2 Nonce-Based Authenticated Encryption Example（多个附加认证数据，原文超过一个分组）
+     */
+    @Test
+    public void testRfc5297NonceBasedVector() throws DecoderException, InvalidKeyException, AEADBadTagException {
+        AesSivKey key = AesSivKey.of(Hex.decodeHex(
+                "7f7e7d7c7b7a79787776757473727170404142434445464748494a4b4c4d4e4f"));
+        byte[] ad1 = Hex.decodeHex("00112233445566778899aabbccddeeffdeaddadadeaddadaffeeddccbbaa99887766554433221100");
+        byte[] ad2 = Hex.decodeHex("102030405060708090a0");
+        byte[] nonce = Hex.decodeHex("09f911029d74e35bd84156c5635688c0");
+        byte[] plaintext = Hex.decodeHex("7468697320697320736f6d6520706c61696e7465787420746f20656e6372797074207573696e67205349562d414553");
+
+        byte[] ciphertext = key.encrypt(plaintext, ad1, ad2, nonce);
+        Assertions.assertEquals("7bdb6e3b432667eb06f4d14bff2fbd0fcb900f2fddbe404326601965c889bf17"
+                        + "dba77ceb094fa663b7a3f748ba8af829ea64ad544a272e9c485b62a3fd5c0d",
+                Hex.encodeHexString(ciphertext));
+        Assertions.assertArrayEquals(plaintext, key.decrypt(ciphertext, ad1, ad2, nonce));
+    }
+
+    @Test
+    public void testDeterministicAndTampered() throws InvalidKeyException, AEADBadTagException {
+        AesSivKey key = AesSivKey.of(new byte[64]);
+        byte[] column = "user.email".getBytes(StandardCharsets.UTF_8);
+
+        for (int length : new int[]{0, 1, 15, 16, 17, 32, 1000}) {
+            byte[] plaintext = new byte[length];
+            byte[] ciphertext = key.encrypt(plaintext, column);
+            Assertions.assertEquals(length + AesSivKey.SIV_LENGTH, ciphertext.length);
+            Assertions.assertArrayEquals(ciphertext, key.encrypt(plaintext, column));
+            Assertions.assertArrayEquals(plaintext, key.decrypt(ciphertext, column));
+
+            // different associated data gives a different ciphertext and fails to decrypt
+            Assertions.assertThrows(AEADBadTagException.class, () -> key.decrypt(ciphertext));
+            ciphertext[ciphertext.length - 1] ^= 1;
+            Assertions.assertThrows(AEADBadTagException.class, () -> key.decrypt(ciphertext, column));
+        }
+        Assertions.assertThrows(AEADBadTagException.class, () -> key.decrypt(new byte[15]));
+    }
+
+    @Test
+    public void testBatch() throws InvalidKeyException, AEADBadTagException {
+        AesSivKey key = AesSivKey.of(new byte[32]);
+        List<byte[]> plaintexts = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            plaintexts.add(("user" + i + "@example.com").getBytes(StandardCharsets.UTF_8));
+        }
+
+        List<byte[]> ciphertexts = key.encrypt(plaintexts);
+        Assertions.assertEquals(plaintexts.size(), ciphertexts.size());
+        for (int i = 0; i < plaintexts.size(); i++) {
+            Assertions.assertArrayEquals(key.encrypt(plaintexts.get(i)), ciphertexts.get(i));
+        }
+
+        List<byte[]> decrypted = key.decrypt(ciphertexts);
+        for (int i = 0; i < plaintexts.size(); i++) {
+            Assertions.assertArrayEquals(plaintexts.get(i), decrypted.get(i));
+        }
+
+        ciphertexts.get(4321)[0] ^= 1;
+        Assertions.assertThrows(AEADBadTagException.class, () -> key.decrypt(ciphertexts));
+    }
+
+}
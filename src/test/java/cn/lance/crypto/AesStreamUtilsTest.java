@@ -0,0 +1,212 @@
+package cn.lance.crypto;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+public class AesStreamUtilsTest {
+
+    private static final int SEGMENT_SIZE = 1024;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testStreamRoundTrip() throws Exception {
+        AesKey key = AesKey.of(randomBytes(32));
+
+        for (int size : new int[]{0, 1, SEGMENT_SIZE - 1, SEGMENT_SIZE, SEGMENT_SIZE + 1, 3 * SEGMENT_SIZE, 3 * SEGMENT_SIZE + 7}) {
+            byte[] plaintext = randomBytes(size);
+
+            ByteArrayOutputStream encrypted = new ByteArrayOutputStream();
+            long read = AesStreamUtils.encrypt(key, new ByteArrayInputStream(plaintext), encrypted, SEGMENT_SIZE);
+            Assertions.assertEquals(size, read);
+
+            ByteArrayOutputStream decrypted = new ByteArrayOutputStream();
+            AesStreamUtils.decrypt(key, new ByteArrayInputStream(encrypted.toByteArray()), decrypted);
+            Assertions.assertArrayEquals(plaintext, decrypted.toByteArray(), "size " + size);
+        }
+    }
+
+    @Test
+    public void testFileRoundTrip() throws Exception {
+        AesKey key = AesKey.of(randomBytes(32));
+        byte[] plaintext = randomBytes(5 * SEGMENT_SIZE + 123);
+
+        Path source = tempDir.resolve("plain.bin");
+        Path encrypted = tempDir.resolve("plain.bin.aes");
+        Path decrypted = tempDir.resolve("plain.bin.out");
+        Files.write(source, plaintext);
+
+        Assertions.assertEquals(plaintext.length, AesStreamUtils.encrypt(key, source, encrypted));
+        // a single default-sized segment
+        Assertions.assertEquals(AesSegmentFormat.HEADER_LENGTH + plaintext.length + AesKey.GCM_TAG_LENGTH, Files.size(encrypted));
+
+        AesStreamUtils.decrypt(key, encrypted, decrypted);
+        Assertions.assertArrayEquals(plaintext, Files.readAllBytes(decrypted));
+
+        // channel and stream paths share one format
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AesStreamUtils.decrypt(key, Files.newInputStream(encrypted), out);
+        Assertions.assertArrayEquals(plaintext, out.toByteArray());
+    }
+
+    @Test
+    public void testTamperedAndTruncated() throws Exception {
+        AesKey key = AesKey.of(randomBytes(32));
+        byte[] plaintext = randomBytes(3 * SEGMENT_SIZE);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AesStreamUtils.encrypt(key, new ByteArrayInputStream(plaintext), out, SEGMENT_SIZE);
+        byte[] encrypted = out.toByteArray();
+
+        byte[] tampered = encrypted.clone();
+        tampered[tampered.length / 2] ^= 1;
+        Assertions.assertThrows(IOException.class,
+                () -> AesStreamUtils.decrypt(key, new ByteArrayInputStream(tampered), new ByteArrayOutputStream()));
+
+        // drop the last segment: the previous one was not sealed as the last segment
+        byte[] truncated = Arrays.copyOf(encrypted, encrypted.length - (SEGMENT_SIZE + AesKey.GCM_TAG_LENGTH));
+        Assertions.assertThrows(IOException.class,
+                () -> AesStreamUtils.decrypt(key, new ByteArrayInputStream(truncated), new ByteArrayOutputStream()));
+
+        AesKey otherKey = AesKey.of(randomBytes(32));
+        Assertions.assertThrows(IOException.class,
+                () -> AesStreamUtils.decrypt(otherKey, new ByteArrayInputStream(encrypted), new ByteArrayOutputStream()));
+    }
+
+    @Test
+    public void testPerStreamSubkey() throws Exception {
+        AesKey key = AesKey.of(randomBytes(32));
+        byte[] plaintext = randomBytes(SEGMENT_SIZE);
+
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        AesStreamUtils.encrypt(key, new ByteArrayInputStream(plaintext), first, SEGMENT_SIZE);
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        AesStreamUtils.encrypt(key, new ByteArrayInputStream(plaintext), second, SEGMENT_SIZE);
+        byte[] encrypted = first.toByteArray();
+        Assertions.assertFalse(Arrays.equals(encrypted, 0, AesSegmentFormat.HEADER_LENGTH,
+                second.toByteArray(), 0, AesSegmentFormat.HEADER_LENGTH));
+
+        // segments are sealed under the derived subkey, not the master key
+        byte[] header = Arrays.copyOf(encrypted, AesSegmentFormat.HEADER_LENGTH);
+        byte[] nonce = new byte[AesKey.GCM_IV_LENGTH];
+        System.arraycopy(header, header.length - 7, nonce, 0, 7);
+        nonce[11] = 1;
+        byte[] segment = Arrays.copyOfRange(encrypted, header.length, encrypted.length);
+        Assertions.assertThrows(GeneralSecurityException.class,
+                () -> key.decryptGcm(nonce, header, segment, 0, segment.length, new byte[segment.length], 0));
+
+        // the salt is authenticated: changing it derives another subkey
+        byte[] tampered = encrypted.clone();
+        tampered[AesSegmentFormat.HEADER_LENGTH - 8] ^= 1;
+        Assertions.assertThrows(IOException.class,
+                () -> AesStreamUtils.decrypt(key, new ByteArrayInputStream(tampered), new ByteArrayOutputStream()));
+    }
+
+    @Test
+    public void testCompressedRoundTrip() throws Exception {
+        AesKey key = AesKey.of(randomBytes(32));
+
+        for (int size : new int[]{0, 1, 100, SEGMENT_SIZE, 50 * SEGMENT_SIZE + 3, 300 * SEGMENT_SIZE}) {
+            byte[] plaintext = jsonBytes(size);
+
+            ByteArrayOutputStream encrypted = new ByteArrayOutputStream();
+            long read = AesStreamUtils.encryptCompressed(key, new ByteArrayInputStream(plaintext), encrypted,
+                    Deflater.DEFAULT_COMPRESSION, SEGMENT_SIZE);
+            Assertions.assertEquals(size, read);
+            if (size >= 50 * SEGMENT_SIZE) {
+                Assertions.assertTrue(encrypted.size() < size / 4, "size " + size + " -> " + encrypted.size());
+            }
+
+            ByteArrayOutputStream decrypted = new ByteArrayOutputStream();
+            AesStreamUtils.decrypt(key, new ByteArrayInputStream(encrypted.toByteArray()), decrypted);
+            Assertions.assertArrayEquals(plaintext, decrypted.toByteArray(), "size " + size);
+        }
+    }
+
+    @Test
+    public void testCompressedFile() throws Exception {
+        AesKey key = AesKey.of(randomBytes(32));
+        byte[] plaintext = jsonBytes(2 * 1024 * 1024);
+
+        Path source = tempDir.resolve("data.json");
+        Path encrypted = tempDir.resolve("data.json.aes");
+        Path decrypted = tempDir.resolve("data.json.out");
+        Files.write(source, plaintext);
+
+        AesStreamUtils.encryptCompressed(key, source, encrypted, Deflater.BEST_SPEED);
+        System.out.printf("JSON %d bytes -> %d bytes compressed and encrypted%n", plaintext.length, Files.size(encrypted));
+
+        // the channel path falls back to sequential decryption
+        Assertions.assertEquals(plaintext.length, AesStreamUtils.decrypt(key, encrypted, decrypted));
+        Assertions.assertArrayEquals(plaintext, Files.readAllBytes(decrypted));
+
+        // compressed containers have no fixed plaintext offsets
+        Assertions.assertThrows(IOException.class, () -> AesSeekableByteChannel.open(key, encrypted));
+        Assertions.assertThrows(IOException.class, () -> AesParallelUtils.decrypt(key, Files.readAllBytes(encrypted)));
+    }
+
+    @Test
+    public void testHighEntropySkipsCompression() throws Exception {
+        AesKey key = AesKey.of(randomBytes(32));
+        byte[] plaintext = randomBytes(20 * SEGMENT_SIZE);
+        Assertions.assertTrue(AesStreamUtils.entropy(plaintext) > 7.9);
+        Assertions.assertTrue(AesStreamUtils.entropy(jsonBytes(plaintext.length)) < 6);
+
+        ByteArrayOutputStream encrypted = new ByteArrayOutputStream();
+        AesStreamUtils.encryptCompressed(key, new ByteArrayInputStream(plaintext), encrypted, Deflater.BEST_COMPRESSION, SEGMENT_SIZE);
+
+        // stored as a plain container, so random access still works
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        AesStreamUtils.encrypt(key, new ByteArrayInputStream(plaintext), plain, SEGMENT_SIZE);
+        Assertions.assertEquals(plain.size(), encrypted.size());
+        Assertions.assertArrayEquals(plaintext, AesParallelUtils.decrypt(key, encrypted.toByteArray()));
+    }
+
+    @Test
+    public void testCompressedTruncatedAndTampered() throws Exception {
+        AesKey key = AesKey.of(randomBytes(32));
+        ByteArrayOutputStream encrypted = new ByteArrayOutputStream();
+        AesStreamUtils.encryptCompressed(key, new ByteArrayInputStream(jsonBytes(200 * SEGMENT_SIZE)), encrypted,
+                Deflater.DEFAULT_COMPRESSION, SEGMENT_SIZE);
+        byte[] ciphertext = encrypted.toByteArray();
+
+        byte[] truncated = Arrays.copyOf(ciphertext, ciphertext.length - SEGMENT_SIZE - 16);
+        Assertions.assertThrows(IOException.class,
+                () -> AesStreamUtils.decrypt(key, new ByteArrayInputStream(truncated), new ByteArrayOutputStream()));
+
+        ciphertext[ciphertext.length / 2] ^= 1;
+        Assertions.assertThrows(IOException.class,
+                () -> AesStreamUtils.decrypt(key, new ByteArrayInputStream(ciphertext), new ByteArrayOutputStream()));
+    }
+
+    private static byte[] jsonBytes(int size) {
+        StringBuilder builder = new StringBuilder("[");
+        Random random = new Random(size);
+        while (builder.length() < size) {
+            builder.append("{\"id\":").append(random.nextInt(100000))
+                    .append(",\"name\":\"user").append(random.nextInt(1000))
+                    .append("\",\"active\":").append(random.nextBoolean()).append("},");
+        }
+        return Arrays.copyOf(builder.toString().getBytes(StandardCharsets.UTF_8), size);
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random().nextBytes(bytes);
+        return bytes;
+    }
+
+}
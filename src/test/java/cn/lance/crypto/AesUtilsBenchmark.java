@@ -0,0 +1,49 @@
+package cn.lance.crypto;
+
+import org.apache.commons.codec.DecoderException;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.BadPaddingException;
+import javax.crypto.IllegalBlockSizeException;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.InvalidKeyException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量接口与逐个调用的吞吐对比，结果受CPU核数和机器负载影响，不在单元测试中运行：{@code mvn test -Dtest=AesUtilsBenchmark}
+ */
+public class AesUtilsBenchmark {
+
+    @Test
+    public void benchmarkBatchThroughput() throws DecoderException, IllegalBlockSizeException, BadPaddingException, InvalidKeyException, InvalidAlgorithmParameterException {
+        String key = AesUtils.generateKey();
+        String iv = AesUtils.generateIv();
+
+        List<String> plaintexts = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            plaintexts.add(String.valueOf(13800000000L + i));
+        }
+
+        // warm up
+        AesUtils.encrypt(key, iv, plaintexts);
+        for (String plaintext : plaintexts) {
+            AesUtils.encrypt(key, iv, plaintext);
+        }
+
+        long start = System.nanoTime();
+        for (String plaintext : plaintexts) {
+            AesUtils.encrypt(key, iv, plaintext);
+        }
+        long perCallNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        AesUtils.encrypt(key, iv, plaintexts);
+        long batchNanos = System.nanoTime() - start;
+
+        System.out.printf("Per-call: %.0f ops/s, batch: %.0f ops/s (%d processors)%n",
+                plaintexts.size() / (perCallNanos / 1e9), plaintexts.size() / (batchNanos / 1e9),
+                Runtime.getRuntime().availableProcessors());
+    }
+
+}
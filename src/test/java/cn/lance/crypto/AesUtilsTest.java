@@ -4,10 +4,13 @@ import org.apache.commons.codec.DecoderException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import javax.crypto.AEADBadTagException;
 import javax.crypto.BadPaddingException;
 import javax.crypto.IllegalBlockSizeException;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
+import java.util.ArrayList;
+import java.util.List;
 
 public class AesUtilsTest {
 
@@ -91,4 +94,107 @@ public class AesUtilsTest {
         Assertions.assertTrue(result);
     }
 
+    @Test
+    public void textDecryptWithGCM() throws DecoderException, IllegalBlockSizeException, BadPaddingException, InvalidKeyException, InvalidAlgorithmParameterException {
+        String key = AesUtils.generateKey();
+        System.out.println("AES key: " + key);
+
+        String iv = AesUtils.generateGcmIv();
+        System.out.println("AES GCM iv: " + iv);
+
+        String plaintext = "Hello, AES!";
+        System.out.println("Plaintext: " + plaintext);
+
+        String ciphertext = AesUtils.encryptGcm(key, iv, plaintext);
+        System.out.println("AES GCM ciphertext: " + ciphertext);
+
+        String decryptedText = AesUtils.decryptGcm(key, iv, ciphertext);
+        System.out.println("AES GCM decryptedText: " + decryptedText);
+
+        boolean result = plaintext.equals(decryptedText);
+        System.out.println("GCM Plaintext equals to decryptedText? " + result);
+        Assertions.assertTrue(result);
+    }
+
+    @Test
+    public void testBatchWithCBC() throws DecoderException, IllegalBlockSizeException, BadPaddingException, InvalidKeyException, InvalidAlgorithmParameterException {
+        String key = AesUtils.generateKey();
+        String iv = AesUtils.generateIv();
+
+        List<String> plaintexts = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            plaintexts.add("user-" + i + "@example.com");
+        }
+
+        List<String> ciphertexts = AesUtils.encrypt(key, iv, plaintexts);
+        Assertions.assertEquals(plaintexts.size(), ciphertexts.size());
+        for (int i = 0; i < plaintexts.size(); i += 997) {
+            Assertions.assertEquals(AesUtils.encrypt(key, iv, plaintexts.get(i)), ciphertexts.get(i));
+        }
+        Assertions.assertEquals(plaintexts, AesUtils.decrypt(key, iv, ciphertexts));
+
+        List<String> streamed = new ArrayList<>();
+        AesUtils.decrypt(key, iv, AesUtils.encrypt(key, iv, plaintexts.iterator())).forEachRemaining(streamed::add);
+        Assertions.assertEquals(plaintexts, streamed);
+    }
+
+    @Test
+    public void testBatchWithECB() throws DecoderException, IllegalBlockSizeException, BadPaddingException, InvalidKeyException {
+        String key = AesUtils.generateKey();
+
+        List<String> plaintexts = List.of("a", "bb", "ccc");
+        List<String> ciphertexts = AesUtils.encrypt(key, plaintexts);
+        Assertions.assertEquals(AesUtils.encrypt(key, "bb"), ciphertexts.get(1));
+        Assertions.assertEquals(plaintexts, AesUtils.decrypt(key, ciphertexts));
+    }
+
+    @Test
+    public void testDecryptWithBase64() throws IllegalBlockSizeException, BadPaddingException, InvalidKeyException, InvalidAlgorithmParameterException {
+        String key = AesUtils.generateKey(BinaryEncoding.BASE64);
+        System.out.println("AES key: " + key);
+
+        String iv = AesUtils.generateIv(BinaryEncoding.BASE64);
+        System.out.println("AES iv: " + iv);
+
+        String plaintext = "Hello, AES!";
+        System.out.println("Plaintext: " + plaintext);
+
+        String ciphertext = AesUtils.encrypt(key, iv, plaintext, BinaryEncoding.BASE64);
+        System.out.println("AES CBC ciphertext (Base64): " + ciphertext);
+        Assertions.assertEquals(plaintext, AesUtils.decrypt(key, iv, ciphertext, BinaryEncoding.BASE64));
+
+        String urlKey = AesUtils.generateKey(BinaryEncoding.BASE64_URL);
+        String ecbCiphertext = AesUtils.encrypt(urlKey, plaintext, BinaryEncoding.BASE64_URL);
+        System.out.println("AES ECB ciphertext (Base64url): " + ecbCiphertext);
+        Assertions.assertEquals(plaintext, AesUtils.decrypt(urlKey, ecbCiphertext, BinaryEncoding.BASE64_URL));
+
+        String gcmIv = AesUtils.generateGcmIv(BinaryEncoding.BASE64);
+        String gcmCiphertext = AesUtils.encryptGcm(key, gcmIv, plaintext, BinaryEncoding.BASE64);
+        System.out.println("AES GCM ciphertext (Base64): " + gcmCiphertext);
+        Assertions.assertEquals(plaintext, AesUtils.decryptGcm(key, gcmIv, gcmCiphertext, BinaryEncoding.BASE64));
+    }
+
+    @Test
+    public void testSiv() throws DecoderException, InvalidKeyException, AEADBadTagException {
+        String key = AesUtils.generateSivKey();
+        System.out.println("AES-SIV key: " + key);
+
+        String plaintext = "alice@example.com";
+        String ciphertext = AesUtils.encryptSiv(key, plaintext);
+        System.out.println("AES SIV ciphertext: " + ciphertext);
+        Assertions.assertEquals(ciphertext, AesUtils.encryptSiv(key, plaintext));
+        Assertions.assertEquals(plaintext, AesUtils.decryptSiv(key, ciphertext));
+
+        List<String> lookupKeys = List.of("bob@example.com", plaintext, "carol@example.com");
+        List<String> ciphertexts = AesUtils.encryptSiv(key, lookupKeys);
+        Assertions.assertEquals(ciphertext, ciphertexts.get(1));
+
+        String base64Key = AesUtils.generateSivKey(BinaryEncoding.BASE64_URL);
+        String base64Ciphertext = AesUtils.encryptSiv(base64Key, plaintext, BinaryEncoding.BASE64_URL);
+        System.out.println("AES SIV ciphertext (Base64url): " + base64Ciphertext);
+        Assertions.assertEquals(plaintext, AesUtils.decryptSiv(base64Key, base64Ciphertext, BinaryEncoding.BASE64_URL));
+        Assertions.assertEquals(base64Ciphertext,
+                AesUtils.encryptSiv(base64Key, lookupKeys, BinaryEncoding.BASE64_URL).get(1));
+    }
+
 }
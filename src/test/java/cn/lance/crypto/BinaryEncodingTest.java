@@ -0,0 +1,70 @@
+package cn.lance.crypto;
+
+import org.apache.commons.codec.binary.Hex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.Random;
+
+public class BinaryEncodingTest {
+
+    @Test
+    public void testRoundTrip() {
+        Random random = new Random();
+        for (int size : new int[]{0, 1, 2, 3, 16, 31, 1000}) {
+            byte[] bytes = new byte[size];
+            random.nextBytes(bytes);
+
+            for (BinaryEncoding encoding : BinaryEncoding.values()) {
+                String encoded = encoding.encode(bytes);
+                Assertions.assertArrayEquals(bytes, encoding.decode(encoded), encoding + " size " + size);
+            }
+
+            Assertions.assertEquals(Hex.encodeHexString(bytes), BinaryEncoding.HEX.encode(bytes));
+            Assertions.assertEquals(Base64.getEncoder().encodeToString(bytes), BinaryEncoding.BASE64.encode(bytes));
+        }
+    }
+
+    @Test
+    public void testEncodedLength() {
+        byte[] bytes = new byte[48];
+        for (BinaryEncoding encoding : BinaryEncoding.values()) {
+            System.out.println(encoding + " length of 48 bytes: " + encoding.encode(bytes).length());
+        }
+        Assertions.assertEquals(96, BinaryEncoding.HEX.encode(bytes).length());
+        Assertions.assertEquals(64, BinaryEncoding.BASE64_URL.encode(bytes).length());
+    }
+
+    @Test
+    public void testIllegalHex() {
+        Assertions.assertEquals(255, BinaryEncoding.HEX.decode("FF")[0] & 0xff);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BinaryEncoding.HEX.decode("abc"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BinaryEncoding.HEX.decode("zz"));
+    }
+
+    @Test
+    public void testDecodeInto() {
+        Random random = new Random();
+        for (int size : new int[]{0, 1, 2, 3, 20, 32, 64}) {
+            byte[] bytes = new byte[size];
+            random.nextBytes(bytes);
+            for (BinaryEncoding encoding : BinaryEncoding.values()) {
+                byte[] output = new byte[size];
+                Assertions.assertTrue(encoding.decode(encoding.encode(bytes), output), encoding + " " + size);
+                Assertions.assertArrayEquals(bytes, output);
+                Assertions.assertFalse(encoding.decode(encoding.encode(bytes), new byte[size + 1]));
+            }
+            byte[] output = new byte[size];
+            Assertions.assertTrue(BinaryEncoding.BASE64.decode(Base64.getEncoder().withoutPadding().encodeToString(bytes), output));
+            Assertions.assertArrayEquals(bytes, output);
+        }
+
+        Assertions.assertFalse(BinaryEncoding.HEX.decode("zz", new byte[1]));
+        Assertions.assertFalse(BinaryEncoding.BASE64.decode("AA==", new byte[2]));
+        Assertions.assertFalse(BinaryEncoding.BASE64.decode("A-==", new byte[1]));
+        Assertions.assertFalse(BinaryEncoding.BASE64_URL.decode("A+", new byte[1]));
+        Assertions.assertFalse(BinaryEncoding.BASE64.decode("AAA==", new byte[2]));
+    }
+
+}
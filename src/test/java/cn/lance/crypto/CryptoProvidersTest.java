@@ -0,0 +1,109 @@
+package cn.lance.crypto;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.crypto.Cipher;
+import java.nio.file.Path;
+import java.security.KeyFactory;
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+
+public class CryptoProvidersTest {
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    public void reset() {
+        CryptoProviders.reset();
+    }
+
+    @Test
+    public void testCalibrate() throws Exception {
+        List<CryptoProviders.Measurement> measurements = CryptoProviders.calibrate(Duration.ofMillis(20),
+                CryptoProviders.CIPHER, AesKey.TRANSFORMATION_GCM, "AES/CTR/NoPadding");
+        CryptoProviders.calibrate(Duration.ofMillis(20), CryptoProviders.MAC, "HmacSHA256");
+        System.out.print(CryptoProviders.report());
+
+        // SunJCE and Bouncy Castle both implement these
+        Assertions.assertTrue(measurements.stream().map(CryptoProviders.Measurement::getProvider).distinct().count() >= 2);
+        Assertions.assertNotNull(CryptoProviders.provider(CryptoProviders.CIPHER, AesKey.TRANSFORMATION_GCM));
+        Assertions.assertNotNull(CryptoProviders.provider(CryptoProviders.MAC, "HmacSHA256"));
+        Assertions.assertNull(CryptoProviders.provider(CryptoProviders.MAC, "HmacSHA384"));
+
+        // whichever provider won, the output must interoperate with the others
+        AesKey key = AesKey.of(new byte[32]);
+        byte[] iv = new byte[AesKey.GCM_IV_LENGTH];
+        byte[] ciphertext = key.encryptGcm(iv, "Hello".getBytes());
+        CryptoProviders.override(CryptoProviders.CIPHER, AesKey.TRANSFORMATION_GCM, "BC");
+        Assertions.assertEquals("BC", CryptoProviders.cipher(AesKey.TRANSFORMATION_GCM).getProvider().getName());
+        Assertions.assertEquals("Hello", new String(AesKey.of(new byte[32]).decryptGcm(iv, ciphertext)));
+    }
+
+    @Test
+    public void testSaveAndLoad() throws Exception {
+        CryptoProviders.calibrate(Duration.ofMillis(10), CryptoProviders.MAC, "HmacSHA1");
+        String provider = CryptoProviders.provider(CryptoProviders.MAC, "HmacSHA1").getName();
+
+        Path file = tempDir.resolve("providers.properties");
+        CryptoProviders.save(file);
+        CryptoProviders.reset();
+        Assertions.assertNull(CryptoProviders.provider(CryptoProviders.MAC, "HmacSHA1"));
+
+        Assertions.assertTrue(CryptoProviders.load(file));
+        Assertions.assertEquals(provider, CryptoProviders.provider(CryptoProviders.MAC, "HmacSHA1").getName());
+        Assertions.assertEquals(provider, CryptoProviders.mac("HmacSHA1").getProvider().getName());
+        Assertions.assertFalse(CryptoProviders.load(tempDir.resolve("missing.properties")));
+    }
+
+    @Test
+    public void testOverride() throws Exception {
+        CryptoProviders.override(CryptoProviders.MAC, "HmacSHA256", "SunJCE");
+        CryptoProviders.calibrate(Duration.ofMillis(10), CryptoProviders.MAC, "HmacSHA256");
+        Assertions.assertEquals("SunJCE", CryptoProviders.mac("HmacSHA256").getProvider().getName());
+        Assertions.assertTrue(CryptoProviders.report().contains("(override)"));
+
+        Assertions.assertThrows(NoSuchAlgorithmException.class,
+                () -> CryptoProviders.override(CryptoProviders.MAC, "HmacSHA256", "NoSuchProvider"));
+    }
+
+    @Test
+    public void testCalibrateKeepsRsaCiphertextCompatible() throws Exception {
+        Pair<String, String> keyPair = RsaUtils.generateKeyPair();
+        String ciphertext = RsaUtils.encrypt(keyPair.getLeft(), "Hello");
+        // 固定Provider之前用JDK默认的 "RSA" 加密的历史密文
+        Cipher legacy = Cipher.getInstance("RSA");
+        legacy.init(Cipher.ENCRYPT_MODE, KeyFactory.getInstance("RSA")
+                .generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(keyPair.getLeft()))));
+        String legacyCiphertext = Base64.getEncoder().encodeToString(legacy.doFinal("World".getBytes()));
+
+        CryptoProviders.calibrate(Duration.ofMillis(5));
+        Assertions.assertNotNull(CryptoProviders.provider(CryptoProviders.CIPHER, "RSA/ECB/PKCS1Padding"));
+        Assertions.assertEquals("Hello", RsaUtils.decrypt(keyPair.getRight(), ciphertext));
+        Assertions.assertEquals("World", RsaUtils.decrypt(keyPair.getRight(), legacyCiphertext));
+
+        // Bouncy Castle也按PKCS#1填充解密
+        CryptoProviders.override(CryptoProviders.CIPHER, "RSA/ECB/PKCS1Padding", "BC");
+        Assertions.assertEquals("Hello", RsaUtils.decrypt(keyPair.getRight(), ciphertext));
+        Assertions.assertEquals("World", RsaUtils.decrypt(keyPair.getRight(), legacyCiphertext));
+    }
+
+    @Test
+    public void testRejectUnspecifiedTransformation() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> CryptoProviders.calibrate(Duration.ofMillis(5), CryptoProviders.CIPHER, "RSA"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> CryptoProviders.override(CryptoProviders.CIPHER, "AES", "BC"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> CryptoProviders.override(CryptoProviders.CIPHER, "AES/GCM", "BC"));
+        Assertions.assertNull(CryptoProviders.provider(CryptoProviders.CIPHER, "RSA"));
+    }
+
+}
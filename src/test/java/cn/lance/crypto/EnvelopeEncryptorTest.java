@@ -0,0 +1,62 @@
+package cn.lance.crypto;
+
+import com.google.common.cache.CacheStats;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.AEADBadTagException;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+
+public class EnvelopeEncryptorTest {
+
+    @Test
+    public void testAesKeyWrap() throws GeneralSecurityException {
+        byte[] masterKey = new byte[32];
+        new SecureRandom().nextBytes(masterKey);
+        EnvelopeEncryptor encryptor = new EnvelopeEncryptor(new AesKeyWrapper(AesKey.of(masterKey)));
+
+        byte[] plaintext = "Hello, envelope!".getBytes();
+        byte[] envelope = encryptor.encrypt(plaintext);
+        System.out.println("Envelope length: " + envelope.length);
+
+        Assertions.assertArrayEquals(plaintext, encryptor.decrypt(envelope));
+        Assertions.assertArrayEquals(plaintext, encryptor.decrypt(envelope));
+        Assertions.assertArrayEquals(plaintext, encryptor.decrypt(envelope));
+
+        CacheStats stats = encryptor.stats();
+        System.out.println("Data key cache: " + stats);
+        Assertions.assertEquals(1, stats.missCount());
+        Assertions.assertEquals(2, stats.hitCount());
+        Assertions.assertEquals(1, encryptor.cachedKeys());
+    }
+
+    @Test
+    public void testRsaKeyWrap() throws GeneralSecurityException {
+        Pair<String, String> keyPair = RsaUtils.generateKeyPairPem();
+        EnvelopeEncryptor writer = new EnvelopeEncryptor(RsaKeyWrapper.of(keyPair.getLeft(), null));
+        EnvelopeEncryptor reader = new EnvelopeEncryptor(RsaKeyWrapper.of(keyPair.getLeft(), keyPair.getRight()));
+
+        byte[] plaintext = "Hello, RSA envelope!".getBytes();
+        byte[] envelope = writer.encrypt(plaintext);
+        Assertions.assertArrayEquals(plaintext, reader.decrypt(envelope));
+        Assertions.assertThrows(IllegalStateException.class, () -> writer.decrypt(envelope));
+    }
+
+    @Test
+    public void testTamperedAndUncached() throws GeneralSecurityException {
+        byte[] masterKey = new byte[32];
+        new SecureRandom().nextBytes(masterKey);
+        EnvelopeEncryptor encryptor = new EnvelopeEncryptor(new AesKeyWrapper(AesKey.of(masterKey)), 0, Duration.ofMinutes(1));
+
+        byte[] envelope = encryptor.encrypt(new byte[100]);
+        Assertions.assertArrayEquals(new byte[100], encryptor.decrypt(envelope));
+        Assertions.assertEquals(0, encryptor.cachedKeys());
+
+        envelope[envelope.length - 1] ^= 1;
+        Assertions.assertThrows(AEADBadTagException.class, () -> encryptor.decrypt(envelope));
+    }
+
+}
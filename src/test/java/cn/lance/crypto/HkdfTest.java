@@ -0,0 +1,118 @@
+package cn.lance.crypto;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class HkdfTest {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    @Test
+    public void testRfc5869Vectors() throws Exception {
+        // A.1
+        byte[] ikm = new byte[22];
+        Arrays.fill(ikm, (byte) 0x0b);
+        byte[] salt = BinaryEncoding.HEX.decode("000102030405060708090a0b0c");
+        byte[] info = BinaryEncoding.HEX.decode("f0f1f2f3f4f5f6f7f8f9");
+        byte[] prk = Hkdf.extract(ALGORITHM, salt, ikm);
+        Assertions.assertEquals("077709362c2e32df0ddc3f0dc47bba6390b6c73bb50f9c3122ec844ad7c2b3e5", BinaryEncoding.HEX.encode(prk));
+        Assertions.assertEquals("3cb25f25faacd57a90434f64d0362f2a2d2d0a90cf1a5a4c5db02d56ecc4c5bf34007208d5b887185865",
+                BinaryEncoding.HEX.encode(Hkdf.expand(ALGORITHM, prk, info, 42)));
+
+        // A.3 空盐、空info
+        Assertions.assertEquals("19ef24a32c717b167f33a91d6f648bdf96596776afdb6377ac434c1c293ccb04",
+                BinaryEncoding.HEX.encode(Hkdf.extract(ALGORITHM, new byte[0], ikm)));
+        Assertions.assertEquals("8da4e775a563c18f715f802a063c5a31b8a11f5c5ee1879ec3454e5f3c738d2d9d201395faa4b61a96c8",
+                BinaryEncoding.HEX.encode(Hkdf.derive(ALGORITHM, null, ikm, null, 42)));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Hkdf.expand(ALGORITHM, prk, info, 255 * 32 + 1));
+        Assertions.assertEquals(255 * 32, Hkdf.expand(ALGORITHM, prk, info, 255 * 32).length);
+    }
+
+    @Test
+    public void testCache() throws Exception {
+        byte[] master = "master-secret".getBytes(StandardCharsets.UTF_8);
+        Hkdf hkdf = Hkdf.of(ALGORITHM, master, 2, Duration.ofMinutes(1));
+        byte[] salt = "tenant-salt".getBytes(StandardCharsets.UTF_8);
+
+        byte[] tenantA = hkdf.derive(salt, "tenant-a".getBytes(StandardCharsets.UTF_8), 32);
+        Assertions.assertArrayEquals(Hkdf.derive(ALGORITHM, salt, master, "tenant-a".getBytes(StandardCharsets.UTF_8), 32), tenantA);
+
+        // 返回副本，修改不影响缓存
+        tenantA[0] ^= 1;
+        byte[] again = hkdf.derive(salt, "tenant-a".getBytes(StandardCharsets.UTF_8), 32);
+        Assertions.assertNotEquals(tenantA[0], again[0]);
+        Assertions.assertEquals(1, hkdf.stats().hitCount());
+
+        // 长度不同是不同的缓存项
+        Assertions.assertArrayEquals(Arrays.copyOf(again, 16), hkdf.derive(salt, "tenant-a".getBytes(StandardCharsets.UTF_8), 16));
+        hkdf.derive(salt, "tenant-b".getBytes(StandardCharsets.UTF_8), 32);
+        Assertions.assertEquals(2, hkdf.cachedKeys());
+        Assertions.assertTrue(hkdf.stats().evictionCount() >= 1);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> hkdf.derive(salt, null, -1));
+        Assertions.assertThrows(NoSuchAlgorithmException.class, () -> Hkdf.of("HmacFoo", master));
+    }
+
+    @Test
+    public void testWithoutCache() throws Exception {
+        byte[] master = "master-secret".getBytes(StandardCharsets.UTF_8);
+        byte[] salt = "tenant-salt".getBytes(StandardCharsets.UTF_8);
+        byte[] info = "tenant-a".getBytes(StandardCharsets.UTF_8);
+        Hkdf hkdf = Hkdf.of(ALGORITHM, master, 0, Duration.ofMinutes(1));
+
+        byte[] expected = Hkdf.derive(ALGORITHM, salt, master, info, 32);
+        Assertions.assertFalse(Arrays.equals(new byte[32], expected));
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertArrayEquals(expected, hkdf.derive(salt, info, 32));
+        }
+        Assertions.assertEquals(0, hkdf.cachedKeys());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Hkdf.of(ALGORITHM, master, -1, Duration.ofMinutes(1)));
+    }
+
+    @Test
+    public void testConcurrentEviction() throws Exception {
+        byte[] master = "master-secret".getBytes(StandardCharsets.UTF_8);
+        byte[] salt = "tenant-salt".getBytes(StandardCharsets.UTF_8);
+        int tenants = 8;
+        byte[][] expected = new byte[tenants][];
+        for (int i = 0; i < tenants; i++) {
+            expected[i] = Hkdf.derive(ALGORITHM, salt, master, ("tenant-" + i).getBytes(StandardCharsets.UTF_8), 32);
+        }
+        // 缓存只容纳1个子密钥，多个线程交替访问不同租户，不断淘汰其他线程刚读到的项
+        Hkdf hkdf = Hkdf.of(ALGORITHM, master, 1, Duration.ofMinutes(1));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int offset = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        int tenant = (i + offset) % tenants;
+                        Assertions.assertArrayEquals(expected[tenant],
+                                hkdf.derive(salt, ("tenant-" + tenant).getBytes(StandardCharsets.UTF_8), 32));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assertions.assertTrue(hkdf.stats().evictionCount() > 0);
+    }
+
+}
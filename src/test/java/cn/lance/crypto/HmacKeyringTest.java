@@ -0,0 +1,167 @@
+package cn.lance.crypto;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class HmacKeyringTest {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    @Test
+    public void testRotation() throws Exception {
+        MutableClock clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        HmacKeyring keyring = HmacKeyring.of(ALGORITHM, Duration.ofHours(1), clock);
+        byte[] body = "{\"event\":\"payment.succeeded\"}".getBytes(StandardCharsets.UTF_8);
+        Assertions.assertThrows(IllegalStateException.class, () -> keyring.sign(body, BinaryEncoding.HEX));
+
+        keyring.rotate("k1", "secret-1".getBytes(StandardCharsets.UTF_8));
+        String oldSignature = keyring.sign(body, BinaryEncoding.BASE64);
+        Assertions.assertTrue(oldSignature.startsWith("k1:"));
+        Assertions.assertTrue(keyring.verify(body, oldSignature, BinaryEncoding.BASE64));
+
+        keyring.rotate("k2", "secret-2".getBytes(StandardCharsets.UTF_8));
+        String newSignature = keyring.sign(body, BinaryEncoding.BASE64);
+        Assertions.assertEquals("k2", keyring.primaryKeyId());
+        Assertions.assertTrue(newSignature.startsWith("k2:"));
+        Assertions.assertEquals(Set.of("k1", "k2"), keyring.keyIds());
+
+        // 宽限期内旧签名仍然有效
+        clock.now = clock.now.plus(Duration.ofMinutes(59));
+        Assertions.assertTrue(keyring.verify(body, oldSignature, BinaryEncoding.BASE64));
+        Assertions.assertTrue(keyring.verify(body, newSignature, BinaryEncoding.BASE64));
+
+        clock.now = clock.now.plus(Duration.ofMinutes(1));
+        Assertions.assertFalse(keyring.verify(body, oldSignature, BinaryEncoding.BASE64));
+        Assertions.assertTrue(keyring.verify(body, newSignature, BinaryEncoding.BASE64));
+        Assertions.assertEquals(Set.of("k2"), keyring.keyIds());
+
+        // 前缀与签名不匹配、格式错误
+        Assertions.assertFalse(keyring.verify(body, "k3" + newSignature.substring(2), BinaryEncoding.BASE64));
+        Assertions.assertFalse(keyring.verify(body, newSignature.substring(3), BinaryEncoding.BASE64));
+        Assertions.assertFalse(keyring.verify("{}".getBytes(StandardCharsets.UTF_8), newSignature, BinaryEncoding.BASE64));
+
+        byte[] raw = BinaryEncoding.BASE64.decode(newSignature.substring(3));
+        Assertions.assertTrue(keyring.verify(body, "k2", raw));
+
+        keyring.remove("k2");
+        Assertions.assertFalse(keyring.verify(body, newSignature, BinaryEncoding.BASE64));
+        Assertions.assertNull(keyring.primaryKeyId());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> keyring.rotate("a:b", new byte[16]));
+    }
+
+    @Test
+    public void testKeyIdReuse() throws Exception {
+        MutableClock clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        HmacKeyring keyring = HmacKeyring.of(ALGORITHM, Duration.ofHours(1), clock);
+        byte[] body = "body".getBytes(StandardCharsets.UTF_8);
+        keyring.rotate("k1", "secret-1".getBytes(StandardCharsets.UTF_8));
+        String signature = keyring.sign(body, BinaryEncoding.HEX);
+
+        // 同一ID换密钥会让已签发的签名立即失效，必须使用新的ID
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> keyring.rotate("k1", "secret-2".getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> keyring.add("k1", "secret-2".getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertTrue(keyring.verify(body, signature, BinaryEncoding.HEX));
+
+        // 先分批添加再轮换：相同密钥可以重复添加
+        keyring.add("k2", "secret-2".getBytes(StandardCharsets.UTF_8));
+        keyring.add("k2", "secret-2".getBytes(StandardCharsets.UTF_8));
+        keyring.rotate("k2", "secret-2".getBytes(StandardCharsets.UTF_8));
+        Assertions.assertEquals("k2", keyring.primaryKeyId());
+
+        // 宽限期内的旧ID同样不能换密钥，宽限期结束后才可以重新使用
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> keyring.add("k1", "secret-3".getBytes(StandardCharsets.UTF_8)));
+        clock.now = clock.now.plus(Duration.ofHours(1));
+        keyring.add("k1", "secret-3".getBytes(StandardCharsets.UTF_8));
+        Assertions.assertFalse(keyring.verify(body, signature, BinaryEncoding.HEX));
+    }
+
+    @Test
+    public void testConcurrentRotation() throws Exception {
+        MutableClock clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        HmacKeyring keyring = HmacKeyring.of(ALGORITHM, Duration.ofMinutes(5), clock);
+        keyring.rotate("k0", "secret-0".getBytes(StandardCharsets.UTF_8));
+        byte[] body = "body".getBytes(StandardCharsets.UTF_8);
+        String initialSignature = keyring.sign(body, BinaryEncoding.HEX);
+
+        int rotators = 4;
+        int rotations = 50;
+        AtomicBoolean rotating = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(rotators + 2);
+        List<String> signatures = new CopyOnWriteArrayList<>();
+        try {
+            List<Future<Integer>> verifiers = new ArrayList<>();
+            for (int t = 0; t < 2; t++) {
+                verifiers.add(executor.submit(() -> {
+                    start.await();
+                    int verified = 0;
+                    while (rotating.get()) {
+                        Assertions.assertTrue(keyring.verify(body, initialSignature, BinaryEncoding.HEX));
+                        verified++;
+                    }
+                    return verified;
+                }));
+            }
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < rotators; t++) {
+                int worker = t;
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < rotations; i++) {
+                        // 轮换前用当时的主密钥签名，轮换后该密钥（可能已被其他线程轮换掉）仍在宽限期内
+                        String previous = keyring.sign(body, BinaryEncoding.HEX);
+                        keyring.rotate("w" + worker + "-" + i, ("secret-" + worker + "-" + i).getBytes(StandardCharsets.UTF_8));
+                        Assertions.assertTrue(keyring.verify(body, previous, BinaryEncoding.HEX));
+                        String current = keyring.sign(body, BinaryEncoding.HEX);
+                        Assertions.assertTrue(keyring.verify(body, current, BinaryEncoding.HEX));
+                        signatures.add(previous);
+                        signatures.add(current);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : workers) {
+                future.get();
+            }
+            rotating.set(false);
+            for (Future<Integer> future : verifiers) {
+                Assertions.assertTrue(future.get() >= 0);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        String primary = keyring.primaryKeyId();
+        Assertions.assertTrue(primary.startsWith("w"));
+        Assertions.assertEquals(1 + rotators * rotations, keyring.keyIds().size());
+        for (String signature : signatures) {
+            Assertions.assertTrue(keyring.verify(body, signature, BinaryEncoding.HEX));
+        }
+
+        // 宽限期结束后只剩最后的主密钥
+        clock.now = clock.now.plus(Duration.ofMinutes(5));
+        Assertions.assertEquals(Set.of(primary), keyring.keyIds());
+        Assertions.assertFalse(keyring.verify(body, initialSignature, BinaryEncoding.HEX));
+        for (String signature : signatures) {
+            Assertions.assertEquals(signature.startsWith(primary + HmacKeyring.SEPARATOR), keyring.verify(body, signature, BinaryEncoding.HEX));
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+package cn.lance.crypto;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+public class HmacSessionTest {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    @Test
+    public void testIncremental() throws Exception {
+        HmacSigner signer = HmacSigner.of(ALGORITHM, "secret".getBytes(StandardCharsets.UTF_8));
+        byte[] data = new byte[100_000];
+        new Random(1).nextBytes(data);
+        byte[] expected = signer.sign(data);
+
+        try (HmacSession session = signer.newSession()) {
+            session.update(data, 0, 10)
+                    .update(ByteBuffer.wrap(data, 10, 50_000))
+                    .update(Arrays.copyOfRange(data, 50_010, data.length));
+            Assertions.assertArrayEquals(expected, session.sign());
+            Assertions.assertThrows(IllegalStateException.class, () -> session.update(data));
+        }
+
+        Assertions.assertArrayEquals(expected, signer.sign(new ByteArrayInputStream(data)));
+        try (HmacSession session = signer.newSession()) {
+            Assertions.assertEquals(data.length, session.update(new ByteArrayInputStream(data)));
+            Assertions.assertTrue(session.verify(BinaryEncoding.BASE64.encode(expected), BinaryEncoding.BASE64));
+        }
+
+        // 放弃的会话不影响后续计算
+        try (HmacSession session = signer.newSession()) {
+            session.update("garbage".getBytes(StandardCharsets.UTF_8));
+        }
+        Assertions.assertArrayEquals(expected, signer.newSession().update(data).sign());
+    }
+
+    @Test
+    public void testFailedStream() throws Exception {
+        HmacSigner signer = HmacSigner.of(ALGORITHM, "secret".getBytes(StandardCharsets.UTF_8));
+        byte[] data = "Hello, HMAC!".getBytes(StandardCharsets.UTF_8);
+        InputStream broken = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("connection reset");
+            }
+        };
+
+        Assertions.assertThrows(IOException.class, () -> signer.sign(broken));
+        Assertions.assertArrayEquals(signer.sign(data), signer.sign(new ByteArrayInputStream(data)));
+    }
+
+    @Test
+    public void testFile(@TempDir Path dir) throws Exception {
+        byte[] data = new byte[32 * 1024 * 1024 + 123];
+        new Random(2).nextBytes(data);
+        Path file = dir.resolve("upload.bin");
+        Files.write(file, data);
+
+        HmacSigner signer = HmacSigner.of(ALGORITHM, "secret".getBytes(StandardCharsets.UTF_8));
+        HmacVerifier verifier = HmacVerifier.of(signer);
+        byte[] expected = signer.sign(data);
+
+        Assertions.assertArrayEquals(expected, signer.sign(file));
+        Assertions.assertTrue(verifier.verify(file, expected));
+        try (InputStream in = Files.newInputStream(file)) {
+            Assertions.assertTrue(verifier.verify(in, expected));
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            Assertions.assertEquals(BinaryEncoding.HEX.encode(expected), HmacUtils.sign(ALGORITHM, "secret", in));
+        }
+
+        // 文件中间的区域，通道position不变
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             HmacSession session = signer.newSession()) {
+            session.update(channel, 1000, 5000);
+            Assertions.assertArrayEquals(signer.sign(data, 1000, 5000), session.sign());
+            Assertions.assertEquals(0, channel.position());
+        }
+
+        data[data.length - 1] ^= 1;
+        Files.write(file, data);
+        Assertions.assertFalse(verifier.verify(file, expected));
+    }
+
+}
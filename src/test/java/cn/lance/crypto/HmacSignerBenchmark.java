@@ -0,0 +1,41 @@
+package cn.lance.crypto;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 与 {@link HmacUtils#sign} 对比吞吐，结果受机器负载和JIT影响，不在单元测试中运行：{@code mvn test -Dtest=HmacSignerBenchmark}
+ */
+public class HmacSignerBenchmark {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    @Test
+    public void benchmarkThroughput() throws Exception {
+        String key = HmacUtils.generateKey(ALGORITHM, 256);
+        String payload = "{\"event\":\"payment.succeeded\",\"amount\":100}";
+        HmacSigner signer = HmacSigner.of(ALGORITHM, key);
+        byte[] data = payload.getBytes();
+
+        int n = 200_000;
+        for (int i = 0; i < n; i++) {
+            HmacUtils.sign(ALGORITHM, key, payload);
+            signer.sign(data);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            HmacUtils.sign(ALGORITHM, key, payload);
+        }
+        long utilsNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            signer.sign(data);
+        }
+        long signerNanos = System.nanoTime() - start;
+
+        System.out.printf("HmacUtils.sign: %.0fns/op, HmacSigner.sign: %.0fns/op%n",
+                (double) utilsNanos / n, (double) signerNanos / n);
+    }
+
+}
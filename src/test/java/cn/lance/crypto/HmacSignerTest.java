@@ -0,0 +1,137 @@
+package cn.lance.crypto;
+
+import org.apache.commons.codec.binary.Hex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class HmacSignerTest {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    @Test
+    public void testCompatibleWithHmacUtils() throws NoSuchAlgorithmException, InvalidKeyException {
+        String key = HmacUtils.generateKey(ALGORITHM, 256);
+        String plaintext = "Hello, HMAC!";
+
+        HmacSigner signer = HmacSigner.of(ALGORITHM, key);
+        Assertions.assertEquals(32, signer.getMacLength());
+        Assertions.assertEquals(HmacUtils.sign(ALGORITHM, key, plaintext),
+                Hex.encodeHexString(signer.sign(plaintext.getBytes())));
+    }
+
+    @Test
+    public void testInputsAndOutputs() throws Exception {
+        HmacSigner signer = HmacSigner.of(ALGORITHM, "secret".getBytes(StandardCharsets.UTF_8));
+        byte[] data = "The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.UTF_8);
+        byte[] expected = signer.sign(data);
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+        direct.put(data).flip();
+        Assertions.assertArrayEquals(expected, signer.sign(direct));
+        Assertions.assertFalse(direct.hasRemaining());
+
+        byte[] padded = new byte[data.length + 10];
+        System.arraycopy(data, 0, padded, 5, data.length);
+        Assertions.assertArrayEquals(expected, signer.sign(padded, 5, data.length));
+
+        byte[] output = new byte[40];
+        Assertions.assertEquals(32, signer.sign(data, 0, data.length, output, 8));
+        Assertions.assertArrayEquals(expected, Arrays.copyOfRange(output, 8, 40));
+        Assertions.assertThrows(ShortBufferException.class, () -> signer.sign(data, 0, data.length, output, 9));
+
+        // the signer still works after a rejected call
+        Assertions.assertArrayEquals(expected, signer.sign(data));
+    }
+
+    @Test
+    public void testInvalidAlgorithm() {
+        Assertions.assertThrows(NoSuchAlgorithmException.class, () -> HmacSigner.of("HmacNothing", new byte[16]));
+    }
+
+    @Test
+    public void testConcurrentSign() throws Exception {
+        HmacSigner signer = HmacSigner.of(ALGORITHM, new byte[32]);
+        byte[] data = new byte[256];
+        byte[] expected = signer.sign(data);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                futures.add(executor.submit(() -> Arrays.equals(expected, signer.sign(data))));
+            }
+            for (Future<Boolean> future : futures) {
+                Assertions.assertTrue(future.get());
+            }
+        }
+    }
+
+    @Test
+    public void testOutputBufferMatchesMac() throws Exception {
+        byte[] data = "The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.UTF_8);
+        for (String algorithm : new String[]{"HmacMD5", "HmacSHA1", "HmacSHA256", "HmacSHA384", "HmacSHA512", "HmacSHA3-256", "HmacSHA3-384"}) {
+            // 密钥分别短于、等于、长于分组长度
+            for (int keyLength : new int[]{1, 16, 64, 128, 200}) {
+                byte[] key = new byte[keyLength];
+                Arrays.fill(key, (byte) keyLength);
+                Mac mac = Mac.getInstance(algorithm);
+                mac.init(new SecretKeySpec(key, algorithm));
+                byte[] expected = mac.doFinal(data);
+
+                HmacSigner signer = HmacSigner.of(algorithm, key);
+
+                byte[] output = new byte[signer.getMacLength()];
+                for (int i = 0; i < 2; i++) {
+                    signer.sign(data, 0, data.length, output, 0);
+                    Assertions.assertArrayEquals(expected, output, algorithm + " " + keyLength);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPinnedProvider() throws Exception {
+        byte[] key = "pinned-key".getBytes(StandardCharsets.UTF_8);
+        byte[] data = "{\"event\":\"payment.succeeded\"}".getBytes(StandardCharsets.UTF_8);
+        try {
+            CryptoProviders.override(CryptoProviders.MAC, ALGORITHM, "BC");
+            HmacSigner signer = HmacSigner.of(ALGORITHM, key);
+
+            // 写入缓冲区和验证的路径也使用指定的Provider，不绕过
+            HmacEngine engine = signer.borrowEngine();
+            Assertions.assertEquals("BC", engine.provider().getName());
+            signer.releaseEngine(engine);
+
+            byte[] expected = signer.sign(data);
+            byte[] output = new byte[signer.getMacLength()];
+            signer.sign(data, 0, data.length, output, 0);
+            Assertions.assertArrayEquals(expected, output);
+            Assertions.assertTrue(HmacVerifier.of(ALGORITHM, key).verify(data, expected));
+
+            // 更换密钥后结果与新密钥一致
+            byte[] other = "other-key".getBytes(StandardCharsets.UTF_8);
+            engine = new HmacEngine(ALGORITHM, key);
+            engine.rekey(other, other.length);
+            engine.update(data, 0, data.length);
+            engine.doFinal(output, 0);
+            Assertions.assertArrayEquals(HmacSigner.of(ALGORITHM, other).sign(data), output);
+        } finally {
+            CryptoProviders.reset();
+        }
+        Assertions.assertNotEquals("BC", HmacSigner.of(ALGORITHM, key).borrowEngine().provider().getName());
+    }
+
+}
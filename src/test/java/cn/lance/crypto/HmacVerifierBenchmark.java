@@ -0,0 +1,56 @@
+package cn.lance.crypto;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 与 {@link HmacUtils#verify} 对比每次校验的内存分配（HmacVerifier零分配由 {@link HmacVerifierTest} 断言），不在单元测试中运行：{@code mvn test -Dtest=HmacVerifierBenchmark}
+ */
+public class HmacVerifierBenchmark {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    @Test
+    public void benchmarkCompareWithHmacUtils() throws NoSuchAlgorithmException, InvalidKeyException {
+        String key = HmacUtils.generateKey(ALGORITHM, 256);
+        byte[] data = "{\"event\":\"payment.succeeded\",\"amount\":100}".getBytes(StandardCharsets.UTF_8);
+        String hexSignature = HmacUtils.sign(ALGORITHM, key, new String(data));
+        HmacVerifier verifier = HmacVerifier.of(ALGORITHM, key);
+
+        int rounds = 20_000;
+        long utilsBytes = allocatedPerOp(rounds, () -> HmacUtils.verify(ALGORITHM, key, new String(data), hexSignature));
+        long verifierBytes = allocatedPerOp(rounds, () -> verifier.verify(data, hexSignature, BinaryEncoding.HEX));
+        System.out.println("HmacUtils.verify: " + utilsBytes + " B/op, HmacVerifier.verify: " + verifierBytes + " B/op");
+    }
+
+    private static long allocatedPerOp(int rounds, ThrowingSupplier supplier) {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        try {
+            // warm up
+            for (int i = 0; i < rounds; i++) {
+                Assertions.assertTrue(supplier.get());
+            }
+
+            long allocatedBefore = threadMXBean.getCurrentThreadAllocatedBytes();
+            boolean valid = true;
+            for (int i = 0; i < rounds; i++) {
+                valid &= supplier.get();
+            }
+            long allocated = threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            Assertions.assertTrue(valid);
+            return allocated / rounds;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private interface ThrowingSupplier {
+        boolean get() throws Exception;
+    }
+
+}
@@ -0,0 +1,86 @@
+package cn.lance.crypto;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+public class HmacVerifierTest {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    @Test
+    public void testVerify() throws NoSuchAlgorithmException, InvalidKeyException {
+        String key = HmacUtils.generateKey(ALGORITHM, 256);
+        String body = "{\"event\":\"payment.succeeded\"}";
+        String hexSignature = HmacUtils.sign(ALGORITHM, key, body);
+
+        HmacVerifier verifier = HmacVerifier.of(ALGORITHM, key);
+        byte[] data = body.getBytes();
+        byte[] signature = BinaryEncoding.HEX.decode(hexSignature);
+
+        Assertions.assertTrue(verifier.verify(data, signature));
+        Assertions.assertTrue(verifier.verify(ByteBuffer.wrap(data), signature));
+        Assertions.assertTrue(verifier.verify(data, hexSignature, BinaryEncoding.HEX));
+        Assertions.assertTrue(verifier.verify(data, hexSignature.toUpperCase(), BinaryEncoding.HEX));
+
+        signature[0] ^= 1;
+        Assertions.assertFalse(verifier.verify(data, signature));
+        Assertions.assertFalse(verifier.verify(data, new byte[0]));
+        Assertions.assertFalse(verifier.verify(data, "not hex", BinaryEncoding.HEX));
+        Assertions.assertFalse(verifier.verify("{}".getBytes(StandardCharsets.UTF_8), hexSignature, BinaryEncoding.HEX));
+    }
+
+    @Test
+    public void testVerifyBase64() throws NoSuchAlgorithmException, InvalidKeyException {
+        HmacVerifier verifier = HmacVerifier.of(ALGORITHM, "whsec_test");
+        byte[] data = "{\"event\":\"payment.succeeded\"}".getBytes(StandardCharsets.UTF_8);
+        byte[] signature = HmacSigner.of(ALGORITHM, "whsec_test").sign(data);
+
+        for (BinaryEncoding encoding : BinaryEncoding.values()) {
+            Assertions.assertTrue(verifier.verify(data, encoding.encode(signature), encoding));
+            Assertions.assertFalse(verifier.verify(data, encoding.encode(Arrays.copyOf(signature, 31)), encoding));
+        }
+        Assertions.assertFalse(verifier.verify(data, "!!!!", BinaryEncoding.BASE64));
+    }
+
+    @Test
+    public void testZeroAllocation() throws NoSuchAlgorithmException, InvalidKeyException {
+        String key = HmacUtils.generateKey(ALGORITHM, 256);
+        byte[] data = "{\"event\":\"payment.succeeded\",\"amount\":100}".getBytes(StandardCharsets.UTF_8);
+        byte[] signature = HmacSigner.of(ALGORITHM, key).sign(data);
+        String hexSignature = BinaryEncoding.HEX.encode(signature);
+        String base64Signature = BinaryEncoding.BASE64.encode(signature);
+        HmacVerifier verifier = HmacVerifier.of(ALGORITHM, key);
+
+        // 预热后每次验证分配0字节（整除后不足1字节/次），不比较耗时
+        int rounds = 20_000;
+        Assertions.assertEquals(0, allocatedPerOp(rounds, () -> verifier.verify(data, signature)));
+        Assertions.assertEquals(0, allocatedPerOp(rounds, () -> verifier.verify(data, hexSignature, BinaryEncoding.HEX)));
+        Assertions.assertEquals(0, allocatedPerOp(rounds, () -> verifier.verify(data, base64Signature, BinaryEncoding.BASE64)));
+    }
+
+    private static long allocatedPerOp(int rounds, BooleanSupplier supplier) {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        // warm up
+        for (int i = 0; i < rounds; i++) {
+            Assertions.assertTrue(supplier.getAsBoolean());
+        }
+
+        long allocatedBefore = threadMXBean.getCurrentThreadAllocatedBytes();
+        boolean valid = true;
+        for (int i = 0; i < rounds; i++) {
+            valid &= supplier.getAsBoolean();
+        }
+        long allocated = threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        Assertions.assertTrue(valid);
+        return allocated / rounds;
+    }
+
+}
@@ -0,0 +1,96 @@
+package cn.lance.crypto;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class HotpVerifierTest {
+
+    /**
+     * RFC 4226 附录D的密钥 "12345678901234567890"
+     */
+    private static final String SECRET = "GEZDGNBVGY3TQOJQGEZDGNBVGY3TQOJQ";
+
+    private static final String[] RFC4226_CODES =
+            {"755224", "287082", "359152", "969429", "338314", "254676", "287922", "162583", "399871", "520489"};
+
+    @Test
+    public void testRfc4226Vectors() {
+        HotpVerifier verifier = HotpVerifier.of(SECRET, new MemoryCounter(0));
+        for (int i = 0; i < RFC4226_CODES.length; i++) {
+            Assertions.assertEquals(RFC4226_CODES[i], verifier.generateCode(i));
+        }
+    }
+
+    @Test
+    public void testVerifyAdvancesCounter() {
+        MemoryCounter counter = new MemoryCounter(0);
+        HotpVerifier verifier = HotpVerifier.of(SECRET, counter, OtpAlgorithm.SHA1, 6, 3);
+
+        Assertions.assertTrue(verifier.verify("755224"));
+        Assertions.assertEquals(1, counter.get());
+        // 同一密码不能再次使用
+        Assertions.assertFalse(verifier.verify("755224"));
+        // 前瞻窗口内跳过若干计数器
+        Assertions.assertTrue(verifier.verify("338314"));
+        Assertions.assertEquals(5, counter.get());
+        // 超出前瞻窗口
+        Assertions.assertFalse(verifier.verify("520489"));
+        Assertions.assertEquals(5, counter.get());
+        Assertions.assertFalse(verifier.verify("12345a"));
+    }
+
+    @Test
+    public void testResynchronize() {
+        MemoryCounter counter = new MemoryCounter(0);
+        HotpVerifier verifier = HotpVerifier.of(SECRET, counter, OtpAlgorithm.SHA1, 6, 0);
+
+        String code50 = verifier.generateCode(50);
+        String code51 = verifier.generateCode(51);
+        Assertions.assertFalse(verifier.verify(code50));
+        // 不连续的两个密码不能同步
+        Assertions.assertFalse(verifier.resynchronize(code50, verifier.generateCode(52)));
+        Assertions.assertTrue(verifier.resynchronize(code50, code51));
+        Assertions.assertEquals(52, counter.get());
+        Assertions.assertTrue(verifier.verify(verifier.generateCode(52)));
+    }
+
+    @Test
+    public void testConcurrentCounterUpdate() {
+        // 其他节点在读取后抢先更新了计数器
+        HotpVerifier verifier = HotpVerifier.of(SECRET, new HotpVerifier.Counter() {
+            @Override
+            public long get() {
+                return 0;
+            }
+
+            @Override
+            public boolean compareAndSet(long expected, long update) {
+                return false;
+            }
+        });
+        Assertions.assertFalse(verifier.verify("755224"));
+    }
+
+    private static final class MemoryCounter implements HotpVerifier.Counter {
+
+        private final AtomicLong value;
+
+        private MemoryCounter(long value) {
+            this.value = new AtomicLong(value);
+        }
+
+        @Override
+        public long get() {
+            return value.get();
+        }
+
+        @Override
+        public boolean compareAndSet(long expected, long update) {
+            return value.compareAndSet(expected, update);
+        }
+
+    }
+
+}
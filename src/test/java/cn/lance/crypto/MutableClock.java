@@ -0,0 +1,34 @@
+package cn.lance.crypto;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * 测试用时钟，由测试直接修改当前时间
+ */
+final class MutableClock extends Clock {
+
+    volatile Instant now;
+
+    MutableClock(Instant now) {
+        this.now = now;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return this;
+    }
+
+    @Override
+    public Instant instant() {
+        return now;
+    }
+
+}
@@ -0,0 +1,41 @@
+package cn.lance.crypto;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 与逐行 {@link HmacUtils#sign} 对比列式假名化的耗时，结果受机器负载和JIT影响，不在单元测试中运行：{@code mvn test -Dtest=PseudonymizerBenchmark}
+ */
+public class PseudonymizerBenchmark {
+
+    private static final byte[] KEY = "pseudonymization-key".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void benchmarkThroughput() throws Exception {
+        Pseudonymizer pseudonymizer = Pseudonymizer.of(KEY, 16);
+        String hexKey = new String(KEY, StandardCharsets.UTF_8);
+        int rows = 100_000;
+        long[] ids = new long[rows];
+        for (int i = 0; i < rows; i++) {
+            ids[i] = 1_000_000_000L + i;
+        }
+
+        // warm up
+        pseudonymizer.pseudonymize(ids);
+        for (int i = 0; i < 10_000; i++) {
+            HmacUtils.sign("HmacSHA256", hexKey, Long.toString(ids[i]));
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < rows; i++) {
+            HmacUtils.sign("HmacSHA256", hexKey, Long.toString(ids[i]));
+        }
+        long utils = (System.nanoTime() - start) / rows;
+        start = System.nanoTime();
+        pseudonymizer.pseudonymize(ids);
+        long column = (System.nanoTime() - start) / rows;
+        System.out.println("HmacUtils.sign: " + utils + "ns/row, Pseudonymizer column: " + column + "ns/row");
+    }
+
+}
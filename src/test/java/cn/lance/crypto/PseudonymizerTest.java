@@ -0,0 +1,98 @@
+package cn.lance.crypto;
+
+import com.google.common.primitives.Longs;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class PseudonymizerTest {
+
+    private static final byte[] KEY = "pseudonymization-key".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void testTokens() throws Exception {
+        Pseudonymizer pseudonymizer = Pseudonymizer.of(KEY, 16);
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(KEY, "HmacSHA256"));
+
+        byte[] id = "user-42".getBytes(StandardCharsets.UTF_8);
+        byte[] token = pseudonymizer.pseudonymize(id);
+        Assertions.assertArrayEquals(Arrays.copyOf(mac.doFinal(id), 16), token);
+        Assertions.assertArrayEquals(token, pseudonymizer.pseudonymize(id));
+        Assertions.assertEquals(BinaryEncoding.BASE64_URL.encode(token), pseudonymizer.pseudonymize("user-42"));
+
+        byte[] output = new byte[20];
+        pseudonymizer.pseudonymize(id, output, 4);
+        Assertions.assertArrayEquals(token, Arrays.copyOfRange(output, 4, 20));
+
+        long longToken = pseudonymizer.pseudonymize(42L);
+        Assertions.assertEquals(Longs.fromByteArray(pseudonymizer.pseudonymize(Longs.toByteArray(42L))), longToken);
+        Assertions.assertNotEquals(longToken, pseudonymizer.pseudonymize(43L));
+        Assertions.assertNotEquals(longToken, Pseudonymizer.of("other-key".getBytes(StandardCharsets.UTF_8), 16).pseudonymize(42L));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Pseudonymizer.of(KEY, 4));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Pseudonymizer.of(KEY, 33));
+    }
+
+    @Test
+    public void testColumns() throws Exception {
+        Pseudonymizer pseudonymizer = Pseudonymizer.of(KEY, 12);
+        Random random = new Random(1);
+
+        long[] ids = new long[50_000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = random.nextLong();
+        }
+        long[] tokens = pseudonymizer.pseudonymize(ids);
+        for (int i = 0; i < ids.length; i += 997) {
+            Assertions.assertEquals(pseudonymizer.pseudonymize(ids[i]), tokens[i]);
+        }
+
+        List<byte[]> byteIds = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            byteIds.add(("user-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] column = pseudonymizer.pseudonymize(byteIds);
+        Assertions.assertEquals(20_000 * 12, column.length);
+        for (int i = 0; i < byteIds.size(); i += 997) {
+            Assertions.assertArrayEquals(pseudonymizer.pseudonymize(byteIds.get(i)), Arrays.copyOfRange(column, i * 12, (i + 1) * 12));
+        }
+    }
+
+    @Test
+    public void testCache() throws Exception {
+        Pseudonymizer cached = Pseudonymizer.of(KEY, 16, 100);
+        Pseudonymizer uncached = Pseudonymizer.of(KEY, 16);
+
+        long[] ids = new long[10_000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i % 50;
+        }
+        Assertions.assertArrayEquals(uncached.pseudonymize(ids), cached.pseudonymize(ids));
+        // 命中次数取决于并行分块的时序，只检查请求数
+        Assertions.assertEquals(10_000, cached.stats().requestCount());
+        Assertions.assertArrayEquals(uncached.pseudonymize(ids), cached.pseudonymize(ids));
+        Assertions.assertEquals(20_000, cached.stats().requestCount());
+
+        List<byte[]> byteIds = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            byteIds.add(("user-" + i % 50).getBytes(StandardCharsets.UTF_8));
+        }
+        Assertions.assertArrayEquals(uncached.pseudonymize(byteIds), cached.pseudonymize(byteIds));
+        Assertions.assertEquals(30_000, cached.stats().requestCount());
+
+        byte[] id = "user-1".getBytes(StandardCharsets.UTF_8);
+        byte[] token = cached.pseudonymize(id);
+        token[0] ^= 1;
+        Assertions.assertArrayEquals(uncached.pseudonymize(id), cached.pseudonymize(id));
+        Assertions.assertEquals(30_002, cached.stats().requestCount());
+    }
+
+}
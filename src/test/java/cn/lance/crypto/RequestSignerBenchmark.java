@@ -0,0 +1,47 @@
+package cn.lance.crypto;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * 缓存签名密钥与每次派生的耗时对比，结果受机器负载和JIT影响，不在单元测试中运行：{@code mvn test -Dtest=RequestSignerBenchmark}
+ */
+public class RequestSignerBenchmark {
+
+    private static final String ACCESS_KEY_ID = "AKIDEXAMPLE";
+
+    private static final String SECRET_KEY = "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY";
+
+    private static final Instant TIME = Instant.parse("2015-08-30T12:36:00Z");
+
+    @Test
+    public void benchmarkSigningKeyCache() {
+        RequestSigner signer = RequestSigner.of(ACCESS_KEY_ID, SECRET_KEY, "cn-north-1", "storage");
+        String payloadHash = RequestSigner.hashPayload("{\"name\":\"测试\"}".getBytes(StandardCharsets.UTF_8));
+        Map<String, String> headers = Map.of("host", "storage.example.com", "x-amz-date", RequestSigner.timestamp(TIME),
+                "x-meta-title", "  a   b  ");
+        Map<String, String> query = Map.of("prefix", "文档/2015 年", "list-type", "2");
+
+        int rounds = 20_000;
+        // warm up
+        for (int i = 0; i < rounds; i++) {
+            signer.sign("PUT", "/bucket/a b.txt", query, headers, payloadHash, TIME);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            signer.sign("PUT", "/bucket/a b.txt", query, headers, payloadHash, TIME);
+        }
+        long cached = (System.nanoTime() - start) / rounds;
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            signer.invalidateAll();
+            signer.sign("PUT", "/bucket/a b.txt", query, headers, payloadHash, TIME);
+        }
+        long uncached = (System.nanoTime() - start) / rounds;
+        System.out.println("RequestSigner cached key: " + cached + "ns/op, derived per request: " + uncached + "ns/op");
+    }
+
+}
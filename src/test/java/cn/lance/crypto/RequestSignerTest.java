@@ -0,0 +1,69 @@
+package cn.lance.crypto;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class RequestSignerTest {
+
+    private static final String ACCESS_KEY_ID = "AKIDEXAMPLE";
+
+    private static final String SECRET_KEY = "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY";
+
+    private static final Instant TIME = Instant.parse("2015-08-30T12:36:00Z");
+
+    @Test
+    public void testDerivedSigningKey() {
+        RequestSigner signer = RequestSigner.of(ACCESS_KEY_ID, SECRET_KEY, "us-east-1", "iam");
+        Assertions.assertEquals("c4afb1cc5771d871763a393e44b703571b55cc28424d1a5e86da6ed3c154a4b9",
+                BinaryEncoding.HEX.encode(signer.deriveSigningKey("20150830")));
+    }
+
+    @Test
+    public void testTestSuiteVectors() {
+        RequestSigner signer = RequestSigner.of(ACCESS_KEY_ID, SECRET_KEY, "us-east-1", "service");
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("Host", "example.amazonaws.com");
+        headers.put("X-Amz-Date", RequestSigner.timestamp(TIME));
+        Assertions.assertEquals("20150830T123600Z", headers.get("X-Amz-Date"));
+
+        // get-vanilla
+        Assertions.assertEquals("AWS4-HMAC-SHA256 Credential=AKIDEXAMPLE/20150830/us-east-1/service/aws4_request, "
+                        + "SignedHeaders=host;x-amz-date, Signature=5fa00fa31553b73ebf1942676e86291e8372ff2a2260956d9b8aae1d763fbf31",
+                signer.authorization("GET", "/", null, headers, RequestSigner.EMPTY_PAYLOAD_HASH, TIME));
+
+        // get-vanilla-query-order-key-case
+        Map<String, String> query = new LinkedHashMap<>();
+        query.put("Param2", "value2");
+        query.put("Param1", "value1");
+        Assertions.assertEquals("b97d918cfa904a5beff61c982a1b6f458b799221646efd99d3219ec94cdf2500",
+                signer.sign("GET", "/", query, headers, RequestSigner.EMPTY_PAYLOAD_HASH, TIME));
+    }
+
+    @Test
+    public void testStreamedPayloadAndCache() throws Exception {
+        RequestSigner signer = RequestSigner.of(ACCESS_KEY_ID, SECRET_KEY, "cn-north-1", "storage");
+        byte[] body = "{\"name\":\"测试\"}".getBytes(StandardCharsets.UTF_8);
+        String payloadHash = RequestSigner.hashPayload(new ByteArrayInputStream(body));
+        Assertions.assertEquals(RequestSigner.hashPayload(body), payloadHash);
+        Assertions.assertEquals(RequestSigner.EMPTY_PAYLOAD_HASH, RequestSigner.hashPayload(new byte[0]));
+
+        Map<String, String> headers = Map.of("host", "storage.example.com", "x-amz-date", RequestSigner.timestamp(TIME),
+                "x-meta-title", "  a   b  ");
+        Map<String, String> query = Map.of("prefix", "文档/2015 年", "list-type", "2");
+        String signature = signer.sign("PUT", "/bucket/a b.txt", query, headers, payloadHash, TIME);
+        Assertions.assertEquals(signature, signer.sign("PUT", "/bucket/a b.txt", query, headers, payloadHash, TIME));
+        Assertions.assertNotEquals(signature, signer.sign("PUT", "/bucket/a b.txt", query, headers, payloadHash, TIME.plusSeconds(86400)));
+        Assertions.assertNotEquals(signature, signer.sign("PUT", "/bucket/a+b.txt", query, headers, payloadHash, TIME));
+
+        // 缓存的签名密钥失效后重新派生，结果不变
+        signer.invalidateAll();
+        Assertions.assertEquals(signature, signer.sign("PUT", "/bucket/a b.txt", query, headers, payloadHash, TIME));
+    }
+
+}
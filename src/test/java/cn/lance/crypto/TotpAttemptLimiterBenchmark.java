@@ -0,0 +1,34 @@
+package cn.lance.crypto;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+/**
+ * 每次尝试的耗时，结果受机器负载和JIT影响，不在单元测试中运行：{@code mvn test -Dtest=TotpAttemptLimiterBenchmark}
+ */
+public class TotpAttemptLimiterBenchmark {
+
+    @Test
+    public void benchmarkTryAcquire() {
+        TotpAttemptLimiter limiter = TotpAttemptLimiter.of(TotpAttemptLimiter.MAX_ATTEMPTS, Duration.ofHours(1));
+        String[] accounts = new String[1000];
+        for (int i = 0; i < accounts.length; i++) {
+            accounts[i] = "account" + i;
+        }
+        int rounds = 200_000;
+        // warm up
+        for (int i = 0; i < rounds; i++) {
+            limiter.tryAcquire(accounts[i % accounts.length]);
+            limiter.reset(accounts[i % accounts.length]);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            limiter.tryAcquire(accounts[i % accounts.length]);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.println("TotpAttemptLimiter.tryAcquire: " + elapsed / rounds + "ns/op");
+    }
+
+}
@@ -0,0 +1,128 @@
+package cn.lance.crypto;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+public class TotpAttemptLimiterTest {
+
+    private static final String SECRET = "GEZDGNBVGY3TQOJQGEZDGNBVGY3TQOJQ";
+
+    @Test
+    public void testSlidingWindow() {
+        // 从窗口起点开始
+        MutableClock clock = new MutableClock(Instant.ofEpochSecond(1_699_999_980L));
+        TotpAttemptLimiter limiter = TotpAttemptLimiter.of(3, Duration.ofMinutes(1), 100, clock);
+
+        Assertions.assertTrue(limiter.tryAcquire("alice"));
+        Assertions.assertTrue(limiter.tryAcquire("alice"));
+        Assertions.assertTrue(limiter.tryAcquire("alice"));
+        Assertions.assertFalse(limiter.tryAcquire("alice"));
+        Assertions.assertEquals(0, limiter.remaining("alice"));
+        // 其他账号不受影响
+        Assertions.assertTrue(limiter.tryAcquire("bob"));
+        Assertions.assertEquals(3, limiter.remaining("carol"));
+
+        // 进入下一个窗口后，上一窗口的次数按比例逐渐失效
+        clock.now = clock.now.plusSeconds(60);
+        Assertions.assertFalse(limiter.tryAcquire("alice"));
+        clock.now = clock.now.plusSeconds(30);
+        Assertions.assertEquals(1, limiter.remaining("alice"));
+        Assertions.assertTrue(limiter.tryAcquire("alice"));
+        Assertions.assertFalse(limiter.tryAcquire("alice"));
+
+        // 超过两个窗口后完全恢复
+        clock.now = clock.now.plusSeconds(120);
+        Assertions.assertEquals(3, limiter.remaining("alice"));
+
+        limiter.reset("bob");
+        Assertions.assertEquals(3, limiter.remaining("bob"));
+    }
+
+    @Test
+    public void testVerify() {
+        MutableClock clock = new MutableClock(Instant.ofEpochSecond(1234567890L));
+        TotpAttemptLimiter limiter = TotpAttemptLimiter.of(2, Duration.ofMinutes(5), 100, clock);
+        TotpVerifier verifier = TotpVerifier.of(SECRET, clock);
+
+        Assertions.assertFalse(limiter.verify(verifier, "alice", "000000"));
+        // 成功后计数清零
+        Assertions.assertTrue(limiter.verify(verifier, "alice", "005924"));
+        Assertions.assertEquals(2, limiter.remaining("alice"));
+
+        Assertions.assertFalse(limiter.verify(verifier, "alice", "000000"));
+        Assertions.assertFalse(limiter.verify(verifier, "alice", "000000"));
+        // 已达上限，正确的密码也不再校验
+        Assertions.assertFalse(limiter.verify(verifier, "alice", "005924"));
+    }
+
+    @Test
+    public void testIdleEviction() {
+        MutableClock clock = new MutableClock(Instant.ofEpochSecond(1_700_000_000L));
+        TotpAttemptLimiter limiter = TotpAttemptLimiter.of(5, Duration.ofMinutes(1), 1000, clock);
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire("account" + i);
+        }
+        Assertions.assertEquals(100, limiter.size());
+
+        clock.now = clock.now.plusSeconds(121);
+        limiter.tryAcquire("alice");
+        Assertions.assertEquals(1, limiter.size());
+        Assertions.assertEquals(5, limiter.remaining("account0"));
+    }
+
+    @Test
+    public void testOverflowSharesStripeCounters() {
+        MutableClock clock = new MutableClock(Instant.ofEpochSecond(1_699_999_980L));
+        TotpAttemptLimiter limiter = TotpAttemptLimiter.of(3, Duration.ofMinutes(1), 3, clock);
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertTrue(limiter.tryAcquire("alice"));
+        }
+        Assertions.assertTrue(limiter.tryAcquire("bob"));
+        Assertions.assertTrue(limiter.tryAcquire("carol"));
+
+        // 已满：新账号使用共享计数器，仍然可以校验，次数同样受限
+        Assertions.assertEquals(3, limiter.remaining("dave"));
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertTrue(limiter.tryAcquire("dave"));
+        }
+        Assertions.assertFalse(limiter.tryAcquire("dave"));
+        Assertions.assertEquals(0, limiter.remaining("dave"));
+
+        // 不能用大量账号冲掉alice的计数
+        for (int i = 0; i < 1000; i++) {
+            limiter.tryAcquire("attacker" + i);
+        }
+        Assertions.assertEquals(3, limiter.size());
+        Assertions.assertFalse(limiter.tryAcquire("alice"));
+        Assertions.assertEquals(0, limiter.remaining("alice"));
+        Assertions.assertTrue(limiter.tryAcquire("bob"));
+
+        // 重置腾出位置，新账号重新单独计数
+        limiter.reset("carol");
+        Assertions.assertTrue(limiter.tryAcquire("eve"));
+        Assertions.assertEquals(2, limiter.remaining("eve"));
+
+        // 两个窗口未访问的账号过期后腾出位置，共享计数器也已归零
+        clock.now = clock.now.plusSeconds(121);
+        Assertions.assertTrue(limiter.tryAcquire("dave"));
+        Assertions.assertEquals(1, limiter.size());
+    }
+
+    @Test
+    public void testConcurrentAttemptsNeverExceedLimit() {
+        TotpAttemptLimiter limiter = TotpAttemptLimiter.of(50, Duration.ofMinutes(10));
+        AtomicInteger acquired = new AtomicInteger();
+        IntStream.range(0, 10_000).parallel().forEach(i -> {
+            if (limiter.tryAcquire("alice")) {
+                acquired.incrementAndGet();
+            }
+        });
+        Assertions.assertEquals(50, acquired.get());
+    }
+
+}
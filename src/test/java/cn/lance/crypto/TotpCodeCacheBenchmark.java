@@ -0,0 +1,36 @@
+package cn.lance.crypto;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 与 {@link TotpVerifier} 对比校验耗时，结果受机器负载和JIT影响，不在单元测试中运行：{@code mvn test -Dtest=TotpCodeCacheBenchmark}
+ */
+public class TotpCodeCacheBenchmark {
+
+    private static final String SECRET = "GEZDGNBVGY3TQOJQGEZDGNBVGY3TQOJQ";
+
+    @Test
+    public void benchmarkVerify() {
+        TotpCodeCache cache = TotpCodeCache.create();
+        TotpVerifier verifier = TotpVerifier.of(SECRET);
+        String wrong = TotpVerifier.format((Integer.parseInt(verifier.generateCode()) + 500_000) % 1_000_000, 6);
+        int rounds = 100_000;
+
+        for (int i = 0; i < rounds; i++) {
+            cache.verify(SECRET, wrong);
+            verifier.verify(wrong);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            verifier.verify(wrong);
+        }
+        long direct = (System.nanoTime() - start) / rounds;
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            cache.verify(SECRET, wrong);
+        }
+        long cached = (System.nanoTime() - start) / rounds;
+        System.out.println("TotpVerifier.verify: " + direct + "ns/op, TotpCodeCache.verify: " + cached + "ns/op");
+    }
+
+}
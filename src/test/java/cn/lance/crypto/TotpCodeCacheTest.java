@@ -0,0 +1,48 @@
+package cn.lance.crypto;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+public class TotpCodeCacheTest {
+
+    private static final String SECRET = "GEZDGNBVGY3TQOJQGEZDGNBVGY3TQOJQ";
+
+    @Test
+    public void testCompatibleWithTotpUtils() {
+        MutableClock clock = new MutableClock(Instant.ofEpochSecond(1234567890L));
+        TotpCodeCache cache = TotpCodeCache.of(clock, 100, Duration.ofMinutes(5));
+
+        for (int step = 0; step < 10; step++) {
+            for (int offset = -4; offset <= 4; offset++) {
+                String passcode = TotpUtils.generateCode(SECRET, Clock.offset(clock, Duration.ofSeconds(offset * 30L)));
+                Assertions.assertEquals(TotpUtils.verify(SECRET, passcode, clock), cache.verify(SECRET, passcode), "offset " + offset);
+            }
+            clock.now = clock.now.plusSeconds(30);
+        }
+        // 每个时间步第一次校验时计算窗口，之后命中
+        Assertions.assertEquals(1, cache.stats().missCount());
+        Assertions.assertFalse(cache.verify(SECRET, "12345"));
+        Assertions.assertFalse(cache.verify(SECRET, "abcdef"));
+    }
+
+    @Test
+    public void testMatchInterval() {
+        MutableClock clock = new MutableClock(Instant.ofEpochSecond(1234567890L));
+        TotpCodeCache cache = TotpCodeCache.of(clock, 100, Duration.ofMinutes(5));
+        long interval = 1234567890L / 30;
+
+        Assertions.assertEquals(interval, cache.match(SECRET, "005924"));
+        clock.now = clock.now.plusSeconds(60);
+        Assertions.assertEquals(interval, cache.match(SECRET, "005924"));
+        clock.now = clock.now.plusSeconds(60);
+        Assertions.assertEquals(-1, cache.match(SECRET, "005924"));
+
+        TotpVerifier verifier = TotpVerifier.of(SECRET, clock);
+        Assertions.assertEquals(verifier.generateCode(), TotpUtils.generateCode(SECRET, clock));
+    }
+
+}
@@ -0,0 +1,91 @@
+package cn.lance.crypto;
+
+import org.apache.commons.codec.binary.Base32;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+public class TotpParametersTest {
+
+    @Test
+    public void testSearchOrder() {
+        Assertions.assertArrayEquals(new int[]{0, -1, 1, -2, 2, -3, 3}, TotpParameters.DEFAULT.offsets);
+        Assertions.assertArrayEquals(new int[]{0, -1, 1, -2, -3}, TotpParameters.of(OtpAlgorithm.SHA1, 6, 30, 3, 1).offsets);
+        Assertions.assertArrayEquals(new int[]{0, 1, 2}, TotpParameters.of(OtpAlgorithm.SHA1, 6, 30, 0, 2).offsets);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TotpParameters.of(OtpAlgorithm.SHA1, 5, 30, 1, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TotpParameters.of(OtpAlgorithm.SHA1, 10, 30, 1, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TotpParameters.of(OtpAlgorithm.SHA1, 6, 0, 1, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TotpParameters.of(OtpAlgorithm.SHA1, 6, 30, -1, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TotpParameters.of(OtpAlgorithm.SHA1, 6, 30, 1, 18));
+    }
+
+    /**
+     * RFC 6238 附录B（8位）
+     */
+    @Test
+    public void testRfc6238Vectors() {
+        String sha1 = seed("12345678901234567890");
+        String sha256 = seed("12345678901234567890123456789012");
+        String sha512 = seed("1234567890123456789012345678901234567890123456789012345678901234");
+
+        assertCode(sha1, OtpAlgorithm.SHA1, 59L, "94287082");
+        assertCode(sha256, OtpAlgorithm.SHA256, 59L, "46119246");
+        assertCode(sha512, OtpAlgorithm.SHA512, 59L, "90693936");
+        assertCode(sha1, OtpAlgorithm.SHA1, 1111111109L, "07081804");
+        assertCode(sha256, OtpAlgorithm.SHA256, 1111111109L, "68084774");
+        assertCode(sha512, OtpAlgorithm.SHA512, 1111111109L, "25091201");
+        assertCode(sha256, OtpAlgorithm.SHA256, 20000000000L, "77737706");
+        assertCode(sha512, OtpAlgorithm.SHA512, 20000000000L, "47863826");
+    }
+
+    @Test
+    public void testAsymmetricWindow() {
+        String secret = TotpUtils.getSecretFromUri(TotpUtils.generate("Foo", "bar"));
+        // 只允许过去2个时间步，不允许未来
+        TotpParameters parameters = TotpParameters.of(OtpAlgorithm.SHA256, 6, 60, 2, 0);
+        TotpVerifier verifier = TotpVerifier.of(secret, parameters, Clock.systemUTC());
+        long now = 1_700_000_000_000L;
+
+        String passcode = verifier.generateCode(now);
+        Assertions.assertEquals(now / 60_000, verifier.match(passcode, now));
+        Assertions.assertTrue(verifier.verify(passcode, now + 120_000));
+        Assertions.assertFalse(verifier.verify(passcode, now + 180_000));
+        Assertions.assertFalse(verifier.verify(passcode, now - 60_000));
+
+        Clock clock = Clock.fixed(Instant.ofEpochMilli(now + 60_000), ZoneOffset.UTC);
+        Assertions.assertTrue(TotpUtils.verify(secret, passcode, parameters, clock));
+        Assertions.assertEquals(verifier.generateCode(now + 60_000), TotpUtils.generateCode(secret, parameters, clock));
+        Assertions.assertFalse(TotpUtils.verify(secret, passcode, parameters, Clock.fixed(Instant.ofEpochMilli(now - 60_000), ZoneOffset.UTC)));
+
+        TotpCodeCache cache = TotpCodeCache.of(clock, parameters, 10, java.time.Duration.ofMinutes(1));
+        Assertions.assertEquals(now / 60_000, cache.match(secret, passcode));
+
+        TotpReplayGuard guard = TotpReplayGuard.of(parameters);
+        Assertions.assertTrue(guard.verify(verifier, "bar", passcode, now + 60_000));
+        Assertions.assertFalse(guard.verify(verifier, "bar", passcode, now + 60_000));
+    }
+
+    @Test
+    public void testUri() {
+        Assertions.assertFalse(TotpUtils.generate("Foo", "bar").contains("algorithm="));
+        String uri = TotpUtils.generate("Foo", "bar", TotpParameters.of(OtpAlgorithm.SHA512, 8, 60, 1, 1));
+        Assertions.assertTrue(uri.endsWith("&digits=8&period=60&algorithm=SHA512"), uri);
+    }
+
+    private static void assertCode(String secret, OtpAlgorithm algorithm, long seconds, String expected) {
+        TotpParameters parameters = TotpParameters.of(algorithm, 8, 30, 1, 1);
+        Assertions.assertEquals(expected, TotpVerifier.of(secret, parameters, Clock.systemUTC()).generateCode(seconds * 1000));
+        Clock clock = Clock.fixed(Instant.ofEpochSecond(seconds), ZoneOffset.UTC);
+        Assertions.assertEquals(expected, TotpUtils.generateCode(secret, parameters, clock));
+    }
+
+    private static String seed(String ascii) {
+        return new Base32().encodeAsString(ascii.getBytes(StandardCharsets.US_ASCII));
+    }
+
+}
@@ -0,0 +1,84 @@
+package cn.lance.crypto;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class TotpReplayGuardTest {
+
+    private static final String SECRET = "GEZDGNBVGY3TQOJQGEZDGNBVGY3TQOJQ";
+
+    private static final long TIME = 1234567890_000L;
+
+    @Test
+    public void testReplay() {
+        TotpVerifier verifier = TotpVerifier.of(SECRET);
+        TotpReplayGuard guard = TotpReplayGuard.create();
+        String passcode = verifier.generateCode(TIME);
+
+        Assertions.assertEquals(TIME / 1000 / 30, verifier.match(passcode, TIME));
+        Assertions.assertTrue(guard.verify(verifier, "alice", passcode, TIME));
+        Assertions.assertFalse(guard.verify(verifier, "alice", passcode, TIME));
+        // 窗口内稍后重放同样被拒绝
+        Assertions.assertFalse(guard.verify(verifier, "alice", passcode, TIME + 60_000L));
+        // 其他账号不受影响（示例中共用密钥）
+        Assertions.assertTrue(guard.verify(verifier, "bob", passcode, TIME));
+        // 下一个时间步的新密码可以使用
+        Assertions.assertTrue(guard.verify(verifier, "alice", verifier.generateCode(TIME + 30_000L), TIME + 30_000L));
+        Assertions.assertFalse(guard.verify(verifier, "alice", "000000", TIME));
+    }
+
+    @Test
+    public void testBucketsExpire() {
+        TotpReplayGuard guard = TotpReplayGuard.create();
+        long interval = 1_000_000L;
+        for (int account = 0; account < 1000; account++) {
+            Assertions.assertTrue(guard.markUsed("user-" + account, interval, interval));
+        }
+        Assertions.assertEquals(1000, guard.size());
+        Assertions.assertFalse(guard.markUsed("user-1", interval, interval + 3));
+        Assertions.assertFalse(guard.markUsed("user-1", interval, interval + 4));
+        Assertions.assertFalse(guard.markUsed("user-1", interval + 4, interval));
+
+        // 占用同一槽位的新时间步整桶替换旧记录
+        Assertions.assertTrue(guard.markUsed("user-1", interval + 8, interval + 8));
+        Assertions.assertEquals(1, guard.size());
+        // 旧时间步已不在窗口内
+        Assertions.assertFalse(guard.markUsed("user-2", interval, interval + 8));
+    }
+
+    @Test
+    public void testConcurrent() throws Exception {
+        TotpReplayGuard guard = TotpReplayGuard.create();
+        long interval = 2_000_000L;
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    int accepted = 0;
+                    for (int account = 0; account < 10_000; account++) {
+                        if (guard.markUsed("user-" + account, interval, interval)) {
+                            accepted++;
+                        }
+                    }
+                    return accepted;
+                }));
+            }
+            int accepted = 0;
+            for (Future<Integer> future : futures) {
+                accepted += future.get();
+            }
+            // 每个账号只有一次成功
+            Assertions.assertEquals(10_000, accepted);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,43 @@
+package cn.lance.crypto;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * 批量校验的耗时和内存分配，结果受机器负载、JIT和GC影响，不在单元测试中运行：{@code mvn test -Dtest=TotpSecretStoreBenchmark}
+ */
+public class TotpSecretStoreBenchmark {
+
+    @Test
+    public void benchmarkBatchVerify() {
+        int size = 1000;
+        TotpSecretStore store = TotpSecretStore.allocate(size);
+        int[] accountIds = new int[size];
+        int[] passcodes = new int[size];
+        for (int i = 0; i < size; i++) {
+            store.put(i, TotpUtils.getSecretFromUri(TotpUtils.generate("Foo", "bar" + i)));
+            accountIds[i] = i;
+            // 不存在的密码需要检查全部7个时间步
+            passcodes[i] = 1_000_000 - 1 - i;
+        }
+        long now = System.currentTimeMillis();
+
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        // warm up
+        for (int i = 0; i < 20; i++) {
+            store.verify(accountIds, passcodes, now);
+        }
+
+        long allocatedBefore = threadMXBean.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        int rounds = 20;
+        for (int i = 0; i < rounds; i++) {
+            store.verify(accountIds, passcodes, now);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        System.out.println("TotpSecretStore.verify: " + elapsed / rounds / size + "ns/account, " + allocated / rounds / size + " B/account");
+    }
+
+}
@@ -0,0 +1,81 @@
+package cn.lance.crypto;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+public class TotpSecretStoreTest {
+
+    /**
+     * RFC 6238 附录B的SHA1密钥 "12345678901234567890"
+     */
+    private static final String SECRET = "GEZDGNBVGY3TQOJQGEZDGNBVGY3TQOJQ";
+
+    @Test
+    public void testRfc6238Vectors() {
+        TotpSecretStore store = TotpSecretStore.allocate(16);
+        store.put(3, SECRET);
+        Assertions.assertTrue(store.contains(3));
+        Assertions.assertFalse(store.contains(4));
+
+        Assertions.assertEquals(1234567890L / 30, store.match(3, "005924", 1234567890_000L));
+        Assertions.assertEquals(2000000000L / 30, store.match(3, "279037", 2000000000_000L));
+        // 前后3个时间步内有效
+        Assertions.assertTrue(store.match(3, "005924", 1234567890_000L + 90_000L) >= 0);
+        Assertions.assertEquals(-1, store.match(3, "005924", 1234567890_000L + 150_000L));
+        Assertions.assertEquals(-1, store.match(3, "00592a", 1234567890_000L));
+        // 未保存密钥
+        Assertions.assertEquals(-1, store.match(4, "005924", 1234567890_000L));
+
+        store.remove(3);
+        Assertions.assertFalse(store.contains(3));
+        Assertions.assertEquals(-1, store.match(3, "005924", 1234567890_000L));
+
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> store.put(16, SECRET));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> store.put(0, new byte[21]));
+    }
+
+    @Test
+    public void testBatchCompatibleWithTotpUtils() {
+        int size = 5000;
+        TotpSecretStore store = TotpSecretStore.allocate(size);
+        String[] secrets = new String[size];
+        int[] accountIds = new int[size];
+        String[] passcodes = new String[size];
+        for (int i = 0; i < size; i++) {
+            secrets[i] = TotpUtils.getSecretFromUri(TotpUtils.generate("Foo", "bar" + i));
+            store.put(i, secrets[i]);
+            accountIds[i] = size - 1 - i;
+        }
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < size; i++) {
+            String passcode = TotpVerifier.of(secrets[accountIds[i]]).generateCode(now);
+            // 奇数位置使用其他账号的密码
+            passcodes[i] = i % 2 == 0 ? passcode : TotpVerifier.of(secrets[i]).generateCode(now);
+        }
+
+        boolean[] results = store.verify(accountIds, passcodes, now);
+        for (int i = 0; i < size; i++) {
+            boolean expected = TotpVerifier.of(secrets[accountIds[i]]).verify(passcodes[i], now);
+            Assertions.assertEquals(expected, results[i], "index " + i);
+            if (i % 2 == 0) {
+                Assertions.assertTrue(results[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testMappedFile(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("secrets.bin");
+        TotpSecretStore store = TotpSecretStore.map(file, 1000);
+        store.put(999, SECRET);
+        store.flush();
+
+        TotpSecretStore reopened = TotpSecretStore.map(file, 1000);
+        Assertions.assertTrue(reopened.contains(999));
+        Assertions.assertTrue(reopened.match(999, "005924", 1234567890_000L) >= 0);
+    }
+
+}
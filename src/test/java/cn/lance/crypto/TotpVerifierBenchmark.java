@@ -0,0 +1,45 @@
+package cn.lance.crypto;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * 校验耗时和内存分配，结果受机器负载、JIT和GC影响，不在单元测试中运行：{@code mvn test -Dtest=TotpVerifierBenchmark}
+ */
+public class TotpVerifierBenchmark {
+
+    @Test
+    public void benchmarkVerify() {
+        String secret = TotpUtils.getSecretFromUri(TotpUtils.generate("Foo", "bar"));
+        TotpVerifier verifier = TotpVerifier.of(secret);
+        // 不存在的密码需要检查全部7个时间步，是最坏情况
+        String wrong = TotpVerifier.format((Integer.parseInt(TotpUtils.generateCode(secret)) + 500_000) % 1_000_000, 6);
+        long now = System.currentTimeMillis();
+        int rounds = 20_000;
+
+        long[] utils = measure(rounds, () -> Assertions.assertFalse(TotpUtils.verify(secret, wrong)));
+        long[] hot = measure(rounds, () -> Assertions.assertFalse(verifier.verify(wrong, now)));
+        System.out.println("TotpUtils.verify: " + utils[0] + "ns/op, " + utils[1] + " B/op");
+        System.out.println("TotpVerifier.verify: " + hot[0] + "ns/op, " + hot[1] + " B/op");
+    }
+
+    private static long[] measure(int rounds, Runnable runnable) {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        // warm up
+        for (int i = 0; i < rounds; i++) {
+            runnable.run();
+        }
+
+        long allocatedBefore = threadMXBean.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            runnable.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        return new long[]{elapsed / rounds, allocated / rounds};
+    }
+
+}
@@ -0,0 +1,42 @@
+package cn.lance.crypto;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TotpVerifierTest {
+
+    /**
+     * RFC 6238 附录B的SHA1密钥 "12345678901234567890"
+     */
+    private static final String SECRET = "GEZDGNBVGY3TQOJQGEZDGNBVGY3TQOJQ";
+
+    @Test
+    public void testRfc6238Vectors() {
+        TotpVerifier verifier = TotpVerifier.of(SECRET);
+        Assertions.assertEquals("287082", verifier.generateCode(59_000L));
+        Assertions.assertEquals("081804", verifier.generateCode(1111111109_000L));
+        Assertions.assertEquals("050471", verifier.generateCode(1111111111_000L));
+        Assertions.assertEquals("005924", verifier.generateCode(1234567890_000L));
+        Assertions.assertEquals("279037", verifier.generateCode(2000000000_000L));
+
+        Assertions.assertTrue(verifier.verify("005924", 1234567890_000L));
+        // 前后3个时间步内有效
+        Assertions.assertTrue(verifier.verify("005924", 1234567890_000L + 90_000L));
+        Assertions.assertTrue(verifier.verify("005924", 1234567890_000L - 90_000L));
+        Assertions.assertFalse(verifier.verify("005924", 1234567890_000L + 150_000L));
+        Assertions.assertFalse(verifier.verify("5924", 1234567890_000L));
+        Assertions.assertFalse(verifier.verify("00592a", 1234567890_000L));
+        Assertions.assertFalse(verifier.verify("0059240", 1234567890_000L));
+    }
+
+    @Test
+    public void testCompatibleWithTotpUtils() {
+        String secret = TotpUtils.getSecretFromUri(TotpUtils.generate("Foo", "bar"));
+        TotpVerifier verifier = TotpVerifier.of(secret);
+
+        String passcode = TotpUtils.generateCode(secret);
+        Assertions.assertTrue(verifier.verify(passcode));
+        Assertions.assertTrue(TotpUtils.verify(secret, verifier.generateCode()));
+    }
+
+}
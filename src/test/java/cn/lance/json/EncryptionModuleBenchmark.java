@@ -0,0 +1,40 @@
+package cn.lance.json;
+
+import cn.lance.crypto.AesKey;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.security.InvalidKeyException;
+import java.util.List;
+
+/**
+ * 加密字段单遍读写的耗时，结果受机器负载和JIT影响，不在单元测试中运行：{@code mvn test -Dtest=EncryptionModuleBenchmark}
+ */
+public class EncryptionModuleBenchmark {
+
+    @BeforeAll
+    public static void registerKeys() throws InvalidKeyException {
+        JsonUtils.registerEncryptionKey(EncryptionModule.DEFAULT_KEY_ID, AesKey.of(new byte[32]));
+        JsonUtils.registerEncryptionKey("pii", AesKey.of(new byte[16]));
+    }
+
+    @Test
+    public void benchmarkOnePassThroughput() throws Exception {
+        EncryptionModuleTest.Account account = new EncryptionModuleTest.Account();
+        account.setName("dave");
+        account.setEmail("dave@example.com");
+        account.setAge(42);
+        account.setPhones(List.of("+86 138 0000 0000"));
+
+        int n = 20_000;
+        for (int i = 0; i < n; i++) {
+            JsonUtils.read(JsonUtils.write(account), EncryptionModuleTest.Account.class);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            JsonUtils.read(JsonUtils.write(account), EncryptionModuleTest.Account.class);
+        }
+        System.out.printf("encrypted write+read: %.1fus/doc%n", (System.nanoTime() - start) / 1e3 / n);
+    }
+
+}
@@ -0,0 +1,111 @@
+package cn.lance.json;
+
+import cn.lance.crypto.AesKey;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Data;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.security.InvalidKeyException;
+import java.util.List;
+
+public class EncryptionModuleTest {
+
+    @BeforeAll
+    public static void registerKeys() throws InvalidKeyException {
+        JsonUtils.registerEncryptionKey(EncryptionModule.DEFAULT_KEY_ID, AesKey.of(new byte[32]));
+        JsonUtils.registerEncryptionKey("pii", AesKey.of(new byte[16]));
+    }
+
+    @Test
+    public void testRoundTrip() throws JsonProcessingException {
+        Account account = new Account();
+        account.setName("alice");
+        account.setEmail("alice@example.com");
+        account.setAge(30);
+        account.setPhones(List.of("+86 138 0000 0000", "+1 555 0100"));
+
+        String json = JsonUtils.write(account);
+        System.out.println("Encrypted JSON: " + json);
+        Assertions.assertTrue(json.contains("\"name\":\"alice\""));
+        Assertions.assertFalse(json.contains("alice@example.com"));
+        Assertions.assertFalse(json.contains("555"));
+        Assertions.assertTrue(JsonUtils.readTree(json).get("age").isTextual());
+
+        Account read = JsonUtils.read(json, Account.class);
+        Assertions.assertEquals(account, read);
+
+        // copies share the registered keys
+        Assertions.assertEquals(account, JsonUtils.getNewObjectMapper().readValue(json, Account.class));
+    }
+
+    @Test
+    public void testNullNotEncrypted() throws JsonProcessingException {
+        Account account = new Account();
+        account.setName("bob");
+
+        String json = JsonUtils.write(account);
+        Assertions.assertTrue(json.contains("\"email\":null"));
+        Assertions.assertEquals(account, JsonUtils.read(json, Account.class));
+    }
+
+    @Test
+    public void testTamperedAndMovedField() throws IOException {
+        Account account = new Account();
+        account.setEmail("carol@example.com");
+        account.setNickname("carol");
+        ObjectMapper mapper = JsonUtils.getDefaultObjectMapper();
+        ObjectNode node = (ObjectNode) mapper.readTree(JsonUtils.write(account));
+
+        // the property name is authenticated, so a ciphertext cannot be moved to another field
+        ObjectNode moved = node.deepCopy();
+        moved.set("nickname", node.get("email"));
+        Assertions.assertThrows(JsonMappingException.class, () -> JsonUtils.read(mapper.writeValueAsString(moved), Account.class));
+
+        ObjectNode tampered = node.deepCopy();
+        byte[] bytes = node.get("email").binaryValue();
+        bytes[bytes.length - 1] ^= 1;
+        tampered.put("email", bytes);
+        Assertions.assertThrows(JsonMappingException.class, () -> JsonUtils.read(mapper.writeValueAsString(tampered), Account.class));
+    }
+
+    @Test
+    public void testMissingKey() {
+        Secret secret = new Secret();
+        secret.setValue("top secret");
+        Assertions.assertThrows(JsonMappingException.class, () -> JsonUtils.write(secret));
+    }
+
+    @Data
+    public static class Account {
+
+        private String name;
+
+        @Encrypted
+        private String email;
+
+        @Encrypted
+        private String nickname;
+
+        @Encrypted("pii")
+        private Integer age;
+
+        @Encrypted("pii")
+        private List<String> phones;
+
+    }
+
+    @Data
+    public static class Secret {
+
+        @Encrypted("unregistered")
+        private String value;
+
+    }
+
+}